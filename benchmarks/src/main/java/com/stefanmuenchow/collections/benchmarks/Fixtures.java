@@ -0,0 +1,150 @@
+/**
+ * Copyright (c) Stefan Muenchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import com.stefanmuenchow.collections.SmartArrayList;
+import com.stefanmuenchow.collections.SmartCollection;
+import com.stefanmuenchow.collections.SmartHashMap;
+import com.stefanmuenchow.collections.SmartHashSet;
+import com.stefanmuenchow.collections.SmartLinkedList;
+import com.stefanmuenchow.collections.SmartLinkedQueue;
+import com.stefanmuenchow.collections.SmartList;
+import com.stefanmuenchow.collections.SmartMap;
+import com.stefanmuenchow.collections.SmartSet;
+import com.stefanmuenchow.collections.SmartTreeMap;
+import com.stefanmuenchow.collections.SmartTreeSet;
+import com.stefanmuenchow.collections.function.BinaryFunction;
+import com.stefanmuenchow.collections.function.MapPredicate;
+import com.stefanmuenchow.collections.function.Predicate;
+import com.stefanmuenchow.collections.function.UnaryFunction;
+
+/**
+ * Test data and functions shared by all benchmarks. The data is generated
+ * from a fixed seed, so every run and every implementation sees the same
+ * elements. Values are drawn from [0, size), so lists contain duplicates and
+ * sets are smaller than size.
+ *
+ * @author Stefan Muenchow
+ */
+final class Fixtures {
+    static final long SEED = 42L;
+
+    static final Predicate<Integer> IS_EVEN = new Predicate<Integer>() {
+        @Override
+        public boolean test(final Integer input) {
+            return input % 2 == 0;
+        }
+    };
+
+    static final Predicate<Integer> IS_NEGATIVE = new Predicate<Integer>() {
+        @Override
+        public boolean test(final Integer input) {
+            return input < 0;
+        }
+    };
+
+    static final Predicate<Integer> IS_POSITIVE = new Predicate<Integer>() {
+        @Override
+        public boolean test(final Integer input) {
+            return input >= 0;
+        }
+    };
+
+    static final UnaryFunction<Integer, Integer> TIMES_TWO = new UnaryFunction<Integer, Integer>() {
+        @Override
+        public Integer apply(final Integer input) {
+            return input * 2;
+        }
+    };
+
+    static final BinaryFunction<Integer, Integer> SUM = new BinaryFunction<Integer, Integer>() {
+        @Override
+        public Integer apply(final Integer input1, final Integer input2) {
+            return input1 + input2;
+        }
+    };
+
+    static final MapPredicate<Integer, Integer> IS_EVEN_ENTRY = new MapPredicate<Integer, Integer>() {
+        @Override
+        public boolean test(final Integer key, final Integer val) {
+            return val % 2 == 0;
+        }
+    };
+
+    private Fixtures() {
+    }
+
+    /** Data */
+
+    static List<Integer> randomInts(final int size, final long seed) {
+        Random random = new Random(seed);
+        List<Integer> result = new ArrayList<Integer>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(random.nextInt(size));
+        }
+
+        return result;
+    }
+
+    static List<Integer> randomInts(final int size) {
+        return randomInts(size, SEED);
+    }
+
+    /** Implementations */
+
+    static SmartCollection<Integer> newCollection(final String impl, final Collection<Integer> elems) {
+        if ("SmartArrayList".equals(impl) || "SmartLinkedList".equals(impl)) {
+            return newList(impl, elems);
+        } else if ("SmartHashSet".equals(impl) || "SmartTreeSet".equals(impl)) {
+            return newSet(impl, elems);
+        } else if ("SmartLinkedQueue".equals(impl)) {
+            return new SmartLinkedQueue<Integer>(elems);
+        }
+
+        throw new IllegalArgumentException("Unknown collection implementation " + impl);
+    }
+
+    static SmartList<Integer> newList(final String impl, final Collection<Integer> elems) {
+        if ("SmartArrayList".equals(impl)) {
+            return new SmartArrayList<Integer>(elems);
+        } else if ("SmartLinkedList".equals(impl)) {
+            return new SmartLinkedList<Integer>(elems);
+        }
+
+        throw new IllegalArgumentException("Unknown list implementation " + impl);
+    }
+
+    static SmartSet<Integer> newSet(final String impl, final Collection<Integer> elems) {
+        if ("SmartHashSet".equals(impl)) {
+            return new SmartHashSet<Integer>(elems);
+        } else if ("SmartTreeSet".equals(impl)) {
+            return new SmartTreeSet<Integer>(elems);
+        }
+
+        throw new IllegalArgumentException("Unknown set implementation " + impl);
+    }
+
+    static SmartMap<Integer, Integer> newMap(final String impl, final Map<Integer, Integer> entries) {
+        if ("SmartHashMap".equals(impl)) {
+            return new SmartHashMap<Integer, Integer>(entries);
+        } else if ("SmartTreeMap".equals(impl)) {
+            return new SmartTreeMap<Integer, Integer>(entries);
+        }
+
+        throw new IllegalArgumentException("Unknown map implementation " + impl);
+    }
+}
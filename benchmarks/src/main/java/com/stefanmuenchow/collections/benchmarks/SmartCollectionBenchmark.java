@@ -0,0 +1,279 @@
+/**
+ * Copyright (c) Stefan Muenchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.stefanmuenchow.collections.SmartArrayList;
+import com.stefanmuenchow.collections.SmartCollection;
+import com.stefanmuenchow.collections.function.Predicate;
+
+/**
+ * Benchmarks the methods of SmartCollection for every implementation. Methods
+ * that change the collection in place work on a fresh copy, which is created
+ * inside the measured method. The copy benchmark measures this copy alone, so
+ * its score has to be subtracted from the scores of the mutating methods.
+ * Methods prefixed with loop and stream are baselines written against the
+ * plain java.util API.
+ *
+ * @author Stefan Muenchow
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class SmartCollectionBenchmark {
+
+    @Param({ "SmartArrayList", "SmartLinkedList", "SmartHashSet", "SmartTreeSet", "SmartLinkedQueue" })
+    public String impl;
+
+    @Param({ "10", "1000", "100000", "10000000" })
+    public int size;
+
+    private SmartCollection<Integer> source;
+    private Map<Integer, Integer> replacements;
+    private SmartCollection<List<Integer>> nested;
+    private int target;
+    private Predicate<Integer> isTarget;
+
+    @Setup
+    public void setUp() {
+        source = Fixtures.newCollection(impl, Fixtures.randomInts(size));
+
+        // The last element in iteration order, so find has to scan (nearly) all
+        for (Integer elem : source) {
+            target = elem;
+        }
+        isTarget = new Predicate<Integer>() {
+            @Override
+            public boolean test(final Integer input) {
+                return input == target;
+            }
+        };
+
+        replacements = new HashMap<Integer, Integer>();
+        for (int i = 0; i < size; i += 10) {
+            replacements.put(i, -i);
+        }
+
+        List<List<Integer>> chunks = new ArrayList<List<Integer>>();
+        List<Integer> elems = Fixtures.randomInts(size);
+        for (int i = 0; i < elems.size(); i += 10) {
+            chunks.add(new ArrayList<Integer>(elems.subList(i, Math.min(i + 10, elems.size()))));
+        }
+        nested = new SmartArrayList<List<Integer>>(chunks);
+    }
+
+    private SmartCollection<Integer> copy() {
+        return Fixtures.newCollection(impl, source);
+    }
+
+    /** SmartCollection methods */
+
+    @Benchmark
+    public Object copyOnly() {
+        return copy();
+    }
+
+    @Benchmark
+    public Object filter() {
+        SmartCollection<Integer> coll = copy();
+        coll.filter(Fixtures.IS_EVEN);
+        return coll;
+    }
+
+    @Benchmark
+    public Object remove() {
+        SmartCollection<Integer> coll = copy();
+        coll.remove(Fixtures.IS_EVEN);
+        return coll;
+    }
+
+    @Benchmark
+    public Object replaceElement() {
+        SmartCollection<Integer> coll = copy();
+        coll.replace(Integer.valueOf(0), Integer.valueOf(-1));
+        return coll;
+    }
+
+    @Benchmark
+    public Object replacePredicate() {
+        SmartCollection<Integer> coll = copy();
+        coll.replace(Fixtures.IS_EVEN, Integer.valueOf(-1));
+        return coll;
+    }
+
+    @Benchmark
+    public Object replaceMap() {
+        SmartCollection<Integer> coll = copy();
+        coll.replace(replacements);
+        return coll;
+    }
+
+    @Benchmark
+    public Object find() {
+        return source.find(isTarget);
+    }
+
+    @Benchmark
+    public Object map() {
+        return source.map(Fixtures.TIMES_TWO);
+    }
+
+    @Benchmark
+    public Object viewFilterMapCount() {
+        return source.view().filter(Fixtures.IS_EVEN).map(Fixtures.TIMES_TWO).count();
+    }
+
+    @Benchmark
+    public Object reduceInitial() {
+        return source.reduce(0, Fixtures.SUM);
+    }
+
+    @Benchmark
+    public Object reduce() {
+        return source.reduce(Fixtures.SUM);
+    }
+
+    @Benchmark
+    public Object join() {
+        return source.join(",");
+    }
+
+    @Benchmark
+    public int count() {
+        return source.count(Fixtures.IS_EVEN);
+    }
+
+    @Benchmark
+    public boolean exists() {
+        return source.exists(Fixtures.IS_NEGATIVE);
+    }
+
+    @Benchmark
+    public boolean forall() {
+        return source.forall(Fixtures.IS_POSITIVE);
+    }
+
+    @Benchmark
+    public Object flatten() {
+        return nested.flatten();
+    }
+
+    @Benchmark
+    public Object castAllElements() {
+        return source.castAllElements(Number.class);
+    }
+
+    @Benchmark
+    public Object toArray() {
+        return source.toArray(Integer.class);
+    }
+
+    /** java.util baselines */
+
+    @Benchmark
+    public Object loopFilter() {
+        SmartCollection<Integer> coll = copy();
+        for (Iterator<Integer> it = coll.iterator(); it.hasNext();) {
+            if (it.next() % 2 != 0) {
+                it.remove();
+            }
+        }
+        return coll;
+    }
+
+    @Benchmark
+    public Object removeIfFilter() {
+        SmartCollection<Integer> coll = copy();
+        coll.removeIf(e -> e % 2 != 0);
+        return coll;
+    }
+
+    @Benchmark
+    public Object streamFind() {
+        return source.stream().filter(e -> e == target).findFirst().get();
+    }
+
+    @Benchmark
+    public Object loopMap() {
+        List<Integer> result = new ArrayList<Integer>(source.size());
+        for (Integer elem : source) {
+            result.add(elem * 2);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public Object streamMap() {
+        return source.stream().map(e -> e * 2).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public int loopReduce() {
+        int result = 0;
+        for (Integer elem : source) {
+            result += elem;
+        }
+        return result;
+    }
+
+    @Benchmark
+    public int streamReduce() {
+        return source.stream().reduce(0, Integer::sum);
+    }
+
+    @Benchmark
+    public long streamFilterMapCount() {
+        return source.stream().filter(e -> e % 2 == 0).map(e -> e * 2).count();
+    }
+
+    @Benchmark
+    public int loopCount() {
+        int counter = 0;
+        for (Integer elem : source) {
+            if (elem % 2 == 0) {
+                counter++;
+            }
+        }
+        return counter;
+    }
+
+    @Benchmark
+    public boolean streamExists() {
+        return source.stream().anyMatch(e -> e < 0);
+    }
+
+    @Benchmark
+    public Object streamJoin() {
+        return source.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+}
@@ -0,0 +1,246 @@
+/**
+ * Copyright (c) Stefan Muenchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.stefanmuenchow.collections.SmartArrayList;
+import com.stefanmuenchow.collections.SmartList;
+import com.stefanmuenchow.collections.function.Predicate;
+
+/**
+ * Benchmarks the methods of SmartList for every list implementation. Like in
+ * SmartCollectionBenchmark, mutating methods include the copy measured by
+ * copyOnly. The parallel methods exist only for SmartArrayList and are run
+ * on an array backed copy for the other implementations.
+ *
+ * @author Stefan Muenchow
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class SmartListBenchmark {
+
+    @Param({ "SmartArrayList", "SmartLinkedList" })
+    public String impl;
+
+    @Param({ "10", "1000", "100000", "10000000" })
+    public int size;
+
+    private SmartList<Integer> source;
+    private SmartArrayList<Integer> arraySource;
+    private List<Integer> other;
+    private Predicate<Integer> belowHalf;
+    private Predicate<Integer> notBelowHalf;
+
+    @Setup
+    public void setUp() {
+        source = Fixtures.newList(impl, Fixtures.randomInts(size));
+        arraySource = new SmartArrayList<Integer>(source);
+        other = Fixtures.randomInts(size, Fixtures.SEED + 1);
+
+        final int half = size / 2;
+        belowHalf = new Predicate<Integer>() {
+            @Override
+            public boolean test(final Integer input) {
+                return input < half;
+            }
+        };
+        notBelowHalf = new Predicate<Integer>() {
+            @Override
+            public boolean test(final Integer input) {
+                return input >= half;
+            }
+        };
+    }
+
+    private SmartList<Integer> copy() {
+        return Fixtures.newList(impl, source);
+    }
+
+    /** SmartList methods */
+
+    @Benchmark
+    public Object copyOnly() {
+        return copy();
+    }
+
+    @Benchmark
+    public Object head() {
+        return source.head();
+    }
+
+    @Benchmark
+    public Object tail() {
+        return source.tail();
+    }
+
+    @Benchmark
+    public Object last() {
+        return source.last();
+    }
+
+    @Benchmark
+    public Object getWithDefault() {
+        return source.get(size / 2, -1);
+    }
+
+    @Benchmark
+    public Object take() {
+        return source.take(size / 2);
+    }
+
+    @Benchmark
+    public Object drop() {
+        return source.drop(size / 2);
+    }
+
+    @Benchmark
+    public Object takeWhile() {
+        return source.takeWhile(belowHalf);
+    }
+
+    @Benchmark
+    public Object dropWhile() {
+        return source.dropWhile(notBelowHalf);
+    }
+
+    @Benchmark
+    public Object removeDuplicates() {
+        SmartList<Integer> list = copy();
+        list.removeDuplicates();
+        return list;
+    }
+
+    @Benchmark
+    public Object intersperse() {
+        SmartList<Integer> list = copy();
+        list.intersperse(-1);
+        return list;
+    }
+
+    @Benchmark
+    public Object zipWith() {
+        return source.zipWith(other);
+    }
+
+    @Benchmark
+    public Object getIndicesList() {
+        return source.getIndicesList();
+    }
+
+    @Benchmark
+    public Object getOccurenceCountMap() {
+        return source.getOccurenceCountMap();
+    }
+
+    @Benchmark
+    public Object getOccurenceCounts() {
+        return source.getOccurenceCounts();
+    }
+
+    @Benchmark
+    public Object reverse() {
+        SmartList<Integer> list = copy();
+        list.reverse();
+        return list;
+    }
+
+    @Benchmark
+    public int sizeWithoutNulls() {
+        return source.sizeWithoutNulls();
+    }
+
+    /** SmartArrayList parallel methods */
+
+    @Benchmark
+    public Object parallelMap() {
+        return arraySource.parallelMap(Fixtures.TIMES_TWO);
+    }
+
+    @Benchmark
+    public Object parallelReduce() {
+        return arraySource.parallelReduce(Fixtures.SUM);
+    }
+
+    @Benchmark
+    public int parallelCount() {
+        return arraySource.parallelCount(Fixtures.IS_EVEN);
+    }
+
+    @Benchmark
+    public boolean parallelExists() {
+        return arraySource.parallelExists(Fixtures.IS_NEGATIVE);
+    }
+
+    /** java.util baselines */
+
+    @Benchmark
+    public Object loopRemoveDuplicates() {
+        return new ArrayList<Integer>(new LinkedHashSet<Integer>(source));
+    }
+
+    @Benchmark
+    public Object streamDistinct() {
+        return source.stream().distinct().collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public Object loopOccurenceCount() {
+        Map<Integer, Integer> result = new HashMap<Integer, Integer>();
+        for (Integer elem : source) {
+            result.merge(elem, 1, Integer::sum);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public Object streamOccurenceCount() {
+        return source.stream().collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+    }
+
+    @Benchmark
+    public Object subListTake() {
+        return new ArrayList<Integer>(source.subList(0, size / 2));
+    }
+
+    @Benchmark
+    public Object parallelStreamMap() {
+        return arraySource.parallelStream().map(e -> e * 2).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public int parallelStreamReduce() {
+        return arraySource.parallelStream().reduce(0, Integer::sum);
+    }
+}
@@ -0,0 +1,288 @@
+/**
+ * Copyright (c) Stefan Muenchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.stefanmuenchow.collections.KeyValuePair;
+import com.stefanmuenchow.collections.SmartMap;
+import com.stefanmuenchow.collections.function.BinaryFunction;
+import com.stefanmuenchow.collections.function.MapPredicate;
+import com.stefanmuenchow.collections.function.UnaryFunction;
+
+/**
+ * Benchmarks the methods of SmartMap for every map implementation. Keys are
+ * the indices 0 to size - 1, values are random. Mutating methods include the
+ * copy measured by copyOnly. The swap benchmarks use a second map whose values
+ * are a permutation of the keys, because swap requires a bijective map.
+ *
+ * @author Stefan Muenchow
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class SmartMapBenchmark {
+    private static final UnaryFunction<KeyValuePair<Integer, Integer>, Map.Entry<Integer, Integer>> SWAP =
+        new UnaryFunction<KeyValuePair<Integer, Integer>, Map.Entry<Integer, Integer>>() {
+            @Override
+            public KeyValuePair<Integer, Integer> apply(final Map.Entry<Integer, Integer> input) {
+                return new KeyValuePair<Integer, Integer>(input.getValue(), input.getKey());
+            }
+        };
+
+    private static final BinaryFunction<Integer, Map.Entry<Integer, Integer>> SUM_VALUES =
+        new BinaryFunction<Integer, Map.Entry<Integer, Integer>>() {
+            @Override
+            public Integer apply(final Integer input1, final Map.Entry<Integer, Integer> input2) {
+                return input1 + input2.getValue();
+            }
+        };
+
+    @Param({ "SmartHashMap", "SmartTreeMap" })
+    public String impl;
+
+    @Param({ "10", "1000", "100000", "10000000" })
+    public int size;
+
+    private SmartMap<Integer, Integer> source;
+    private SmartMap<Integer, Integer> other;
+    private SmartMap<Integer, Integer> bijective;
+    private int target;
+    private MapPredicate<Integer, Integer> isTarget;
+
+    @Setup
+    public void setUp() {
+        source = Fixtures.newMap(impl, entries(Fixtures.randomInts(size), 0));
+        other = Fixtures.newMap(impl, entries(Fixtures.randomInts(size, Fixtures.SEED + 1), size / 2));
+
+        List<Integer> permutation = new ArrayList<Integer>(size);
+        for (int i = 0; i < size; i++) {
+            permutation.add(i);
+        }
+        Collections.shuffle(permutation, new Random(Fixtures.SEED));
+        bijective = Fixtures.newMap(impl, entries(permutation, 0));
+
+        // The last key in iteration order, so find has to scan all entries
+        for (Integer key : source.keySet()) {
+            target = key;
+        }
+        isTarget = new MapPredicate<Integer, Integer>() {
+            @Override
+            public boolean test(final Integer key, final Integer val) {
+                return key == target;
+            }
+        };
+    }
+
+    private static Map<Integer, Integer> entries(final List<Integer> values, final int firstKey) {
+        Map<Integer, Integer> result = new HashMap<Integer, Integer>();
+        for (int i = 0; i < values.size(); i++) {
+            result.put(firstKey + i, values.get(i));
+        }
+
+        return result;
+    }
+
+    private SmartMap<Integer, Integer> copy() {
+        return Fixtures.newMap(impl, source);
+    }
+
+    /** SmartMap methods */
+
+    @Benchmark
+    public Object copyOnly() {
+        return copy();
+    }
+
+    @Benchmark
+    public Object head() {
+        return source.head();
+    }
+
+    @Benchmark
+    public Object tail() {
+        return source.tail();
+    }
+
+    @Benchmark
+    public Object mergeWith() {
+        SmartMap<Integer, Integer> map = copy();
+        map.mergeWith(other, Fixtures.SUM);
+        return map;
+    }
+
+    @Benchmark
+    public Object getWithDefault() {
+        return source.get(size / 2, -1);
+    }
+
+    @Benchmark
+    public Object find() {
+        return source.find(isTarget);
+    }
+
+    @Benchmark
+    public Object filter() {
+        SmartMap<Integer, Integer> map = copy();
+        map.filter(Fixtures.IS_EVEN_ENTRY);
+        return map;
+    }
+
+    @Benchmark
+    public Object remove() {
+        SmartMap<Integer, Integer> map = copy();
+        map.remove(Fixtures.IS_EVEN_ENTRY);
+        return map;
+    }
+
+    @Benchmark
+    public Object replace() {
+        SmartMap<Integer, Integer> map = copy();
+        map.replace(size / 2, map.get(size / 2), -1, -1);
+        return map;
+    }
+
+    @Benchmark
+    public Object map() {
+        return source.map(SWAP);
+    }
+
+    @Benchmark
+    public Object reduce() {
+        return source.reduce(0, SUM_VALUES);
+    }
+
+    @Benchmark
+    public Object join() {
+        return source.join(",", "=");
+    }
+
+    @Benchmark
+    public int count() {
+        return source.count(Fixtures.IS_EVEN_ENTRY);
+    }
+
+    @Benchmark
+    public boolean exists() {
+        return source.exists(Fixtures.IS_EVEN_ENTRY);
+    }
+
+    @Benchmark
+    public boolean forall() {
+        return source.forall(Fixtures.IS_EVEN_ENTRY);
+    }
+
+    @Benchmark
+    public boolean isBijective() {
+        return source.isBijective();
+    }
+
+    @Benchmark
+    public Object swap() {
+        return bijective.swap();
+    }
+
+    /** java.util baselines */
+
+    @Benchmark
+    public Object loopFilter() {
+        SmartMap<Integer, Integer> map = copy();
+        for (Iterator<Map.Entry<Integer, Integer>> it = map.entrySet().iterator(); it.hasNext();) {
+            if (it.next().getValue() % 2 != 0) {
+                it.remove();
+            }
+        }
+        return map;
+    }
+
+    @Benchmark
+    public Object loopFind() {
+        for (Map.Entry<Integer, Integer> entry : source.entrySet()) {
+            if (entry.getKey() == target) {
+                return entry.getValue();
+            }
+        }
+        throw new NoSuchElementException();
+    }
+
+    @Benchmark
+    public Object streamFind() {
+        return source.entrySet().stream().filter(e -> e.getKey() == target).findFirst().get().getValue();
+    }
+
+    @Benchmark
+    public Object loopMerge() {
+        SmartMap<Integer, Integer> map = copy();
+        for (Map.Entry<Integer, Integer> entry : other.entrySet()) {
+            map.merge(entry.getKey(), entry.getValue(), Integer::sum);
+        }
+        return map;
+    }
+
+    @Benchmark
+    public int loopReduce() {
+        int result = 0;
+        for (Integer value : source.values()) {
+            result += value;
+        }
+        return result;
+    }
+
+    @Benchmark
+    public long streamCount() {
+        return source.stream().filter(e -> e.getValue() % 2 == 0).count();
+    }
+
+    @Benchmark
+    public Object loopSwap() {
+        Map<Integer, Integer> result = new HashMap<Integer, Integer>();
+        for (Map.Entry<Integer, Integer> entry : bijective.entrySet()) {
+            if (result.put(entry.getValue(), entry.getKey()) != null) {
+                throw new UnsupportedOperationException("Map is not bijective!");
+            }
+        }
+        return result;
+    }
+
+    @Benchmark
+    public Object streamSwap() {
+        return bijective.entrySet().stream().collect(Collectors.toMap(Map.Entry::getValue, Map.Entry::getKey));
+    }
+
+    @Benchmark
+    public Object streamMap() {
+        return source.stream().collect(Collectors.toMap(Map.Entry::getValue, Map.Entry::getKey, (a, b) -> b));
+    }
+}
@@ -0,0 +1,155 @@
+/**
+ * Copyright (c) Stefan Muenchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections.benchmarks;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.stefanmuenchow.collections.SmartSet;
+
+/**
+ * Benchmarks the methods of SmartSet for every set implementation. The other
+ * set is of the same implementation and overlaps with the source set in
+ * about half of its elements. Mutating methods include the copy measured by
+ * copyOnly.
+ *
+ * @author Stefan Muenchow
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class SmartSetBenchmark {
+
+    @Param({ "SmartHashSet", "SmartTreeSet" })
+    public String impl;
+
+    @Param({ "10", "1000", "100000", "10000000" })
+    public int size;
+
+    private SmartSet<Integer> source;
+    private SmartSet<Integer> other;
+    private SmartSet<Integer> subset;
+
+    @Setup
+    public void setUp() {
+        source = Fixtures.newSet(impl, Fixtures.randomInts(size));
+        other = Fixtures.newSet(impl, Fixtures.randomInts(size, Fixtures.SEED + 1));
+        subset = Fixtures.newSet(impl, source);
+        subset.filter(Fixtures.IS_EVEN);
+    }
+
+    private SmartSet<Integer> copy() {
+        return Fixtures.newSet(impl, source);
+    }
+
+    /** SmartSet methods */
+
+    @Benchmark
+    public Object copyOnly() {
+        return copy();
+    }
+
+    @Benchmark
+    public boolean isSubsetOf() {
+        return subset.isSubsetOf(source);
+    }
+
+    @Benchmark
+    public boolean isProperSubsetOf() {
+        return subset.isProperSubsetOf(source);
+    }
+
+    @Benchmark
+    public boolean isSupersetOf() {
+        return source.isSupersetOf(subset);
+    }
+
+    @Benchmark
+    public boolean isProperSupersetOf() {
+        return source.isProperSupersetOf(subset);
+    }
+
+    @Benchmark
+    public Object union() {
+        SmartSet<Integer> set = copy();
+        set.union(other);
+        return set;
+    }
+
+    @Benchmark
+    public Object intersection() {
+        SmartSet<Integer> set = copy();
+        set.intersection(other);
+        return set;
+    }
+
+    @Benchmark
+    public Object difference() {
+        SmartSet<Integer> set = copy();
+        set.difference(other);
+        return set;
+    }
+
+    /** java.util baselines */
+
+    @Benchmark
+    public boolean containsAll() {
+        return source.containsAll(subset);
+    }
+
+    @Benchmark
+    public Object addAll() {
+        SmartSet<Integer> set = copy();
+        set.addAll(other);
+        return set;
+    }
+
+    @Benchmark
+    public Object retainAll() {
+        SmartSet<Integer> set = copy();
+        set.retainAll(other);
+        return set;
+    }
+
+    @Benchmark
+    public Object removeAll() {
+        SmartSet<Integer> set = copy();
+        set.removeAll(other);
+        return set;
+    }
+
+    @Benchmark
+    public Object loopIntersection() {
+        Set<Integer> result = new HashSet<Integer>();
+        for (Integer elem : source) {
+            if (other.contains(elem)) {
+                result.add(elem);
+            }
+        }
+        return result;
+    }
+}
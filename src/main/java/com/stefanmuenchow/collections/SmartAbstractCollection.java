@@ -15,8 +15,11 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.ListIterator;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Spliterator;
 
 import com.stefanmuenchow.collections.function.BinaryFunction;
 import com.stefanmuenchow.collections.function.Predicate;
@@ -36,6 +39,66 @@ public abstract class SmartAbstractCollection<E> implements SmartCollection<E> {
     protected abstract <T> SmartCollection<T> createNewInstance(
             Collection<T> aColl);
 
+    /**
+     * Removes all elements for which the predicate evaluates to
+     * <code>expected</code> in a single pass over the backing collection.
+     * Array backed lists are compacted in place with a read and a write
+     * index, all other collections are swept with their own iterator, which
+     * unlinks nodes of linked and tree structures and clears the buckets of
+     * hash tables without any additional lookups.
+     *
+     * @param predicate
+     *            Predicate
+     * @param expected
+     *            Predicate result of the elements to remove
+     */
+    protected void removeMatching(final Predicate<E> predicate, final boolean expected) {
+        if (internalColl instanceof List && internalColl instanceof RandomAccess) {
+            compact((List<E>) internalColl, predicate, expected);
+        } else {
+            sweep(internalColl.iterator(), predicate, expected);
+        }
+    }
+
+    private static <E> void compact(final List<E> list, final Predicate<E> predicate, final boolean expected) {
+        final int size = list.size();
+        int read = 0;
+        int write = 0;
+
+        try {
+            for (; read < size; read++) {
+                E elem = list.get(read);
+                if (predicate.test(elem) != expected) {
+                    if (write != read) {
+                        list.set(write, elem);
+                    }
+                    write++;
+                }
+            }
+        } finally {
+            // If the predicate failed, keep the untested rest of the list
+            for (; read < size; read++, write++) {
+                list.set(write, list.get(read));
+            }
+
+            if (write < size) {
+                list.subList(write, size).clear();
+            }
+        }
+    }
+
+    private static boolean equal(final Object o1, final Object o2) {
+        return o1 == null ? o2 == null : o1.equals(o2);
+    }
+
+    private static <E> void sweep(final Iterator<E> it, final Predicate<E> predicate, final boolean expected) {
+        while (it.hasNext()) {
+            if (predicate.test(it.next()) == expected) {
+                it.remove();
+            }
+        }
+    }
+
     /** Collection methods */
 
     @Override
@@ -58,6 +121,15 @@ public abstract class SmartAbstractCollection<E> implements SmartCollection<E> {
         return internalColl.iterator();
     }
 
+    /**
+     * Returns the spliterator of the backing collection, which reports its
+     * exact characteristics and splits without copying.
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return internalColl.spliterator();
+    }
+
     @Override
     public Object[] toArray() {
         return internalColl.toArray();
@@ -118,28 +190,12 @@ public abstract class SmartAbstractCollection<E> implements SmartCollection<E> {
 
     @Override
     public void filter(final Predicate<E> predicate) {
-        List<E> toRemove = new ArrayList<E>();
-
-        for (E elem : internalColl) {
-            if (!predicate.test(elem)) {
-                toRemove.add(elem);
-            }
-        }
-
-        internalColl.removeAll(toRemove);
+        removeMatching(predicate, false);
     }
 
     @Override
     public void remove(final Predicate<E> predicate) {
-        List<E> toRemove = new ArrayList<E>();
-
-        for (E elem : internalColl) {
-            if (predicate.test(elem)) {
-                toRemove.add(elem);
-            }
-        }
-
-        internalColl.removeAll(toRemove);
+        removeMatching(predicate, true);
     }
 
     @Override
@@ -154,20 +210,42 @@ public abstract class SmartAbstractCollection<E> implements SmartCollection<E> {
         }, replacement);
     }
 
+    /**
+     * Lists are updated in place through their list iterator. Other
+     * collections only remove the matching elements and insert the
+     * replacement once afterwards.
+     */
     @Override
     public void replace(final Predicate<E> predicate, final E replacement) {
-        List<E> tempList = new ArrayList<E>(internalColl);
-        internalColl.clear();
+        if (internalColl instanceof List) {
+            ListIterator<E> it = ((List<E>) internalColl).listIterator();
+            while (it.hasNext()) {
+                if (predicate.test(it.next())) {
+                    it.set(replacement);
+                }
+            }
+        } else {
+            boolean replaced = false;
+            Iterator<E> it = internalColl.iterator();
+            while (it.hasNext()) {
+                E elem = it.next();
+                if (predicate.test(elem) && !equal(elem, replacement)) {
+                    it.remove();
+                    replaced = true;
+                }
+            }
 
-        for (E elem : tempList) {
-            if (predicate.test(elem)) {
+            if (replaced) {
                 internalColl.add(replacement);
-            } else {
-                internalColl.add(elem);
             }
         }
     }
 
+    @Override
+    public SmartView<E> view() {
+        return SmartAbstractView.of(internalColl);
+    }
+
     @Override
     public <R> R reduce(final R initial, final BinaryFunction<R, E> funct) {
         R result = initial;
@@ -230,16 +308,38 @@ public abstract class SmartAbstractCollection<E> implements SmartCollection<E> {
         return false;
     }
 
+    /**
+     * Lists are updated in place through their list iterator. Other
+     * collections only remove the elements that actually change and insert
+     * their replacements afterwards.
+     */
     @Override
     public void replace(final Map<E, E> replacements) {
-        List<E> tempList = new ArrayList<E>(internalColl);
-        internalColl.clear();
+        if (internalColl instanceof List) {
+            ListIterator<E> it = ((List<E>) internalColl).listIterator();
+            while (it.hasNext()) {
+                E replacement = replacements.get(it.next());
+                if (replacement != null) {
+                    it.set(replacement);
+                }
+            }
+        } else {
+            List<E> added = null;
+            Iterator<E> it = internalColl.iterator();
+            while (it.hasNext()) {
+                E elem = it.next();
+                E replacement = replacements.get(elem);
+                if (replacement != null && !replacement.equals(elem)) {
+                    it.remove();
+                    if (added == null) {
+                        added = new ArrayList<E>();
+                    }
+                    added.add(replacement);
+                }
+            }
 
-        for (E elem : tempList) {
-            if (replacements.get(elem) != null) {
-                internalColl.add(replacements.get(elem));
-            } else {
-                internalColl.add(elem);
+            if (added != null) {
+                internalColl.addAll(added);
             }
         }
     }
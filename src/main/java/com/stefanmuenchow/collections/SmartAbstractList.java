@@ -17,11 +17,13 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.NoSuchElementException;
+import java.util.RandomAccess;
 
 import com.stefanmuenchow.collections.function.Predicate;
 import com.stefanmuenchow.collections.function.UnaryFunction;
 
 public abstract class SmartAbstractList<E> extends SmartAbstractCollection<E> implements SmartList<E> {
+    private static final int MIN_SHARED_SLICE = 64;
 
     protected SmartAbstractList(final Collection<E> innerList) {
         super(innerList);
@@ -39,6 +41,30 @@ public abstract class SmartAbstractList<E> extends SmartAbstractCollection<E> im
     @Override
     protected abstract <T> SmartList<T> createNewInstance(Collection<T> aColl);
 
+    /**
+     * Wraps a slice of this list. Subclasses that can hold the view without
+     * copying it override this, the default copies the view.
+     */
+    SmartList<E> createView(final SmartListView<E> view) {
+        return createNewInstance(view);
+    }
+
+    /**
+     * Returns the number of leading elements for which the predicate
+     * evaluates to true.
+     */
+    private int prefixLength(final Predicate<E> pred) {
+        int n = 0;
+        for (E elem : getInternalList()) {
+            if (!pred.test(elem)) {
+                break;
+            }
+            n++;
+        }
+
+        return n;
+    }
+
     /** List methods */
 
     @Override
@@ -73,7 +99,7 @@ public abstract class SmartAbstractList<E> extends SmartAbstractCollection<E> im
 
     @Override
     public int lastIndexOf(final Object o) {
-        return getInternalList().indexOf(o);
+        return getInternalList().lastIndexOf(o);
     }
 
     @Override
@@ -156,8 +182,7 @@ public abstract class SmartAbstractList<E> extends SmartAbstractCollection<E> im
             high = size();
         }
 
-        SmartList<E> result = createNewInstance(subList(0, high));
-        return result;
+        return slice(0, high);
     }
 
     @Override
@@ -167,49 +192,102 @@ public abstract class SmartAbstractList<E> extends SmartAbstractCollection<E> im
             lower = size();
         }
 
-        SmartList<E> result = createNewInstance(subList(lower, size()));
-        return result;
+        return slice(lower, size());
     }
 
+    /**
+     * Random access lists move their elements into a copy on write view on
+     * the first large slice, which they then share with all slices. Small
+     * slices are copied, so they neither keep the whole storage alive nor
+     * make the next change of this list copy it.
+     */
     @Override
-    public SmartList<E> takeWhile(final Predicate<E> pred) {
-        SmartList<E> resultList = createNewInstance();
-        for (E elem : this) {
-            if (pred.test(elem)) {
-                resultList.add(elem);
-            } else {
-                break;
-            }
+    public SmartList<E> slice(final int fromIndex, final int toIndex) {
+        List<E> list = getInternalList();
+        if (!(list instanceof RandomAccess) || toIndex - fromIndex < Math.max(MIN_SHARED_SLICE, list.size() / 4)) {
+            return createNewInstance(list.subList(fromIndex, toIndex));
+        }
+
+        SmartListView<E> view;
+        if (list instanceof SmartListView) {
+            view = (SmartListView<E>) list;
+        } else {
+            view = new SmartListView<E>(list);
+            internalColl = view;
         }
 
-        return resultList;
+        return createView(view.slice(fromIndex, toIndex));
+    }
+
+    @Override
+    public SmartList<E> takeWhile(final Predicate<E> pred) {
+        return take(prefixLength(pred));
     }
 
     @Override
     public SmartList<E> dropWhile(final Predicate<E> pred) {
-        SmartList<E> resultList = createNewInstance(getInternalList());
-        for (E elem : this) {
-            if (pred.test(elem)) {
-                resultList.remove(0);
-            } else {
-                break;
-            }
-        }
+        return drop(prefixLength(pred));
+    }
+
+    @Override
+    public void takeWhileInPlace(final Predicate<E> pred) {
+        getInternalList().subList(prefixLength(pred), size()).clear();
+    }
 
-        return resultList;
+    @Override
+    public void dropWhileInPlace(final Predicate<E> pred) {
+        getInternalList().subList(0, prefixLength(pred)).clear();
     }
 
     @Override
     public void removeDuplicates() {
-        SmartSet<E> resultSet = new SmartHashSet<E>(internalColl);
-        clear();
-        addAll(resultSet);
+        removeDuplicates(DuplicateStrategy.HASH);
+    }
+
+    @Override
+    public void removeDuplicates(final DuplicateStrategy strategy) {
+        if (strategy == DuplicateStrategy.SORT) {
+            removeMatching(SmartDuplicates.sorted(getInternalList()), true);
+        } else {
+            removeDuplicates(Integer.MAX_VALUE);
+        }
+    }
+
+    @Override
+    public void removeDuplicates(final int maxDistinct) {
+        SmartDuplicates.Seen<E> seen = new SmartDuplicates.Seen<E>(maxDistinct);
+        removeMatching(seen, true);
+
+        if (seen.overflow()) {
+            removeMatching(SmartDuplicates.sorted(getInternalList()), true);
+        }
     }
 
+    /**
+     * Random access lists are rebuilt into a new list of the final size,
+     * other lists insert through their list iterator. Both take one pass.
+     */
     @Override
     public void intersperse(final E elem) {
-        for (int i = 1; i < size(); i += 2) {
-            add(i, elem);
+        List<E> list = getInternalList();
+        if (list.size() < 2) {
+            return;
+        }
+
+        if (list instanceof RandomAccess) {
+            List<E> result = new ArrayList<E>(2 * list.size() - 1);
+            result.add(list.get(0));
+            for (int i = 1; i < list.size(); i++) {
+                result.add(elem);
+                result.add(list.get(i));
+            }
+            internalColl = result;
+        } else {
+            ListIterator<E> it = list.listIterator(1);
+            while (it.hasNext()) {
+                it.add(elem);
+                it.next();
+            }
         }
     }
 
@@ -239,13 +317,14 @@ public abstract class SmartAbstractList<E> extends SmartAbstractCollection<E> im
 
     @Override
     public SmartMap<E, Integer> getOccurenceCountMap() {
-        SmartMap<E, Integer> result = new SmartHashMap<E, Integer>();
+        return getOccurenceCounts().toSmartMap();
+    }
+
+    @Override
+    public SmartObjectIntMap<E> getOccurenceCounts() {
+        SmartObjectIntMap<E> result = new SmartObjectIntMap<E>();
         for (E elem : this) {
-            if (result.containsKey(elem)) {
-                result.put(elem, result.get(elem) + 1);
-            } else {
-                result.put(elem, 1);
-            }
+            result.addTo(elem, 1);
         }
 
         return result;
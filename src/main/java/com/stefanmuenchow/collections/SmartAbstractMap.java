@@ -10,12 +10,20 @@
 
 package com.stefanmuenchow.collections;
 
+import java.util.AbstractMap;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import com.stefanmuenchow.collections.function.BinaryFunction;
 import com.stefanmuenchow.collections.function.MapPredicate;
@@ -33,6 +41,34 @@ public abstract class SmartAbstractMap<K, V> implements SmartMap<K, V> {
     protected abstract SmartMap<K, V> createNewInstance();
     protected abstract <S, R> SmartMap<S, R> createNewInstance(final Map<S, R> aMap);
 
+    /**
+     * Wraps a view of this map. Subclasses that can hold the view without
+     * copying it override this, the default copies the view.
+     */
+    SmartMap<K, V> createView(final SmartMapView<K, V> view) {
+        return createNewInstance(view);
+    }
+
+    /**
+     * Removes all entries for which the predicate evaluates to
+     * <code>expected</code> in a single pass over the entry set, using the
+     * iterator of the backing map.
+     *
+     * @param predicate
+     *            Predicate
+     * @param expected
+     *            Predicate result of the entries to remove
+     */
+    protected void removeMatching(final MapPredicate<K, V> predicate, final boolean expected) {
+        Iterator<Map.Entry<K, V>> it = internalMap.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<K, V> entry = it.next();
+            if (predicate.test(entry.getKey(), entry.getValue()) == expected) {
+                it.remove();
+            }
+        }
+    }
+
     /** Map Methods */
 
     @Override
@@ -95,26 +131,113 @@ public abstract class SmartAbstractMap<K, V> implements SmartMap<K, V> {
         return internalMap.entrySet();
     }
 
+    /**
+     * The default methods of Map are delegated as well, so they are atomic
+     * if they are atomic for the backing map.
+     */
+    @Override
+    public V getOrDefault(final Object key, final V defaultValue) {
+        return internalMap.getOrDefault(key, defaultValue);
+    }
+
+    @Override
+    public void forEach(final BiConsumer<? super K, ? super V> action) {
+        internalMap.forEach(action);
+    }
+
+    @Override
+    public void replaceAll(final BiFunction<? super K, ? super V, ? extends V> function) {
+        internalMap.replaceAll(function);
+    }
+
+    @Override
+    public V putIfAbsent(final K key, final V value) {
+        return internalMap.putIfAbsent(key, value);
+    }
+
+    @Override
+    public boolean remove(final Object key, final Object value) {
+        return internalMap.remove(key, value);
+    }
+
+    @Override
+    public boolean replace(final K key, final V oldValue, final V newValue) {
+        return internalMap.replace(key, oldValue, newValue);
+    }
+
+    @Override
+    public V replace(final K key, final V value) {
+        return internalMap.replace(key, value);
+    }
+
+    @Override
+    public V computeIfAbsent(final K key, final Function<? super K, ? extends V> mappingFunction) {
+        return internalMap.computeIfAbsent(key, mappingFunction);
+    }
+
+    @Override
+    public V computeIfPresent(final K key, final BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        return internalMap.computeIfPresent(key, remappingFunction);
+    }
+
+    @Override
+    public V compute(final K key, final BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        return internalMap.compute(key, remappingFunction);
+    }
+
+    @Override
+    public V merge(final K key, final V value, final BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        return internalMap.merge(key, value, remappingFunction);
+    }
+
     /** ISmartMap methods */
 
+    @Override
+    public Spliterator<Map.Entry<K, V>> spliterator() {
+        return internalMap.entrySet().spliterator();
+    }
+
+    @Override
+    public Stream<Map.Entry<K, V>> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    @Override
+    public Stream<Map.Entry<K, V>> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
     @Override
     public java.util.Map.Entry<K, V> head() {
-        if (size() > 0) {
-            return new SmartArrayList<Map.Entry<K, V>>(internalMap.entrySet()).head();
+        if (isEmpty()) {
+            throw new NoSuchElementException("Map is empty. No head element available.");
+        }
+
+        if (internalMap instanceof SmartMapView) {
+            // Entries of the source map must not be changed through the view
+            return new AbstractMap.SimpleImmutableEntry<K, V>(((SmartMapView<K, V>) internalMap).firstEntry());
         }
 
-        throw new NoSuchElementException("Map is empty. No head element available.");
+        return internalMap.entrySet().iterator().next();
     }
 
+    /**
+     * Returns a view of this map without the head entry. The view reads
+     * through to this map, so it reflects later changes of this map, and
+     * copies its entries on its first change. Taking the tail of a tail
+     * shares the same source map.
+     */
     @Override
     public SmartMap<K, V> tail() {
-        if (size() > 0) {
-            SmartMap<K, V> resultMap = createNewInstance(internalMap);
-            resultMap.remove(new SmartArrayList<K>(resultMap.keySet()).head());
-            return resultMap;
+        if (isEmpty()) {
+            throw new UnsupportedOperationException("Map is empty. No tail map available.");
+        }
+
+        if (internalMap instanceof SmartMapView) {
+            return createView(((SmartMapView<K, V>) internalMap).tail());
         }
 
-        throw new UnsupportedOperationException("Map is empty. No tail map available.");
+        return createView(new SmartMapView<K, V>(internalMap).tail());
     }
 
     @Override
@@ -152,26 +275,12 @@ public abstract class SmartAbstractMap<K, V> implements SmartMap<K, V> {
 
     @Override
     public void filter(final MapPredicate<K, V> predicate) {
-        SmartMap<K, V> tempMap = createNewInstance(internalMap);
-        clear();
-
-        for (Map.Entry<K, V> entry : tempMap.entrySet()) {
-            if (predicate.test(entry.getKey(), entry.getValue())) {
-                put(entry.getKey(), entry.getValue());
-            }
-        }
+        removeMatching(predicate, false);
     }
 
     @Override
     public void remove(final MapPredicate<K, V> predicate) {
-        SmartMap<K, V> tempMap = createNewInstance(internalMap);
-        clear();
-
-        for (Map.Entry<K, V> entry : tempMap.entrySet()) {
-            if (!predicate.test(entry.getKey(), entry.getValue())) {
-                put(entry.getKey(), entry.getValue());
-            }
-        }
+        removeMatching(predicate, true);
     }
 
     @Override
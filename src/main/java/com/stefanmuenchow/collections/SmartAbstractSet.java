@@ -21,27 +21,38 @@ public abstract class SmartAbstractSet<E> extends SmartAbstractCollection<E> imp
 
     /** ISmartSet methods */
 
+    /**
+     * The sizes are compared first, then each element of the smaller set is
+     * looked up in the larger one until the first miss. Nothing is copied.
+     */
     @Override
     public boolean isSubsetOf(final Set<E> anotherSet) {
-        SmartSet<E> temp = new SmartHashSet<E>(this);
-        temp.difference(anotherSet);
-        return temp.isEmpty();
+        return size() <= anotherSet.size() && containsAllOf(anotherSet, internalColl);
     }
 
     @Override
     public boolean isProperSubsetOf(final Set<E> anotherSet) {
-        return isSubsetOf(anotherSet) && !equals(anotherSet);
+        return size() < anotherSet.size() && isSubsetOf(anotherSet);
     }
 
     @Override
     public boolean isSupersetOf(final Set<E> anotherSet) {
-        SmartSet<E> temp = new SmartHashSet<E>(anotherSet);
-        return temp.isSubsetOf(this);
+        return size() >= anotherSet.size() && containsAllOf(internalColl, anotherSet);
     }
 
     @Override
     public boolean isProperSupersetOf(final Set<E> anotherSet) {
-        return isSupersetOf(anotherSet) && !equals(anotherSet);
+        return size() > anotherSet.size() && isSupersetOf(anotherSet);
+    }
+
+    private static <E> boolean containsAllOf(final Collection<E> container, final Collection<E> elems) {
+        for (E elem : elems) {
+            if (!container.contains(elem)) {
+                return false;
+            }
+        }
+
+        return true;
     }
 
     @Override
@@ -59,6 +70,15 @@ public abstract class SmartAbstractSet<E> extends SmartAbstractCollection<E> imp
         removeAll(anotherSet);
     }
 
+    @Override
+    public void symmetricDifference(final Set<E> anotherSet) {
+        for (E elem : anotherSet) {
+            if (!internalColl.remove(elem)) {
+                internalColl.add(elem);
+            }
+        }
+    }
+
     @Override
     public <R> SmartSet<R> map(final UnaryFunction<R, E> function) {
         SmartCollection<R> result = super.map(function);
@@ -0,0 +1,369 @@
+/**
+ * Copyright (c) Stefan Muenchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.util.Collection;
+import java.util.NoSuchElementException;
+
+import com.stefanmuenchow.collections.function.BinaryFunction;
+import com.stefanmuenchow.collections.function.Predicate;
+import com.stefanmuenchow.collections.function.UnaryFunction;
+
+/**
+ * Base class of all views. Each step pushes its elements into the sink of the
+ * following step, so a chain of steps is run as one traversal of the source.
+ * A sink stops the traversal by returning <code>false</code>.
+ *
+ * @author Stefan Muenchow
+ */
+public abstract class SmartAbstractView<E> implements SmartView<E> {
+
+    /**
+     * Receives the elements of a view.
+     */
+    protected interface Sink<E> {
+
+        /**
+         * Accepts the next element.
+         *
+         * @param elem
+         *            Element
+         * @return true to continue, false to stop the traversal
+         */
+        boolean accept(E elem);
+    }
+
+    /**
+     * Accumulates the result of a terminal operation.
+     */
+    private abstract static class Terminal<E, R> implements Sink<E> {
+        protected R result;
+        protected int count;
+
+        Terminal(final R initial) {
+            result = initial;
+        }
+    }
+
+    /**
+     * Creates a view over the elements of an iterable source. The source is
+     * read each time a terminal operation is called.
+     *
+     * @param source
+     *            Source elements
+     * @return View of the source
+     */
+    public static <E> SmartView<E> of(final Iterable<E> source) {
+        return new SmartAbstractView<E>() {
+            @Override
+            protected boolean traverse(final Sink<? super E> sink) {
+                for (E elem : source) {
+                    if (!sink.accept(elem)) {
+                        return false;
+                    }
+                }
+
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Pushes all elements of this view into the sink.
+     *
+     * @param sink
+     *            Sink
+     * @return false if the sink stopped the traversal, true otherwise
+     */
+    protected abstract boolean traverse(Sink<? super E> sink);
+
+    /** Intermediate operations */
+
+    @Override
+    public SmartView<E> filter(final Predicate<E> predicate) {
+        final SmartAbstractView<E> source = this;
+
+        return new SmartAbstractView<E>() {
+            @Override
+            protected boolean traverse(final Sink<? super E> sink) {
+                return source.traverse(new Sink<E>() {
+                    @Override
+                    public boolean accept(final E elem) {
+                        return !predicate.test(elem) || sink.accept(elem);
+                    }
+                });
+            }
+        };
+    }
+
+    @Override
+    public <R> SmartView<R> map(final UnaryFunction<R, E> function) {
+        final SmartAbstractView<E> source = this;
+
+        return new SmartAbstractView<R>() {
+            @Override
+            protected boolean traverse(final Sink<? super R> sink) {
+                return source.traverse(new Sink<E>() {
+                    @Override
+                    public boolean accept(final E elem) {
+                        return sink.accept(function.apply(elem));
+                    }
+                });
+            }
+        };
+    }
+
+    @Override
+    public SmartView<E> takeWhile(final Predicate<E> pred) {
+        final SmartAbstractView<E> source = this;
+
+        return new SmartAbstractView<E>() {
+            @Override
+            protected boolean traverse(final Sink<? super E> sink) {
+                return source.traverse(new Sink<E>() {
+                    @Override
+                    public boolean accept(final E elem) {
+                        return pred.test(elem) && sink.accept(elem);
+                    }
+                });
+            }
+        };
+    }
+
+    @Override
+    public SmartView<E> take(final int n) {
+        final SmartAbstractView<E> source = this;
+
+        return new SmartAbstractView<E>() {
+            @Override
+            protected boolean traverse(final Sink<? super E> sink) {
+                if (n <= 0) {
+                    return true;
+                }
+
+                return source.traverse(new Sink<E>() {
+                    private int taken = 0;
+
+                    @Override
+                    public boolean accept(final E elem) {
+                        taken++;
+                        return sink.accept(elem) && taken < n;
+                    }
+                });
+            }
+        };
+    }
+
+    @Override
+    public SmartView<E> intersperse(final E separator) {
+        final SmartAbstractView<E> source = this;
+
+        return new SmartAbstractView<E>() {
+            @Override
+            protected boolean traverse(final Sink<? super E> sink) {
+                return source.traverse(new Sink<E>() {
+                    private boolean first = true;
+
+                    @Override
+                    public boolean accept(final E elem) {
+                        if (!first && !sink.accept(separator)) {
+                            return false;
+                        }
+                        first = false;
+                        return sink.accept(elem);
+                    }
+                });
+            }
+        };
+    }
+
+    @Override
+    public SmartView<Object> flatten() {
+        final SmartAbstractView<E> source = this;
+
+        return new SmartAbstractView<Object>() {
+            @Override
+            protected boolean traverse(final Sink<? super Object> sink) {
+                return source.traverse(new Sink<Object>() {
+                    @Override
+                    public boolean accept(final Object elem) {
+                        if (elem instanceof Collection) {
+                            for (Object inner : (Collection<?>) elem) {
+                                if (!accept(inner)) {
+                                    return false;
+                                }
+                            }
+                            return true;
+                        }
+
+                        return sink.accept(elem);
+                    }
+                });
+            }
+        };
+    }
+
+    /** Terminal operations */
+
+    @Override
+    public <R> R reduce(final R initial, final BinaryFunction<R, E> funct) {
+        Terminal<E, R> terminal = new Terminal<E, R>(initial) {
+            @Override
+            public boolean accept(final E elem) {
+                result = funct.apply(result, elem);
+                return true;
+            }
+        };
+
+        traverse(terminal);
+        return terminal.result;
+    }
+
+    @Override
+    public E reduce(final BinaryFunction<E, E> funct) {
+        Terminal<E, E> terminal = new Terminal<E, E>(null) {
+            @Override
+            public boolean accept(final E elem) {
+                result = count++ == 0 ? elem : funct.apply(result, elem);
+                return true;
+            }
+        };
+
+        traverse(terminal);
+        return terminal.result;
+    }
+
+    @Override
+    public int count() {
+        Terminal<E, Object> terminal = new Terminal<E, Object>(null) {
+            @Override
+            public boolean accept(final E elem) {
+                count++;
+                return true;
+            }
+        };
+
+        traverse(terminal);
+        return terminal.count;
+    }
+
+    @Override
+    public int count(final Predicate<E> predicate) {
+        Terminal<E, Object> terminal = new Terminal<E, Object>(null) {
+            @Override
+            public boolean accept(final E elem) {
+                if (predicate.test(elem)) {
+                    count++;
+                }
+                return true;
+            }
+        };
+
+        traverse(terminal);
+        return terminal.count;
+    }
+
+    /**
+     * The answer is kept in the terminal, because the traversal also stops
+     * early when a step like take or takeWhile ends the view.
+     */
+    @Override
+    public boolean exists(final Predicate<E> pred) {
+        Terminal<E, Boolean> terminal = new Terminal<E, Boolean>(Boolean.FALSE) {
+            @Override
+            public boolean accept(final E elem) {
+                if (pred.test(elem)) {
+                    result = Boolean.TRUE;
+                    return false;
+                }
+                return true;
+            }
+        };
+
+        traverse(terminal);
+        return terminal.result;
+    }
+
+    @Override
+    public boolean forall(final Predicate<E> pred) {
+        Terminal<E, Boolean> terminal = new Terminal<E, Boolean>(Boolean.TRUE) {
+            @Override
+            public boolean accept(final E elem) {
+                if (!pred.test(elem)) {
+                    result = Boolean.FALSE;
+                    return false;
+                }
+                return true;
+            }
+        };
+
+        traverse(terminal);
+        return terminal.result;
+    }
+
+    @Override
+    public E find(final Predicate<E> pred) {
+        Terminal<E, E> terminal = new Terminal<E, E>(null) {
+            @Override
+            public boolean accept(final E elem) {
+                if (pred.test(elem)) {
+                    result = elem;
+                    count++;
+                    return false;
+                }
+                return true;
+            }
+        };
+
+        traverse(terminal);
+        if (terminal.count == 0) {
+            throw new NoSuchElementException("No element matches the given predicate");
+        }
+
+        return terminal.result;
+    }
+
+    @Override
+    public String join(final String delimiter) {
+        final StringBuffer sb = new StringBuffer();
+
+        traverse(new Sink<E>() {
+            private boolean first = true;
+
+            @Override
+            public boolean accept(final E elem) {
+                if (!first) {
+                    sb.append(delimiter);
+                }
+                sb.append(elem.toString());
+                first = false;
+                return true;
+            }
+        });
+
+        return sb.toString();
+    }
+
+    @Override
+    public SmartList<E> toSmartList() {
+        final SmartList<E> result = new SmartArrayList<E>();
+
+        traverse(new Sink<E>() {
+            @Override
+            public boolean accept(final E elem) {
+                result.add(elem);
+                return true;
+            }
+        });
+
+        return result;
+    }
+}
@@ -13,6 +13,11 @@ package com.stefanmuenchow.collections;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+
+import com.stefanmuenchow.collections.function.BinaryFunction;
+import com.stefanmuenchow.collections.function.Predicate;
+import com.stefanmuenchow.collections.function.UnaryFunction;
 
 public class SmartArrayList<E> extends SmartAbstractList<E> implements SmartList<E> {
 
@@ -28,6 +33,10 @@ public class SmartArrayList<E> extends SmartAbstractList<E> implements SmartList
         super(new ArrayList<E>(internalColl));
     }
 
+    SmartArrayList(final SmartListView<E> view) {
+        super(view);
+    }
+
     /** Helper methods */
 
     @Override
@@ -39,4 +48,99 @@ public class SmartArrayList<E> extends SmartAbstractList<E> implements SmartList
     protected <T> SmartList<T> createNewInstance(final Collection<T> aColl) {
         return new SmartArrayList<T>(aColl);
     }
+
+    @Override
+    SmartList<E> createView(final SmartListView<E> view) {
+        return new SmartArrayList<E>(view);
+    }
+
+    private List<E> getInternalList() {
+        return (List<E>) internalColl;
+    }
+
+    /** Parallel methods */
+
+    /**
+     * Parallel counterpart of map. The list is split by index ranges, which are
+     * processed on the common fork/join pool. The elements of the resulting
+     * list have the same ordering as with map.
+     *
+     * @param function
+     *            Unary function, must be safe to call from several threads
+     * @see UnaryFunction
+     * @return List of mapped elements
+     */
+    @SuppressWarnings("unchecked")
+    public <R> SmartList<R> parallelMap(final UnaryFunction<R, E> function) {
+        Object[] result = SmartParallelTasks.map(getInternalList(), function);
+        return new SmartArrayList<R>((List<R>) Arrays.asList(result));
+    }
+
+    /**
+     * Parallel counterpart of reduce. Each index range is reduced with the
+     * accumulator starting from the identity value, the partial results are
+     * combined from left to right. The combiner must be associative and the
+     * identity value must not change any result it is combined with.
+     *
+     * @param identity
+     *            Identity value, also returned for an empty list
+     * @param accumulator
+     *            Binary function adding an element to a partial result
+     * @param combiner
+     *            Associative binary function combining two partial results
+     * @see BinaryFunction
+     * @return A single value
+     */
+    public <R> R parallelReduce(final R identity, final BinaryFunction<R, E> accumulator,
+            final BinaryFunction<R, R> combiner) {
+        return SmartParallelTasks.reduce(getInternalList(), identity, accumulator, combiner);
+    }
+
+    /**
+     * Parallel counterpart of reduce without initial value. The function must
+     * be associative. If the list is empty, null is returned.
+     *
+     * @param funct
+     *            Associative binary function
+     * @see BinaryFunction
+     * @return A single value
+     */
+    public E parallelReduce(final BinaryFunction<E, E> funct) {
+        return SmartParallelTasks.reduce(getInternalList(), funct);
+    }
+
+    /**
+     * Parallel counterpart of count.
+     *
+     * @param predicate
+     *            Predicate, must be safe to call from several threads
+     * @return Number of elements in list for which predicate is true
+     */
+    public int parallelCount(final Predicate<E> predicate) {
+        return SmartParallelTasks.count(getInternalList(), predicate);
+    }
+
+    /**
+     * Parallel counterpart of exists. As soon as one subtask finds a match,
+     * all other subtasks stop.
+     *
+     * @param pred
+     *            Predicate, must be safe to call from several threads
+     * @return true / false
+     */
+    public boolean parallelExists(final Predicate<E> pred) {
+        return SmartParallelTasks.exists(getInternalList(), pred, true);
+    }
+
+    /**
+     * Parallel counterpart of forall. As soon as one subtask finds a mismatch,
+     * all other subtasks stop.
+     *
+     * @param pred
+     *            Predicate, must be safe to call from several threads
+     * @return true / false
+     */
+    public boolean parallelForall(final Predicate<E> pred) {
+        return !SmartParallelTasks.exists(getInternalList(), pred, false);
+    }
 }
@@ -91,6 +91,17 @@ public interface SmartCollection<E> extends Collection<E> {
      */
     <R> SmartCollection<R> map(UnaryFunction<R, E> function);
 
+    /**
+     * Returns a lazy view of this collection. Operations chained on the view
+     * are fused into a single traversal, which only runs when a terminal
+     * operation is called. No intermediate collections are created. The view
+     * reflects the content of the collection at the time of the traversal.
+     *
+     * @see SmartView
+     * @return Lazy view of this collection
+     */
+    SmartView<E> view();
+
     /**
      * Combines the elements of this list from left to right using a binary
      * function and an initial value. If the collection is empty, the initial
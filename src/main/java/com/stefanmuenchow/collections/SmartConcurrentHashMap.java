@@ -0,0 +1,278 @@
+/**
+ * Copyright (c) Stefan Muenchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.util.AbstractMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.LongBinaryOperator;
+import java.util.function.ToLongBiFunction;
+
+import com.stefanmuenchow.collections.function.BinaryFunction;
+import com.stefanmuenchow.collections.function.MapPredicate;
+import com.stefanmuenchow.collections.function.UnaryFunction;
+
+/**
+ * Thread safe SmartMap backed by a {@link ConcurrentHashMap}. Reads never
+ * block and writes only lock the bin of their key, so the map can be shared
+ * by many threads without an external lock. Null keys and values are not
+ * supported.
+ * <p>
+ * Single keys are changed atomically by put, remove, the default methods of
+ * Map like compute and merge, and {@link #upsert(Object, Object, UnaryFunction)}.
+ * Operations on the whole map are weakly consistent: they see each entry at
+ * most once and reflect some, but not necessarily all changes made
+ * concurrently, and they never throw a ConcurrentModificationException.
+ * filter, remove, find, count, exists and forall split the table across the
+ * common fork/join pool once the map has more than 512 entries, so their
+ * predicates must be safe to call from several threads.
+ *
+ * @author Stefan Muenchow
+ */
+public class SmartConcurrentHashMap<K, V> extends SmartAbstractMap<K, V> implements SmartMap<K, V> {
+    private static final long PARALLELISM_THRESHOLD = 512;
+
+    public SmartConcurrentHashMap() {
+        super(new ConcurrentHashMap<K, V>());
+    }
+
+    public SmartConcurrentHashMap(final Map<K, V> map) {
+        super(new ConcurrentHashMap<K, V>(map));
+    }
+
+    /** Helper methods */
+
+    @Override
+    protected SmartMap<K, V> createNewInstance() {
+        return new SmartConcurrentHashMap<K, V>();
+    }
+
+    @Override
+    protected <S, R> SmartMap<S, R> createNewInstance(final Map<S, R> aMap) {
+        return new SmartConcurrentHashMap<S, R>(aMap);
+    }
+
+    private ConcurrentHashMap<K, V> getInternalMap() {
+        return (ConcurrentHashMap<K, V>) internalMap;
+    }
+
+    /**
+     * Tests the entries in parallel and removes each matching entry only if
+     * it still has the tested value, so a value stored concurrently is never
+     * removed untested.
+     */
+    @Override
+    protected void removeMatching(final MapPredicate<K, V> predicate, final boolean expected) {
+        final ConcurrentHashMap<K, V> map = getInternalMap();
+        map.forEach(PARALLELISM_THRESHOLD, new BiConsumer<K, V>() {
+            @Override
+            public void accept(final K key, final V value) {
+                if (predicate.test(key, value) == expected) {
+                    map.remove(key, value);
+                }
+            }
+        });
+    }
+
+    /** SmartConcurrentHashMap methods */
+
+    /**
+     * Atomically stores initial if the key is absent, otherwise replaces the
+     * value by the result of the function. The function is called at most
+     * once and must not change this map. If it returns null, the key is
+     * removed.
+     *
+     * @param key
+     *            Key
+     * @param initial
+     *            Value of an absent key
+     * @param update
+     *            Function from the present value to the new value
+     * @return New value to the key or null
+     */
+    public V upsert(final K key, final V initial, final UnaryFunction<V, V> update) {
+        return internalMap.compute(key, new BiFunction<K, V, V>() {
+            @Override
+            public V apply(final K k, final V value) {
+                return value == null ? initial : update.apply(value);
+            }
+        });
+    }
+
+    /**
+     * Parallel counterpart of reduce. Each entry is added to the identity
+     * value with the accumulator, the partial results are combined in
+     * arbitrary order. The combiner must be associative and commutative and
+     * the identity value must not change any result it is combined with.
+     *
+     * @param identity
+     *            Identity value, also returned for an empty map
+     * @param accumulator
+     *            Binary function adding an entry to a partial result
+     * @param combiner
+     *            Binary function combining two partial results
+     * @return A single value
+     */
+    public <R> R parallelReduce(final R identity, final BinaryFunction<R, Map.Entry<K, V>> accumulator,
+            final BinaryFunction<R, R> combiner) {
+        R result = getInternalMap().reduceEntries(PARALLELISM_THRESHOLD, new Function<Map.Entry<K, V>, R>() {
+            @Override
+            public R apply(final Map.Entry<K, V> entry) {
+                return accumulator.apply(identity, entry);
+            }
+        }, combiner);
+
+        return result != null ? result : identity;
+    }
+
+    /** ISmartMap methods */
+
+    /**
+     * Returns a snapshot of some entry, which is not changed by later
+     * changes of the map.
+     */
+    @Override
+    public Map.Entry<K, V> head() {
+        Iterator<Map.Entry<K, V>> it = internalMap.entrySet().iterator();
+        if (!it.hasNext()) {
+            throw new NoSuchElementException("Map is empty. No head element available.");
+        }
+
+        return new AbstractMap.SimpleImmutableEntry<K, V>(it.next());
+    }
+
+    /**
+     * Returns a new map with all entries but the one that head() would
+     * return at this moment. Unlike the tails of other maps, it is a copy and
+     * no view, it does not reflect later changes of this map.
+     */
+    @Override
+    public SmartMap<K, V> tail() {
+        Iterator<Map.Entry<K, V>> it = internalMap.entrySet().iterator();
+        if (!it.hasNext()) {
+            throw new UnsupportedOperationException("Map is empty. No tail map available.");
+        }
+
+        it.next();
+        SmartMap<K, V> result = createNewInstance();
+        while (it.hasNext()) {
+            Map.Entry<K, V> entry = it.next();
+            result.put(entry.getKey(), entry.getValue());
+        }
+
+        return result;
+    }
+
+    /**
+     * Each key of anotherMap is merged atomically. Keys that are not in
+     * anotherMap are removed afterwards. The map as a whole is not locked,
+     * so keys put concurrently may survive.
+     */
+    @Override
+    public void mergeWith(final SmartMap<K, V> anotherMap, final BinaryFunction<V, V> mergeFunct) {
+        for (Map.Entry<K, V> entry : anotherMap.entrySet()) {
+            internalMap.merge(entry.getKey(), entry.getValue(), mergeFunct);
+        }
+
+        internalMap.keySet().retainAll(anotherMap.keySet());
+    }
+
+    /**
+     * The pair is removed atomically, so only one of several concurrent
+     * calls replaces it.
+     */
+    @Override
+    public void replace(final K seekKey, final V seekValue, final K newKey, final V newValue) {
+        if (internalMap.remove(seekKey, seekValue)) {
+            internalMap.put(newKey, newValue);
+        }
+    }
+
+    /**
+     * Returns the value of some matching entry, not necessarily the first
+     * one in iteration order.
+     */
+    @Override
+    public V find(final MapPredicate<K, V> predicate) {
+        V result = getInternalMap().search(PARALLELISM_THRESHOLD, new BiFunction<K, V, V>() {
+            @Override
+            public V apply(final K key, final V value) {
+                return predicate.test(key, value) ? value : null;
+            }
+        });
+
+        if (result == null) {
+            throw new NoSuchElementException("No element matches the given predicate");
+        }
+
+        return result;
+    }
+
+    @Override
+    public int count(final MapPredicate<K, V> predicate) {
+        return (int) getInternalMap().reduceToLong(PARALLELISM_THRESHOLD, new ToLongBiFunction<K, V>() {
+            @Override
+            public long applyAsLong(final K key, final V value) {
+                return predicate.test(key, value) ? 1 : 0;
+            }
+        }, 0, new LongBinaryOperator() {
+            @Override
+            public long applyAsLong(final long left, final long right) {
+                return left + right;
+            }
+        });
+    }
+
+    @Override
+    public boolean exists(final MapPredicate<K, V> predicate) {
+        return search(predicate, true);
+    }
+
+    @Override
+    public boolean forall(final MapPredicate<K, V> predicate) {
+        return !search(predicate, false);
+    }
+
+    /**
+     * Checks in parallel whether the predicate evaluates to expected for any
+     * entry. All subtasks stop as soon as one entry is found.
+     */
+    private boolean search(final MapPredicate<K, V> predicate, final boolean expected) {
+        return getInternalMap().search(PARALLELISM_THRESHOLD, new BiFunction<K, V, Boolean>() {
+            @Override
+            public Boolean apply(final K key, final V value) {
+                return predicate.test(key, value) == expected ? Boolean.TRUE : null;
+            }
+        }) != null;
+    }
+
+    /**
+     * Builds the swapped map in a single pass and fails as soon as a value
+     * occurs twice, so a value stored concurrently cannot make the result
+     * lose an entry.
+     */
+    @Override
+    public SmartMap<V, K> swap() {
+        SmartMap<V, K> swapped = new SmartConcurrentHashMap<V, K>();
+        for (Map.Entry<K, V> entry : internalMap.entrySet()) {
+            if (swapped.putIfAbsent(entry.getValue(), entry.getKey()) != null) {
+                throw new UnsupportedOperationException("Map is not bijective!");
+            }
+        }
+
+        return swapped;
+    }
+}
@@ -0,0 +1,135 @@
+/**
+ * Copyright (c) Stefan Muenchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.RandomAccess;
+
+import com.stefanmuenchow.collections.function.Predicate;
+
+/**
+ * Predicates recognizing duplicates for removeDuplicates of SmartList. Each
+ * predicate must be tested with the elements of the list in their ordering,
+ * exactly once each, and evaluates to true for all but the first occurrence of
+ * an element, so removing the matching elements keeps the ordering.
+ *
+ * @author Stefan Muenchow
+ */
+final class SmartDuplicates {
+
+    private SmartDuplicates() {
+    }
+
+    /**
+     * Remembers the elements seen so far in a {@link SmartObjectIntMap},
+     * which needs no hash map node per element. Once more than maxSize
+     * distinct elements are seen, the map is dropped and all further elements
+     * are kept, see {@link #overflow()}.
+     */
+    static final class Seen<E> implements Predicate<E> {
+        private final int maxSize;
+        private SmartObjectIntMap<E> seen = new SmartObjectIntMap<E>();
+
+        Seen(final int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        /**
+         * Returns true if more than maxSize distinct elements were seen. The
+         * elements tested after that were all kept.
+         */
+        boolean overflow() {
+            return seen == null;
+        }
+
+        @Override
+        public boolean test(final E input) {
+            if (seen == null) {
+                return false;
+            }
+
+            if (seen.addTo(input, 1) > 1) {
+                return true;
+            }
+
+            if (seen.size() > maxSize) {
+                seen = null;
+            }
+
+            return false;
+        }
+    }
+
+    /**
+     * Marks the duplicates of the list in a bit set. The indices are sorted by
+     * the hash codes of their elements, so equal elements end up in the same
+     * run of indices, where each index is compared with the first occurrences
+     * before it. Besides the bit set this needs one long per element and no
+     * objects at all.
+     *
+     * @param list
+     *            List to search for duplicates
+     * @return Predicate evaluating to true for the duplicates of list
+     */
+    static <E> Predicate<E> sorted(final List<E> list) {
+        final int size = list.size();
+        final Object[] elems = list instanceof RandomAccess ? null : list.toArray();
+        long[] order = new long[size];
+        for (int i = 0; i < size; i++) {
+            Object elem = elems == null ? list.get(i) : elems[i];
+            order[i] = ((long) (elem == null ? 0 : elem.hashCode()) << 32) | i;
+        }
+        Arrays.sort(order);
+
+        final BitSet duplicates = new BitSet(size);
+        int runStart = 0;
+        for (int i = 1; i <= size; i++) {
+            if (i == size || (order[i] >> 32) != (order[runStart] >> 32)) {
+                markRun(list, elems, order, runStart, i, duplicates);
+                runStart = i;
+            }
+        }
+
+        return new Predicate<E>() {
+            private int index = 0;
+
+            @Override
+            public boolean test(final E input) {
+                return duplicates.get(index++);
+            }
+        };
+    }
+
+    /**
+     * Marks the duplicates among the indices order[from] to order[to - 1],
+     * which are sorted ascending and belong to elements with equal hash codes.
+     */
+    private static void markRun(final List<?> list, final Object[] elems, final long[] order,
+            final int from, final int to, final BitSet duplicates) {
+        for (int i = from + 1; i < to; i++) {
+            int index = (int) order[i];
+            Object elem = elems == null ? list.get(index) : elems[index];
+            for (int j = from; j < i; j++) {
+                int other = (int) order[j];
+                if (!duplicates.get(other) && equal(elem, elems == null ? list.get(other) : elems[other])) {
+                    duplicates.set(index);
+                    break;
+                }
+            }
+        }
+    }
+
+    private static boolean equal(final Object o1, final Object o2) {
+        return o1 == null ? o2 == null : o1.equals(o2);
+    }
+}
@@ -14,6 +14,10 @@ public class SmartHashMap<K, V> extends SmartAbstractMap<K, V> implements
         super(new HashMap<K, V>(map));
     }
 
+    SmartHashMap(final SmartMapView<K, V> view) {
+        super(view);
+    }
+
     /** Helper methods */
 
     @Override
@@ -25,4 +29,9 @@ public class SmartHashMap<K, V> extends SmartAbstractMap<K, V> implements
     protected <S, R> SmartMap<S, R> createNewInstance(final Map<S, R> aMap) {
         return new SmartHashMap<S, R>(aMap);
     }
+
+    @Override
+    SmartMap<K, V> createView(final SmartMapView<K, V> view) {
+        return new SmartHashMap<K, V>(view);
+    }
 }
@@ -0,0 +1,774 @@
+/**
+ * Copyright (c) Stefan Muenchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.TreeMap;
+import java.util.function.UnaryOperator;
+
+import com.stefanmuenchow.collections.function.Predicate;
+import com.stefanmuenchow.collections.function.UnaryFunction;
+
+/**
+ * Array backed list with a hash index from each value to its positions, so
+ * contains, indexOf, lastIndexOf and frequency take constant time instead of
+ * a scan of the list. The index covers a prefix of the list. Appending
+ * elements does not touch the index, the new elements are indexed by the next
+ * lookup. Inserting or removing an element updates the indexed prefix from
+ * the nearer end: near the head only the positions in front of the change are
+ * deleted and added again, so removing the head of a work list costs one
+ * hash update per index. Otherwise the positions from the change on are
+ * dropped and the next lookup indexes the rest of the list again. Replacing
+ * an element updates the index in place.
+ * <p>
+ * Further named indexes on keys of the elements can be added, see
+ * {@link #addIndex(String, UnaryFunction)} and
+ * {@link #addSortedIndex(String, UnaryFunction)}. They are kept up to date the
+ * same way and replace find(Predicate) by a keyed lookup.
+ * <p>
+ * The elements and their keys must not change their hash codes or ordering
+ * while they are in the list. Each index needs a map entry per distinct key
+ * and an int per element, so this list only pays off when it is searched
+ * often, e.g. as a work list that checks contains before each add.
+ *
+ * @author Stefan Muenchow
+ */
+public class SmartIndexedList<E> extends SmartAbstractList<E> implements SmartList<E> {
+
+    public SmartIndexedList() {
+        super(new IndexedList<E>(new ArrayList<E>()));
+    }
+
+    public SmartIndexedList(final E... elems) {
+        this(Arrays.asList(elems));
+    }
+
+    public SmartIndexedList(final Collection<E> collection) {
+        super(new IndexedList<E>(new ArrayList<E>(collection)));
+    }
+
+    /** Helper methods */
+
+    @Override
+    protected SmartList<E> createNewInstance() {
+        return new SmartIndexedList<E>();
+    }
+
+    @Override
+    protected <T> SmartList<T> createNewInstance(final Collection<T> aColl) {
+        return new SmartIndexedList<T>(aColl);
+    }
+
+    private IndexedList<E> getIndexedList() {
+        return (IndexedList<E>) internalColl;
+    }
+
+    /**
+     * Removes through the backing list in one pass and drops the index once,
+     * instead of updating it for each moved element.
+     */
+    @Override
+    protected void removeMatching(final Predicate<E> predicate, final boolean expected) {
+        getIndexedList().removeIf(expected ? predicate : predicate.negate());
+    }
+
+    /** SmartIndexedList methods */
+
+    /**
+     * Returns the number of elements equal to o.
+     *
+     * @param o
+     *            Element to count
+     * @return Number of occurences
+     */
+    public int frequency(final Object o) {
+        return getIndexedList().frequency(o);
+    }
+
+    /**
+     * Adds a hash index on the keys of the elements, which supports
+     * {@link #lookup(String, Object)} and {@link #find(String, Object)}.
+     *
+     * @param name
+     *            Name of the index
+     * @param keyExtractor
+     *            Function returning the key of an element
+     * @throws IllegalArgumentException
+     *             If there is an index of this name
+     */
+    public <K> void addIndex(final String name, final UnaryFunction<K, E> keyExtractor) {
+        getIndexedList().addIndex(name, new Index<E>(keyExtractor, new HashMap<Object, Positions>()));
+    }
+
+    /**
+     * Adds a sorted index on the keys of the elements in their natural
+     * ordering, which supports {@link #range(String, Object, Object)} in
+     * addition to the lookups of a hash index.
+     *
+     * @param name
+     *            Name of the index
+     * @param keyExtractor
+     *            Function returning the key of an element, never null
+     * @throws IllegalArgumentException
+     *             If there is an index of this name
+     */
+    public <K extends Comparable<? super K>> void addSortedIndex(final String name,
+            final UnaryFunction<K, E> keyExtractor) {
+        addSortedIndex(name, keyExtractor, null);
+    }
+
+    /**
+     * Adds a sorted index on the keys of the elements in the ordering of the
+     * comparator.
+     *
+     * @param name
+     *            Name of the index
+     * @param keyExtractor
+     *            Function returning the key of an element
+     * @param comparator
+     *            Ordering of the keys, null for natural ordering
+     * @throws IllegalArgumentException
+     *             If there is an index of this name
+     */
+    @SuppressWarnings("unchecked")
+    public <K> void addSortedIndex(final String name, final UnaryFunction<K, E> keyExtractor,
+            final Comparator<? super K> comparator) {
+        getIndexedList().addIndex(name,
+                new Index<E>(keyExtractor, new TreeMap<Object, Positions>((Comparator<Object>) comparator)));
+    }
+
+    /**
+     * Removes the index of the given name, if there is one.
+     *
+     * @param name
+     *            Name of the index
+     */
+    public void removeIndex(final String name) {
+        getIndexedList().removeIndex(name);
+    }
+
+    /**
+     * Returns a view of the elements with the given key in list order. The
+     * index is read each time a terminal operation is called on the view, so
+     * the view reflects later changes of the list.
+     *
+     * @param name
+     *            Name of the index
+     * @param key
+     *            Key to look up
+     * @throws IllegalArgumentException
+     *             If there is no index of this name
+     * @return View of matching elements
+     */
+    public SmartView<E> lookup(final String name, final Object key) {
+        final IndexedList<E> list = getIndexedList();
+        list.index(name);
+
+        return new SmartAbstractView<E>() {
+            @Override
+            protected boolean traverse(final Sink<? super E> sink) {
+                return list.traverse(list.index(name).positions(key), sink);
+            }
+        };
+    }
+
+    /**
+     * Returns the first element with the given key in list order.
+     *
+     * @param name
+     *            Name of the index
+     * @param key
+     *            Key to look up
+     * @throws IllegalArgumentException
+     *             If there is no index of this name
+     * @throws NoSuchElementException
+     *             If no element has this key
+     * @return First matching element
+     */
+    public E find(final String name, final Object key) throws NoSuchElementException {
+        IndexedList<E> list = getIndexedList();
+        Positions positions = list.index(name).positions(key);
+        if (positions == null) {
+            throw new NoSuchElementException("No element has the key " + key);
+        }
+
+        return list.first(positions);
+    }
+
+    /**
+     * Returns a view of the elements whose keys are in the range from
+     * fromKey (inclusive) to toKey (exclusive), ordered by key and then by
+     * list order. The view reflects later changes of the list like
+     * {@link #lookup(String, Object)}.
+     *
+     * @param name
+     *            Name of a sorted index
+     * @param fromKey
+     *            Low endpoint (inclusive)
+     * @param toKey
+     *            High endpoint (exclusive)
+     * @throws IllegalArgumentException
+     *             If there is no index of this name or fromKey is greater
+     *             than toKey
+     * @throws UnsupportedOperationException
+     *             If the index is not sorted
+     * @return View of matching elements
+     */
+    public <K> SmartView<E> range(final String name, final K fromKey, final K toKey) {
+        final IndexedList<E> list = getIndexedList();
+        list.index(name).range(fromKey, toKey);
+
+        return new SmartAbstractView<E>() {
+            @Override
+            protected boolean traverse(final Sink<? super E> sink) {
+                for (Positions positions : list.index(name).range(fromKey, toKey).values()) {
+                    if (!list.traverse(positions, sink)) {
+                        return false;
+                    }
+                }
+
+                return true;
+            }
+        };
+    }
+
+    /** ISmartList methods */
+
+    /**
+     * Slices are copies with their own index, the list is never shared. The
+     * named indexes are not copied.
+     */
+    @Override
+    public SmartList<E> slice(final int fromIndex, final int toIndex) {
+        return new SmartIndexedList<E>(subList(fromIndex, toIndex));
+    }
+
+    /**
+     * The index already knows the first position of each value, so a list
+     * without duplicates is left as it is without a pass and otherwise each
+     * element is kept if it is at its first position. The strategy does not
+     * matter.
+     */
+    @Override
+    public void removeDuplicates(final DuplicateStrategy strategy) {
+        getIndexedList().removeDuplicates();
+    }
+
+    @Override
+    public void removeDuplicates(final int maxDistinct) {
+        getIndexedList().removeDuplicates();
+    }
+
+    @Override
+    public void intersperse(final E elem) {
+        IndexedList<E> list = getIndexedList();
+        if (list.size() < 2) {
+            return;
+        }
+
+        List<E> result = new ArrayList<E>(2 * list.size() - 1);
+        result.add(list.get(0));
+        for (int i = 1; i < list.size(); i++) {
+            result.add(elem);
+            result.add(list.get(i));
+        }
+        list.reset(result);
+    }
+
+    @Override
+    public SmartObjectIntMap<E> getOccurenceCounts() {
+        return getIndexedList().occurenceCounts();
+    }
+
+    @Override
+    public void reverse() {
+        getIndexedList().reverse();
+    }
+
+    /** Index */
+
+    /**
+     * Ascending positions of one key.
+     */
+    private static final class Positions {
+        private int[] positions = new int[2];
+        private int size;
+
+        int first() {
+            return positions[0];
+        }
+
+        int last() {
+            return positions[size - 1];
+        }
+
+        void append(final int pos) {
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size * 2);
+            }
+            positions[size++] = pos;
+        }
+
+        void insert(final int pos) {
+            int i = -Arrays.binarySearch(positions, 0, size, pos) - 1;
+            append(pos);
+            System.arraycopy(positions, i, positions, i + 1, size - 1 - i);
+            positions[i] = pos;
+        }
+
+        void delete(final int pos) {
+            int i = Arrays.binarySearch(positions, 0, size, pos);
+            System.arraycopy(positions, i + 1, positions, i, size - 1 - i);
+            size--;
+        }
+    }
+
+    /**
+     * Map from the keys of the elements to their positions. Without a key
+     * extractor the elements themselves are the keys.
+     */
+    private static final class Index<E> {
+        private final UnaryFunction<?, E> keyExtractor;
+        private final Map<Object, Positions> map;
+        private IndexedList<E> list;
+
+        Index(final UnaryFunction<?, E> keyExtractor, final Map<Object, Positions> map) {
+            this.keyExtractor = keyExtractor;
+            this.map = map;
+        }
+
+        Object key(final E elem) {
+            return keyExtractor == null ? elem : keyExtractor.apply(elem);
+        }
+
+        void add(final Object key, final int pos, final boolean last) {
+            Positions positions = map.get(key);
+            if (positions == null) {
+                positions = new Positions();
+                map.put(key, positions);
+            }
+
+            if (last) {
+                positions.append(pos);
+            } else {
+                positions.insert(pos);
+            }
+        }
+
+        void delete(final Object key, final int pos, final boolean last) {
+            Positions positions = map.get(key);
+            if (last) {
+                positions.size--;
+            } else {
+                positions.delete(pos);
+            }
+
+            if (positions.size == 0) {
+                map.remove(key);
+            }
+        }
+
+        Positions positions(final Object key) {
+            list.catchUp();
+            return map.get(key);
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<Object, Positions> range(final Object fromKey, final Object toKey) {
+            if (!(map instanceof TreeMap)) {
+                throw new UnsupportedOperationException("Index is not sorted");
+            }
+
+            list.catchUp();
+            return ((TreeMap<Object, Positions>) map).subMap(fromKey, toKey);
+        }
+    }
+
+    /**
+     * The backing list. All changes of the decorator, its iterators and sub
+     * lists end up in set, add, remove or removeRange, which keep the indexes
+     * up to date. The first <code>indexed</code> elements are in the indexes,
+     * the element at list position i is stored as position i + base.
+     */
+    private static final class IndexedList<E> extends AbstractList<E> implements RandomAccess {
+        private List<E> elements;
+        private final Index<E> values = new Index<E>(null, new HashMap<Object, Positions>());
+        private final List<Index<E>> indexes = new ArrayList<Index<E>>();
+        private final Map<String, Index<E>> named = new HashMap<String, Index<E>>();
+        private int indexed;
+        private int base;
+
+        IndexedList(final List<E> elements) {
+            this.elements = elements;
+            values.list = this;
+            indexes.add(values);
+        }
+
+        /**
+         * Indexes the elements behind the indexed prefix. If a key extractor
+         * fails, all indexes are dropped, so they are never inconsistent.
+         */
+        private void catchUp() {
+            if ((long) base + elements.size() > Integer.MAX_VALUE) {
+                truncate(0);
+            }
+
+            try {
+                for (; indexed < elements.size(); indexed++) {
+                    E elem = elements.get(indexed);
+                    for (Index<E> index : indexes) {
+                        index.add(index.key(elem), indexed + base, true);
+                    }
+                }
+            } catch (RuntimeException e) {
+                truncate(0);
+                throw e;
+            }
+        }
+
+        /**
+         * Drops the positions from pos on. These are the last positions of
+         * each key, so they are removed from the end.
+         */
+        private void truncate(final int pos) {
+            if (pos == 0) {
+                for (Index<E> index : indexes) {
+                    index.map.clear();
+                }
+                base = 0;
+            } else {
+                for (int i = pos; i < indexed; i++) {
+                    E elem = elements.get(i);
+                    for (Index<E> index : indexes) {
+                        index.delete(index.key(elem), i + base, true);
+                    }
+                }
+            }
+
+            indexed = Math.min(indexed, pos);
+        }
+
+        /**
+         * Prepares the indexes for replacing the elements in [from, to) by
+         * count new ones. If the change is nearer to the head of the indexed
+         * prefix than to its end, the positions in front of it are deleted and
+         * added again behind a new base, so the stored positions behind the
+         * change stay valid. Returns true in this case, then the new elements
+         * have to be indexed by {@link #indexInserted(int, int)} after the
+         * change. Otherwise the positions from the change on are dropped.
+         */
+        private boolean shift(final int from, final int to, final int count) {
+            if (from >= indexed || from == to && count == 0) {
+                return false;
+            }
+
+            long newBase = (long) base + (to - from) - count;
+            long newSize = (long) elements.size() - (to - from) + count;
+            if (to >= indexed || (long) from + to + count >= 2L * (indexed - from)
+                    || newBase < Integer.MIN_VALUE || newBase + newSize > Integer.MAX_VALUE) {
+                truncate(from);
+                return false;
+            }
+
+            try {
+                for (int i = 0; i < to; i++) {
+                    E elem = elements.get(i);
+                    for (Index<E> index : indexes) {
+                        index.delete(index.key(elem), i + base, false);
+                    }
+                }
+
+                base = (int) newBase;
+                for (int i = 0; i < from; i++) {
+                    E elem = elements.get(i);
+                    for (Index<E> index : indexes) {
+                        index.add(index.key(elem), i + base, false);
+                    }
+                }
+            } catch (RuntimeException e) {
+                truncate(0);
+                throw e;
+            }
+
+            indexed += count - (to - from);
+            return true;
+        }
+
+        /**
+         * Adds the positions of the elements inserted after {@link #shift}. If a
+         * key extractor fails, all indexes are dropped and the next lookup
+         * reports the failure.
+         */
+        private void indexInserted(final int from, final int count) {
+            try {
+                for (int i = from; i < from + count; i++) {
+                    E elem = elements.get(i);
+                    for (Index<E> index : indexes) {
+                        index.add(index.key(elem), i + base, false);
+                    }
+                }
+            } catch (RuntimeException e) {
+                truncate(0);
+            }
+        }
+
+        E first(final Positions positions) {
+            return elements.get(positions.first() - base);
+        }
+
+        Index<E> index(final String name) {
+            Index<E> index = named.get(name);
+            if (index == null) {
+                throw new IllegalArgumentException("No index named " + name);
+            }
+
+            return index;
+        }
+
+        void addIndex(final String name, final Index<E> index) {
+            if (named.containsKey(name)) {
+                throw new IllegalArgumentException("Index " + name + " already exists");
+            }
+
+            for (int i = 0; i < indexed; i++) {
+                index.add(index.key(elements.get(i)), i + base, true);
+            }
+            index.list = this;
+            indexes.add(index);
+            named.put(name, index);
+        }
+
+        void removeIndex(final String name) {
+            indexes.remove(named.remove(name));
+        }
+
+        boolean traverse(final Positions positions, final SmartAbstractView.Sink<? super E> sink) {
+            for (int i = 0; positions != null && i < positions.size; i++) {
+                if (!sink.accept(elements.get(positions.positions[i] - base))) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        void reset(final List<E> newElements) {
+            truncate(0);
+            elements = newElements;
+            modCount++;
+        }
+
+        int frequency(final Object o) {
+            Positions positions = values.positions(o);
+            return positions == null ? 0 : positions.size;
+        }
+
+        void removeDuplicates() {
+            catchUp();
+            if (values.map.size() == elements.size()) {
+                return;
+            }
+
+            List<E> result = new ArrayList<E>(values.map.size());
+            for (int i = 0; i < elements.size(); i++) {
+                E elem = elements.get(i);
+                if (values.map.get(elem).first() - base == i) {
+                    result.add(elem);
+                }
+            }
+            reset(result);
+        }
+
+        @SuppressWarnings("unchecked")
+        SmartObjectIntMap<E> occurenceCounts() {
+            catchUp();
+            SmartObjectIntMap<E> result = new SmartObjectIntMap<E>(values.map.size());
+            for (Map.Entry<Object, Positions> entry : values.map.entrySet()) {
+                result.put((E) entry.getKey(), entry.getValue().size);
+            }
+
+            return result;
+        }
+
+        void reverse() {
+            truncate(0);
+            Collections.reverse(elements);
+            modCount++;
+        }
+
+        /** List methods */
+
+        @Override
+        public E get(final int index) {
+            return elements.get(index);
+        }
+
+        @Override
+        public int size() {
+            return elements.size();
+        }
+
+        @Override
+        public boolean contains(final Object o) {
+            return values.positions(o) != null;
+        }
+
+        @Override
+        public int indexOf(final Object o) {
+            Positions positions = values.positions(o);
+            return positions == null ? -1 : positions.first() - base;
+        }
+
+        @Override
+        public int lastIndexOf(final Object o) {
+            Positions positions = values.positions(o);
+            return positions == null ? -1 : positions.last() - base;
+        }
+
+        /**
+         * Moves the position from the keys of the old element to the keys of
+         * the new one in each index.
+         */
+        @Override
+        public E set(final int pos, final E element) {
+            if (pos >= indexed) {
+                return elements.set(pos, element);
+            }
+
+            Object[] keys = new Object[indexes.size()];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = indexes.get(i).key(element);
+            }
+
+            E old = elements.set(pos, element);
+            try {
+                for (int i = 0; i < keys.length; i++) {
+                    Index<E> index = indexes.get(i);
+                    index.delete(index.key(old), pos + base, false);
+                    index.add(keys[i], pos + base, false);
+                }
+            } catch (RuntimeException e) {
+                truncate(0);
+                throw e;
+            }
+
+            return old;
+        }
+
+        @Override
+        public void add(final int pos, final E element) {
+            if (pos < 0 || pos > elements.size()) {
+                throw new IndexOutOfBoundsException("Index: " + pos + ", Size: " + elements.size());
+            }
+
+            boolean shifted = shift(pos, pos, 1);
+            elements.add(pos, element);
+            modCount++;
+            if (shifted) {
+                indexInserted(pos, 1);
+            }
+        }
+
+        @Override
+        public boolean addAll(final Collection<? extends E> c) {
+            modCount++;
+            return elements.addAll(c);
+        }
+
+        @Override
+        public boolean addAll(final int pos, final Collection<? extends E> c) {
+            if (pos < 0 || pos > elements.size()) {
+                throw new IndexOutOfBoundsException("Index: " + pos + ", Size: " + elements.size());
+            }
+
+            List<E> added = new ArrayList<E>(c);
+            boolean shifted = shift(pos, pos, added.size());
+            modCount++;
+            elements.addAll(pos, added);
+            if (shifted) {
+                indexInserted(pos, added.size());
+            }
+
+            return !added.isEmpty();
+        }
+
+        @Override
+        public E remove(final int pos) {
+            if (pos < 0 || pos >= elements.size()) {
+                throw new IndexOutOfBoundsException("Index: " + pos + ", Size: " + elements.size());
+            }
+
+            shift(pos, pos + 1, 0);
+            modCount++;
+            return elements.remove(pos);
+        }
+
+        @Override
+        protected void removeRange(final int fromIndex, final int toIndex) {
+            shift(fromIndex, toIndex, 0);
+            modCount++;
+            elements.subList(fromIndex, toIndex).clear();
+        }
+
+        @Override
+        public void clear() {
+            truncate(0);
+            modCount++;
+            elements.clear();
+        }
+
+        /** Bulk operations drop the indexes once */
+
+        @Override
+        public boolean removeIf(final java.util.function.Predicate<? super E> filter) {
+            truncate(0);
+            modCount++;
+            return elements.removeIf(filter);
+        }
+
+        @Override
+        public boolean removeAll(final Collection<?> c) {
+            truncate(0);
+            modCount++;
+            return elements.removeAll(c);
+        }
+
+        @Override
+        public boolean retainAll(final Collection<?> c) {
+            truncate(0);
+            modCount++;
+            return elements.retainAll(c);
+        }
+
+        @Override
+        public void replaceAll(final UnaryOperator<E> operator) {
+            truncate(0);
+            elements.replaceAll(operator);
+        }
+
+        @Override
+        public void sort(final Comparator<? super E> c) {
+            truncate(0);
+            modCount++;
+            elements.sort(c);
+        }
+    }
+}
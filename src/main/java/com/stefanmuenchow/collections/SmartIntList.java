@@ -0,0 +1,585 @@
+/**
+ * Copyright (c) Stefan Muenchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.stream.IntStream;
+
+import com.stefanmuenchow.collections.function.IntBinaryFunction;
+import com.stefanmuenchow.collections.function.IntPredicate;
+import com.stefanmuenchow.collections.function.IntUnaryFunction;
+
+/**
+ * List of primitive int values offering the operations of SmartList. The
+ * values are stored unboxed in a growing array, so a list of n values takes
+ * n * 4 bytes and no operation allocates a wrapper object.
+ *
+ * @author Stefan Muenchow
+ */
+public class SmartIntList {
+    private static final int[] EMPTY = new int[0];
+
+    private int[] elements;
+    private int size;
+
+    public SmartIntList() {
+        elements = EMPTY;
+    }
+
+    public SmartIntList(final int... elems) {
+        elements = elems.clone();
+        size = elems.length;
+    }
+
+    /**
+     * Creates a list of all values from start (inclusive) to end (exclusive).
+     *
+     * @param start
+     *            First value
+     * @param end
+     *            Upper bound, not included
+     * @throws IllegalArgumentException
+     *             If the range has more than Integer.MAX_VALUE values
+     * @return List of consecutive values
+     */
+    public static SmartIntList range(final int start, final int end) {
+        long length = Math.max(0L, (long) end - start);
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Range from " + start + " to " + end + " is too large for a list");
+        }
+        int[] elems = new int[(int) length];
+        for (int i = 0; i < length; i++) {
+            elems[i] = start + i;
+        }
+
+        return new SmartIntList(elems, (int) length);
+    }
+
+    /** Helper methods */
+
+    private SmartIntList(final int[] elems, final int size) {
+        this.elements = elems;
+        this.size = size;
+    }
+
+    private static SmartIntList copyOf(final int[] elems, final int from, final int to) {
+        return new SmartIntList(Arrays.copyOfRange(elems, from, to), to - from);
+    }
+
+    private void checkIndex(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    /**
+     * Makes sure the list can hold at least minCapacity values without
+     * growing again.
+     *
+     * @param minCapacity
+     *            Minimum capacity
+     */
+    public void ensureCapacity(final int minCapacity) {
+        if (minCapacity > elements.length) {
+            int newCapacity = Math.max(minCapacity, elements.length + (elements.length >> 1) + 1);
+            elements = Arrays.copyOf(elements, newCapacity);
+        }
+    }
+
+    /** List methods */
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int get(final int index) {
+        checkIndex(index);
+        return elements[index];
+    }
+
+    public int set(final int index, final int value) {
+        checkIndex(index);
+        int old = elements[index];
+        elements[index] = value;
+        return old;
+    }
+
+    public void add(final int value) {
+        ensureCapacity(size + 1);
+        elements[size++] = value;
+    }
+
+    public void add(final int index, final int value) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+
+        ensureCapacity(size + 1);
+        System.arraycopy(elements, index, elements, index + 1, size - index);
+        elements[index] = value;
+        size++;
+    }
+
+    public void addAll(final SmartIntList other) {
+        ensureCapacity(size + other.size);
+        System.arraycopy(other.elements, 0, elements, size, other.size);
+        size += other.size;
+    }
+
+    /**
+     * Removes the value at the specified index.
+     *
+     * @param index
+     *            Index of the value to remove
+     * @return Removed value
+     */
+    public int removeAt(final int index) {
+        checkIndex(index);
+        int old = elements[index];
+        System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+        size--;
+        return old;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public boolean contains(final int value) {
+        return indexOf(value) >= 0;
+    }
+
+    public int indexOf(final int value) {
+        for (int i = 0; i < size; i++) {
+            if (elements[i] == value) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    public int lastIndexOf(final int value) {
+        for (int i = size - 1; i >= 0; i--) {
+            if (elements[i] == value) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Returns a copy of the values in this list.
+     *
+     * @return Array of all values
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+
+    /**
+     * Returns a stream over the values of this list.
+     *
+     * @return Stream of values
+     */
+    public IntStream stream() {
+        return Arrays.stream(elements, 0, size);
+    }
+
+    /** SmartList methods */
+
+    /**
+     * Returns the first value in the list.
+     *
+     * @throws NoSuchElementException If list is empty
+     * @return First value
+     */
+    public int head() throws NoSuchElementException {
+        if (isEmpty()) {
+            throw new NoSuchElementException("List is empty, no head element available");
+        }
+
+        return elements[0];
+    }
+
+    /**
+     * Returns a new list without the first value.
+     *
+     * @throws UnsupportedOperationException If list is empty
+     * @return Rest list
+     */
+    public SmartIntList tail() throws UnsupportedOperationException {
+        if (isEmpty()) {
+            throw new UnsupportedOperationException("List is empty, no tail list available");
+        }
+
+        return drop(1);
+    }
+
+    /**
+     * Returns the last value of the list.
+     *
+     * @throws NoSuchElementException If list is empty
+     * @return Last value
+     */
+    public int last() throws NoSuchElementException {
+        if (isEmpty()) {
+            throw new NoSuchElementException("List is empty, no last element available");
+        }
+
+        return elements[size - 1];
+    }
+
+    /**
+     * Gets the value at the specified index. If the index is out of bounds,
+     * the default value is returned.
+     *
+     * @param index
+     *            Index of value to get
+     * @param defaultVal
+     *            Default value
+     * @return Value at index or defaultVal
+     */
+    public int get(final int index, final int defaultVal) {
+        return index >= 0 && index < size ? elements[index] : defaultVal;
+    }
+
+    /**
+     * Takes the first n values of the list. A new list is created.
+     *
+     * @param n
+     *            Number of values to take
+     * @return Prefix list
+     */
+    public SmartIntList take(final int n) {
+        return copyOf(elements, 0, Math.max(0, Math.min(n, size)));
+    }
+
+    /**
+     * Removes the first n values of the list. A new list is created.
+     *
+     * @param n
+     *            Number of values to remove
+     * @return Postfix list
+     */
+    public SmartIntList drop(final int n) {
+        return copyOf(elements, Math.max(0, Math.min(n, size)), size);
+    }
+
+    /**
+     * Takes values until the predicate evaluates to false the first time. A
+     * new list is created.
+     *
+     * @param pred
+     *            Predicate
+     * @return Prefix list
+     */
+    public SmartIntList takeWhile(final IntPredicate pred) {
+        int i = 0;
+        while (i < size && pred.test(elements[i])) {
+            i++;
+        }
+
+        return copyOf(elements, 0, i);
+    }
+
+    /**
+     * Removes values until the predicate evaluates to false the first time. A
+     * new list is created.
+     *
+     * @param pred
+     *            Predicate
+     * @return Postfix list
+     */
+    public SmartIntList dropWhile(final IntPredicate pred) {
+        int i = 0;
+        while (i < size && pred.test(elements[i])) {
+            i++;
+        }
+
+        return copyOf(elements, i, size);
+    }
+
+    /**
+     * Combines the values from left to right using a binary function and an
+     * initial value. If the list is empty, the initial value is returned.
+     *
+     * @param initial
+     *            Initial value
+     * @param funct
+     *            Binary function
+     * @return A single value
+     */
+    public int reduce(final int initial, final IntBinaryFunction funct) {
+        int result = initial;
+        for (int i = 0; i < size; i++) {
+            result = funct.apply(result, elements[i]);
+        }
+
+        return result;
+    }
+
+    /**
+     * Combines the values from left to right using a binary function.
+     *
+     * @param funct
+     *            Binary function
+     * @throws NoSuchElementException If list is empty
+     * @return A single value
+     */
+    public int reduce(final IntBinaryFunction funct) throws NoSuchElementException {
+        int result = head();
+        for (int i = 1; i < size; i++) {
+            result = funct.apply(result, elements[i]);
+        }
+
+        return result;
+    }
+
+    /**
+     * Sums up all values.
+     *
+     * @return Sum of all values
+     */
+    public long sum() {
+        long result = 0;
+        for (int i = 0; i < size; i++) {
+            result += elements[i];
+        }
+
+        return result;
+    }
+
+    /**
+     * Counts all values for which the predicate evaluates to true.
+     *
+     * @param predicate
+     *            Predicate
+     * @return Number of matching values
+     */
+    public int count(final IntPredicate predicate) {
+        int counter = 0;
+        for (int i = 0; i < size; i++) {
+            if (predicate.test(elements[i])) {
+                counter++;
+            }
+        }
+
+        return counter;
+    }
+
+    /**
+     * Checks if the predicate evaluates to true for any value.
+     *
+     * @param pred
+     *            Predicate
+     * @return true / false
+     */
+    public boolean exists(final IntPredicate pred) {
+        for (int i = 0; i < size; i++) {
+            if (pred.test(elements[i])) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Checks if the predicate evaluates to true for all values.
+     *
+     * @param pred
+     *            Predicate
+     * @return true / false
+     */
+    public boolean forall(final IntPredicate pred) {
+        for (int i = 0; i < size; i++) {
+            if (!pred.test(elements[i])) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Seeks the first value for which the predicate evaluates to true.
+     *
+     * @param pred
+     *            Predicate
+     * @throws NoSuchElementException If no value matches
+     * @return Value
+     */
+    public int find(final IntPredicate pred) throws NoSuchElementException {
+        for (int i = 0; i < size; i++) {
+            if (pred.test(elements[i])) {
+                return elements[i];
+            }
+        }
+
+        throw new NoSuchElementException("No element matches the given predicate");
+    }
+
+    /**
+     * Retains all values for which the predicate is true. The list is
+     * compacted in place.
+     *
+     * @param predicate
+     *            Predicate
+     */
+    public void filter(final IntPredicate predicate) {
+        removeMatching(predicate, false);
+    }
+
+    /**
+     * Removes all values for which the predicate is true. The list is
+     * compacted in place.
+     *
+     * @param predicate
+     *            Predicate
+     */
+    public void remove(final IntPredicate predicate) {
+        removeMatching(predicate, true);
+    }
+
+    private void removeMatching(final IntPredicate predicate, final boolean expected) {
+        int write = 0;
+        for (int read = 0; read < size; read++) {
+            int value = elements[read];
+            if (predicate.test(value) != expected) {
+                elements[write++] = value;
+            }
+        }
+
+        size = write;
+    }
+
+    /**
+     * Replaces each value by the result of the function. A new list is
+     * created.
+     *
+     * @param function
+     *            Unary function
+     * @return List of mapped values
+     */
+    public SmartIntList map(final IntUnaryFunction function) {
+        int[] result = new int[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = function.apply(elements[i]);
+        }
+
+        return new SmartIntList(result, size);
+    }
+
+    /**
+     * Reverses the ordering of the values in place.
+     */
+    public void reverse() {
+        for (int i = 0, j = size - 1; i < j; i++, j--) {
+            int temp = elements[i];
+            elements[i] = elements[j];
+            elements[j] = temp;
+        }
+    }
+
+    /**
+     * Removes all duplicate values and keeps the first occurrence of each
+     * value in its original order. A sorted copy of the values is used to
+     * recognize duplicates, so no hash table or wrapper objects are needed.
+     */
+    public void removeDuplicates() {
+        int[] unique = toArray();
+        Arrays.sort(unique);
+
+        int distinct = 0;
+        for (int i = 0; i < unique.length; i++) {
+            if (distinct == 0 || unique[distinct - 1] != unique[i]) {
+                unique[distinct++] = unique[i];
+            }
+        }
+
+        boolean[] seen = new boolean[distinct];
+        int write = 0;
+        for (int read = 0; read < size; read++) {
+            int pos = Arrays.binarySearch(unique, 0, distinct, elements[read]);
+            if (!seen[pos]) {
+                seen[pos] = true;
+                elements[write++] = elements[read];
+            }
+        }
+
+        size = write;
+    }
+
+    /**
+     * Intersperses the string representations of all values with delimiter.
+     *
+     * @param delimiter
+     *            String that is inserted between each two values
+     * @return Resulting string representation
+     */
+    public String join(final String delimiter) {
+        StringBuffer result = new StringBuffer();
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                result.append(delimiter);
+            }
+            result.append(elements[i]);
+        }
+
+        return result.toString();
+    }
+
+    /**
+     * Boxes all values into a SmartList.
+     *
+     * @return List of boxed values
+     */
+    public SmartList<Integer> toSmartList() {
+        SmartList<Integer> result = new SmartArrayList<Integer>();
+        for (int i = 0; i < size; i++) {
+            result.add(elements[i]);
+        }
+
+        return result;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (!(obj instanceof SmartIntList)) {
+            return false;
+        }
+
+        SmartIntList other = (SmartIntList) obj;
+        return Arrays.equals(elements, 0, size, other.elements, 0, other.size);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 1;
+        for (int i = 0; i < size; i++) {
+            result = 31 * result + Integer.hashCode(elements[i]);
+        }
+
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + join(", ") + "]";
+    }
+}
@@ -0,0 +1,1457 @@
+/**
+ * Copyright (c) Stefan Muenchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Set of int values stored as a compressed bitmap (a roaring bitmap). The
+ * values are split into chunks by their upper 16 bits. Each chunk keeps its
+ * lower 16 bits in the most compact of three containers: a sorted array for
+ * up to 4096 values, a bitmap of 65536 bits for more values, or a list of
+ * runs of consecutive values, see {@link #optimize()}. Dense sets need little
+ * more than one bit per value instead of a HashMap node and a boxed Integer.
+ * <p>
+ * The values are iterated in ascending order. Union, intersection, difference
+ * and symmetric difference with another SmartIntSet work chunk by chunk, on
+ * bitmaps word by word. All other operations of SmartSet are supported with
+ * boxed values, null is not allowed.
+ *
+ * @author Stefan Muenchow
+ */
+public class SmartIntSet extends SmartAbstractSet<Integer> implements SmartSet<Integer> {
+    private static final int ARRAY_MAX = 4096;
+    private static final int WORDS = 1024;
+    private static final int MAX_LOW = 0xFFFF;
+
+    private static final byte ARRAY = 0;
+    private static final byte BITMAP = 1;
+    private static final byte RUN = 2;
+
+    private enum Op {
+        OR, AND, AND_NOT, XOR
+    }
+
+    public SmartIntSet() {
+        super(new Bitmap());
+    }
+
+    public SmartIntSet(final int... values) {
+        this();
+        for (int value : values) {
+            add(value);
+        }
+    }
+
+    public SmartIntSet(final Collection<Integer> collection) {
+        this();
+        if (collection instanceof SmartIntSet) {
+            union((SmartIntSet) collection);
+        } else {
+            addAll(collection);
+        }
+    }
+
+    /**
+     * Creates a set of all values from start (inclusive) to end (exclusive).
+     *
+     * @param start
+     *            First value
+     * @param end
+     *            Upper bound, not included
+     * @return Set of consecutive values
+     */
+    public static SmartIntSet range(final int start, final int end) {
+        SmartIntSet result = new SmartIntSet();
+        result.addRange(start, end);
+        return result;
+    }
+
+    /** Helper methods */
+
+    @Override
+    protected SmartSet<Integer> createNewInstance() {
+        return new SmartIntSet();
+    }
+
+    @Override
+    protected <T> SmartSet<T> createNewInstance(final Collection<T> aColl) {
+        return new SmartHashSet<T>(aColl);
+    }
+
+    private Bitmap getInternalSet() {
+        return (Bitmap) internalColl;
+    }
+
+    /**
+     * The sign bit is flipped, so that the unsigned ordering of the chunks is
+     * the ordering of the int values.
+     */
+    private static int key(final int value) {
+        return (value ^ Integer.MIN_VALUE) >>> 16;
+    }
+
+    private static int low(final int value) {
+        return value & MAX_LOW;
+    }
+
+    private static int value(final int key, final int low) {
+        return (key << 16 | low) ^ Integer.MIN_VALUE;
+    }
+
+    /** Primitive methods */
+
+    /**
+     * Adds the value.
+     *
+     * @param value
+     *            Value
+     * @return true if the set did not contain the value
+     */
+    public boolean add(final int value) {
+        return getInternalSet().addInt(value);
+    }
+
+    /**
+     * Adds all values from start (inclusive) to end (exclusive). Chunks that
+     * did not exist before are stored as a single run.
+     *
+     * @param start
+     *            First value
+     * @param end
+     *            Upper bound, not included
+     */
+    public void addRange(final int start, final int end) {
+        if (start < end) {
+            getInternalSet().addRange(start, end - 1);
+        }
+    }
+
+    /**
+     * Removes the value.
+     *
+     * @param value
+     *            Value
+     * @return true if the set contained the value
+     */
+    public boolean remove(final int value) {
+        return getInternalSet().removeInt(value);
+    }
+
+    public boolean contains(final int value) {
+        return getInternalSet().containsInt(value);
+    }
+
+    /**
+     * Returns the number of values, same as size(). It is capped at
+     * Integer.MAX_VALUE, see {@link #getLongCardinality()}.
+     *
+     * @return Number of values
+     */
+    public int cardinality() {
+        return size();
+    }
+
+    /**
+     * Returns the number of values. Unlike size() it is not capped, a set
+     * of ints can hold up to 2^32 values.
+     *
+     * @return Number of values
+     */
+    public long getLongCardinality() {
+        return getInternalSet().longSize();
+    }
+
+    /**
+     * Returns the number of values that are less than or equal to the given
+     * value, capped at Integer.MAX_VALUE, see {@link #rankLong(int)}.
+     *
+     * @param value
+     *            Value
+     * @return Rank of the value
+     */
+    public int rank(final int value) {
+        return (int) Math.min(rankLong(value), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the number of values that are less than or equal to the given
+     * value. Unlike rank it is not capped at Integer.MAX_VALUE.
+     *
+     * @param value
+     *            Value
+     * @return Rank of the value
+     */
+    public long rankLong(final int value) {
+        return getInternalSet().rank(value);
+    }
+
+    /**
+     * Returns the value at the given position in ascending order, i.e. the
+     * value whose rank is index + 1.
+     *
+     * @param index
+     *            Position, starting with 0
+     * @throws IndexOutOfBoundsException
+     *             If index is negative or not less than size()
+     * @return Value
+     */
+    public int select(final int index) {
+        return getInternalSet().select(index);
+    }
+
+    /**
+     * Returns an iterator over the unboxed values in ascending order.
+     *
+     * @return Iterator
+     */
+    public PrimitiveIterator.OfInt intIterator() {
+        return getInternalSet().iterator();
+    }
+
+    /**
+     * Returns a sequential stream of the values in ascending order.
+     *
+     * @return Stream of values
+     */
+    public IntStream intStream() {
+        Spliterator.OfInt spliterator = Spliterators.spliterator(intIterator(), getLongCardinality(),
+                Spliterator.DISTINCT | Spliterator.SORTED | Spliterator.NONNULL | Spliterator.ORDERED);
+        return StreamSupport.intStream(spliterator, false);
+    }
+
+    /**
+     * Returns the values in ascending order.
+     *
+     * @throws IllegalStateException
+     *             If the set has more than Integer.MAX_VALUE values
+     * @return Array of values
+     */
+    public int[] toIntArray() {
+        if (getLongCardinality() > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Set has more values than an array can hold");
+        }
+
+        int[] result = new int[size()];
+        PrimitiveIterator.OfInt it = intIterator();
+        for (int i = 0; i < result.length; i++) {
+            result[i] = it.nextInt();
+        }
+
+        return result;
+    }
+
+    /**
+     * Stores each chunk in the most compact container. This is the only
+     * operation that creates run containers besides addRange, so it should be
+     * called on sets with long runs of consecutive values once they are built.
+     */
+    public void optimize() {
+        getInternalSet().optimize();
+    }
+
+    /**
+     * Writes the set in a compact binary form. Each chunk is written in its
+     * most compact container, whether or not the set is optimized.
+     *
+     * @param out
+     *            Output
+     * @throws IOException
+     *             If writing fails
+     */
+    public void serialize(final DataOutput out) throws IOException {
+        getInternalSet().serialize(out);
+    }
+
+    /**
+     * Returns the number of bytes written by serialize.
+     *
+     * @return Size in bytes
+     */
+    public int serializedSize() {
+        return getInternalSet().serializedSize();
+    }
+
+    /**
+     * Reads a set written by serialize.
+     *
+     * @param in
+     *            Input
+     * @throws IOException
+     *             If reading fails or the input is no serialized set
+     * @return Set
+     */
+    public static SmartIntSet deserialize(final DataInput in) throws IOException {
+        SmartIntSet result = new SmartIntSet();
+        result.getInternalSet().deserialize(in);
+        return result;
+    }
+
+    /** ISmartSet methods */
+
+    /**
+     * With another SmartIntSet, the set algebra works chunk by chunk.
+     */
+    @Override
+    public void union(final Set<Integer> anotherSet) {
+        if (anotherSet instanceof SmartIntSet) {
+            getInternalSet().apply(Op.OR, ((SmartIntSet) anotherSet).getInternalSet());
+        } else {
+            super.union(anotherSet);
+        }
+    }
+
+    @Override
+    public void intersection(final Set<Integer> anotherSet) {
+        if (anotherSet instanceof SmartIntSet) {
+            getInternalSet().apply(Op.AND, ((SmartIntSet) anotherSet).getInternalSet());
+        } else {
+            super.intersection(anotherSet);
+        }
+    }
+
+    @Override
+    public void difference(final Set<Integer> anotherSet) {
+        if (anotherSet instanceof SmartIntSet) {
+            getInternalSet().apply(Op.AND_NOT, ((SmartIntSet) anotherSet).getInternalSet());
+        } else {
+            super.difference(anotherSet);
+        }
+    }
+
+    @Override
+    public void symmetricDifference(final Set<Integer> anotherSet) {
+        if (anotherSet instanceof SmartIntSet) {
+            getInternalSet().apply(Op.XOR, ((SmartIntSet) anotherSet).getInternalSet());
+        } else {
+            super.symmetricDifference(anotherSet);
+        }
+    }
+
+    @Override
+    public boolean isSubsetOf(final Set<Integer> anotherSet) {
+        if (anotherSet instanceof SmartIntSet) {
+            return ((SmartIntSet) anotherSet).getInternalSet().containsAllOf(getInternalSet());
+        }
+
+        return super.isSubsetOf(anotherSet);
+    }
+
+    /**
+     * Compares the uncapped cardinalities, see {@link #getLongCardinality()}.
+     */
+    @Override
+    public boolean isProperSubsetOf(final Set<Integer> anotherSet) {
+        if (anotherSet instanceof SmartIntSet) {
+            return getLongCardinality() < ((SmartIntSet) anotherSet).getLongCardinality() && isSubsetOf(anotherSet);
+        }
+
+        return super.isProperSubsetOf(anotherSet);
+    }
+
+    @Override
+    public boolean isProperSupersetOf(final Set<Integer> anotherSet) {
+        if (anotherSet instanceof SmartIntSet) {
+            return getLongCardinality() > ((SmartIntSet) anotherSet).getLongCardinality() && isSupersetOf(anotherSet);
+        }
+
+        return super.isProperSupersetOf(anotherSet);
+    }
+
+    @Override
+    public boolean isSupersetOf(final Set<Integer> anotherSet) {
+        if (anotherSet instanceof SmartIntSet) {
+            return getInternalSet().containsAllOf(((SmartIntSet) anotherSet).getInternalSet());
+        }
+
+        return super.isSupersetOf(anotherSet);
+    }
+
+    /** Bitmap */
+
+    /**
+     * The backing set. Chunk keys and containers are kept in two parallel
+     * arrays sorted by key.
+     */
+    private static final class Bitmap extends AbstractSet<Integer> {
+        private char[] keys = new char[4];
+        private Container[] containers = new Container[4];
+        private int count;
+        private long size;
+
+        private int find(final int key) {
+            return Arrays.binarySearch(keys, 0, count, (char) key);
+        }
+
+        private void insertAt(final int pos, final int key, final Container container) {
+            if (count == keys.length) {
+                keys = Arrays.copyOf(keys, count * 2);
+                containers = Arrays.copyOf(containers, count * 2);
+            }
+
+            System.arraycopy(keys, pos, keys, pos + 1, count - pos);
+            System.arraycopy(containers, pos, containers, pos + 1, count - pos);
+            keys[pos] = (char) key;
+            containers[pos] = container;
+            count++;
+            size += container.cardinality();
+        }
+
+        private void removeAt(final int pos) {
+            System.arraycopy(keys, pos + 1, keys, pos, count - pos - 1);
+            System.arraycopy(containers, pos + 1, containers, pos, count - pos - 1);
+            containers[--count] = null;
+        }
+
+        boolean addInt(final int value) {
+            int pos = find(key(value));
+            if (pos < 0) {
+                insertAt(-pos - 1, key(value), new ArrayContainer(4).add(low(value)));
+                return true;
+            }
+
+            Container container = containers[pos];
+            int before = container.cardinality();
+            containers[pos] = container = container.add(low(value));
+            size += container.cardinality() - before;
+            return container.cardinality() > before;
+        }
+
+        boolean removeInt(final int value) {
+            int pos = find(key(value));
+            if (pos < 0) {
+                return false;
+            }
+
+            Container container = containers[pos];
+            int before = container.cardinality();
+            container = container.remove(low(value));
+            size += container.cardinality() - before;
+            if (container.cardinality() == 0) {
+                removeAt(pos);
+            } else {
+                containers[pos] = container;
+            }
+
+            return container.cardinality() < before;
+        }
+
+        boolean containsInt(final int value) {
+            int pos = find(key(value));
+            return pos >= 0 && containers[pos].contains(low(value));
+        }
+
+        void addRange(final int first, final int last) {
+            int firstKey = key(first);
+            int lastKey = key(last);
+
+            for (int key = firstKey; key <= lastKey; key++) {
+                int from = key == firstKey ? low(first) : 0;
+                int to = key == lastKey ? low(last) : MAX_LOW;
+                Container range = new RunContainer(new char[] {(char) from, (char) (to - from)}, 1);
+
+                int pos = find(key);
+                if (pos < 0) {
+                    insertAt(-pos - 1, key, range);
+                } else {
+                    size -= containers[pos].cardinality();
+                    containers[pos] = combine(Op.OR, containers[pos], range);
+                    size += containers[pos].cardinality();
+                }
+            }
+        }
+
+        long rank(final int value) {
+            int key = key(value);
+            long rank = 0;
+            int pos = 0;
+            for (; pos < count && keys[pos] < key; pos++) {
+                rank += containers[pos].cardinality();
+            }
+
+            if (pos < count && keys[pos] == key) {
+                rank += containers[pos].rank(low(value));
+            }
+
+            return rank;
+        }
+
+        int select(final int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+
+            int rest = index;
+            int pos = 0;
+            while (rest >= containers[pos].cardinality()) {
+                rest -= containers[pos++].cardinality();
+            }
+
+            return value(keys[pos], containers[pos].select(rest));
+        }
+
+        /**
+         * Replaces the containers by the result of the operation with the
+         * containers of other. Containers of this set that are kept
+         * unchanged are not copied.
+         */
+        void apply(final Op op, final Bitmap other) {
+            char[] newKeys = new char[Math.max(count + other.count, 4)];
+            Container[] newContainers = new Container[newKeys.length];
+            int newCount = 0;
+            long newSize = 0;
+            int i = 0;
+            int j = 0;
+
+            while (i < count || j < other.count) {
+                int key1 = i < count ? keys[i] : Integer.MAX_VALUE;
+                int key2 = j < other.count ? other.keys[j] : Integer.MAX_VALUE;
+                Container container = null;
+
+                if (key1 < key2) {
+                    container = op != Op.AND ? containers[i] : null;
+                    i++;
+                } else if (key1 > key2) {
+                    container = op == Op.OR || op == Op.XOR ? other.containers[j].copy() : null;
+                    j++;
+                } else {
+                    container = combine(op, containers[i], other.containers[j]);
+                    i++;
+                    j++;
+                }
+
+                if (container != null && container.cardinality() > 0) {
+                    newKeys[newCount] = (char) Math.min(key1, key2);
+                    newContainers[newCount++] = container;
+                    newSize += container.cardinality();
+                }
+            }
+
+            keys = newKeys;
+            containers = newContainers;
+            count = newCount;
+            size = newSize;
+        }
+
+        boolean containsAllOf(final Bitmap other) {
+            if (other.size > size) {
+                return false;
+            }
+
+            int i = 0;
+            for (int j = 0; j < other.count; j++) {
+                while (i < count && keys[i] < other.keys[j]) {
+                    i++;
+                }
+
+                if (i == count || keys[i] != other.keys[j]) {
+                    return false;
+                }
+
+                Container container = other.containers[j];
+                if (container.cardinality() > containers[i].cardinality()
+                        || andCardinality(containers[i], container) != container.cardinality()) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        void optimize() {
+            for (int i = 0; i < count; i++) {
+                containers[i] = compact(containers[i]);
+            }
+        }
+
+        void serialize(final DataOutput out) throws IOException {
+            out.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                out.writeChar(keys[i]);
+                compact(containers[i]).write(out);
+            }
+        }
+
+        int serializedSize() {
+            int result = 4;
+            for (int i = 0; i < count; i++) {
+                result += 2 + compact(containers[i]).serializedSize();
+            }
+
+            return result;
+        }
+
+        void deserialize(final DataInput in) throws IOException {
+            int n = in.readInt();
+            if (n < 0 || n > MAX_LOW + 1) {
+                throw new IOException("Invalid number of containers: " + n);
+            }
+
+            keys = new char[Math.max(n, 4)];
+            containers = new Container[keys.length];
+            for (int i = 0; i < n; i++) {
+                keys[i] = in.readChar();
+                containers[i] = Container.read(in);
+                size += containers[i].cardinality();
+            }
+            count = n;
+        }
+
+        /** Set methods */
+
+        @Override
+        public int size() {
+            return (int) Math.min(size, Integer.MAX_VALUE);
+        }
+
+        long longSize() {
+            return size;
+        }
+
+        @Override
+        public boolean contains(final Object o) {
+            return o instanceof Integer && containsInt((Integer) o);
+        }
+
+        @Override
+        public boolean add(final Integer e) {
+            return addInt(e);
+        }
+
+        @Override
+        public boolean remove(final Object o) {
+            return o instanceof Integer && removeInt((Integer) o);
+        }
+
+        @Override
+        public void clear() {
+            Arrays.fill(containers, null);
+            count = 0;
+            size = 0;
+        }
+
+        @Override
+        public PrimitiveIterator.OfInt iterator() {
+            return new PrimitiveIterator.OfInt() {
+                private int pos = 0;
+                private PrimitiveIterator.OfInt it = count > 0 ? containers[0].iterator(0) : null;
+                private int last;
+                private boolean canRemove = false;
+
+                @Override
+                public boolean hasNext() {
+                    while (it != null && !it.hasNext()) {
+                        pos++;
+                        it = pos < count ? containers[pos].iterator(0) : null;
+                    }
+
+                    return it != null;
+                }
+
+                @Override
+                public int nextInt() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+
+                    last = value(keys[pos], it.nextInt());
+                    canRemove = true;
+                    return last;
+                }
+
+                /**
+                 * Removing may change or drop the current container, so the
+                 * iterator continues after the removed value from scratch.
+                 */
+                @Override
+                public void remove() {
+                    if (!canRemove) {
+                        throw new IllegalStateException();
+                    }
+
+                    canRemove = false;
+                    removeInt(last);
+                    pos = find(key(last));
+                    if (pos >= 0) {
+                        it = containers[pos].iterator(low(last) + 1);
+                    } else {
+                        pos = -pos - 1;
+                        it = pos < count ? containers[pos].iterator(0) : null;
+                    }
+                }
+            };
+        }
+    }
+
+    /** Containers */
+
+    /**
+     * Returns the result of the operation on two containers of the same
+     * chunk, which may be a new container of another kind. Neither operand is
+     * changed.
+     */
+    private static Container combine(final Op op, final Container c1, final Container c2) {
+        ArrayContainer a1 = c1 instanceof ArrayContainer ? (ArrayContainer) c1 : null;
+        ArrayContainer a2 = c2 instanceof ArrayContainer ? (ArrayContainer) c2 : null;
+
+        if (a1 != null && a2 != null) {
+            return normalize(ArrayContainer.merge(op, a1, a2));
+        }
+
+        switch (op) {
+        case AND:
+            return a1 != null ? a1.filter(c2, true) : a2 != null ? a2.filter(c1, true) : wordOp(op, c1, c2);
+        case AND_NOT:
+            if (a1 != null) {
+                return a1.filter(c2, false);
+            }
+            return a2 != null ? normalize(c1.toBitmap().clearAll(a2)) : wordOp(op, c1, c2);
+        default:
+            if (a1 != null || a2 != null) {
+                ArrayContainer array = a1 != null ? a1 : a2;
+                BitmapContainer bitmap = (a1 != null ? c2 : c1).toBitmap();
+                return normalize(op == Op.OR ? bitmap.setAll(array) : bitmap.flipAll(array));
+            }
+            return wordOp(op, c1, c2);
+        }
+    }
+
+    private static Container wordOp(final Op op, final Container c1, final Container c2) {
+        long[] words1 = c1.words();
+        long[] words2 = c2.words();
+        long[] result = new long[WORDS];
+
+        switch (op) {
+        case OR:
+            for (int i = 0; i < WORDS; i++) {
+                result[i] = words1[i] | words2[i];
+            }
+            break;
+        case AND:
+            for (int i = 0; i < WORDS; i++) {
+                result[i] = words1[i] & words2[i];
+            }
+            break;
+        case AND_NOT:
+            for (int i = 0; i < WORDS; i++) {
+                result[i] = words1[i] & ~words2[i];
+            }
+            break;
+        default:
+            for (int i = 0; i < WORDS; i++) {
+                result[i] = words1[i] ^ words2[i];
+            }
+        }
+
+        return normalize(new BitmapContainer(result));
+    }
+
+    private static int andCardinality(final Container c1, final Container c2) {
+        if (c1 instanceof ArrayContainer) {
+            return ((ArrayContainer) c1).filter(c2, true).cardinality();
+        } else if (c2 instanceof ArrayContainer) {
+            return ((ArrayContainer) c2).filter(c1, true).cardinality();
+        }
+
+        long[] words1 = c1.words();
+        long[] words2 = c2.words();
+        int result = 0;
+        for (int i = 0; i < WORDS; i++) {
+            result += Long.bitCount(words1[i] & words2[i]);
+        }
+
+        return result;
+    }
+
+    /**
+     * Converts bitmaps of at most 4096 values to arrays and arrays of more
+     * values to bitmaps.
+     */
+    private static Container normalize(final Container container) {
+        if (container instanceof BitmapContainer && container.cardinality() <= ARRAY_MAX) {
+            return ((BitmapContainer) container).toArray();
+        } else if (container instanceof ArrayContainer && container.cardinality() > ARRAY_MAX) {
+            return container.toBitmap();
+        }
+
+        return container;
+    }
+
+    /**
+     * Returns the container of the smallest serialized size.
+     */
+    private static Container compact(final Container container) {
+        int runSize = 2 + 4 * container.runCount();
+        int otherSize = Math.min(2 + 2 * container.cardinality(), 8 * WORDS);
+        if (runSize < otherSize) {
+            return container instanceof RunContainer ? container : RunContainer.of(container);
+        }
+
+        return container instanceof RunContainer ? ((RunContainer) container).toEfficient() : container;
+    }
+
+    private abstract static class Container {
+
+        abstract int cardinality();
+
+        abstract boolean contains(int low);
+
+        /**
+         * Adds the value, returns this container or its replacement.
+         */
+        abstract Container add(int low);
+
+        /**
+         * Removes the value, returns this container or its replacement.
+         */
+        abstract Container remove(int low);
+
+        /**
+         * Returns the number of values less than or equal to low.
+         */
+        abstract int rank(int low);
+
+        abstract int select(int index);
+
+        /**
+         * Iterates the values from the given value on, which may be 65536.
+         */
+        abstract PrimitiveIterator.OfInt iterator(int from);
+
+        abstract Container copy();
+
+        abstract int runCount();
+
+        /**
+         * Returns the values as bitmap words, which must not be changed.
+         */
+        abstract long[] words();
+
+        /**
+         * Returns a new bitmap container with the values.
+         */
+        abstract BitmapContainer toBitmap();
+
+        abstract void write(DataOutput out) throws IOException;
+
+        abstract int serializedSize();
+
+        static Container read(final DataInput in) throws IOException {
+            byte type = in.readByte();
+            switch (type) {
+            case ARRAY:
+                int card = in.readChar() + 1;
+                if (card > ARRAY_MAX) {
+                    throw new IOException("Invalid array container size: " + card);
+                }
+                char[] content = new char[card];
+                for (int i = 0; i < card; i++) {
+                    content[i] = in.readChar();
+                }
+                return new ArrayContainer(content, card);
+            case BITMAP:
+                long[] words = new long[WORDS];
+                for (int i = 0; i < WORDS; i++) {
+                    words[i] = in.readLong();
+                }
+                return new BitmapContainer(words);
+            case RUN:
+                int nruns = in.readChar();
+                char[] runs = new char[2 * nruns];
+                for (int i = 0; i < runs.length; i++) {
+                    runs[i] = in.readChar();
+                }
+                return new RunContainer(runs, nruns);
+            default:
+                throw new IOException("Invalid container type: " + type);
+            }
+        }
+    }
+
+    /**
+     * Sorted array of at most 4096 values.
+     */
+    private static final class ArrayContainer extends Container {
+        private char[] content;
+        private int card;
+
+        ArrayContainer(final int capacity) {
+            content = new char[capacity];
+        }
+
+        ArrayContainer(final char[] content, final int card) {
+            this.content = content;
+            this.card = card;
+        }
+
+        static ArrayContainer merge(final Op op, final ArrayContainer a1, final ArrayContainer a2) {
+            char[] result = new char[op == Op.AND ? Math.min(a1.card, a2.card)
+                    : op == Op.AND_NOT ? a1.card : a1.card + a2.card];
+            boolean keepFirst = op != Op.AND;
+            boolean keepBoth = op == Op.OR || op == Op.AND;
+            boolean keepSecond = op == Op.OR || op == Op.XOR;
+            int n = 0;
+            int i = 0;
+            int j = 0;
+
+            while (i < a1.card && j < a2.card) {
+                char v1 = a1.content[i];
+                char v2 = a2.content[j];
+                if (v1 < v2) {
+                    if (keepFirst) {
+                        result[n++] = v1;
+                    }
+                    i++;
+                } else if (v1 > v2) {
+                    if (keepSecond) {
+                        result[n++] = v2;
+                    }
+                    j++;
+                } else {
+                    if (keepBoth) {
+                        result[n++] = v1;
+                    }
+                    i++;
+                    j++;
+                }
+            }
+
+            if (keepFirst) {
+                System.arraycopy(a1.content, i, result, n, a1.card - i);
+                n += a1.card - i;
+            }
+            if (keepSecond) {
+                System.arraycopy(a2.content, j, result, n, a2.card - j);
+                n += a2.card - j;
+            }
+
+            return new ArrayContainer(result, n);
+        }
+
+        /**
+         * Returns the values that are (or are not) contained in other.
+         */
+        ArrayContainer filter(final Container other, final boolean contained) {
+            char[] result = new char[card];
+            int n = 0;
+            for (int i = 0; i < card; i++) {
+                if (other.contains(content[i]) == contained) {
+                    result[n++] = content[i];
+                }
+            }
+
+            return new ArrayContainer(result, n);
+        }
+
+        @Override
+        int cardinality() {
+            return card;
+        }
+
+        @Override
+        boolean contains(final int low) {
+            return Arrays.binarySearch(content, 0, card, (char) low) >= 0;
+        }
+
+        @Override
+        Container add(final int low) {
+            int pos = Arrays.binarySearch(content, 0, card, (char) low);
+            if (pos >= 0) {
+                return this;
+            } else if (card >= ARRAY_MAX) {
+                return toBitmap().add(low);
+            }
+
+            pos = -pos - 1;
+            if (card == content.length) {
+                content = Arrays.copyOf(content, Math.min(Math.max(card * 2, 4), ARRAY_MAX));
+            }
+            System.arraycopy(content, pos, content, pos + 1, card - pos);
+            content[pos] = (char) low;
+            card++;
+            return this;
+        }
+
+        @Override
+        Container remove(final int low) {
+            int pos = Arrays.binarySearch(content, 0, card, (char) low);
+            if (pos >= 0) {
+                System.arraycopy(content, pos + 1, content, pos, card - pos - 1);
+                card--;
+            }
+
+            return this;
+        }
+
+        @Override
+        int rank(final int low) {
+            int pos = Arrays.binarySearch(content, 0, card, (char) low);
+            return pos >= 0 ? pos + 1 : -pos - 1;
+        }
+
+        @Override
+        int select(final int index) {
+            return content[index];
+        }
+
+        @Override
+        PrimitiveIterator.OfInt iterator(final int from) {
+            int pos = Arrays.binarySearch(content, 0, card, (char) from);
+            final int start = from > MAX_LOW ? card : pos >= 0 ? pos : -pos - 1;
+
+            return new PrimitiveIterator.OfInt() {
+                private int i = start;
+
+                @Override
+                public boolean hasNext() {
+                    return i < card;
+                }
+
+                @Override
+                public int nextInt() {
+                    if (i >= card) {
+                        throw new NoSuchElementException();
+                    }
+                    return content[i++];
+                }
+            };
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(content, card), card);
+        }
+
+        @Override
+        int runCount() {
+            int runs = card > 0 ? 1 : 0;
+            for (int i = 1; i < card; i++) {
+                if (content[i] != content[i - 1] + 1) {
+                    runs++;
+                }
+            }
+
+            return runs;
+        }
+
+        @Override
+        long[] words() {
+            return toBitmap().words;
+        }
+
+        @Override
+        BitmapContainer toBitmap() {
+            return new BitmapContainer(new long[WORDS]).setAll(this);
+        }
+
+        @Override
+        void write(final DataOutput out) throws IOException {
+            out.writeByte(ARRAY);
+            out.writeChar(card - 1);
+            for (int i = 0; i < card; i++) {
+                out.writeChar(content[i]);
+            }
+        }
+
+        @Override
+        int serializedSize() {
+            return 3 + 2 * card;
+        }
+    }
+
+    /**
+     * Bitmap of all 65536 values of a chunk.
+     */
+    private static final class BitmapContainer extends Container {
+        private final long[] words;
+        private int card;
+
+        BitmapContainer(final long[] words) {
+            this.words = words;
+            for (long word : words) {
+                card += Long.bitCount(word);
+            }
+        }
+
+        BitmapContainer setAll(final ArrayContainer array) {
+            for (int i = 0; i < array.card; i++) {
+                add(array.content[i]);
+            }
+            return this;
+        }
+
+        BitmapContainer clearAll(final ArrayContainer array) {
+            for (int i = 0; i < array.card; i++) {
+                int low = array.content[i];
+                if ((words[low >>> 6] & 1L << low) != 0) {
+                    words[low >>> 6] &= ~(1L << low);
+                    card--;
+                }
+            }
+            return this;
+        }
+
+        BitmapContainer flipAll(final ArrayContainer array) {
+            for (int i = 0; i < array.card; i++) {
+                int low = array.content[i];
+                words[low >>> 6] ^= 1L << low;
+                card += (words[low >>> 6] & 1L << low) != 0 ? 1 : -1;
+            }
+            return this;
+        }
+
+        ArrayContainer toArray() {
+            char[] content = new char[card];
+            int n = 0;
+            for (int i = 0; i < WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    content[n++] = (char) (i * 64 + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+
+            return new ArrayContainer(content, n);
+        }
+
+        @Override
+        int cardinality() {
+            return card;
+        }
+
+        @Override
+        boolean contains(final int low) {
+            return (words[low >>> 6] & 1L << low) != 0;
+        }
+
+        @Override
+        Container add(final int low) {
+            if ((words[low >>> 6] & 1L << low) == 0) {
+                words[low >>> 6] |= 1L << low;
+                card++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(final int low) {
+            if ((words[low >>> 6] & 1L << low) != 0) {
+                words[low >>> 6] &= ~(1L << low);
+                card--;
+            }
+            return card <= ARRAY_MAX ? toArray() : this;
+        }
+
+        @Override
+        int rank(final int low) {
+            int result = 0;
+            int w = low >>> 6;
+            for (int i = 0; i < w; i++) {
+                result += Long.bitCount(words[i]);
+            }
+
+            return result + Long.bitCount(words[w] & (2L << low) - 1);
+        }
+
+        @Override
+        int select(final int index) {
+            int rest = index;
+            int w = 0;
+            while (rest >= Long.bitCount(words[w])) {
+                rest -= Long.bitCount(words[w++]);
+            }
+
+            long word = words[w];
+            for (int i = 0; i < rest; i++) {
+                word &= word - 1;
+            }
+
+            return w * 64 + Long.numberOfTrailingZeros(word);
+        }
+
+        @Override
+        PrimitiveIterator.OfInt iterator(final int from) {
+            return new PrimitiveIterator.OfInt() {
+                private int w = from >>> 6;
+                private long word = w < WORDS ? words[w] & -1L << from : 0;
+
+                @Override
+                public boolean hasNext() {
+                    while (word == 0 && w < WORDS - 1) {
+                        word = words[++w];
+                    }
+                    return word != 0;
+                }
+
+                @Override
+                public int nextInt() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+
+                    int low = w * 64 + Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                    return low;
+                }
+            };
+        }
+
+        @Override
+        Container copy() {
+            return toBitmap();
+        }
+
+        @Override
+        int runCount() {
+            int runs = 0;
+            long carry = 0;
+            for (int i = 0; i < WORDS; i++) {
+                long word = words[i];
+                runs += Long.bitCount(word & ~(word << 1 | carry));
+                carry = word >>> 63;
+            }
+
+            return runs;
+        }
+
+        @Override
+        long[] words() {
+            return words;
+        }
+
+        @Override
+        BitmapContainer toBitmap() {
+            return new BitmapContainer(words.clone());
+        }
+
+        @Override
+        void write(final DataOutput out) throws IOException {
+            out.writeByte(BITMAP);
+            for (int i = 0; i < WORDS; i++) {
+                out.writeLong(words[i]);
+            }
+        }
+
+        @Override
+        int serializedSize() {
+            return 1 + 8 * WORDS;
+        }
+    }
+
+    /**
+     * Runs of consecutive values, stored as pairs of start value and length
+     * minus one. Changing a run container converts it to an array or bitmap.
+     */
+    private static final class RunContainer extends Container {
+        private final char[] runs;
+        private final int nruns;
+        private int card;
+
+        RunContainer(final char[] runs, final int nruns) {
+            this.runs = runs;
+            this.nruns = nruns;
+            for (int i = 0; i < nruns; i++) {
+                card += runs[2 * i + 1] + 1;
+            }
+        }
+
+        static RunContainer of(final Container container) {
+            char[] runs = new char[2 * container.runCount()];
+            int n = 0;
+            int prev = -2;
+            PrimitiveIterator.OfInt it = container.iterator(0);
+            while (it.hasNext()) {
+                int low = it.nextInt();
+                if (low == prev + 1) {
+                    runs[2 * n - 1]++;
+                } else {
+                    runs[2 * n] = (char) low;
+                    runs[2 * n + 1] = 0;
+                    n++;
+                }
+                prev = low;
+            }
+
+            return new RunContainer(runs, n);
+        }
+
+        Container toEfficient() {
+            return normalize(toBitmap());
+        }
+
+        private int start(final int run) {
+            return runs[2 * run];
+        }
+
+        private int end(final int run) {
+            return runs[2 * run] + runs[2 * run + 1];
+        }
+
+        /**
+         * Returns the last run starting at or before low, or -1.
+         */
+        private int find(final int low) {
+            int lo = 0;
+            int hi = nruns - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (start(mid) <= low) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+
+            return hi;
+        }
+
+        @Override
+        int cardinality() {
+            return card;
+        }
+
+        @Override
+        boolean contains(final int low) {
+            int run = find(low);
+            return run >= 0 && low <= end(run);
+        }
+
+        @Override
+        Container add(final int low) {
+            return contains(low) ? this : toEfficient().add(low);
+        }
+
+        @Override
+        Container remove(final int low) {
+            return contains(low) ? normalize(toEfficient().remove(low)) : this;
+        }
+
+        @Override
+        int rank(final int low) {
+            int run = find(low);
+            int result = 0;
+            for (int i = 0; i < run; i++) {
+                result += end(i) - start(i) + 1;
+            }
+
+            return run >= 0 ? result + Math.min(low, end(run)) - start(run) + 1 : 0;
+        }
+
+        @Override
+        int select(final int index) {
+            int rest = index;
+            int run = 0;
+            while (rest > end(run) - start(run)) {
+                rest -= end(run) - start(run) + 1;
+                run++;
+            }
+
+            return start(run) + rest;
+        }
+
+        @Override
+        PrimitiveIterator.OfInt iterator(final int from) {
+            int run = find(from);
+            final int startRun = run >= 0 && from <= end(run) ? run : run + 1;
+            final int startValue = startRun == run ? from : startRun < nruns ? start(startRun) : 0;
+
+            return new PrimitiveIterator.OfInt() {
+                private int i = startRun;
+                private int next = startValue;
+
+                @Override
+                public boolean hasNext() {
+                    return i < nruns;
+                }
+
+                @Override
+                public int nextInt() {
+                    if (i >= nruns) {
+                        throw new NoSuchElementException();
+                    }
+
+                    int low = next;
+                    if (low < end(i)) {
+                        next++;
+                    } else if (++i < nruns) {
+                        next = start(i);
+                    }
+                    return low;
+                }
+            };
+        }
+
+        @Override
+        Container copy() {
+            return new RunContainer(runs.clone(), nruns);
+        }
+
+        @Override
+        int runCount() {
+            return nruns;
+        }
+
+        @Override
+        long[] words() {
+            return toBitmap().words;
+        }
+
+        @Override
+        BitmapContainer toBitmap() {
+            long[] words = new long[WORDS];
+            for (int i = 0; i < nruns; i++) {
+                int from = start(i);
+                int to = end(i) + 1;
+                int firstWord = from >>> 6;
+                int lastWord = (to - 1) >>> 6;
+                long firstMask = -1L << from;
+                long lastMask = -1L >>> -to;
+                if (firstWord == lastWord) {
+                    words[firstWord] |= firstMask & lastMask;
+                } else {
+                    words[firstWord] |= firstMask;
+                    for (int w = firstWord + 1; w < lastWord; w++) {
+                        words[w] = -1L;
+                    }
+                    words[lastWord] |= lastMask;
+                }
+            }
+
+            return new BitmapContainer(words);
+        }
+
+        @Override
+        void write(final DataOutput out) throws IOException {
+            out.writeByte(RUN);
+            out.writeChar(nruns);
+            for (int i = 0; i < 2 * nruns; i++) {
+                out.writeChar(runs[i]);
+            }
+        }
+
+        @Override
+        int serializedSize() {
+            return 3 + 4 * nruns;
+        }
+    }
+}
@@ -38,7 +38,8 @@ public interface SmartList<E> extends List<E>, SmartCollection<E> {
     E head() throws NoSuchElementException;
 
     /**
-     * Returns a new list without the first element.
+     * Returns a new list without the first element. Lists with random access
+     * return a slice, see {@link #slice(int, int)}.
      *
      * @throws UnsupportedOperationException If list is empty
      * @return Rest list
@@ -71,7 +72,8 @@ public interface SmartList<E> extends List<E>, SmartCollection<E> {
 
     /**
      * Takes the first n elements of the collection and returns the result. A
-     * new list is created. Similar to
+     * new list is created, for lists with random access it is a slice (see
+     * {@link #slice(int, int)}). Similar to
      *
      * <pre>
      * aList.subList(0, n)
@@ -84,7 +86,8 @@ public interface SmartList<E> extends List<E>, SmartCollection<E> {
 
     /**
      * Removes the first n elements of the collection and returns the result. A
-     * new list is created. Similar to
+     * new list is created, for lists with random access it is a slice (see
+     * {@link #slice(int, int)}). Similar to
      *
      * <pre>
      * aList.subList(n, aList.size())
@@ -95,9 +98,32 @@ public interface SmartList<E> extends List<E>, SmartCollection<E> {
      */
     SmartList<E> drop(int n);
 
+    /**
+     * Returns the elements from fromIndex (inclusive) to toIndex (exclusive)
+     * as a new list. Changes of this list are never visible in the slice and
+     * vice versa.
+     * <p>
+     * Lists with random access create a slice of at least 64 elements and a
+     * quarter of the list in constant time. This list then moves its elements
+     * into storage shared with the slice, so the slice keeps all elements of
+     * this list reachable, not only its own range. The first change of this
+     * list or the slice copies its range, so e.g. adding an element right
+     * after tail() takes O(n) once. Smaller slices and slices of other lists
+     * are copies and leave this list as it is.
+     *
+     * @param fromIndex
+     *            Low endpoint (inclusive)
+     * @param toIndex
+     *            High endpoint (exclusive)
+     * @throws IndexOutOfBoundsException
+     *             If the range is not within the list
+     * @return Slice of the list
+     */
+    SmartList<E> slice(int fromIndex, int toIndex);
+
     /**
      * Takes elements from the List until the predicate evaluates to false the
-     * first time. A new list is created.
+     * first time. A new list is created, see {@link #take(int)}.
      *
      * @param pred
      *            Predicate
@@ -107,7 +133,7 @@ public interface SmartList<E> extends List<E>, SmartCollection<E> {
 
     /**
      * Removes elements from the List until the predicate evaluates to false the
-     * first time. A new list is created.
+     * first time. A new list is created, see {@link #drop(int)}.
      *
      * @param pred
      *            Predicate
@@ -116,13 +142,78 @@ public interface SmartList<E> extends List<E>, SmartCollection<E> {
     SmartList<E> dropWhile(Predicate<E> pred);
 
     /**
-     * Removes all duplicate values from the List. Changes the original list.
+     * Keeps elements of the List until the predicate evaluates to false the
+     * first time and removes all others. Changes the original list.
+     *
+     * @param pred
+     *            Predicate
+     */
+    void takeWhileInPlace(Predicate<E> pred);
+
+    /**
+     * Removes elements from the List until the predicate evaluates to false
+     * the first time. Changes the original list.
+     *
+     * @param pred
+     *            Predicate
+     */
+    void dropWhileInPlace(Predicate<E> pred);
+
+    /**
+     * Strategies of {@link SmartList#removeDuplicates(DuplicateStrategy)}.
+     */
+    enum DuplicateStrategy {
+        /**
+         * Remembers the elements seen so far in a hash table. Takes one pass,
+         * the table grows with the number of distinct elements.
+         */
+        HASH,
+
+        /**
+         * Sorts the indices of the elements by their hash codes to find the
+         * duplicates. Needs a long and a bit per element of the list, no
+         * matter how many distinct elements there are, but no objects and
+         * takes O(n log n) time.
+         */
+        SORT
+    }
+
+    /**
+     * Removes all duplicate values from the List and keeps the first
+     * occurrence of each value in its original order. Changes the original
+     * list. Same as removeDuplicates(DuplicateStrategy.HASH).
      */
     void removeDuplicates();
 
+    /**
+     * Removes all duplicate values from the List and keeps the first
+     * occurrence of each value in its original order. Changes the original
+     * list.
+     *
+     * @param strategy
+     *            How duplicates are found
+     */
+    void removeDuplicates(DuplicateStrategy strategy);
+
+    /**
+     * Removes all duplicate values from the List and keeps the first
+     * occurrence of each value in its original order. Changes the original
+     * list. Uses the hash strategy until more than maxDistinct distinct
+     * values were seen, then drops the hash table and uses the sort strategy
+     * for the whole list. maxDistinct only bounds the hash table, the sort
+     * strategy still needs memory proportional to the size of the list, see
+     * {@link DuplicateStrategy#SORT}. It pays off when the list has many
+     * distinct values, which would make the hash table larger than that.
+     *
+     * @param maxDistinct
+     *            Maximum number of values held in the hash table
+     */
+    void removeDuplicates(int maxDistinct);
+
     /**
      * Inserts the specified elem between each two elements of the list. Changes
-     * the original list.
+     * the original list. Use view().intersperse(elem) to get the result without
+     * changing the list.
      *
      * @param elem
      *            Element to insert
@@ -163,6 +254,14 @@ public interface SmartList<E> extends List<E>, SmartCollection<E> {
      */
     SmartMap<E, Integer> getOccurenceCountMap();
 
+    /**
+     * Counts the occurences of each element in the list without boxing the
+     * counts.
+     *
+     * @return Map from elements to their number of occurences
+     */
+    SmartObjectIntMap<E> getOccurenceCounts();
+
     /**
      * Reverses the ordering of the elements in the list.
      *
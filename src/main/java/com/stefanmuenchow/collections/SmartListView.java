@@ -0,0 +1,160 @@
+/**
+ * Copyright (c) Stefan Muenchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Copy on write view of a range of a random access list, used for slices of
+ * a SmartList. A list that is sliced moves its elements into such a view, so
+ * the list and all its slices share the same storage, which is never changed.
+ * The first change of the list or a slice copies its range into a list of
+ * its own.
+ * <p>
+ * A slice of a view refers to the shared storage directly, so slices of
+ * slices never stack up.
+ *
+ * @author Stefan Muenchow
+ */
+final class SmartListView<E> extends AbstractList<E> implements RandomAccess {
+    private List<E> source;
+    private int offset;
+    private int size;
+    private boolean owned;
+
+    SmartListView(final List<E> source) {
+        this(source, 0, source.size());
+    }
+
+    private SmartListView(final List<E> source, final int offset, final int size) {
+        this.source = source;
+        this.offset = offset;
+        this.size = size;
+    }
+
+    /** Helper methods */
+
+    /**
+     * Returns a view of the given range, sharing the storage of this view.
+     */
+    SmartListView<E> slice(final int fromIndex, final int toIndex) {
+        if (fromIndex < 0 || toIndex > size() || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("fromIndex: " + fromIndex + ", toIndex: " + toIndex
+                    + ", size: " + size());
+        }
+
+        if (owned) {
+            // Own elements become shared storage, the next change copies them
+            owned = false;
+            size = source.size();
+        }
+
+        return new SmartListView<E>(source, offset + fromIndex, toIndex - fromIndex);
+    }
+
+    private List<E> materialize() {
+        if (!owned) {
+            source = new ArrayList<E>(source.subList(offset, offset + size));
+            offset = 0;
+            owned = true;
+        }
+
+        return source;
+    }
+
+    private void checkIndex(final int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+    }
+
+    /** List methods */
+
+    @Override
+    public int size() {
+        return owned ? source.size() : size;
+    }
+
+    @Override
+    public E get(final int index) {
+        if (owned) {
+            return source.get(index);
+        }
+
+        checkIndex(index);
+        return source.get(offset + index);
+    }
+
+    @Override
+    public E set(final int index, final E element) {
+        checkIndex(index);
+        return materialize().set(index, element);
+    }
+
+    @Override
+    public void add(final int index, final E element) {
+        materialize().add(index, element);
+        modCount++;
+    }
+
+    @Override
+    public boolean addAll(final int index, final Collection<? extends E> c) {
+        modCount++;
+        return materialize().addAll(index, c);
+    }
+
+    @Override
+    public E remove(final int index) {
+        checkIndex(index);
+        modCount++;
+        return materialize().remove(index);
+    }
+
+    @Override
+    public void clear() {
+        if (owned) {
+            source.clear();
+        } else {
+            source = new ArrayList<E>();
+            offset = 0;
+            owned = true;
+        }
+        modCount++;
+    }
+
+    /**
+     * Removing a prefix or suffix of shared storage only narrows the view.
+     */
+    @Override
+    protected void removeRange(final int fromIndex, final int toIndex) {
+        if (!owned && (fromIndex == 0 || toIndex == size)) {
+            offset += fromIndex == 0 ? toIndex : 0;
+            size -= toIndex - fromIndex;
+        } else {
+            materialize().subList(fromIndex, toIndex).clear();
+        }
+        modCount++;
+    }
+
+    @Override
+    public Object[] toArray() {
+        return owned ? source.toArray() : source.subList(offset, offset + size).toArray();
+    }
+
+    @Override
+    public <T> T[] toArray(final T[] a) {
+        return owned ? source.toArray(a) : source.subList(offset, offset + size).toArray(a);
+    }
+}
@@ -12,6 +12,8 @@ package com.stefanmuenchow.collections;
 
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.stream.Stream;
 
 import com.stefanmuenchow.collections.function.BinaryFunction;
 import com.stefanmuenchow.collections.function.MapPredicate;
@@ -193,4 +195,26 @@ public interface SmartMap<K, V> extends Map<K, V> {
      * @return
      */
     SmartMap<V, K> swap() throws UnsupportedOperationException;
+
+    /**
+     * Returns a spliterator over the entries of this map. It reports the
+     * characteristics of the backing map and splits without copying.
+     *
+     * @return Spliterator over all entries
+     */
+    Spliterator<Map.Entry<K, V>> spliterator();
+
+    /**
+     * Returns a sequential stream over the entries of this map.
+     *
+     * @return Stream of entries
+     */
+    Stream<Map.Entry<K, V>> stream();
+
+    /**
+     * Returns a parallel stream over the entries of this map.
+     *
+     * @return Parallel stream of entries
+     */
+    Stream<Map.Entry<K, V>> parallelStream();
 }
@@ -0,0 +1,330 @@
+/**
+ * Copyright (c) Stefan Muenchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import com.stefanmuenchow.collections.immutable.ImmutableHashSet;
+
+/**
+ * Copy on write view of a map without some of its keys, used for the tail of
+ * a SmartMap. Reads go to the source map and skip the excluded keys. The first
+ * change copies the remaining entries into a map of the view's own, until then
+ * the view reflects all changes of the source map.
+ * <p>
+ * The tail of a view shares the source map, so a map walked by head() and
+ * tail() is never copied. Each view hands its position in the source map on to
+ * its tail, so finding the next head takes O(1) as long as the source map does
+ * not change. size() takes O(number of excluded keys), isEmpty() does not.
+ * <p>
+ * Views of sorted maps have no excluded keys, their source is a sub map.
+ *
+ * @author Stefan Muenchow
+ */
+final class SmartMapView<K, V> extends AbstractMap<K, V> implements SortedMap<K, V> {
+    private Map<K, V> source;
+    private ImmutableHashSet<Object> excluded;
+    private Iterator<Map.Entry<K, V>> cursor;
+    private Map.Entry<K, V> first;
+    private Map<K, V> copy;
+
+    SmartMapView(final Map<K, V> source) {
+        this(source, new ImmutableHashSet<Object>(), null);
+    }
+
+    private SmartMapView(final Map<K, V> source, final ImmutableHashSet<Object> excluded,
+            final Iterator<Map.Entry<K, V>> cursor) {
+        this.source = source;
+        this.excluded = excluded;
+        this.cursor = cursor;
+    }
+
+    /** Helper methods */
+
+    /**
+     * Returns the view without the first entry. The view must not be empty.
+     */
+    SmartMapView<K, V> tail() {
+        K firstKey = firstEntry().getKey();
+        if (copy != null) {
+            return new SmartMapView<K, V>(copy, new ImmutableHashSet<Object>(firstKey), null);
+        }
+
+        SmartMapView<K, V> result = new SmartMapView<K, V>(source, excluded.add(firstKey), cursor);
+        cursor = null;
+        return result;
+    }
+
+    /**
+     * Returns the first entry or null if the view is empty.
+     */
+    Map.Entry<K, V> firstEntry() {
+        if (copy != null) {
+            return copy.isEmpty() ? null : copy.entrySet().iterator().next();
+        } else if (first == null || !source.containsKey(first.getKey())) {
+            first = seek();
+        }
+
+        return first;
+    }
+
+    /**
+     * Returns the map holding the entries of a view without excluded keys.
+     */
+    Map<K, V> delegate() {
+        return copy != null ? copy : source;
+    }
+
+    private Map.Entry<K, V> seek() {
+        if (cursor != null) {
+            try {
+                while (cursor.hasNext()) {
+                    Map.Entry<K, V> entry = cursor.next();
+                    if (!excluded.contains(entry.getKey())) {
+                        return entry;
+                    }
+                }
+
+                // All keys before the cursor are excluded unless the source
+                // changed, which hasNext() does not detect
+                if (source.size() == excludedCount()) {
+                    return null;
+                }
+            } catch (ConcurrentModificationException e) {
+                // The source changed, start again from its first entry
+            }
+        }
+
+        cursor = source.entrySet().iterator();
+        while (cursor.hasNext()) {
+            Map.Entry<K, V> entry = cursor.next();
+            if (!excluded.contains(entry.getKey())) {
+                return entry;
+            }
+        }
+
+        return null;
+    }
+
+    private int excludedCount() {
+        int count = 0;
+        for (Object key : excluded) {
+            if (source.containsKey(key)) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    private Map<K, V> materialize() {
+        return materialize(true);
+    }
+
+    private Map<K, V> materialize(final boolean fill) {
+        if (copy == null) {
+            Map<K, V> result = source instanceof SortedMap
+                    ? new TreeMap<K, V>(((SortedMap<K, V>) source).comparator())
+                    : new HashMap<K, V>();
+            if (fill) {
+                for (Map.Entry<K, V> entry : source.entrySet()) {
+                    if (!excluded.contains(entry.getKey())) {
+                        result.put(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+
+            copy = result;
+            source = null;
+            excluded = null;
+            cursor = null;
+            first = null;
+        }
+
+        return copy;
+    }
+
+    private SortedMap<K, V> sorted() {
+        return (SortedMap<K, V>) delegate();
+    }
+
+    /** Map methods */
+
+    @Override
+    public int size() {
+        return copy != null ? copy.size() : source.size() - excludedCount();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return firstEntry() == null;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        if (copy != null) {
+            return copy.containsKey(key);
+        }
+
+        return !excluded.contains(key) && source.containsKey(key);
+    }
+
+    @Override
+    public V get(final Object key) {
+        if (copy != null) {
+            return copy.get(key);
+        }
+
+        return excluded.contains(key) ? null : source.get(key);
+    }
+
+    @Override
+    public V put(final K key, final V value) {
+        return materialize().put(key, value);
+    }
+
+    @Override
+    public V remove(final Object key) {
+        return materialize().remove(key);
+    }
+
+    @Override
+    public void putAll(final Map<? extends K, ? extends V> m) {
+        materialize().putAll(m);
+    }
+
+    @Override
+    public void clear() {
+        materialize(false).clear();
+    }
+
+    /**
+     * Iterates the source entries that are not excluded. Changes through the
+     * iterator or the entries are made to the copy of the view.
+     */
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        if (copy != null) {
+            return copy.entrySet();
+        }
+
+        return new AbstractSet<Map.Entry<K, V>>() {
+            @Override
+            public Iterator<Map.Entry<K, V>> iterator() {
+                final Iterator<Map.Entry<K, V>> it = source.entrySet().iterator();
+                final ImmutableHashSet<Object> skipped = excluded;
+
+                return new Iterator<Map.Entry<K, V>>() {
+                    private Map.Entry<K, V> next = advance();
+                    private K lastKey;
+                    private boolean canRemove = false;
+
+                    private Map.Entry<K, V> advance() {
+                        while (it.hasNext()) {
+                            Map.Entry<K, V> entry = it.next();
+                            if (!skipped.contains(entry.getKey())) {
+                                return entry;
+                            }
+                        }
+
+                        return null;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return next != null;
+                    }
+
+                    @Override
+                    public Map.Entry<K, V> next() {
+                        if (next == null) {
+                            throw new NoSuchElementException();
+                        }
+
+                        Map.Entry<K, V> entry = next;
+                        next = advance();
+                        lastKey = entry.getKey();
+                        canRemove = true;
+                        return new SimpleEntry<K, V>(entry) {
+                            private static final long serialVersionUID = 1L;
+
+                            @Override
+                            public V setValue(final V value) {
+                                materialize().put(getKey(), value);
+                                return super.setValue(value);
+                            }
+                        };
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (!canRemove) {
+                            throw new IllegalStateException();
+                        }
+
+                        materialize().remove(lastKey);
+                        canRemove = false;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return SmartMapView.this.size();
+            }
+        };
+    }
+
+    /** SortedMap methods */
+
+    @Override
+    public Comparator<? super K> comparator() {
+        return sorted().comparator();
+    }
+
+    @Override
+    public SortedMap<K, V> subMap(final K fromKey, final K toKey) {
+        materialize();
+        return sorted().subMap(fromKey, toKey);
+    }
+
+    @Override
+    public SortedMap<K, V> headMap(final K toKey) {
+        materialize();
+        return sorted().headMap(toKey);
+    }
+
+    @Override
+    public SortedMap<K, V> tailMap(final K fromKey) {
+        materialize();
+        return sorted().tailMap(fromKey);
+    }
+
+    @Override
+    public K firstKey() {
+        return sorted().firstKey();
+    }
+
+    @Override
+    public K lastKey() {
+        return sorted().lastKey();
+    }
+}
@@ -0,0 +1,482 @@
+/**
+ * Copyright (c) Stefan Muenchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import com.stefanmuenchow.collections.function.IntBinaryFunction;
+import com.stefanmuenchow.collections.function.ObjectIntPredicate;
+
+/**
+ * Map from objects to primitive int values. Keys and values are stored in
+ * two parallel arrays with open addressing and linear probing, so an entry
+ * needs neither a node object nor a boxed value. Absent keys have the value 0.
+ * Removed entries are not marked as deleted, the following entries of the
+ * probe sequence are shifted back instead.
+ *
+ * @author Stefan Muenchow
+ */
+public class SmartObjectIntMap<K> {
+    private static final Object NULL_KEY = new Object();
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.7f;
+
+    private Object[] keys;
+    private int[] values;
+    private int mask;
+    private int threshold;
+    private int size;
+
+    public SmartObjectIntMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public SmartObjectIntMap(final int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    /** Helper methods */
+
+    private static int tableSizeFor(final int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max((int) (expectedSize / LOAD_FACTOR), 2) - 1) << 1;
+        return Math.max(capacity, 2);
+    }
+
+    private void allocate(final int capacity) {
+        keys = new Object[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static Object mask(final Object key) {
+        return key == null ? NULL_KEY : key;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K> K unmask(final Object key) {
+        return key == NULL_KEY ? null : (K) key;
+    }
+
+    private int slot(final Object maskedKey) {
+        int h = maskedKey.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * Returns the slot holding the key, or the empty slot where it would be
+     * inserted encoded as -(slot + 1).
+     */
+    private int probe(final Object maskedKey) {
+        int pos = slot(maskedKey);
+        Object curr;
+        while ((curr = keys[pos]) != null) {
+            if (curr == maskedKey || curr.equals(maskedKey)) {
+                return pos;
+            }
+            pos = (pos + 1) & mask;
+        }
+
+        return -(pos + 1);
+    }
+
+    private void insertAt(final int pos, final Object maskedKey, final int value) {
+        keys[pos] = maskedKey;
+        values[pos] = value;
+        if (++size > threshold) {
+            rehash(keys.length << 1);
+        }
+    }
+
+    private void rehash(final int capacity) {
+        Object[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int pos = slot(oldKeys[i]);
+                while (keys[pos] != null) {
+                    pos = (pos + 1) & mask;
+                }
+                keys[pos] = oldKeys[i];
+                values[pos] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Removes the entry at pos and shifts the following entries of the probe
+     * sequence back, so that no entry is separated from its home slot by an
+     * empty slot.
+     */
+    private void removeAt(final int pos) {
+        size--;
+        int last = pos;
+        int curr = pos;
+
+        while (true) {
+            curr = (curr + 1) & mask;
+            Object key = keys[curr];
+            if (key == null) {
+                keys[last] = null;
+                return;
+            }
+
+            int home = slot(key);
+            boolean movable = last <= curr ? (last >= home || home > curr) : (last >= home && home > curr);
+            if (movable) {
+                keys[last] = key;
+                values[last] = values[curr];
+                last = curr;
+            }
+        }
+    }
+
+    /**
+     * Visits all slots once and removes the entries for which the predicate
+     * evaluates to expected. The sweep starts behind an empty slot, so
+     * shifted entries never move into the already visited range.
+     */
+    private void removeMatching(final ObjectIntPredicate<K> predicate, final boolean expected) {
+        int start = 0;
+        while (keys[start] != null) {
+            start++;
+        }
+
+        int pos = (start + 1) & mask;
+        while (pos != start) {
+            Object key = keys[pos];
+            if (key != null && predicate.test(SmartObjectIntMap.<K>unmask(key), values[pos]) == expected) {
+                // The next entry may have been shifted into pos, so check it again
+                removeAt(pos);
+            } else {
+                pos = (pos + 1) & mask;
+            }
+        }
+    }
+
+    /** Map methods */
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(final Object key) {
+        return probe(mask(key)) >= 0;
+    }
+
+    /**
+     * Gets the value to the given key.
+     *
+     * @param key
+     *            Key to get value to
+     * @return Value to given key or 0
+     */
+    public int get(final Object key) {
+        int pos = probe(mask(key));
+        return pos >= 0 ? values[pos] : 0;
+    }
+
+    /**
+     * Gets the value to the given key if it exists. Else returns defaultVal.
+     *
+     * @param key
+     *            Key to get value to
+     * @param defaultVal
+     *            Default value
+     * @return Value to given key or defaultVal
+     */
+    public int get(final K key, final int defaultVal) {
+        int pos = probe(mask(key));
+        return pos >= 0 ? values[pos] : defaultVal;
+    }
+
+    /**
+     * Associates the value with the key.
+     *
+     * @param key
+     *            Key
+     * @param value
+     *            Value
+     * @return Previous value to the key or 0
+     */
+    public int put(final K key, final int value) {
+        Object maskedKey = mask(key);
+        int pos = probe(maskedKey);
+        if (pos >= 0) {
+            int old = values[pos];
+            values[pos] = value;
+            return old;
+        }
+
+        insertAt(-pos - 1, maskedKey, value);
+        return 0;
+    }
+
+    /**
+     * Adds delta to the value of the key with a single probe. An absent key is
+     * inserted with delta as value.
+     *
+     * @param key
+     *            Key
+     * @param delta
+     *            Value to add
+     * @return New value to the key
+     */
+    public int addTo(final K key, final int delta) {
+        Object maskedKey = mask(key);
+        int pos = probe(maskedKey);
+        if (pos >= 0) {
+            return values[pos] += delta;
+        }
+
+        insertAt(-pos - 1, maskedKey, delta);
+        return delta;
+    }
+
+    /**
+     * Removes the key.
+     *
+     * @param key
+     *            Key to remove
+     * @return Previous value to the key or 0
+     */
+    public int remove(final Object key) {
+        int pos = probe(mask(key));
+        if (pos < 0) {
+            return 0;
+        }
+
+        int old = values[pos];
+        removeAt(pos);
+        return old;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, null);
+        size = 0;
+    }
+
+    /**
+     * Returns a new list of all keys.
+     *
+     * @return List of keys
+     */
+    public SmartList<K> keys() {
+        SmartList<K> result = new SmartArrayList<K>();
+        for (Object key : keys) {
+            if (key != null) {
+                result.add(SmartObjectIntMap.<K>unmask(key));
+            }
+        }
+
+        return result;
+    }
+
+    /** SmartMap methods */
+
+    /**
+     * Returns the first value for which the predicate evaluates to true.
+     *
+     * @param predicate
+     *            Predicate to test entries against
+     * @throws NoSuchElementException If no entry matches
+     * @return Value satisfying predicate
+     */
+    public int find(final ObjectIntPredicate<K> predicate) throws NoSuchElementException {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null && predicate.test(SmartObjectIntMap.<K>unmask(keys[i]), values[i])) {
+                return values[i];
+            }
+        }
+
+        throw new NoSuchElementException("No element matches the given predicate");
+    }
+
+    /**
+     * Retains all entries for which the predicate evaluates to true. Entries
+     * are removed in place.
+     *
+     * @param predicate
+     *            Predicate
+     */
+    public void filter(final ObjectIntPredicate<K> predicate) {
+        removeMatching(predicate, false);
+    }
+
+    /**
+     * Removes all entries for which the predicate evaluates to true. Entries
+     * are removed in place.
+     *
+     * @param predicate
+     *            Predicate
+     */
+    public void remove(final ObjectIntPredicate<K> predicate) {
+        removeMatching(predicate, true);
+    }
+
+    /**
+     * Combines all values using a binary function and an initial value.
+     *
+     * @param initial
+     *            Initial value
+     * @param funct
+     *            Binary function
+     * @return A single value
+     */
+    public int reduce(final int initial, final IntBinaryFunction funct) {
+        int result = initial;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                result = funct.apply(result, values[i]);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Calls the toString() method for the key of each entry and inserts
+     * keyValDelimiter between key and value. The resulting strings are
+     * interspersed with entryDelimiter.
+     *
+     * @param entryDelimiter
+     *            String to insert between each two entries
+     * @param keyValDelimiter
+     *            String to insert between key and value of each entry
+     * @return Resulting string representation
+     */
+    public String join(final String entryDelimiter, final String keyValDelimiter) {
+        StringBuffer sb = new StringBuffer();
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                if (sb.length() > 0) {
+                    sb.append(entryDelimiter);
+                }
+                sb.append(SmartObjectIntMap.<K>unmask(keys[i])).append(keyValDelimiter).append(values[i]);
+            }
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Counts all entries for which the predicate evaluates to true.
+     *
+     * @param predicate
+     *            Predicate
+     * @return Number of matching entries
+     */
+    public int count(final ObjectIntPredicate<K> predicate) {
+        int counter = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null && predicate.test(SmartObjectIntMap.<K>unmask(keys[i]), values[i])) {
+                counter++;
+            }
+        }
+
+        return counter;
+    }
+
+    /**
+     * Checks if the predicate evaluates to true for any entry.
+     *
+     * @param predicate
+     *            Predicate
+     * @return true / false
+     */
+    public boolean exists(final ObjectIntPredicate<K> predicate) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null && predicate.test(SmartObjectIntMap.<K>unmask(keys[i]), values[i])) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Checks if the predicate evaluates to true for all entries.
+     *
+     * @param predicate
+     *            Predicate
+     * @return true / false
+     */
+    public boolean forall(final ObjectIntPredicate<K> predicate) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null && !predicate.test(SmartObjectIntMap.<K>unmask(keys[i]), values[i])) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Boxes all values into a SmartMap.
+     *
+     * @return Map of boxed values
+     */
+    public SmartMap<K, Integer> toSmartMap() {
+        SmartMap<K, Integer> result = new SmartHashMap<K, Integer>();
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                result.put(SmartObjectIntMap.<K>unmask(keys[i]), values[i]);
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean equals(final Object obj) {
+        if (!(obj instanceof SmartObjectIntMap) || ((SmartObjectIntMap<?>) obj).size != size) {
+            return false;
+        }
+
+        SmartObjectIntMap<Object> other = (SmartObjectIntMap<Object>) obj;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                int pos = other.probe(keys[i]);
+                if (pos < 0 || other.values[pos] != values[i]) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                Object key = unmask(keys[i]);
+                result += (key == null ? 0 : key.hashCode()) ^ Integer.hashCode(values[i]);
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "{" + join(", ", "=") + "}";
+    }
+}
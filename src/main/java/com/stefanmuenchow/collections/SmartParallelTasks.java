@@ -0,0 +1,271 @@
+/**
+ * Copyright (c) Stefan Muenchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.stefanmuenchow.collections.function.BinaryFunction;
+import com.stefanmuenchow.collections.function.Predicate;
+import com.stefanmuenchow.collections.function.UnaryFunction;
+
+/**
+ * Fork/join tasks used by the parallel operations of array backed lists. Each
+ * task splits its index range in halves until the range is smaller than the
+ * sequential threshold and processes the leaves with plain index loops.
+ * Results of the halves are always combined from left to right, so the
+ * ordering is the same as for the sequential operations.
+ *
+ * @author Stefan Muenchow
+ */
+final class SmartParallelTasks {
+    private static final int MIN_LEAF_SIZE = 512;
+    private static final ForkJoinPool POOL = ForkJoinPool.commonPool();
+
+    private SmartParallelTasks() {
+    }
+
+    /** Entry points */
+
+    static <R, E> Object[] map(final List<E> list, final UnaryFunction<R, E> function) {
+        Object[] result = new Object[list.size()];
+        POOL.invoke(new MapTask<R, E>(list, function, result, 0, list.size(), threshold(list)));
+        return result;
+    }
+
+    static <R, E> R reduce(final List<E> list, final R identity, final BinaryFunction<R, E> accumulator,
+            final BinaryFunction<R, R> combiner) {
+        return POOL.invoke(new ReduceTask<R, E>(list, identity, accumulator, combiner, 0, list.size(),
+                threshold(list)));
+    }
+
+    static <E> E reduce(final List<E> list, final BinaryFunction<E, E> funct) {
+        if (list.isEmpty()) {
+            return null;
+        }
+
+        return POOL.invoke(new FoldTask<E>(list, funct, 0, list.size(), threshold(list)));
+    }
+
+    static <E> int count(final List<E> list, final Predicate<E> predicate) {
+        return POOL.invoke(new CountTask<E>(list, predicate, 0, list.size(), threshold(list)));
+    }
+
+    static <E> boolean exists(final List<E> list, final Predicate<E> predicate, final boolean expected) {
+        AtomicBoolean found = new AtomicBoolean(false);
+        POOL.invoke(new SearchTask<E>(list, predicate, expected, found, 0, list.size(), threshold(list)));
+        return found.get();
+    }
+
+    private static int threshold(final List<?> list) {
+        return Math.max(list.size() / (POOL.getParallelism() * 4), MIN_LEAF_SIZE);
+    }
+
+    /** Tasks */
+
+    private static final class MapTask<R, E> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<E> list;
+        private final UnaryFunction<R, E> function;
+        private final Object[] result;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        MapTask(final List<E> list, final UnaryFunction<R, E> function, final Object[] result,
+                final int from, final int to, final int threshold) {
+            this.list = list;
+            this.function = function;
+            this.result = result;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                for (int i = from; i < to; i++) {
+                    result[i] = function.apply(list.get(i));
+                }
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new MapTask<R, E>(list, function, result, from, mid, threshold),
+                        new MapTask<R, E>(list, function, result, mid, to, threshold));
+            }
+        }
+    }
+
+    private static final class ReduceTask<R, E> extends RecursiveTask<R> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<E> list;
+        private final R identity;
+        private final BinaryFunction<R, E> accumulator;
+        private final BinaryFunction<R, R> combiner;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        ReduceTask(final List<E> list, final R identity, final BinaryFunction<R, E> accumulator,
+                final BinaryFunction<R, R> combiner, final int from, final int to, final int threshold) {
+            this.list = list;
+            this.identity = identity;
+            this.accumulator = accumulator;
+            this.combiner = combiner;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected R compute() {
+            if (to - from <= threshold) {
+                R result = identity;
+                for (int i = from; i < to; i++) {
+                    result = accumulator.apply(result, list.get(i));
+                }
+                return result;
+            }
+
+            int mid = (from + to) >>> 1;
+            ReduceTask<R, E> right = new ReduceTask<R, E>(list, identity, accumulator, combiner, mid, to, threshold);
+            right.fork();
+            R leftResult = new ReduceTask<R, E>(list, identity, accumulator, combiner, from, mid, threshold).compute();
+            return combiner.apply(leftResult, right.join());
+        }
+    }
+
+    private static final class FoldTask<E> extends RecursiveTask<E> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<E> list;
+        private final BinaryFunction<E, E> funct;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        FoldTask(final List<E> list, final BinaryFunction<E, E> funct, final int from, final int to,
+                final int threshold) {
+            this.list = list;
+            this.funct = funct;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected E compute() {
+            if (to - from <= threshold) {
+                E result = list.get(from);
+                for (int i = from + 1; i < to; i++) {
+                    result = funct.apply(result, list.get(i));
+                }
+                return result;
+            }
+
+            int mid = (from + to) >>> 1;
+            FoldTask<E> right = new FoldTask<E>(list, funct, mid, to, threshold);
+            right.fork();
+            E leftResult = new FoldTask<E>(list, funct, from, mid, threshold).compute();
+            return funct.apply(leftResult, right.join());
+        }
+    }
+
+    private static final class CountTask<E> extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<E> list;
+        private final Predicate<E> predicate;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        CountTask(final List<E> list, final Predicate<E> predicate, final int from, final int to,
+                final int threshold) {
+            this.list = list;
+            this.predicate = predicate;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (to - from <= threshold) {
+                int counter = 0;
+                for (int i = from; i < to; i++) {
+                    if (predicate.test(list.get(i))) {
+                        counter++;
+                    }
+                }
+                return counter;
+            }
+
+            int mid = (from + to) >>> 1;
+            CountTask<E> right = new CountTask<E>(list, predicate, mid, to, threshold);
+            right.fork();
+            int leftResult = new CountTask<E>(list, predicate, from, mid, threshold).compute();
+            return leftResult + right.join();
+        }
+    }
+
+    /**
+     * Searches for an element for which the predicate evaluates to
+     * <code>expected</code>. As soon as one leaf finds such an element, the
+     * shared flag is set and all other subtasks return without further tests.
+     */
+    private static final class SearchTask<E> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<E> list;
+        private final Predicate<E> predicate;
+        private final boolean expected;
+        private final AtomicBoolean found;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        SearchTask(final List<E> list, final Predicate<E> predicate, final boolean expected,
+                final AtomicBoolean found, final int from, final int to, final int threshold) {
+            this.list = list;
+            this.predicate = predicate;
+            this.expected = expected;
+            this.found = found;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (found.get()) {
+                return;
+            }
+
+            if (to - from <= threshold) {
+                for (int i = from; i < to && !found.get(); i++) {
+                    if (predicate.test(list.get(i)) == expected) {
+                        found.set(true);
+                    }
+                }
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new SearchTask<E>(list, predicate, expected, found, from, mid, threshold),
+                        new SearchTask<E>(list, predicate, expected, found, mid, to, threshold));
+            }
+        }
+    }
+}
@@ -86,6 +86,15 @@ public interface SmartSet<E> extends Set<E>, SmartCollection<E> {
      */
     void difference(Set<E> anotherSet);
 
+    /**
+     * Creates the symmetric difference of both sets, i.e. all elements that
+     * are in exactly one of them. The first set is changed.
+     *
+     * @param anotherSet
+     *            Another set
+     */
+    void symmetricDifference(Set<E> anotherSet);
+
     @Override
     <R> SmartSet<R> map(UnaryFunction<R, E> function);
 
@@ -0,0 +1,258 @@
+/**
+ * Copyright (c) Stefan Muenchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+
+/**
+ * Linear merges of sorted sets, used by SmartTreeSet and SmartTreeMap if both
+ * operands are sorted by the same comparator. The results are sorted lists,
+ * which TreeSet.addAll and TreeMap.putAll load into a balanced tree in linear
+ * time when they are wrapped by {@link #sortedSet} or {@link #sortedMap}.
+ *
+ * @author Stefan Muenchow
+ */
+final class SmartSortedMerge {
+
+    private SmartSortedMerge() {
+    }
+
+    /** Merging */
+
+    /**
+     * Checks if the set or map is sorted by the given comparator, null meaning
+     * the natural ordering.
+     */
+    static boolean sortedBy(final Object coll, final Comparator<?> comparator) {
+        if (coll instanceof SortedSet) {
+            return Objects.equals(comparator, ((SortedSet<?>) coll).comparator());
+        } else if (coll instanceof SortedMap) {
+            return Objects.equals(comparator, ((SortedMap<?, ?>) coll).comparator());
+        }
+
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <E> int compare(final Comparator<? super E> comparator, final E e1, final E e2) {
+        return comparator != null ? comparator.compare(e1, e2) : ((Comparable<? super E>) e1).compareTo(e2);
+    }
+
+    /**
+     * Merges two sorted sets in one pass over both. Elements only in the
+     * first set, in both sets or only in the second set are kept as
+     * specified. Elements in both sets are taken from the first set.
+     *
+     * @return Sorted list of the kept elements
+     */
+    static <E> List<E> merge(final Iterable<E> first, final Iterable<E> second,
+            final Comparator<? super E> comparator, final boolean keepFirst, final boolean keepBoth,
+            final boolean keepSecond) {
+        List<E> result = new ArrayList<E>();
+        Iterator<E> it1 = first.iterator();
+        Iterator<E> it2 = second.iterator();
+        boolean has1 = it1.hasNext();
+        boolean has2 = it2.hasNext();
+        E e1 = has1 ? it1.next() : null;
+        E e2 = has2 ? it2.next() : null;
+
+        while (has1 && has2) {
+            int c = compare(comparator, e1, e2);
+            if (c <= 0 && (c < 0 ? keepFirst : keepBoth)) {
+                result.add(e1);
+            } else if (c > 0 && keepSecond) {
+                result.add(e2);
+            }
+
+            if (c <= 0) {
+                has1 = it1.hasNext();
+                e1 = has1 ? it1.next() : null;
+            }
+            if (c >= 0) {
+                has2 = it2.hasNext();
+                e2 = has2 ? it2.next() : null;
+            }
+        }
+
+        if (has1 && keepFirst) {
+            result.add(e1);
+            while (it1.hasNext()) {
+                result.add(it1.next());
+            }
+        }
+
+        if (has2 && keepSecond) {
+            result.add(e2);
+            while (it2.hasNext()) {
+                result.add(it2.next());
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Checks if the sorted set container contains all elements of the sorted
+     * set elems, walking both sets once. Stops at the first element that is
+     * missing.
+     */
+    static <E> boolean containsAll(final Iterable<E> container, final Iterable<E> elems,
+            final Comparator<? super E> comparator) {
+        Iterator<E> it = container.iterator();
+
+        for (E elem : elems) {
+            int c = 1;
+            while (c > 0 && it.hasNext()) {
+                c = compare(comparator, elem, it.next());
+            }
+
+            if (c != 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /** Bulk loading */
+
+    /**
+     * Wraps a sorted list as a sorted set, so that TreeSet.addAll builds the
+     * tree in linear time. The set supports iteration only.
+     */
+    static <E> SortedSet<E> sortedSet(final List<E> elems, final Comparator<? super E> comparator) {
+        return new SortedList<E>(elems, comparator);
+    }
+
+    /**
+     * Wraps a sorted list of entries as a sorted map, so that TreeMap.putAll
+     * builds the tree in linear time. The map supports iteration only.
+     */
+    static <K, V> SortedMap<K, V> sortedMap(final List<Map.Entry<K, V>> entries,
+            final Comparator<? super K> comparator) {
+        return new SortedEntries<K, V>(entries, comparator);
+    }
+
+    private static final class SortedList<E> extends AbstractSet<E> implements SortedSet<E> {
+        private final List<E> elems;
+        private final Comparator<? super E> comparator;
+
+        SortedList(final List<E> elems, final Comparator<? super E> comparator) {
+            this.elems = elems;
+            this.comparator = comparator;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return elems.iterator();
+        }
+
+        @Override
+        public int size() {
+            return elems.size();
+        }
+
+        @Override
+        public Comparator<? super E> comparator() {
+            return comparator;
+        }
+
+        @Override
+        public E first() {
+            return elems.get(0);
+        }
+
+        @Override
+        public E last() {
+            return elems.get(elems.size() - 1);
+        }
+
+        @Override
+        public SortedSet<E> subSet(final E fromElement, final E toElement) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SortedSet<E> headSet(final E toElement) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SortedSet<E> tailSet(final E fromElement) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static final class SortedEntries<K, V> extends AbstractMap<K, V> implements SortedMap<K, V> {
+        private final List<Map.Entry<K, V>> entries;
+        private final Comparator<? super K> comparator;
+
+        SortedEntries(final List<Map.Entry<K, V>> entries, final Comparator<? super K> comparator) {
+            this.entries = entries;
+            this.comparator = comparator;
+        }
+
+        @Override
+        public Set<Map.Entry<K, V>> entrySet() {
+            return new AbstractSet<Map.Entry<K, V>>() {
+                @Override
+                public Iterator<Map.Entry<K, V>> iterator() {
+                    return entries.iterator();
+                }
+
+                @Override
+                public int size() {
+                    return entries.size();
+                }
+            };
+        }
+
+        @Override
+        public Comparator<? super K> comparator() {
+            return comparator;
+        }
+
+        @Override
+        public K firstKey() {
+            return entries.get(0).getKey();
+        }
+
+        @Override
+        public K lastKey() {
+            return entries.get(entries.size() - 1).getKey();
+        }
+
+        @Override
+        public SortedMap<K, V> subMap(final K fromKey, final K toKey) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SortedMap<K, V> headMap(final K toKey) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SortedMap<K, V> tailMap(final K fromKey) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -10,11 +10,20 @@
 
 package com.stefanmuenchow.collections;
 
+import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
+import com.stefanmuenchow.collections.function.BinaryFunction;
+import com.stefanmuenchow.collections.function.MapPredicate;
+
 public class SmartTreeMap<K, V> extends SmartAbstractMap<K, V> implements SmartSortedMap<K, V> {
 
     public SmartTreeMap() {
@@ -25,6 +34,10 @@ public class SmartTreeMap<K, V> extends SmartAbstractMap<K, V> implements SmartS
         super(new TreeMap<K, V>(map));
     }
 
+    SmartTreeMap(final SmartMapView<K, V> view) {
+        super(view);
+    }
+
     /** Helper methods */
 
     private SortedMap<K, V> getInternalMap() {
@@ -41,6 +54,154 @@ public class SmartTreeMap<K, V> extends SmartAbstractMap<K, V> implements SmartS
         return new SmartTreeMap<S, R>(aMap);
     }
 
+    @Override
+    SmartMap<K, V> createView(final SmartMapView<K, V> view) {
+        return new SmartTreeMap<K, V>(view);
+    }
+
+    /** SmartMap methods */
+
+    /**
+     * If anotherMap is sorted like this map, both are merged in one pass and
+     * the tree is built once from the merged entries.
+     */
+    @Override
+    public void mergeWith(final SmartMap<K, V> anotherMap, final BinaryFunction<V, V> mergeFunct) {
+        if (!SmartSortedMerge.sortedBy(anotherMap, comparator())) {
+            super.mergeWith(anotherMap, mergeFunct);
+            return;
+        }
+
+        List<Map.Entry<K, V>> result = new ArrayList<Map.Entry<K, V>>(anotherMap.size());
+        Iterator<Map.Entry<K, V>> it = internalMap.entrySet().iterator();
+        boolean hasOwn = it.hasNext();
+        Map.Entry<K, V> own = hasOwn ? it.next() : null;
+
+        for (Map.Entry<K, V> entry : anotherMap.entrySet()) {
+            int c = -1;
+            while (hasOwn && (c = SmartSortedMerge.compare(comparator(), own.getKey(), entry.getKey())) < 0) {
+                hasOwn = it.hasNext();
+                own = hasOwn ? it.next() : null;
+            }
+
+            if (hasOwn && c == 0) {
+                V merged = mergeFunct.apply(own.getValue(), entry.getValue());
+                result.add(new AbstractMap.SimpleImmutableEntry<K, V>(entry.getKey(), merged));
+            } else {
+                result.add(entry);
+            }
+        }
+
+        internalMap.clear();
+        internalMap.putAll(SmartSortedMerge.sortedMap(result, comparator()));
+    }
+
+    /**
+     * Returns a view of the entries after the first key. Its source is a sub
+     * map of the tree map, so the tail of a tail is a sub map of the same tree
+     * map.
+     */
+    @Override
+    public SmartSortedMap<K, V> tail() {
+        if (isEmpty()) {
+            throw new UnsupportedOperationException("Map is empty. No tail map available.");
+        }
+
+        Map<K, V> source = internalMap instanceof SmartMapView
+                ? ((SmartMapView<K, V>) internalMap).delegate()
+                : internalMap;
+        NavigableMap<K, V> tree = (NavigableMap<K, V>) source;
+        return new SmartTreeMap<K, V>(new SmartMapView<K, V>(tree.tailMap(tree.firstKey(), false)));
+    }
+
+    /**
+     * Removes all entries for which the predicate evaluates to true, like
+     * remove(MapPredicate). Instead of removing and rebalancing entry by
+     * entry, the tree is built once from the remaining entries, which are
+     * already sorted. This pays off if a large part of the map is removed.
+     * The map is not changed if no entry matches.
+     *
+     * @param predicate
+     *            Predicate
+     */
+    public void prune(final MapPredicate<K, V> predicate) {
+        List<Map.Entry<K, V>> remaining = new ArrayList<Map.Entry<K, V>>();
+        for (Map.Entry<K, V> entry : internalMap.entrySet()) {
+            if (!predicate.test(entry.getKey(), entry.getValue())) {
+                remaining.add(entry);
+            }
+        }
+
+        replaceWith(remaining);
+    }
+
+    /**
+     * Keeps only the entries whose keys are in the given set. If the set is
+     * sorted like this map, both are merged in one pass and the tree is built
+     * once from the remaining entries.
+     *
+     * @param keys
+     *            Keys to keep
+     */
+    public void retainKeys(final Set<K> keys) {
+        if (SmartSortedMerge.sortedBy(keys, comparator())) {
+            replaceWith(matchKeys(keys, true));
+        } else {
+            internalMap.keySet().retainAll(keys);
+        }
+    }
+
+    /**
+     * Removes all entries whose keys are in the given set. If the set is
+     * sorted like this map, both are merged in one pass and the tree is built
+     * once from the remaining entries.
+     *
+     * @param keys
+     *            Keys to remove
+     */
+    public void removeKeys(final Set<K> keys) {
+        if (SmartSortedMerge.sortedBy(keys, comparator())) {
+            replaceWith(matchKeys(keys, false));
+        } else {
+            internalMap.keySet().removeAll(keys);
+        }
+    }
+
+    /**
+     * Returns the entries whose keys are in the sorted set (or not in it).
+     */
+    private List<Map.Entry<K, V>> matchKeys(final Set<K> keys, final boolean contained) {
+        List<Map.Entry<K, V>> result = new ArrayList<Map.Entry<K, V>>();
+        Iterator<K> it = keys.iterator();
+        boolean hasKey = it.hasNext();
+        K key = hasKey ? it.next() : null;
+
+        for (Map.Entry<K, V> entry : internalMap.entrySet()) {
+            int c = -1;
+            while (hasKey && (c = SmartSortedMerge.compare(comparator(), key, entry.getKey())) < 0) {
+                hasKey = it.hasNext();
+                key = hasKey ? it.next() : null;
+            }
+
+            if ((hasKey && c == 0) == contained) {
+                result.add(entry);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Replaces the entries by the given sorted entries, unless their number
+     * is unchanged.
+     */
+    private void replaceWith(final List<Map.Entry<K, V>> entries) {
+        if (entries.size() != internalMap.size()) {
+            internalMap.clear();
+            internalMap.putAll(SmartSortedMerge.sortedMap(entries, comparator()));
+        }
+    }
+
     /** SortedMap methods */
 
     @Override
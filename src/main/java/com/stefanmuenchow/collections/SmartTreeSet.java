@@ -13,6 +13,8 @@ package com.stefanmuenchow.collections;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
@@ -46,6 +48,91 @@ public class SmartTreeSet<E> extends SmartAbstractSet<E> implements SmartSortedS
         return new SmartTreeSet<T>(aColl);
     }
 
+    /**
+     * Replaces the elements by the merge of this set and anotherSet, see
+     * {@link SmartSortedMerge#merge}. The tree is built once from the result,
+     * unless the set is unchanged.
+     */
+    private void merge(final Set<E> anotherSet, final boolean keepFirst, final boolean keepBoth,
+            final boolean keepSecond) {
+        List<E> result = SmartSortedMerge.merge(getInternalSet(), anotherSet, comparator(), keepFirst, keepBoth,
+                keepSecond);
+        // Apart from the symmetric difference all results are subsets or
+        // supersets of this set
+        boolean unchanged = keepSecond && !keepBoth ? anotherSet.isEmpty() : result.size() == size();
+        if (!unchanged) {
+            internalColl.clear();
+            internalColl.addAll(SmartSortedMerge.sortedSet(result, comparator()));
+        }
+    }
+
+    /** ISmartSet methods */
+
+    /**
+     * Subsets of a set sorted by the same comparator are checked by walking
+     * both sets once.
+     */
+    @Override
+    public boolean isSubsetOf(final Set<E> anotherSet) {
+        if (SmartSortedMerge.sortedBy(anotherSet, comparator())) {
+            return size() <= anotherSet.size()
+                    && SmartSortedMerge.containsAll(anotherSet, getInternalSet(), comparator());
+        }
+
+        return super.isSubsetOf(anotherSet);
+    }
+
+    @Override
+    public boolean isSupersetOf(final Set<E> anotherSet) {
+        if (SmartSortedMerge.sortedBy(anotherSet, comparator())) {
+            return size() >= anotherSet.size()
+                    && SmartSortedMerge.containsAll(getInternalSet(), anotherSet, comparator());
+        }
+
+        return super.isSupersetOf(anotherSet);
+    }
+
+    /**
+     * The set algebra of two sets sorted by the same comparator merges both
+     * sets in one pass and loads the result into a balanced tree in linear
+     * time. Other sets are handled element by element.
+     */
+    @Override
+    public void union(final Set<E> anotherSet) {
+        if (SmartSortedMerge.sortedBy(anotherSet, comparator())) {
+            merge(anotherSet, true, true, true);
+        } else {
+            super.union(anotherSet);
+        }
+    }
+
+    @Override
+    public void intersection(final Set<E> anotherSet) {
+        if (SmartSortedMerge.sortedBy(anotherSet, comparator())) {
+            merge(anotherSet, false, true, false);
+        } else {
+            super.intersection(anotherSet);
+        }
+    }
+
+    @Override
+    public void difference(final Set<E> anotherSet) {
+        if (SmartSortedMerge.sortedBy(anotherSet, comparator())) {
+            merge(anotherSet, true, false, false);
+        } else {
+            super.difference(anotherSet);
+        }
+    }
+
+    @Override
+    public void symmetricDifference(final Set<E> anotherSet) {
+        if (SmartSortedMerge.sortedBy(anotherSet, comparator())) {
+            merge(anotherSet, true, false, true);
+        } else {
+            super.symmetricDifference(anotherSet);
+        }
+    }
+
     /** ISmartSortedSet methods */
 
     @Override
@@ -0,0 +1,172 @@
+/**
+ * Copyright (c) Stefan Muenchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.util.NoSuchElementException;
+
+import com.stefanmuenchow.collections.function.BinaryFunction;
+import com.stefanmuenchow.collections.function.Predicate;
+import com.stefanmuenchow.collections.function.UnaryFunction;
+
+/**
+ * SmartViews are lazy pipelines over a source collection. Intermediate
+ * operations like filter or map only describe a step and return a new view.
+ * All steps are fused into a single traversal of the source, which is run when
+ * a terminal operation like reduce or count is called. No intermediate
+ * collections are created.
+ *
+ * @author Stefan Muenchow
+ */
+public interface SmartView<E> {
+
+    /**
+     * Retains all elements for which the predicate is true.
+     *
+     * @param predicate
+     *            Predicate
+     * @return View of the matching elements
+     */
+    SmartView<E> filter(Predicate<E> predicate);
+
+    /**
+     * Replaces each element by the return value of the function.
+     *
+     * @param function
+     *            Unary function
+     * @see UnaryFunction
+     * @return View of the mapped elements
+     */
+    <R> SmartView<R> map(UnaryFunction<R, E> function);
+
+    /**
+     * Takes elements until the predicate evaluates to false the first time.
+     * The traversal stops at this element.
+     *
+     * @param pred
+     *            Predicate
+     * @return Prefix view
+     */
+    SmartView<E> takeWhile(Predicate<E> pred);
+
+    /**
+     * Takes the first n elements. The traversal stops after the n-th element.
+     *
+     * @param n
+     *            Number of elements to take
+     * @return Prefix view
+     */
+    SmartView<E> take(int n);
+
+    /**
+     * Inserts the specified elem between each two elements.
+     *
+     * @param elem
+     *            Element to insert
+     * @return View with elem between each two elements
+     */
+    SmartView<E> intersperse(E elem);
+
+    /**
+     * Replaces each element that is a collection by its elements, recursively.
+     * All other elements are passed on unchanged.
+     *
+     * @return Flat view not containing any other collection
+     */
+    SmartView<Object> flatten();
+
+    /**
+     * Combines the elements from left to right using a binary function and an
+     * initial value. If the view is empty, the initial value is returned.
+     *
+     * @param initial
+     *            Initial value
+     * @param funct
+     *            Binary Function
+     * @see BinaryFunction
+     * @return A single value
+     */
+    <R> R reduce(R initial, BinaryFunction<R, E> funct);
+
+    /**
+     * Combines the elements from left to right using a binary function. If the
+     * view is empty, null is returned.
+     *
+     * @param funct
+     *            Binary Function
+     * @see BinaryFunction
+     * @return A single value
+     */
+    E reduce(BinaryFunction<E, E> funct);
+
+    /**
+     * Counts all elements of the view.
+     *
+     * @return Number of elements
+     */
+    int count();
+
+    /**
+     * Counts all elements for which the predicate evaluates to true.
+     *
+     * @param predicate
+     *            Predicate
+     * @return Number of elements for which predicate is true
+     */
+    int count(Predicate<E> predicate);
+
+    /**
+     * Checks if the predicate evaluates to true for any element. The traversal
+     * stops at the first match.
+     *
+     * @param pred
+     *            Predicate
+     * @return true / false
+     */
+    boolean exists(Predicate<E> pred);
+
+    /**
+     * Checks if the predicate evaluates to true for all elements. The
+     * traversal stops at the first mismatch.
+     *
+     * @param pred
+     *            Predicate
+     * @return true / false
+     */
+    boolean forall(Predicate<E> pred);
+
+    /**
+     * Seeks the first element for which the predicate returns
+     * <code>true</code>. The traversal stops at this element.
+     *
+     * @param pred
+     *            Predicate
+     * @throws NoSuchElementException If no element matches
+     * @return Element
+     */
+    E find(Predicate<E> pred) throws NoSuchElementException;
+
+    /**
+     * Calls the toString() method of each element and intersperses the
+     * resulting strings with delimiter.
+     *
+     * @param delimiter
+     *            String that is inserted between each two elements
+     * @return Resulting string representation
+     */
+    String join(String delimiter);
+
+    /**
+     * Collects all elements of the view into a new list.
+     *
+     * @return List holding the elements of the view
+     */
+    SmartList<E> toSmartList();
+}
@@ -10,14 +10,17 @@
 
 package com.stefanmuenchow.collections.function;
 
+import java.util.function.BiFunction;
+
 /**
  * Binary Function to be used by special operations on some smart collections,
  * e.g. reduce. For this purpose this interface is implemented by an anonymous
- * class that is passed to the collection function.
+ * class that is passed to the collection function. It is a {@link BiFunction}
+ * as well and can be passed to streams.
  *
  * @author Stefan Muenchow
  */
-public interface BinaryFunction<R, E> {
+public interface BinaryFunction<R, E> extends BiFunction<R, E, R> {
 
     /**
      * Executes this function.
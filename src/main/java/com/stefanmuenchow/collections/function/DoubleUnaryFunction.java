@@ -0,0 +1,36 @@
+/**
+* Copyright (c) Stefan Muenchow. All rights reserved.
+* The use and distribution terms for this software are covered by the
+* Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+* which can be found in the file epl-v10.html at the root of this distribution.
+* By using this software in any fashion, you are agreeing to be bound by
+* the terms of this license.
+* You must not remove this notice, or any other, from this software.
+**/
+
+package com.stefanmuenchow.collections.function;
+
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Unary Function on primitive double values used by SmartDoubleList, e.g. for
+ * map. It is a {@link DoubleUnaryOperator} as well.
+ *
+ * @author Stefan Muenchow
+ */
+public interface DoubleUnaryFunction extends DoubleUnaryOperator {
+
+    /**
+     * Executes this function.
+     *
+     * @param input
+     *            Input parameter
+     * @return Result
+     */
+    double apply(double input);
+
+    @Override
+    default double applyAsDouble(final double operand) {
+        return apply(operand);
+    }
+}
@@ -0,0 +1,94 @@
+/**
+* Copyright (c) Stefan Muenchow. All rights reserved.
+* The use and distribution terms for this software are covered by the
+* Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+* which can be found in the file epl-v10.html at the root of this distribution.
+* By using this software in any fashion, you are agreeing to be bound by
+* the terms of this license.
+* You must not remove this notice, or any other, from this software.
+**/
+
+package com.stefanmuenchow.collections.function;
+
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+/**
+ * Adapts the functional interfaces of java.util.function to the function
+ * types of smart collections. The other direction needs no adapter, because
+ * each function type extends its java.util.function counterpart.
+ *
+ * @author Stefan Muenchow
+ */
+public final class Functions {
+
+    private Functions() {
+    }
+
+    /**
+     * Adapts a java.util.function.Predicate.
+     *
+     * @param predicate
+     *            Predicate to adapt
+     * @return Predicate of smart collections
+     */
+    public static <E> Predicate<E> predicate(final java.util.function.Predicate<? super E> predicate) {
+        return new Predicate<E>() {
+            @Override
+            public boolean test(final E input) {
+                return predicate.test(input);
+            }
+        };
+    }
+
+    /**
+     * Adapts a Function.
+     *
+     * @param function
+     *            Function to adapt
+     * @return Unary function of smart collections
+     */
+    public static <R, E> UnaryFunction<R, E> unaryFunction(final Function<? super E, ? extends R> function) {
+        return new UnaryFunction<R, E>() {
+            @Override
+            public R apply(final E input) {
+                return function.apply(input);
+            }
+        };
+    }
+
+    /**
+     * Adapts a BiFunction whose first parameter has the result type, e.g. a
+     * BinaryOperator.
+     *
+     * @param function
+     *            Function to adapt
+     * @return Binary function of smart collections
+     */
+    public static <R, E> BinaryFunction<R, E> binaryFunction(
+            final BiFunction<? super R, ? super E, ? extends R> function) {
+        return new BinaryFunction<R, E>() {
+            @Override
+            public R apply(final R input1, final E input2) {
+                return function.apply(input1, input2);
+            }
+        };
+    }
+
+    /**
+     * Adapts a BiPredicate.
+     *
+     * @param predicate
+     *            Predicate to adapt
+     * @return Map predicate of smart collections
+     */
+    public static <K, V> MapPredicate<K, V> mapPredicate(final BiPredicate<? super K, ? super V> predicate) {
+        return new MapPredicate<K, V>() {
+            @Override
+            public boolean test(final K key, final V val) {
+                return predicate.test(key, val);
+            }
+        };
+    }
+}
@@ -0,0 +1,29 @@
+/**
+* Copyright (c) Stefan Muenchow. All rights reserved.
+* The use and distribution terms for this software are covered by the
+* Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+* which can be found in the file epl-v10.html at the root of this distribution.
+* By using this software in any fashion, you are agreeing to be bound by
+* the terms of this license.
+* You must not remove this notice, or any other, from this software.
+**/
+
+package com.stefanmuenchow.collections.function;
+
+/**
+ * Predicate on primitive int values used by SmartIntList. It is a
+ * {@link java.util.function.IntPredicate} as well.
+ *
+ * @author Stefan Muenchow
+ */
+public interface IntPredicate extends java.util.function.IntPredicate {
+
+    /**
+     * Checks a predicate based on a single value.
+     *
+     * @param input
+     *            Input value
+     * @return true / false
+     */
+    boolean test(int input);
+}
@@ -0,0 +1,36 @@
+/**
+* Copyright (c) Stefan Muenchow. All rights reserved.
+* The use and distribution terms for this software are covered by the
+* Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+* which can be found in the file epl-v10.html at the root of this distribution.
+* By using this software in any fashion, you are agreeing to be bound by
+* the terms of this license.
+* You must not remove this notice, or any other, from this software.
+**/
+
+package com.stefanmuenchow.collections.function;
+
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Unary Function on primitive int values used by SmartIntList, e.g. for
+ * map. It is an {@link IntUnaryOperator} as well.
+ *
+ * @author Stefan Muenchow
+ */
+public interface IntUnaryFunction extends IntUnaryOperator {
+
+    /**
+     * Executes this function.
+     *
+     * @param input
+     *            Input parameter
+     * @return Result
+     */
+    int apply(int input);
+
+    @Override
+    default int applyAsInt(final int operand) {
+        return apply(operand);
+    }
+}
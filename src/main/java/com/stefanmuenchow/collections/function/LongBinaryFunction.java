@@ -0,0 +1,38 @@
+/**
+* Copyright (c) Stefan Muenchow. All rights reserved.
+* The use and distribution terms for this software are covered by the
+* Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+* which can be found in the file epl-v10.html at the root of this distribution.
+* By using this software in any fashion, you are agreeing to be bound by
+* the terms of this license.
+* You must not remove this notice, or any other, from this software.
+**/
+
+package com.stefanmuenchow.collections.function;
+
+import java.util.function.LongBinaryOperator;
+
+/**
+ * Binary Function on primitive long values used by SmartLongList, e.g. for
+ * reduce. It is a {@link LongBinaryOperator} as well.
+ *
+ * @author Stefan Muenchow
+ */
+public interface LongBinaryFunction extends LongBinaryOperator {
+
+    /**
+     * Executes this function.
+     *
+     * @param input1
+     *            Input parameter 1
+     * @param input2
+     *            Input parameter 2
+     * @return Result
+     */
+    long apply(long input1, long input2);
+
+    @Override
+    default long applyAsLong(final long left, final long right) {
+        return apply(left, right);
+    }
+}
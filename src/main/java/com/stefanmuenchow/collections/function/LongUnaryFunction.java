@@ -0,0 +1,36 @@
+/**
+* Copyright (c) Stefan Muenchow. All rights reserved.
+* The use and distribution terms for this software are covered by the
+* Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+* which can be found in the file epl-v10.html at the root of this distribution.
+* By using this software in any fashion, you are agreeing to be bound by
+* the terms of this license.
+* You must not remove this notice, or any other, from this software.
+**/
+
+package com.stefanmuenchow.collections.function;
+
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Unary Function on primitive long values used by SmartLongList, e.g. for
+ * map. It is a {@link LongUnaryOperator} as well.
+ *
+ * @author Stefan Muenchow
+ */
+public interface LongUnaryFunction extends LongUnaryOperator {
+
+    /**
+     * Executes this function.
+     *
+     * @param input
+     *            Input parameter
+     * @return Result
+     */
+    long apply(long input);
+
+    @Override
+    default long applyAsLong(final long operand) {
+        return apply(operand);
+    }
+}
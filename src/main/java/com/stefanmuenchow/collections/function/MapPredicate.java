@@ -10,14 +10,16 @@
 
 package com.stefanmuenchow.collections.function;
 
+import java.util.function.BiPredicate;
+
 /**
  * Predicate used by smart map functions. Checks a condition based on the key
  * and val. For this purpose this interface is implemented by an anonymous class
- * that is passed to the map function.
+ * that is passed to the map function. It is a {@link BiPredicate} as well.
  *
  * @author Stefan Muenchow
  */
-public interface MapPredicate<K, V> {
+public interface MapPredicate<K, V> extends BiPredicate<K, V> {
 
     /**
      * Checks a predicate based on the key and value of a map entry.
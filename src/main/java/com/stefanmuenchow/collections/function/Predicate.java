@@ -13,11 +13,12 @@ package com.stefanmuenchow.collections.function;
 /**
  * Predicate used by smart collection functions. Checks a condition based on a
  * single value. For this purpose this interface is implemented by an anonymous
- * class that is passed to the collection function.
+ * class that is passed to the collection function. It is a
+ * {@link java.util.function.Predicate} as well and can be passed to streams.
  *
  * @author Stefan Muenchow
  */
-public interface Predicate<E> {
+public interface Predicate<E> extends java.util.function.Predicate<E> {
 
     /**
      * Checks a predicate based on a single value.
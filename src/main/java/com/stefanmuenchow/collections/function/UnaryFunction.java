@@ -10,14 +10,17 @@
 
 package com.stefanmuenchow.collections.function;
 
+import java.util.function.Function;
+
 /**
  * Unary Function to be used by special operations on some smart collections,
  * e.g. map. For this purpose this interface is implemented by an anonymous
- * class that is passed to the collection function.
+ * class that is passed to the collection function. It is a {@link Function}
+ * as well and can be passed to streams.
  *
  * @author Stefan Muenchow
  */
-public interface UnaryFunction<R, E> {
+public interface UnaryFunction<R, E> extends Function<E, R> {
 
     /**
      * Executes this function.
@@ -9,7 +9,7 @@ import com.stefanmuenchow.collections.function.BinaryFunction;
 import com.stefanmuenchow.collections.function.Predicate;
 import com.stefanmuenchow.collections.function.UnaryFunction;
 
-public interface ImmutableCollection<E> {
+public interface ImmutableCollection<E> extends Iterable<E> {
     public int size();
     public boolean isEmpty();
     public boolean contains(final Object o);
@@ -0,0 +1,1503 @@
+/**
+ * Copyright (c) Stefan Muenchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections.immutable;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import com.stefanmuenchow.collections.KeyValuePair;
+import com.stefanmuenchow.collections.SmartMap;
+import com.stefanmuenchow.collections.function.BinaryFunction;
+import com.stefanmuenchow.collections.function.MapPredicate;
+import com.stefanmuenchow.collections.function.UnaryFunction;
+
+/**
+ * Persistent map based on a compressed hash array mapped prefix tree (CHAMP).
+ * Each level of the tree consumes 5 bits of the key hash. A node keeps two
+ * bitmaps, one for the entries stored inline and one for its child nodes, and
+ * a compact array holding the inline keys and values followed by the child
+ * nodes. Keys whose hashes are equal in all 32 bits are kept in collision
+ * nodes.
+ * <p>
+ * put and remove copy only the nodes on the path to the key, O(log32 n). A
+ * child node is never left with a single entry, such an entry is moved into
+ * its parent. So the tree of a map does not depend on the order of the
+ * operations that created it. filter, map and mergeWith rebuild only the nodes
+ * whose entries change and share all other subtrees.
+ *
+ * @author Stefan Muenchow
+ */
+public class ImmutableHashMap<K, V> implements ImmutableMap<K, V> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final int HASH_BITS = 32;
+    static final Object NOT_FOUND = new Object();
+
+    /**
+     * Merging function keeping the first value. Merging a subtree with itself
+     * using this function returns the subtree unvisited.
+     */
+    static final BinaryFunction<Object, Object> KEEP_FIRST = new BinaryFunction<Object, Object>() {
+        @Override
+        public Object apply(final Object input1, final Object input2) {
+            return input1;
+        }
+    };
+
+    private static final int SIZE_EMPTY = 0;
+    private static final int SIZE_ONE = 1;
+    private static final int SIZE_MORE = 2;
+
+    static final BitmapNode EMPTY_NODE = new BitmapNode(0, 0, new Object[0]);
+    private static final ImmutableHashMap<Object, Object> EMPTY = new ImmutableHashMap<Object, Object>(EMPTY_NODE, 0);
+
+    /**
+     * Collects the side effects of an operation on the tree. Nodes tagged
+     * with the owner of the change may be modified in place.
+     */
+    static final class Change {
+        Object owner;
+        int sizeDelta;
+        int replaced;
+        Object oldValue = NOT_FOUND;
+    }
+
+    abstract static class Node {
+
+        abstract int payloadArity();
+
+        abstract int nodeArity();
+
+        abstract Object keyAt(int i);
+
+        abstract Object valueAt(int i);
+
+        abstract Node nodeAt(int i);
+
+        abstract int sizePredicate();
+
+        /**
+         * Returns the number of entries in this subtree.
+         */
+        abstract int size();
+
+        abstract Object get(Object key, int hash, int shift);
+
+        /**
+         * Returns the stored key and value, or null if the key is not found.
+         */
+        abstract Object[] getEntry(Object key, int hash, int shift);
+
+        /**
+         * Puts the key. If the key exists and funct is not null, the new value
+         * is the result of funct applied to both values, with the given value
+         * as the left argument if valueIsLeft.
+         */
+        abstract Node put(Object key, Object value, int hash, int shift, BinaryFunction<Object, Object> funct,
+                boolean valueIsLeft, Change change);
+
+        abstract Node remove(Object key, int hash, int shift, Change change);
+
+        abstract Node filter(MapPredicate<Object, Object> predicate, boolean expected, int shift, Change change);
+
+        /**
+         * Applies the function to all entries. Entries whose key is unchanged
+         * stay in place, all others are removed and added to moved.
+         */
+        abstract Node map(UnaryFunction<KeyValuePair<Object, Object>, Map.Entry<Object, Object>> function,
+                int shift, Change change, List<KeyValuePair<Object, Object>> moved);
+
+        abstract Node merge(Node other, int shift, BinaryFunction<Object, Object> funct, Change change);
+
+        /**
+         * Keeps the entries whose keys are contained in other if keepCommon,
+         * otherwise those whose keys are not.
+         */
+        abstract Node retain(Node other, int shift, boolean keepCommon);
+
+        /**
+         * Checks if all keys of this subtree are contained in other.
+         */
+        abstract boolean subsetOf(Node other, int shift);
+    }
+
+    static final class BitmapNode extends Node {
+        private final Object owner;
+        int dataMap;
+        int nodeMap;
+        Object[] content;
+        private int size;
+
+        BitmapNode(final int dataMap, final int nodeMap, final Object[] content) {
+            this.owner = null;
+            this.dataMap = dataMap;
+            this.nodeMap = nodeMap;
+            this.content = content;
+
+            int payload = Integer.bitCount(dataMap);
+            int count = payload;
+            for (int i = 2 * payload; i < content.length; i++) {
+                count += ((Node) content[i]).size();
+            }
+            size = count;
+        }
+
+        BitmapNode(final Object owner, final int dataMap, final int nodeMap, final Object[] content, final int size) {
+            this.owner = owner;
+            this.dataMap = dataMap;
+            this.nodeMap = nodeMap;
+            this.content = content;
+            this.size = size;
+        }
+
+        @Override
+        int payloadArity() {
+            return Integer.bitCount(dataMap);
+        }
+
+        @Override
+        int nodeArity() {
+            return Integer.bitCount(nodeMap);
+        }
+
+        @Override
+        Object keyAt(final int i) {
+            return content[2 * i];
+        }
+
+        @Override
+        Object valueAt(final int i) {
+            return content[2 * i + 1];
+        }
+
+        @Override
+        Node nodeAt(final int i) {
+            return (Node) content[2 * payloadArity() + i];
+        }
+
+        @Override
+        int sizePredicate() {
+            if (nodeMap != 0) {
+                return SIZE_MORE;
+            }
+
+            int arity = payloadArity();
+            return arity == 0 ? SIZE_EMPTY : arity == 1 ? SIZE_ONE : SIZE_MORE;
+        }
+
+        @Override
+        int size() {
+            return size;
+        }
+
+        private boolean isEditable(final Change change) {
+            return change.owner != null && owner == change.owner;
+        }
+
+        /**
+         * Returns a node with the given content. The node itself is changed if
+         * it belongs to the owner of the change.
+         */
+        private BitmapNode update(final int newDataMap, final int newNodeMap, final Object[] newContent,
+                final int newSize, final Change change) {
+            if (isEditable(change)) {
+                dataMap = newDataMap;
+                nodeMap = newNodeMap;
+                content = newContent;
+                size = newSize;
+                return this;
+            }
+
+            return new BitmapNode(change.owner, newDataMap, newNodeMap, newContent, newSize);
+        }
+
+        private int dataIndex(final int bit) {
+            return Integer.bitCount(dataMap & (bit - 1));
+        }
+
+        private int nodeIndex(final int bit) {
+            return Integer.bitCount(nodeMap & (bit - 1));
+        }
+
+        @Override
+        Object get(final Object key, final int hash, final int shift) {
+            int bit = bitpos(hash, shift);
+            if ((dataMap & bit) != 0) {
+                int i = dataIndex(bit);
+                return equal(content[2 * i], key) ? content[2 * i + 1] : NOT_FOUND;
+            } else if ((nodeMap & bit) != 0) {
+                return nodeAt(nodeIndex(bit)).get(key, hash, shift + BITS);
+            }
+
+            return NOT_FOUND;
+        }
+
+        @Override
+        Object[] getEntry(final Object key, final int hash, final int shift) {
+            int bit = bitpos(hash, shift);
+            if ((dataMap & bit) != 0) {
+                int i = dataIndex(bit);
+                return equal(content[2 * i], key) ? new Object[] { content[2 * i], content[2 * i + 1] } : null;
+            } else if ((nodeMap & bit) != 0) {
+                return nodeAt(nodeIndex(bit)).getEntry(key, hash, shift + BITS);
+            }
+
+            return null;
+        }
+
+        @Override
+        Node put(final Object key, final Object value, final int hash, final int shift,
+                final BinaryFunction<Object, Object> funct, final boolean valueIsLeft, final Change change) {
+            int bit = bitpos(hash, shift);
+            if ((dataMap & bit) != 0) {
+                int i = dataIndex(bit);
+                Object currentKey = content[2 * i];
+                Object currentValue = content[2 * i + 1];
+                if (equal(currentKey, key)) {
+                    Object newValue = merged(value, currentValue, funct, valueIsLeft);
+                    change.replaced++;
+                    change.oldValue = currentValue;
+                    if (newValue == currentValue) {
+                        return this;
+                    }
+
+                    Object[] array = isEditable(change) ? content : content.clone();
+                    array[2 * i + 1] = newValue;
+                    return update(dataMap, nodeMap, array, size, change);
+                }
+
+                Node sub = mergeTwo(currentKey, currentValue, hash(currentKey), key, value, hash, shift + BITS,
+                        change.owner);
+                change.sizeDelta++;
+                return migrateToNode(bit, i, sub, change);
+            } else if ((nodeMap & bit) != 0) {
+                int i = nodeIndex(bit);
+                Node sub = nodeAt(i);
+                int sizeBefore = change.sizeDelta;
+                Node newSub = sub.put(key, value, hash, shift + BITS, funct, valueIsLeft, change);
+                return withNode(i, sub, newSub, size + change.sizeDelta - sizeBefore, change);
+            }
+
+            change.sizeDelta++;
+            int i = dataIndex(bit);
+            Object[] array = new Object[content.length + 2];
+            System.arraycopy(content, 0, array, 0, 2 * i);
+            array[2 * i] = key;
+            array[2 * i + 1] = value;
+            System.arraycopy(content, 2 * i, array, 2 * i + 2, content.length - 2 * i);
+            return update(dataMap | bit, nodeMap, array, size + 1, change);
+        }
+
+        @Override
+        Node remove(final Object key, final int hash, final int shift, final Change change) {
+            int bit = bitpos(hash, shift);
+            if ((dataMap & bit) != 0) {
+                int i = dataIndex(bit);
+                if (!equal(content[2 * i], key)) {
+                    return this;
+                }
+
+                change.oldValue = content[2 * i + 1];
+                change.sizeDelta--;
+                if (payloadArity() == 2 && nodeArity() == 0) {
+                    // The remaining entry is either inlined into the parent or
+                    // becomes the root, so its bitmap is that of the root level
+                    int newDataMap = shift == 0 ? dataMap ^ bit : bitpos(hash, 0);
+                    int other = 1 - i;
+                    return new BitmapNode(change.owner, newDataMap, 0,
+                            new Object[] { content[2 * other], content[2 * other + 1] }, 1);
+                }
+
+                Object[] array = new Object[content.length - 2];
+                System.arraycopy(content, 0, array, 0, 2 * i);
+                System.arraycopy(content, 2 * i + 2, array, 2 * i, content.length - 2 * i - 2);
+                return update(dataMap ^ bit, nodeMap, array, size - 1, change);
+            } else if ((nodeMap & bit) != 0) {
+                int i = nodeIndex(bit);
+                Node sub = nodeAt(i);
+                int sizeBefore = change.sizeDelta;
+                Node newSub = sub.remove(key, hash, shift + BITS, change);
+                if (newSub != sub && newSub.sizePredicate() == SIZE_ONE) {
+                    if (payloadArity() == 0 && nodeArity() == 1) {
+                        return newSub;
+                    }
+                    return migrateToInline(bit, i, newSub, size - 1, change);
+                }
+
+                return withNode(i, sub, newSub, size + change.sizeDelta - sizeBefore, change);
+            }
+
+            return this;
+        }
+
+        /**
+         * Replaces the i-th child node. If the child was changed in place, only
+         * the size is updated.
+         */
+        private Node withNode(final int i, final Node oldNode, final Node newNode, final int newSize,
+                final Change change) {
+            if (newNode == oldNode) {
+                if (newSize != size) {
+                    size = newSize;
+                }
+                return this;
+            }
+
+            Object[] array = isEditable(change) ? content : content.clone();
+            array[2 * payloadArity() + i] = newNode;
+            return update(dataMap, nodeMap, array, newSize, change);
+        }
+
+        private Node migrateToNode(final int bit, final int dataIdx, final Node node, final Change change) {
+            int nodeIdx = nodeIndex(bit);
+            int nodeStart = 2 * payloadArity();
+            Object[] array = new Object[content.length - 1];
+            System.arraycopy(content, 0, array, 0, 2 * dataIdx);
+            System.arraycopy(content, 2 * dataIdx + 2, array, 2 * dataIdx, nodeStart - 2 * dataIdx - 2);
+            System.arraycopy(content, nodeStart, array, nodeStart - 2, nodeIdx);
+            array[nodeStart - 2 + nodeIdx] = node;
+            System.arraycopy(content, nodeStart + nodeIdx, array, nodeStart - 1 + nodeIdx,
+                    content.length - nodeStart - nodeIdx);
+            return update(dataMap ^ bit, nodeMap | bit, array, size + 1, change);
+        }
+
+        private Node migrateToInline(final int bit, final int nodeIdx, final Node node, final int newSize,
+                final Change change) {
+            int dataIdx = dataIndex(bit);
+            int nodeStart = 2 * payloadArity();
+            Object[] array = new Object[content.length + 1];
+            System.arraycopy(content, 0, array, 0, 2 * dataIdx);
+            array[2 * dataIdx] = node.keyAt(0);
+            array[2 * dataIdx + 1] = node.valueAt(0);
+            System.arraycopy(content, 2 * dataIdx, array, 2 * dataIdx + 2, nodeStart - 2 * dataIdx);
+            System.arraycopy(content, nodeStart, array, nodeStart + 2, nodeIdx);
+            System.arraycopy(content, nodeStart + nodeIdx + 1, array, nodeStart + 2 + nodeIdx,
+                    content.length - nodeStart - nodeIdx - 1);
+            return update(dataMap | bit, nodeMap ^ bit, array, newSize, change);
+        }
+
+        @Override
+        Node filter(final MapPredicate<Object, Object> predicate, final boolean expected, final int shift,
+                final Change change) {
+            NodeBuilder builder = new NodeBuilder(this);
+            int dataIdx = 0;
+            int nodeIdx = 0;
+
+            for (int bitmap = dataMap | nodeMap; bitmap != 0; bitmap &= bitmap - 1) {
+                int bit = Integer.lowestOneBit(bitmap);
+                if ((dataMap & bit) != 0) {
+                    Object key = content[2 * dataIdx];
+                    Object value = content[2 * dataIdx + 1];
+                    dataIdx++;
+                    if (predicate.test(key, value) == expected) {
+                        builder.addData(bit, key, value);
+                    } else {
+                        builder.changed = true;
+                        change.sizeDelta--;
+                    }
+                } else {
+                    Node sub = nodeAt(nodeIdx++);
+                    builder.addNode(bit, sub, sub.filter(predicate, expected, shift + BITS, change));
+                }
+            }
+
+            return builder.build();
+        }
+
+        @Override
+        Node map(final UnaryFunction<KeyValuePair<Object, Object>, Map.Entry<Object, Object>> function,
+                final int shift, final Change change, final List<KeyValuePair<Object, Object>> moved) {
+            NodeBuilder builder = new NodeBuilder(this);
+            int dataIdx = 0;
+            int nodeIdx = 0;
+
+            for (int bitmap = dataMap | nodeMap; bitmap != 0; bitmap &= bitmap - 1) {
+                int bit = Integer.lowestOneBit(bitmap);
+                if ((dataMap & bit) != 0) {
+                    Object key = content[2 * dataIdx];
+                    Object value = content[2 * dataIdx + 1];
+                    dataIdx++;
+                    KeyValuePair<Object, Object> pair = function.apply(
+                            new AbstractMap.SimpleImmutableEntry<Object, Object>(key, value));
+                    if (equal(key, pair.getKey())) {
+                        builder.changed |= key != pair.getKey() || value != pair.getValue();
+                        builder.addData(bit, pair.getKey(), pair.getValue());
+                    } else {
+                        builder.changed = true;
+                        change.sizeDelta--;
+                        moved.add(pair);
+                    }
+                } else {
+                    Node sub = nodeAt(nodeIdx++);
+                    builder.addNode(bit, sub, sub.map(function, shift + BITS, change, moved));
+                }
+            }
+
+            return builder.build();
+        }
+
+        @Override
+        Node merge(final Node other, final int shift, final BinaryFunction<Object, Object> funct,
+                final Change change) {
+            if (other == EMPTY_NODE || (other == this && funct == KEEP_FIRST)) {
+                return this;
+            } else if (this == EMPTY_NODE) {
+                return other;
+            }
+
+            BitmapNode that = (BitmapNode) other;
+            NodeBuilder builder = new NodeBuilder(this);
+            int thisMap = dataMap | nodeMap;
+            int thatMap = that.dataMap | that.nodeMap;
+
+            for (int bitmap = thisMap | thatMap; bitmap != 0; bitmap &= bitmap - 1) {
+                int bit = Integer.lowestOneBit(bitmap);
+                if ((thatMap & bit) == 0) {
+                    if ((dataMap & bit) != 0) {
+                        int i = dataIndex(bit);
+                        builder.addData(bit, content[2 * i], content[2 * i + 1]);
+                    } else {
+                        Node sub = nodeAt(nodeIndex(bit));
+                        builder.addNode(bit, sub, sub);
+                    }
+                } else if ((thisMap & bit) == 0) {
+                    builder.changed = true;
+                    if ((that.dataMap & bit) != 0) {
+                        int i = that.dataIndex(bit);
+                        builder.addData(bit, that.content[2 * i], that.content[2 * i + 1]);
+                    } else {
+                        Node sub = that.nodeAt(that.nodeIndex(bit));
+                        builder.addNode(bit, sub, sub);
+                    }
+                } else if ((dataMap & bit) != 0 && (that.dataMap & bit) != 0) {
+                    int i = dataIndex(bit);
+                    int j = that.dataIndex(bit);
+                    Object key = content[2 * i];
+                    Object value = content[2 * i + 1];
+                    Object otherKey = that.content[2 * j];
+                    Object otherValue = that.content[2 * j + 1];
+                    if (equal(key, otherKey)) {
+                        Object newValue = funct.apply(value, otherValue);
+                        change.replaced++;
+                        builder.changed |= newValue != value;
+                        builder.addData(bit, key, newValue);
+                    } else {
+                        builder.changed = true;
+                        builder.addNode(bit, null, mergeTwo(key, value, hash(key), otherKey, otherValue,
+                                hash(otherKey), shift + BITS, null));
+                    }
+                } else if ((dataMap & bit) != 0) {
+                    int i = dataIndex(bit);
+                    Node sub = that.nodeAt(that.nodeIndex(bit));
+                    builder.changed = true;
+                    builder.addNode(bit, null, sub.put(content[2 * i], content[2 * i + 1], hash(content[2 * i]),
+                            shift + BITS, funct, true, change));
+                } else if ((that.dataMap & bit) != 0) {
+                    int j = that.dataIndex(bit);
+                    Node sub = nodeAt(nodeIndex(bit));
+                    builder.addNode(bit, sub, sub.put(that.content[2 * j], that.content[2 * j + 1],
+                            hash(that.content[2 * j]), shift + BITS, funct, false, change));
+                } else {
+                    Node sub = nodeAt(nodeIndex(bit));
+                    builder.addNode(bit, sub, sub.merge(that.nodeAt(that.nodeIndex(bit)), shift + BITS, funct,
+                            change));
+                }
+            }
+
+            return builder.build();
+        }
+
+        @Override
+        Node retain(final Node other, final int shift, final boolean keepCommon) {
+            if (other == this) {
+                return keepCommon ? this : EMPTY_NODE;
+            }
+
+            BitmapNode that = (BitmapNode) other;
+            NodeBuilder builder = new NodeBuilder(this);
+            int thatMap = that.dataMap | that.nodeMap;
+            int dataIdx = 0;
+            int nodeIdx = 0;
+
+            for (int bitmap = dataMap | nodeMap; bitmap != 0; bitmap &= bitmap - 1) {
+                int bit = Integer.lowestOneBit(bitmap);
+                if ((dataMap & bit) != 0) {
+                    Object key = content[2 * dataIdx];
+                    Object value = content[2 * dataIdx + 1];
+                    dataIdx++;
+
+                    boolean contained;
+                    if ((that.dataMap & bit) != 0) {
+                        contained = equal(key, that.content[2 * that.dataIndex(bit)]);
+                    } else if ((that.nodeMap & bit) != 0) {
+                        contained = that.nodeAt(that.nodeIndex(bit)).get(key, hash(key), shift + BITS) != NOT_FOUND;
+                    } else {
+                        contained = false;
+                    }
+
+                    if (contained == keepCommon) {
+                        builder.addData(bit, key, value);
+                    } else {
+                        builder.changed = true;
+                    }
+                } else {
+                    Node sub = nodeAt(nodeIdx++);
+                    if ((thatMap & bit) == 0) {
+                        builder.addNode(bit, sub, keepCommon ? EMPTY_NODE : sub);
+                    } else if ((that.dataMap & bit) != 0) {
+                        Object otherKey = that.content[2 * that.dataIndex(bit)];
+                        if (keepCommon) {
+                            Object[] entry = sub.getEntry(otherKey, hash(otherKey), shift + BITS);
+                            builder.changed = true;
+                            if (entry != null) {
+                                builder.addData(bit, entry[0], entry[1]);
+                            }
+                        } else {
+                            builder.addNode(bit, sub, sub.remove(otherKey, hash(otherKey), shift + BITS,
+                                    new Change()));
+                        }
+                    } else {
+                        builder.addNode(bit, sub, sub.retain(that.nodeAt(that.nodeIndex(bit)), shift + BITS,
+                                keepCommon));
+                    }
+                }
+            }
+
+            return builder.build();
+        }
+
+        @Override
+        boolean subsetOf(final Node other, final int shift) {
+            if (other == this) {
+                return true;
+            } else if (size > other.size()) {
+                return false;
+            }
+
+            BitmapNode that = (BitmapNode) other;
+            int dataIdx = 0;
+            int nodeIdx = 0;
+
+            for (int bitmap = dataMap | nodeMap; bitmap != 0; bitmap &= bitmap - 1) {
+                int bit = Integer.lowestOneBit(bitmap);
+                if ((dataMap & bit) != 0) {
+                    Object key = content[2 * dataIdx++];
+                    if ((that.dataMap & bit) != 0) {
+                        if (!equal(key, that.content[2 * that.dataIndex(bit)])) {
+                            return false;
+                        }
+                    } else if ((that.nodeMap & bit) == 0
+                            || that.nodeAt(that.nodeIndex(bit)).get(key, hash(key), shift + BITS) == NOT_FOUND) {
+                        return false;
+                    }
+                } else if ((that.nodeMap & bit) == 0
+                        || !nodeAt(nodeIdx++).subsetOf(that.nodeAt(that.nodeIndex(bit)), shift + BITS)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
+
+    /**
+     * Collects the entries and child nodes of a new bitmap node in the order
+     * of their bits. Child nodes with a single entry are inlined. If nothing
+     * changed, the original node is kept.
+     */
+    private static final class NodeBuilder {
+        private final BitmapNode original;
+        private final Object[] data;
+        private final Node[] nodes;
+        private int dataMap;
+        private int nodeMap;
+        private int dataCount;
+        private int nodeCount;
+        boolean changed;
+
+        NodeBuilder(final BitmapNode original) {
+            this.original = original;
+            data = new Object[2 << BITS];
+            nodes = new Node[1 << BITS];
+        }
+
+        void addData(final int bit, final Object key, final Object value) {
+            dataMap |= bit;
+            data[2 * dataCount] = key;
+            data[2 * dataCount + 1] = value;
+            dataCount++;
+        }
+
+        void addNode(final int bit, final Node oldNode, final Node newNode) {
+            changed |= oldNode != newNode;
+            switch (newNode.sizePredicate()) {
+            case SIZE_EMPTY:
+                break;
+            case SIZE_ONE:
+                addData(bit, newNode.keyAt(0), newNode.valueAt(0));
+                break;
+            default:
+                nodeMap |= bit;
+                nodes[nodeCount++] = newNode;
+            }
+        }
+
+        Node build() {
+            if (!changed) {
+                return original;
+            } else if (dataMap == 0 && nodeMap == 0) {
+                return EMPTY_NODE;
+            }
+
+            Object[] content = new Object[2 * dataCount + nodeCount];
+            System.arraycopy(data, 0, content, 0, 2 * dataCount);
+            System.arraycopy(nodes, 0, content, 2 * dataCount, nodeCount);
+            return new BitmapNode(dataMap, nodeMap, content);
+        }
+    }
+
+    /**
+     * Holds all entries whose keys have the same 32 bit hash.
+     */
+    static final class CollisionNode extends Node {
+        private final Object owner;
+        final int hash;
+        Object[] keys;
+        Object[] values;
+
+        CollisionNode(final Object owner, final int hash, final Object[] keys, final Object[] values) {
+            this.owner = owner;
+            this.hash = hash;
+            this.keys = keys;
+            this.values = values;
+        }
+
+        CollisionNode(final int hash, final Object[] keys, final Object[] values) {
+            this(null, hash, keys, values);
+        }
+
+        private boolean isEditable(final Change change) {
+            return change.owner != null && owner == change.owner;
+        }
+
+        private Node update(final Object[] newKeys, final Object[] newValues, final Change change) {
+            if (isEditable(change)) {
+                keys = newKeys;
+                values = newValues;
+                return this;
+            }
+
+            return new CollisionNode(change.owner, hash, newKeys, newValues);
+        }
+
+        @Override
+        int payloadArity() {
+            return keys.length;
+        }
+
+        @Override
+        int nodeArity() {
+            return 0;
+        }
+
+        @Override
+        Object keyAt(final int i) {
+            return keys[i];
+        }
+
+        @Override
+        Object valueAt(final int i) {
+            return values[i];
+        }
+
+        @Override
+        Node nodeAt(final int i) {
+            throw new IndexOutOfBoundsException("Collision nodes have no child nodes");
+        }
+
+        @Override
+        int sizePredicate() {
+            return SIZE_MORE;
+        }
+
+        @Override
+        int size() {
+            return keys.length;
+        }
+
+        private int indexOf(final Object key) {
+            for (int i = 0; i < keys.length; i++) {
+                if (equal(keys[i], key)) {
+                    return i;
+                }
+            }
+
+            return -1;
+        }
+
+        @Override
+        Object get(final Object key, final int hash, final int shift) {
+            int i = indexOf(key);
+            return i < 0 ? NOT_FOUND : values[i];
+        }
+
+        @Override
+        Object[] getEntry(final Object key, final int hash, final int shift) {
+            int i = indexOf(key);
+            return i < 0 ? null : new Object[] { keys[i], values[i] };
+        }
+
+        @Override
+        Node put(final Object key, final Object value, final int hash, final int shift,
+                final BinaryFunction<Object, Object> funct, final boolean valueIsLeft, final Change change) {
+            int i = indexOf(key);
+            if (i >= 0) {
+                Object newValue = merged(value, values[i], funct, valueIsLeft);
+                change.replaced++;
+                change.oldValue = values[i];
+                if (newValue == values[i]) {
+                    return this;
+                }
+
+                Object[] newValues = isEditable(change) ? values : values.clone();
+                newValues[i] = newValue;
+                return update(keys, newValues, change);
+            }
+
+            change.sizeDelta++;
+            Object[] newKeys = Arrays.copyOf(keys, keys.length + 1);
+            Object[] newValues = Arrays.copyOf(values, values.length + 1);
+            newKeys[keys.length] = key;
+            newValues[values.length] = value;
+            return update(newKeys, newValues, change);
+        }
+
+        @Override
+        Node remove(final Object key, final int hash, final int shift, final Change change) {
+            int i = indexOf(key);
+            if (i < 0) {
+                return this;
+            }
+
+            change.oldValue = values[i];
+            change.sizeDelta--;
+            if (keys.length == 2) {
+                return new BitmapNode(change.owner, bitpos(hash, 0), 0, new Object[] { keys[1 - i], values[1 - i] }, 1);
+            }
+
+            return update(without(keys, i), without(values, i), change);
+        }
+
+        private static Object[] without(final Object[] array, final int i) {
+            Object[] result = new Object[array.length - 1];
+            System.arraycopy(array, 0, result, 0, i);
+            System.arraycopy(array, i + 1, result, i, array.length - i - 1);
+            return result;
+        }
+
+        private Node fromLists(final List<Object> newKeys, final List<Object> newValues) {
+            if (newKeys.isEmpty()) {
+                return EMPTY_NODE;
+            } else if (newKeys.size() == 1) {
+                return new BitmapNode(bitpos(hash, 0), 0, new Object[] { newKeys.get(0), newValues.get(0) });
+            }
+
+            return new CollisionNode(hash, newKeys.toArray(), newValues.toArray());
+        }
+
+        @Override
+        Node filter(final MapPredicate<Object, Object> predicate, final boolean expected, final int shift,
+                final Change change) {
+            List<Object> newKeys = new ArrayList<Object>();
+            List<Object> newValues = new ArrayList<Object>();
+            for (int i = 0; i < keys.length; i++) {
+                if (predicate.test(keys[i], values[i]) == expected) {
+                    newKeys.add(keys[i]);
+                    newValues.add(values[i]);
+                }
+            }
+
+            change.sizeDelta -= keys.length - newKeys.size();
+            return newKeys.size() == keys.length ? this : fromLists(newKeys, newValues);
+        }
+
+        @Override
+        Node map(final UnaryFunction<KeyValuePair<Object, Object>, Map.Entry<Object, Object>> function,
+                final int shift, final Change change, final List<KeyValuePair<Object, Object>> moved) {
+            List<Object> newKeys = new ArrayList<Object>();
+            List<Object> newValues = new ArrayList<Object>();
+            boolean changed = false;
+            for (int i = 0; i < keys.length; i++) {
+                KeyValuePair<Object, Object> pair = function.apply(
+                        new AbstractMap.SimpleImmutableEntry<Object, Object>(keys[i], values[i]));
+                if (equal(keys[i], pair.getKey())) {
+                    changed |= keys[i] != pair.getKey() || values[i] != pair.getValue();
+                    newKeys.add(pair.getKey());
+                    newValues.add(pair.getValue());
+                } else {
+                    changed = true;
+                    change.sizeDelta--;
+                    moved.add(pair);
+                }
+            }
+
+            return changed ? fromLists(newKeys, newValues) : this;
+        }
+
+        @Override
+        Node merge(final Node other, final int shift, final BinaryFunction<Object, Object> funct,
+                final Change change) {
+            Node result = this;
+            for (int i = 0; i < other.payloadArity(); i++) {
+                result = result.put(other.keyAt(i), other.valueAt(i), hash, shift, funct, false, change);
+            }
+
+            return result;
+        }
+
+        @Override
+        Node retain(final Node other, final int shift, final boolean keepCommon) {
+            List<Object> newKeys = new ArrayList<Object>();
+            List<Object> newValues = new ArrayList<Object>();
+            for (int i = 0; i < keys.length; i++) {
+                if ((other.get(keys[i], hash, shift) != NOT_FOUND) == keepCommon) {
+                    newKeys.add(keys[i]);
+                    newValues.add(values[i]);
+                }
+            }
+
+            return newKeys.size() == keys.length ? this : fromLists(newKeys, newValues);
+        }
+
+        @Override
+        boolean subsetOf(final Node other, final int shift) {
+            for (Object key : keys) {
+                if (other.get(key, hash, shift) == NOT_FOUND) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
+
+    /**
+     * Iterates the entries depth first. A tree is at most eight levels deep.
+     */
+    abstract static class TrieIterator<T> implements Iterator<T> {
+        private final Node[] stack = new Node[HASH_BITS / BITS + 2];
+        private final int[] cursors = new int[HASH_BITS / BITS + 2];
+        private int depth;
+        private Node current;
+        private int dataIndex;
+
+        TrieIterator(final Node root) {
+            stack[0] = root;
+            current = root;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (dataIndex >= current.payloadArity()) {
+                if (!descend()) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        private boolean descend() {
+            while (depth >= 0) {
+                Node node = stack[depth];
+                if (cursors[depth] < node.nodeArity()) {
+                    Node child = node.nodeAt(cursors[depth]++);
+                    depth++;
+                    stack[depth] = child;
+                    cursors[depth] = 0;
+                    current = child;
+                    dataIndex = 0;
+                    return true;
+                }
+                depth--;
+            }
+
+            return false;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            return element(current, dataIndex++);
+        }
+
+        /**
+         * Returns the element for the i-th entry of node.
+         */
+        abstract T element(Node node, int i);
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Immutable collection cannot be changed");
+        }
+    }
+
+    private static final class EntryIterator<K, V> extends TrieIterator<Map.Entry<K, V>> {
+
+        EntryIterator(final Node root) {
+            super(root);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        Map.Entry<K, V> element(final Node node, final int i) {
+            return new AbstractMap.SimpleImmutableEntry<K, V>((K) node.keyAt(i), (V) node.valueAt(i));
+        }
+    }
+
+    /**
+     * Editable version of an ImmutableHashMap. Nodes created by a transient
+     * are tagged with its owner token and are changed in place by later
+     * operations of the same transient, all other nodes are copied once.
+     * freeze() takes O(1) and ends the use of the transient. A transient must
+     * not be shared between threads.
+     */
+    public static final class Transient<K, V> {
+        private Object owner = new Object();
+        private Node root;
+        private int size;
+
+        Transient(final Node root, final int size) {
+            this.root = root;
+            this.size = size;
+        }
+
+        private Change change() {
+            if (owner == null) {
+                throw new IllegalStateException("Transient cannot be used after freeze");
+            }
+
+            Change change = new Change();
+            change.owner = owner;
+            return change;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public boolean containsKey(final Object key) {
+            return root.get(key, hash(key), 0) != NOT_FOUND;
+        }
+
+        @SuppressWarnings("unchecked")
+        public V get(final Object key) {
+            Object value = root.get(key, hash(key), 0);
+            return value == NOT_FOUND ? null : (V) value;
+        }
+
+        public Transient<K, V> put(final K key, final V value) {
+            Change change = change();
+            root = root.put(key, value, hash(key), 0, null, false, change);
+            size += change.sizeDelta;
+            return this;
+        }
+
+        public Transient<K, V> putAll(final Map<? extends K, ? extends V> m) {
+            for (Map.Entry<? extends K, ? extends V> entry : m.entrySet()) {
+                put(entry.getKey(), entry.getValue());
+            }
+
+            return this;
+        }
+
+        public Transient<K, V> remove(final Object key) {
+            Change change = change();
+            root = root.remove(key, hash(key), 0, change);
+            size += change.sizeDelta;
+            return this;
+        }
+
+        /**
+         * Returns the immutable map holding the entries of this transient.
+         * The transient cannot be used afterwards.
+         *
+         * @return Immutable map
+         */
+        public ImmutableHashMap<K, V> freeze() {
+            change();
+            owner = null;
+            return size == 0 ? ImmutableHashMap.<K, V>empty() : new ImmutableHashMap<K, V>(root, size);
+        }
+    }
+
+    private final Node root;
+    private final int size;
+
+    public ImmutableHashMap() {
+        this(EMPTY_NODE, 0);
+    }
+
+    public ImmutableHashMap(final Map<? extends K, ? extends V> map) {
+        Transient<K, V> builder = new Transient<K, V>(EMPTY_NODE, 0).putAll(map);
+        root = builder.root;
+        size = builder.size;
+    }
+
+    private ImmutableHashMap(final Node root, final int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /** Helper methods */
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> ImmutableHashMap<K, V> empty() {
+        return (ImmutableHashMap<K, V>) EMPTY;
+    }
+
+    static int hash(final Object key) {
+        return key == null ? 0 : key.hashCode();
+    }
+
+    static int bitpos(final int hash, final int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    static boolean equal(final Object a, final Object b) {
+        return a == b || (a != null && a.equals(b));
+    }
+
+    private static Object merged(final Object value, final Object currentValue,
+            final BinaryFunction<Object, Object> funct, final boolean valueIsLeft) {
+        if (funct == null) {
+            return value;
+        }
+
+        return valueIsLeft ? funct.apply(value, currentValue) : funct.apply(currentValue, value);
+    }
+
+    /**
+     * Creates the smallest subtree holding two entries with different keys.
+     */
+    static Node mergeTwo(final Object key0, final Object value0, final int hash0, final Object key1,
+            final Object value1, final int hash1, final int shift, final Object owner) {
+        if (shift >= HASH_BITS) {
+            return new CollisionNode(owner, hash0, new Object[] { key0, key1 }, new Object[] { value0, value1 });
+        }
+
+        int bit0 = bitpos(hash0, shift);
+        int bit1 = bitpos(hash1, shift);
+        if (bit0 != bit1) {
+            Object[] content = Integer.compareUnsigned(bit0, bit1) < 0
+                    ? new Object[] { key0, value0, key1, value1 }
+                    : new Object[] { key1, value1, key0, value0 };
+            return new BitmapNode(owner, bit0 | bit1, 0, content, 2);
+        }
+
+        return new BitmapNode(owner, 0, bit0, new Object[] { mergeTwo(key0, value0, hash0, key1, value1, hash1,
+                shift + BITS, owner) }, 2);
+    }
+
+    private ImmutableHashMap<K, V> withRoot(final Node newRoot, final int newSize) {
+        if (newRoot == root) {
+            return this;
+        }
+
+        return newSize == 0 ? ImmutableHashMap.<K, V>empty() : new ImmutableHashMap<K, V>(newRoot, newSize);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BinaryFunction<Object, Object> untyped(final BinaryFunction<?, ?> funct) {
+        return (BinaryFunction<Object, Object>) funct;
+    }
+
+    /** ImmutableMap methods */
+
+    /**
+     * Returns an editable version of this map in O(1). The map itself remains
+     * unchanged.
+     *
+     * @return Transient map
+     */
+    public Transient<K, V> toTransient() {
+        return new Transient<K, V>(root, size);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return root.get(key, hash(key), 0) != NOT_FOUND;
+    }
+
+    @Override
+    public boolean containsValue(final Object value) {
+        for (Map.Entry<K, V> entry : entrySet()) {
+            if (equal(entry.getValue(), value)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(final Object key) {
+        Object value = root.get(key, hash(key), 0);
+        return value == NOT_FOUND ? null : (V) value;
+    }
+
+    @Override
+    public ImmutableHashMap<K, V> put(final K key, final V value) {
+        Change change = new Change();
+        Node newRoot = root.put(key, value, hash(key), 0, null, false, change);
+        return withRoot(newRoot, size + change.sizeDelta);
+    }
+
+    @Override
+    public ImmutableHashMap<K, V> remove(final Object key) {
+        Change change = new Change();
+        Node newRoot = root.remove(key, hash(key), 0, change);
+        return withRoot(newRoot, size + change.sizeDelta);
+    }
+
+    @Override
+    public ImmutableHashMap<K, V> putAll(final Map<? extends K, ? extends V> m) {
+        Transient<K, V> builder = toTransient().putAll(m);
+        return withRoot(builder.root, builder.size);
+    }
+
+    @Override
+    public ImmutableHashMap<K, V> clear() {
+        return empty();
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return new AbstractSet<K>() {
+            @Override
+            public Iterator<K> iterator() {
+                return new TrieIterator<K>(root) {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    K element(final Node node, final int i) {
+                        return (K) node.keyAt(i);
+                    }
+                };
+            }
+
+            @Override
+            public boolean contains(final Object o) {
+                return containsKey(o);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public Collection<V> values() {
+        return new AbstractCollection<V>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new TrieIterator<V>(root) {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    V element(final Node node, final int i) {
+                        return (V) node.valueAt(i);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new AbstractSet<Map.Entry<K, V>>() {
+            @Override
+            public Iterator<Map.Entry<K, V>> iterator() {
+                return new EntryIterator<K, V>(root);
+            }
+
+            @Override
+            public boolean contains(final Object o) {
+                if (!(o instanceof Map.Entry)) {
+                    return false;
+                }
+
+                Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+                Object value = root.get(entry.getKey(), hash(entry.getKey()), 0);
+                return value != NOT_FOUND && equal(value, entry.getValue());
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public Map.Entry<K, V> head() throws NoSuchElementException {
+        if (size == 0) {
+            throw new NoSuchElementException("Map is empty. No head element available.");
+        }
+
+        return new EntryIterator<K, V>(root).next();
+    }
+
+    @Override
+    public ImmutableHashMap<K, V> tail() throws UnsupportedOperationException {
+        if (size == 0) {
+            throw new UnsupportedOperationException("Map is empty. No tail map available.");
+        }
+
+        return remove(head().getKey());
+    }
+
+    /**
+     * Merges the entries of anotherMap into this map. Values of keys in both
+     * maps are combined with mergeFunct, this map's value being the first
+     * argument.
+     */
+    @Override
+    public ImmutableHashMap<K, V> mergeWith(final SmartMap<K, V> anotherMap, final BinaryFunction<V, V> mergeFunct) {
+        Change change = new Change();
+        change.owner = new Object();
+        Node newRoot = root;
+        for (Map.Entry<K, V> entry : anotherMap.entrySet()) {
+            newRoot = newRoot.put(entry.getKey(), entry.getValue(), hash(entry.getKey()), 0, untyped(mergeFunct),
+                    false, change);
+        }
+
+        return withRoot(newRoot, size + change.sizeDelta);
+    }
+
+    /**
+     * Merges another map by walking both trees at once. Subtrees that exist in
+     * only one of the maps are taken over without being visited.
+     *
+     * @param anotherMap
+     *            Map to merge with
+     * @param mergeFunct
+     *            Merging function, called with this map's value first
+     * @return Merged map
+     */
+    public ImmutableHashMap<K, V> mergeWith(final ImmutableHashMap<K, V> anotherMap,
+            final BinaryFunction<V, V> mergeFunct) {
+        Change change = new Change();
+        Node newRoot = root.merge(anotherMap.root, 0, untyped(mergeFunct), change);
+        return withRoot(newRoot, size + anotherMap.size - change.replaced);
+    }
+
+    @Override
+    public V get(final K key, final V defaultVal) {
+        V value = get(key);
+        return value != null ? value : defaultVal;
+    }
+
+    @Override
+    public V find(final MapPredicate<K, V> predicate) throws NoSuchElementException {
+        for (Map.Entry<K, V> entry : entrySet()) {
+            if (predicate.test(entry.getKey(), entry.getValue())) {
+                return entry.getValue();
+            }
+        }
+
+        throw new NoSuchElementException("No element matches the given predicate");
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public ImmutableHashMap<K, V> filter(final MapPredicate<K, V> predicate) {
+        Change change = new Change();
+        Node newRoot = root.filter((MapPredicate<Object, Object>) predicate, true, 0, change);
+        return withRoot(newRoot, size + change.sizeDelta);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public ImmutableHashMap<K, V> remove(final MapPredicate<K, V> predicate) {
+        Change change = new Change();
+        Node newRoot = root.filter((MapPredicate<Object, Object>) predicate, false, 0, change);
+        return withRoot(newRoot, size + change.sizeDelta);
+    }
+
+    @Override
+    public ImmutableHashMap<K, V> replace(final K seekKey, final V seekValue, final K newKey, final V newValue) {
+        Object foundVal = root.get(seekKey, hash(seekKey), 0);
+        if (foundVal == NOT_FOUND || !equal(foundVal, seekValue)) {
+            return this;
+        }
+
+        return remove(seekKey).put(newKey, newValue);
+    }
+
+    /**
+     * Entries whose key is not changed by the function keep their place in
+     * the tree, so subtrees without changed entries are shared.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <S, R> ImmutableHashMap<S, R> map(final UnaryFunction<KeyValuePair<S, R>, Map.Entry<K, V>> function) {
+        Change change = new Change();
+        change.owner = new Object();
+        List<KeyValuePair<Object, Object>> moved = new ArrayList<KeyValuePair<Object, Object>>();
+        Node newRoot = root.map((UnaryFunction<KeyValuePair<Object, Object>, Map.Entry<Object, Object>>)
+                (UnaryFunction<?, ?>) function, 0, change, moved);
+
+        for (KeyValuePair<Object, Object> pair : moved) {
+            newRoot = newRoot.put(pair.getKey(), pair.getValue(), hash(pair.getKey()), 0, null, false, change);
+        }
+
+        return (ImmutableHashMap<S, R>) withRoot(newRoot, size + change.sizeDelta);
+    }
+
+    @Override
+    public <R> R reduce(final R initial, final BinaryFunction<R, Map.Entry<K, V>> funct) {
+        R result = initial;
+        for (Map.Entry<K, V> entry : entrySet()) {
+            result = funct.apply(result, entry);
+        }
+
+        return result;
+    }
+
+    @Override
+    public String join(final String entryDelimiter, final String keyValDelimiter) {
+        StringBuffer sb = new StringBuffer();
+        for (Map.Entry<K, V> entry : entrySet()) {
+            if (sb.length() > 0) {
+                sb.append(entryDelimiter);
+            }
+            sb.append(entry.getKey() + keyValDelimiter + entry.getValue());
+        }
+
+        return sb.toString();
+    }
+
+    @Override
+    public int count(final MapPredicate<K, V> predicate) {
+        int counter = 0;
+        for (Map.Entry<K, V> entry : entrySet()) {
+            if (predicate.test(entry.getKey(), entry.getValue())) {
+                counter++;
+            }
+        }
+
+        return counter;
+    }
+
+    @Override
+    public boolean exists(final MapPredicate<K, V> predicate) {
+        for (Map.Entry<K, V> entry : entrySet()) {
+            if (predicate.test(entry.getKey(), entry.getValue())) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public boolean forall(final MapPredicate<K, V> predicate) {
+        for (Map.Entry<K, V> entry : entrySet()) {
+            if (!predicate.test(entry.getKey(), entry.getValue())) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean isBijective() {
+        return new HashSet<V>(values()).size() == size;
+    }
+
+    @Override
+    public ImmutableHashMap<V, K> swap() throws UnsupportedOperationException {
+        if (!isBijective()) {
+            throw new UnsupportedOperationException("Map is not bijective!");
+        }
+
+        ImmutableHashMap.Transient<V, K> swapped = new ImmutableHashMap.Transient<V, K>(EMPTY_NODE, 0);
+        for (Map.Entry<K, V> entry : entrySet()) {
+            swapped.put(entry.getValue(), entry.getKey());
+        }
+
+        return swapped.freeze();
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj == this) {
+            return true;
+        } else if (!(obj instanceof ImmutableMap) || ((ImmutableMap<?, ?>) obj).size() != size) {
+            return false;
+        }
+
+        ImmutableMap<?, ?> other = (ImmutableMap<?, ?>) obj;
+        for (Map.Entry<K, V> entry : entrySet()) {
+            if (!other.entrySet().contains(entry)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 0;
+        for (Map.Entry<K, V> entry : entrySet()) {
+            result += entry.hashCode();
+        }
+
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "{" + join(", ", "=") + "}";
+    }
+}
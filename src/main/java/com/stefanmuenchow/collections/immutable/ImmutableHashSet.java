@@ -0,0 +1,453 @@
+/**
+ * Copyright (c) Stefan Muenchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections.immutable;
+
+import static com.stefanmuenchow.collections.immutable.ImmutableHashMap.EMPTY_NODE;
+import static com.stefanmuenchow.collections.immutable.ImmutableHashMap.KEEP_FIRST;
+import static com.stefanmuenchow.collections.immutable.ImmutableHashMap.NOT_FOUND;
+import static com.stefanmuenchow.collections.immutable.ImmutableHashMap.hash;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import com.stefanmuenchow.collections.function.MapPredicate;
+import com.stefanmuenchow.collections.function.Predicate;
+import com.stefanmuenchow.collections.function.UnaryFunction;
+import com.stefanmuenchow.collections.immutable.ImmutableHashMap.Change;
+import com.stefanmuenchow.collections.immutable.ImmutableHashMap.Node;
+import com.stefanmuenchow.collections.immutable.ImmutableHashMap.TrieIterator;
+
+/**
+ * Persistent set based on the same hash trie as ImmutableHashMap, the elements
+ * being the keys of the trie. Each node knows the number of elements below it.
+ * <p>
+ * union, intersection and difference with another ImmutableHashSet walk both
+ * tries at once. Subtrees found in only one of the sets are taken over or
+ * dropped as a whole, and subtrees shared by both sets are returned without
+ * being visited. The same holds for the subset and superset checks, which
+ * also stop as soon as a subtree of this set is larger than its counterpart.
+ *
+ * @author Stefan Muenchow
+ */
+public class ImmutableHashSet<E> extends PersistentAbstractCollection<E> implements ImmutableSet<E> {
+    private static final ImmutableHashSet<Object> EMPTY = new ImmutableHashSet<Object>(EMPTY_NODE);
+
+    /**
+     * Editable version of an ImmutableHashSet, see ImmutableHashMap.Transient.
+     * A transient must not be shared between threads.
+     */
+    public static final class Transient<E> {
+        private Object owner = new Object();
+        private Node root;
+
+        Transient(final Node root) {
+            this.root = root;
+        }
+
+        private Change change() {
+            if (owner == null) {
+                throw new IllegalStateException("Transient cannot be used after freeze");
+            }
+
+            Change change = new Change();
+            change.owner = owner;
+            return change;
+        }
+
+        public int size() {
+            return root.size();
+        }
+
+        public boolean contains(final Object o) {
+            return root.get(o, hash(o), 0) != NOT_FOUND;
+        }
+
+        public Transient<E> add(final E elem) {
+            root = root.put(elem, null, hash(elem), 0, null, false, change());
+            return this;
+        }
+
+        public Transient<E> addAll(final Iterable<? extends E> elems) {
+            Change change = change();
+            for (E elem : elems) {
+                root = root.put(elem, null, hash(elem), 0, null, false, change);
+            }
+
+            return this;
+        }
+
+        public Transient<E> remove(final Object o) {
+            root = root.remove(o, hash(o), 0, change());
+            return this;
+        }
+
+        /**
+         * Returns the immutable set holding the elements of this transient.
+         * The transient cannot be used afterwards.
+         *
+         * @return Immutable set
+         */
+        public ImmutableHashSet<E> freeze() {
+            change();
+            owner = null;
+            return root.size() == 0 ? ImmutableHashSet.<E>empty() : new ImmutableHashSet<E>(root);
+        }
+    }
+
+    private final Node root;
+
+    public ImmutableHashSet() {
+        this(EMPTY_NODE);
+    }
+
+    public ImmutableHashSet(final E... elems) {
+        this(new Transient<E>(EMPTY_NODE).addAll(Arrays.asList(elems)).root);
+    }
+
+    public ImmutableHashSet(final Collection<? extends E> coll) {
+        this(new Transient<E>(EMPTY_NODE).addAll(coll).root);
+    }
+
+    private ImmutableHashSet(final Node root) {
+        this.root = root;
+    }
+
+    /** Helper methods */
+
+    @SuppressWarnings("unchecked")
+    private static <E> ImmutableHashSet<E> empty() {
+        return (ImmutableHashSet<E>) EMPTY;
+    }
+
+    private ImmutableHashSet<E> withRoot(final Node newRoot) {
+        if (newRoot == root) {
+            return this;
+        }
+
+        return newRoot.size() == 0 ? ImmutableHashSet.<E>empty() : new ImmutableHashSet<E>(newRoot);
+    }
+
+    private ImmutableHashSet<E> filter(final Predicate<E> predicate, final boolean expected) {
+        MapPredicate<Object, Object> keyPredicate = new MapPredicate<Object, Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean test(final Object key, final Object val) {
+                return predicate.test((E) key);
+            }
+        };
+
+        return withRoot(root.filter(keyPredicate, expected, 0, new Change()));
+    }
+
+    /**
+     * Returns an editable version of this set in O(1). The set itself remains
+     * unchanged.
+     *
+     * @return Transient set
+     */
+    public Transient<E> toTransient() {
+        return new Transient<E>(root);
+    }
+
+    private static void flattenInto(final Iterable<?> elems, final Collection<Object> result) {
+        for (Object elem : elems) {
+            if (elem instanceof Collection || elem instanceof ImmutableCollection) {
+                flattenInto((Iterable<?>) elem, result);
+            } else {
+                result.add(elem);
+            }
+        }
+    }
+
+    /** ImmutableCollection methods */
+
+    @Override
+    public int size() {
+        return root.size();
+    }
+
+    @Override
+    public boolean contains(final Object o) {
+        return root.get(o, hash(o), 0) != NOT_FOUND;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new TrieIterator<E>(root) {
+            @Override
+            @SuppressWarnings("unchecked")
+            E element(final Node node, final int i) {
+                return (E) node.keyAt(i);
+            }
+        };
+    }
+
+    @Override
+    public ImmutableHashSet<E> add(final E elem) {
+        return withRoot(root.put(elem, null, hash(elem), 0, null, false, new Change()));
+    }
+
+    @Override
+    public ImmutableHashSet<E> remove(final Object o) {
+        return withRoot(root.remove(o, hash(o), 0, new Change()));
+    }
+
+    @Override
+    public ImmutableHashSet<E> addAll(final Collection<? extends E> c) {
+        return withRoot(toTransient().addAll(c).root);
+    }
+
+    @Override
+    public ImmutableHashSet<E> removeAll(final Collection<?> c) {
+        Transient<E> builder = toTransient();
+        for (Object elem : c) {
+            builder.remove(elem);
+        }
+
+        return withRoot(builder.root);
+    }
+
+    @Override
+    public ImmutableHashSet<E> retainAll(final Collection<?> c) {
+        return filter(new Predicate<E>() {
+            @Override
+            public boolean test(final E input) {
+                return c.contains(input);
+            }
+        }, true);
+    }
+
+    @Override
+    public ImmutableHashSet<E> clear() {
+        return empty();
+    }
+
+    @Override
+    public ImmutableHashSet<E> filter(final Predicate<E> predicate) {
+        return filter(predicate, true);
+    }
+
+    @Override
+    public ImmutableHashSet<E> remove(final Predicate<E> predicate) {
+        return filter(predicate, false);
+    }
+
+    @Override
+    public ImmutableHashSet<E> replace(final E seek, final E replacement) {
+        return contains(seek) ? remove(seek).add(replacement) : this;
+    }
+
+    @Override
+    public ImmutableHashSet<E> replace(final Predicate<E> predicate, final E replacement) {
+        ImmutableHashSet<E> result = filter(predicate, false);
+        return result == this ? this : result.add(replacement);
+    }
+
+    @Override
+    public ImmutableHashSet<E> replace(final Map<E, E> replacements) {
+        ImmutableHashSet<E> result = this;
+        for (Map.Entry<E, E> entry : replacements.entrySet()) {
+            result = result.replace(entry.getKey(), entry.getValue());
+        }
+
+        return result;
+    }
+
+    @Override
+    public <R> ImmutableHashSet<R> map(final UnaryFunction<R, E> function) {
+        Transient<R> builder = new Transient<R>(EMPTY_NODE);
+        for (E elem : this) {
+            builder.add(function.apply(elem));
+        }
+
+        return builder.freeze();
+    }
+
+    @Override
+    public ImmutableHashSet<Object> flatten() {
+        Collection<Object> result = new ArrayList<Object>();
+        flattenInto(this, result);
+        return new ImmutableHashSet<Object>(result);
+    }
+
+    /**
+     * Checks that all elements are instances of clazz. As the set cannot
+     * change, the same set is returned.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> ImmutableHashSet<T> castAllElements(final Class<T> clazz) {
+        for (E elem : this) {
+            clazz.cast(elem);
+        }
+
+        return (ImmutableHashSet<T>) this;
+    }
+
+    /** ImmutableSet methods */
+
+    @Override
+    public boolean isSubsetOf(final Set<E> anotherSet) {
+        return size() <= anotherSet.size() && forall(new Predicate<E>() {
+            @Override
+            public boolean test(final E input) {
+                return anotherSet.contains(input);
+            }
+        });
+    }
+
+    @Override
+    public boolean isProperSubsetOf(final Set<E> anotherSet) {
+        return size() < anotherSet.size() && isSubsetOf(anotherSet);
+    }
+
+    @Override
+    public boolean isSupersetOf(final Set<E> anotherSet) {
+        return size() >= anotherSet.size() && containsAll(anotherSet);
+    }
+
+    @Override
+    public boolean isProperSupersetOf(final Set<E> anotherSet) {
+        return size() > anotherSet.size() && containsAll(anotherSet);
+    }
+
+    @Override
+    public ImmutableHashSet<E> union(final Set<E> anotherSet) {
+        return addAll(anotherSet);
+    }
+
+    @Override
+    public ImmutableHashSet<E> intersection(final Set<E> anotherSet) {
+        return retainAll(anotherSet);
+    }
+
+    @Override
+    public ImmutableHashSet<E> difference(final Set<E> anotherSet) {
+        return removeAll(anotherSet);
+    }
+
+    /**
+     * Checks if this set is a subset of anotherSet by comparing both tries.
+     * Shared subtrees are not visited.
+     *
+     * @param anotherSet
+     *            Another set
+     * @return true / false
+     */
+    public boolean isSubsetOf(final ImmutableHashSet<E> anotherSet) {
+        return root.subsetOf(anotherSet.root, 0);
+    }
+
+    /**
+     * Checks if this set is a proper subset of anotherSet.
+     *
+     * @param anotherSet
+     *            Another set
+     * @return true / false
+     */
+    public boolean isProperSubsetOf(final ImmutableHashSet<E> anotherSet) {
+        return size() < anotherSet.size() && isSubsetOf(anotherSet);
+    }
+
+    /**
+     * Checks if this set is a superset of anotherSet by comparing both tries.
+     * Shared subtrees are not visited.
+     *
+     * @param anotherSet
+     *            Another set
+     * @return true / false
+     */
+    public boolean isSupersetOf(final ImmutableHashSet<E> anotherSet) {
+        return anotherSet.isSubsetOf(this);
+    }
+
+    /**
+     * Checks if this set is a proper superset of anotherSet.
+     *
+     * @param anotherSet
+     *            Another set
+     * @return true / false
+     */
+    public boolean isProperSupersetOf(final ImmutableHashSet<E> anotherSet) {
+        return anotherSet.isProperSubsetOf(this);
+    }
+
+    /**
+     * Creates the union of both sets. Subtrees found in only one set are
+     * taken over as they are.
+     *
+     * @param anotherSet
+     *            Another set
+     * @return Union set
+     */
+    public ImmutableHashSet<E> union(final ImmutableHashSet<E> anotherSet) {
+        return withRoot(root.merge(anotherSet.root, 0, KEEP_FIRST, new Change()));
+    }
+
+    /**
+     * Creates the intersection of both sets. Subtrees shared by both sets are
+     * kept as they are.
+     *
+     * @param anotherSet
+     *            Another set
+     * @return Intersection set
+     */
+    public ImmutableHashSet<E> intersection(final ImmutableHashSet<E> anotherSet) {
+        return withRoot(root.retain(anotherSet.root, 0, true));
+    }
+
+    /**
+     * Creates the difference of both sets. Subtrees of this set not found in
+     * anotherSet are kept as they are.
+     *
+     * @param anotherSet
+     *            Another set
+     * @return Difference set
+     */
+    public ImmutableHashSet<E> difference(final ImmutableHashSet<E> anotherSet) {
+        return withRoot(root.retain(anotherSet.root, 0, false));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean equals(final Object obj) {
+        if (obj == this) {
+            return true;
+        } else if (obj instanceof ImmutableHashSet) {
+            ImmutableHashSet<E> other = (ImmutableHashSet<E>) obj;
+            return other.size() == size() && isSubsetOf(other);
+        } else if (!(obj instanceof ImmutableSet) || ((ImmutableSet<?>) obj).size() != size()) {
+            return false;
+        }
+
+        for (Object elem : (ImmutableSet<?>) obj) {
+            if (!contains(elem)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 0;
+        for (E elem : this) {
+            result += elem == null ? 0 : elem.hashCode();
+        }
+
+        return result;
+    }
+}
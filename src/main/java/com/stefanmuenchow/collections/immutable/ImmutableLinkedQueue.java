@@ -0,0 +1,472 @@
+/**
+ * Copyright (c) Stefan Muenchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections.immutable;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import com.stefanmuenchow.collections.function.Predicate;
+import com.stefanmuenchow.collections.function.UnaryFunction;
+
+/**
+ * Persistent queue after Okasaki's real-time queue. Elements are taken from a
+ * lazily evaluated front stream and offered to a strict rear list. When the
+ * rear list becomes longer than the front stream, the reversed rear list is
+ * appended to the front stream by a lazy rotation. Each operation evaluates
+ * one further cell of the front stream, so the rotation is finished before its
+ * result is needed.
+ * <p>
+ * offer, peek and remove take O(1) in the worst case, also if old versions of
+ * a queue are used again. All versions share their cells.
+ *
+ * @author Stefan Muenchow
+ */
+public class ImmutableLinkedQueue<E> extends PersistentAbstractCollection<E> implements ImmutableQueue<E> {
+    private static final ImmutableLinkedQueue<Object> EMPTY = new ImmutableLinkedQueue<Object>(Stream.EMPTY, null,
+            Stream.EMPTY, 0);
+
+    /**
+     * Strict list holding the rear elements, newest first.
+     */
+    private static final class Cons {
+        final Object head;
+        final Cons tail;
+
+        Cons(final Object head, final Cons tail) {
+            this.head = head;
+            this.tail = tail;
+        }
+    }
+
+    /**
+     * Cell of a lazy list. An unevaluated cell holds the arguments of a
+     * rotation step, which are released after the evaluation.
+     */
+    private static final class Stream {
+        static final Stream EMPTY = new Stream(null, null);
+
+        private Object head;
+        private Stream tail;
+        private Stream front;
+        private Cons rear;
+        private Stream accumulator;
+        private volatile boolean evaluated;
+
+        Stream(final Object head, final Stream tail) {
+            this.head = head;
+            this.tail = tail;
+            evaluated = true;
+        }
+
+        /**
+         * Suspends the rotation appending the reversed rear list to front and
+         * accumulator. The rear list is one element longer than front.
+         */
+        Stream(final Stream front, final Cons rear, final Stream accumulator) {
+            this.front = front;
+            this.rear = rear;
+            this.accumulator = accumulator;
+        }
+
+        private void force() {
+            if (!evaluated) {
+                synchronized (this) {
+                    if (!evaluated) {
+                        if (front == EMPTY) {
+                            head = rear.head;
+                            tail = accumulator;
+                        } else {
+                            head = front.head();
+                            tail = new Stream(front.tail(), rear.tail, new Stream(rear.head, accumulator));
+                        }
+
+                        front = null;
+                        rear = null;
+                        accumulator = null;
+                        evaluated = true;
+                    }
+                }
+            }
+        }
+
+        Object head() {
+            force();
+            return head;
+        }
+
+        Stream tail() {
+            force();
+            return tail;
+        }
+    }
+
+    private final Stream front;
+    private final Cons rear;
+    private final Stream schedule;
+    private final int size;
+
+    public ImmutableLinkedQueue() {
+        this(Stream.EMPTY, null, Stream.EMPTY, 0);
+    }
+
+    public ImmutableLinkedQueue(final E... elems) {
+        this(Arrays.asList(elems));
+    }
+
+    public ImmutableLinkedQueue(final Collection<? extends E> coll) {
+        ImmutableLinkedQueue<E> queue = empty();
+        for (E elem : coll) {
+            queue = queue.offer(elem);
+        }
+
+        front = queue.front;
+        rear = queue.rear;
+        schedule = queue.schedule;
+        size = queue.size;
+    }
+
+    private ImmutableLinkedQueue(final Stream front, final Cons rear, final Stream schedule, final int size) {
+        this.front = front;
+        this.rear = rear;
+        this.schedule = schedule;
+        this.size = size;
+    }
+
+    /** Helper methods */
+
+    @SuppressWarnings("unchecked")
+    private static <E> ImmutableLinkedQueue<E> empty() {
+        return (ImmutableLinkedQueue<E>) EMPTY;
+    }
+
+    /**
+     * Evaluates the next scheduled cell. If the schedule is exhausted, the rear
+     * list is one element longer than the front stream and a new rotation is
+     * started.
+     */
+    private static <E> ImmutableLinkedQueue<E> exec(final Stream front, final Cons rear, final Stream schedule,
+            final int size) {
+        if (schedule != Stream.EMPTY) {
+            return new ImmutableLinkedQueue<E>(front, rear, schedule.tail(), size);
+        } else if (size == 0) {
+            return empty();
+        }
+
+        Stream rotated = new Stream(front, rear, Stream.EMPTY);
+        return new ImmutableLinkedQueue<E>(rotated, null, rotated, size);
+    }
+
+    private ImmutableLinkedQueue<E> rebuild(final Iterable<? extends E> elems, final boolean changed) {
+        if (!changed) {
+            return this;
+        }
+
+        ImmutableLinkedQueue<E> result = empty();
+        for (E elem : elems) {
+            result = result.offer(elem);
+        }
+
+        return result;
+    }
+
+    private static ImmutableLinkedQueue<Object> flattenInto(final Iterable<?> elems,
+            final ImmutableLinkedQueue<Object> queue) {
+        ImmutableLinkedQueue<Object> result = queue;
+        for (Object elem : elems) {
+            if (elem instanceof Collection || elem instanceof ImmutableCollection) {
+                result = flattenInto((Iterable<?>) elem, result);
+            } else {
+                result = result.offer(elem);
+            }
+        }
+
+        return result;
+    }
+
+    /** ImmutableQueue methods */
+
+    @Override
+    public ImmutableLinkedQueue<E> offer(final E elem) {
+        return exec(front, new Cons(elem, rear), schedule, size + 1);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        return size == 0 ? null : (E) front.head();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E element() throws NoSuchElementException {
+        if (size == 0) {
+            throw new NoSuchElementException("Queue is empty, no head element available");
+        }
+
+        return (E) front.head();
+    }
+
+    @Override
+    public ImmutableLinkedQueue<E> remove() throws NoSuchElementException {
+        if (size == 0) {
+            throw new NoSuchElementException("Queue is empty, no head element available");
+        }
+
+        return exec(front.tail(), rear, schedule, size - 1);
+    }
+
+    /** ImmutableCollection methods */
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Iterates the front stream and then the reversed rear list. The rear
+     * list is reversed when the front stream is exhausted, so iterations
+     * that stop early do not pay for it.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private Stream cell = front;
+            private Cons rearCell = rear;
+            private boolean reversed;
+
+            @Override
+            public boolean hasNext() {
+                return cell != Stream.EMPTY || rearCell != null;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public E next() {
+                if (cell != Stream.EMPTY) {
+                    E elem = (E) cell.head();
+                    cell = cell.tail();
+                    return elem;
+                } else if (rearCell != null) {
+                    if (!reversed) {
+                        Cons oldest = null;
+                        for (Cons c = rearCell; c != null; c = c.tail) {
+                            oldest = new Cons(c.head, oldest);
+                        }
+                        rearCell = oldest;
+                        reversed = true;
+                    }
+
+                    E elem = (E) rearCell.head;
+                    rearCell = rearCell.tail;
+                    return elem;
+                }
+
+                throw new NoSuchElementException();
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("Immutable queue cannot be changed");
+            }
+        };
+    }
+
+    @Override
+    public ImmutableLinkedQueue<E> add(final E elem) {
+        return offer(elem);
+    }
+
+    /**
+     * Removes the first occurence of o. Takes O(n).
+     */
+    @Override
+    public ImmutableLinkedQueue<E> remove(final Object o) {
+        ImmutableLinkedQueue<E> result = empty();
+        boolean found = false;
+        for (E elem : this) {
+            if (!found && (o == null ? elem == null : o.equals(elem))) {
+                found = true;
+            } else {
+                result = result.offer(elem);
+            }
+        }
+
+        return found ? result : this;
+    }
+
+    @Override
+    public ImmutableLinkedQueue<E> addAll(final Collection<? extends E> c) {
+        ImmutableLinkedQueue<E> result = this;
+        for (E elem : c) {
+            result = result.offer(elem);
+        }
+
+        return result;
+    }
+
+    @Override
+    public ImmutableLinkedQueue<E> removeAll(final Collection<?> c) {
+        return remove(new Predicate<E>() {
+            @Override
+            public boolean test(final E input) {
+                return c.contains(input);
+            }
+        });
+    }
+
+    @Override
+    public ImmutableLinkedQueue<E> retainAll(final Collection<?> c) {
+        return filter(new Predicate<E>() {
+            @Override
+            public boolean test(final E input) {
+                return c.contains(input);
+            }
+        });
+    }
+
+    @Override
+    public ImmutableLinkedQueue<E> clear() {
+        return empty();
+    }
+
+    @Override
+    public ImmutableLinkedQueue<E> filter(final Predicate<E> predicate) {
+        ImmutableLinkedQueue<E> result = empty();
+        for (E elem : this) {
+            if (predicate.test(elem)) {
+                result = result.offer(elem);
+            }
+        }
+
+        return result.size == size ? this : result;
+    }
+
+    @Override
+    public ImmutableLinkedQueue<E> remove(final Predicate<E> predicate) {
+        ImmutableLinkedQueue<E> result = empty();
+        for (E elem : this) {
+            if (!predicate.test(elem)) {
+                result = result.offer(elem);
+            }
+        }
+
+        return result.size == size ? this : result;
+    }
+
+    @Override
+    public ImmutableLinkedQueue<E> replace(final E seek, final E replacement) {
+        ImmutableLinkedQueue<E> result = empty();
+        boolean changed = false;
+        for (E elem : this) {
+            if (seek == null ? elem == null : seek.equals(elem)) {
+                result = result.offer(replacement);
+                changed = true;
+            } else {
+                result = result.offer(elem);
+            }
+        }
+
+        return changed ? result : this;
+    }
+
+    @Override
+    public ImmutableLinkedQueue<E> replace(final Predicate<E> predicate, final E replacement) {
+        ImmutableLinkedQueue<E> result = empty();
+        boolean changed = false;
+        for (E elem : this) {
+            if (predicate.test(elem)) {
+                result = result.offer(replacement);
+                changed = true;
+            } else {
+                result = result.offer(elem);
+            }
+        }
+
+        return changed ? result : this;
+    }
+
+    @Override
+    public ImmutableLinkedQueue<E> replace(final Map<E, E> replacements) {
+        ImmutableLinkedQueue<E> result = empty();
+        boolean changed = false;
+        for (E elem : this) {
+            if (replacements.containsKey(elem)) {
+                result = result.offer(replacements.get(elem));
+                changed = true;
+            } else {
+                result = result.offer(elem);
+            }
+        }
+
+        return changed ? result : this;
+    }
+
+    @Override
+    public <R> ImmutableLinkedQueue<R> map(final UnaryFunction<R, E> function) {
+        ImmutableLinkedQueue<R> result = empty();
+        for (E elem : this) {
+            result = result.offer(function.apply(elem));
+        }
+
+        return result;
+    }
+
+    @Override
+    public ImmutableLinkedQueue<Object> flatten() {
+        return flattenInto(this, ImmutableLinkedQueue.<Object>empty());
+    }
+
+    /**
+     * Checks that all elements are instances of clazz. As the queue cannot
+     * change, the same queue is returned.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> ImmutableLinkedQueue<T> castAllElements(final Class<T> clazz) {
+        for (E elem : this) {
+            clazz.cast(elem);
+        }
+
+        return (ImmutableLinkedQueue<T>) this;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj == this) {
+            return true;
+        } else if (!(obj instanceof ImmutableQueue) || ((ImmutableQueue<?>) obj).size() != size) {
+            return false;
+        }
+
+        Iterator<?> other = ((ImmutableQueue<?>) obj).iterator();
+        for (E elem : this) {
+            Object otherElem = other.next();
+            if (elem == null ? otherElem != null : !elem.equals(otherElem)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 1;
+        for (E elem : this) {
+            result = 31 * result + (elem == null ? 0 : elem.hashCode());
+        }
+
+        return result;
+    }
+}
@@ -1,8 +1,45 @@
 package com.stefanmuenchow.collections.immutable;
 
+import java.util.NoSuchElementException;
+
 import com.stefanmuenchow.collections.function.UnaryFunction;
 
 public interface ImmutableQueue<E> extends ImmutableCollection<E> {
+
+    /**
+     * Inserts the element at the end of the queue. The original queue remains
+     * unchanged.
+     *
+     * @param elem
+     *            Element to insert
+     * @return Queue with the element at its end
+     */
+    ImmutableQueue<E> offer(E elem);
+
+    /**
+     * Returns the first element of the queue, or null if the queue is empty.
+     *
+     * @return First element or null
+     */
+    E peek();
+
+    /**
+     * Returns the first element of the queue.
+     *
+     * @throws NoSuchElementException If queue is empty
+     * @return First element
+     */
+    E element() throws NoSuchElementException;
+
+    /**
+     * Returns a new queue without the first element. The original queue
+     * remains unchanged.
+     *
+     * @throws NoSuchElementException If queue is empty
+     * @return Rest queue
+     */
+    ImmutableQueue<E> remove() throws NoSuchElementException;
+
     @Override
     <R> ImmutableQueue<R> map(UnaryFunction<R, E> function);
 
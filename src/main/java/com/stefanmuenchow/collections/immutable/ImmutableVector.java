@@ -0,0 +1,1288 @@
+/**
+ * Copyright (c) Stefan Muenchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections.immutable;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import com.stefanmuenchow.collections.SmartObjectIntMap;
+import com.stefanmuenchow.collections.function.Predicate;
+import com.stefanmuenchow.collections.function.UnaryFunction;
+
+/**
+ * Persistent list based on a relaxed radix balanced tree (RRB tree) with a
+ * branching factor of 32. Versions share all nodes that are not on the path
+ * of a change, so get, set and add copy at most log32(n) nodes. The last
+ * elements are kept in a separate tail array, so most appends only copy the
+ * tail.
+ * <p>
+ * As long as all nodes are full, elements are found by their index bits
+ * alone. Concatenation and slicing may leave nodes that are not full. Such
+ * nodes keep a table of the cumulative sizes of their children, which is used
+ * to find the right child. This allows concat, subList, take and drop in
+ * O(log n) without copying the elements.
+ *
+ * @author Stefan Muenchow
+ */
+public class ImmutableVector<E> extends PersistentAbstractCollection<E> implements ImmutableList<E> {
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int EXTRAS = 2;
+    private static final Object[] EMPTY_ARRAY = new Object[0];
+    private static final ImmutableVector<Object> EMPTY = new ImmutableVector<Object>(null, 0, 0, EMPTY_ARRAY);
+
+    /**
+     * Node of the tree. Leaves hold elements, inner nodes hold child nodes.
+     * The size table is null if all children except the last one are full.
+     * Nodes created by a transient carry its owner token.
+     */
+    static final class Node {
+        final Object owner;
+        final Object[] array;
+        final int[] sizes;
+
+        Node(final Object[] array, final int[] sizes) {
+            this(null, array, sizes);
+        }
+
+        Node(final Object owner, final Object[] array, final int[] sizes) {
+            this.owner = owner;
+            this.array = array;
+            this.sizes = sizes;
+        }
+    }
+
+    /**
+     * Appends leaves to a tree. Used to build new vectors in O(n).
+     */
+    private static final class Appender<E> {
+        private Node root;
+        private int shift;
+        private int treeSize;
+        private Object[] buffer = new Object[WIDTH];
+        private int count;
+        private Object owner;
+
+        Appender() {
+        }
+
+        Appender(final Node root, final int shift, final int treeSize) {
+            this.root = root;
+            this.shift = shift;
+            this.treeSize = treeSize;
+        }
+
+        Appender(final ImmutableVector<E> vector) {
+            this(vector.root, vector.shift, vector.size - vector.tail.length);
+            System.arraycopy(vector.tail, 0, buffer, 0, vector.tail.length);
+            count = vector.tail.length;
+        }
+
+        void add(final Object elem) {
+            if (count == WIDTH) {
+                pushLeaf(new Node(owner, buffer, null));
+                buffer = new Object[WIDTH];
+                count = 0;
+            }
+            buffer[count++] = elem;
+        }
+
+        void addAll(final Iterable<?> elems) {
+            for (Object elem : elems) {
+                add(elem);
+            }
+        }
+
+        void pushLeaf(final Node leaf) {
+            if (root == null) {
+                root = leaf;
+            } else {
+                Node pushed = ImmutableVector.pushLeaf(root, shift, leaf);
+                if (pushed != null) {
+                    root = pushed;
+                } else {
+                    root = inner(new Object[] { root, newPath(shift, leaf) }, shift + BITS);
+                    shift += BITS;
+                }
+            }
+            treeSize += leaf.array.length;
+        }
+
+        ImmutableVector<E> result() {
+            if (count == 0) {
+                return fromTree(root, shift, treeSize);
+            }
+
+            Object[] tail = count == WIDTH ? buffer : Arrays.copyOf(buffer, count);
+            buffer = null;
+            return new ImmutableVector<E>(root, shift, treeSize + count, tail);
+        }
+    }
+
+    /**
+     * Editable version of an ImmutableVector. Elements are appended to a
+     * buffer, full buffers are pushed into the tree as leaves. set changes
+     * nodes created by this transient in place and copies all other nodes
+     * once. freeze() takes O(1) and ends the use of the transient. A transient
+     * must not be shared between threads.
+     */
+    public static final class Transient<E> {
+        private final Appender<E> appender;
+
+        Transient(final Appender<E> appender) {
+            this.appender = appender;
+            appender.owner = new Object();
+        }
+
+        private void checkOwner() {
+            if (appender.owner == null) {
+                throw new IllegalStateException("Transient cannot be used after freeze");
+            }
+        }
+
+        public int size() {
+            return appender.treeSize + appender.count;
+        }
+
+        @SuppressWarnings("unchecked")
+        public E get(final int index) {
+            checkOwner();
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            } else if (index >= appender.treeSize) {
+                return (E) appender.buffer[index - appender.treeSize];
+            }
+
+            return (E) getIn(appender.root, appender.shift, index);
+        }
+
+        public Transient<E> set(final int index, final E elem) {
+            checkOwner();
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            } else if (index >= appender.treeSize) {
+                appender.buffer[index - appender.treeSize] = elem;
+            } else {
+                appender.root = setIn(appender.root, appender.shift, index, elem, appender.owner);
+            }
+
+            return this;
+        }
+
+        public Transient<E> add(final E elem) {
+            checkOwner();
+            appender.add(elem);
+            return this;
+        }
+
+        public Transient<E> addAll(final Iterable<? extends E> elems) {
+            checkOwner();
+            appender.addAll(elems);
+            return this;
+        }
+
+        /**
+         * Returns the immutable vector holding the elements of this transient.
+         * The transient cannot be used afterwards.
+         *
+         * @return Immutable vector
+         */
+        public ImmutableVector<E> freeze() {
+            checkOwner();
+            appender.owner = null;
+            return appender.result();
+        }
+    }
+
+    private final Node root;
+    private final int shift;
+    private final int size;
+    private final Object[] tail;
+
+    public ImmutableVector() {
+        this(null, 0, 0, EMPTY_ARRAY);
+    }
+
+    public ImmutableVector(final E... elems) {
+        this(Arrays.asList(elems));
+    }
+
+    public ImmutableVector(final Collection<? extends E> collection) {
+        Appender<E> appender = new Appender<E>();
+        appender.addAll(collection);
+        ImmutableVector<E> built = appender.result();
+
+        root = built.root;
+        shift = built.shift;
+        size = built.size;
+        tail = built.tail;
+    }
+
+    private ImmutableVector(final Node root, final int shift, final int size, final Object[] tail) {
+        this.root = root;
+        this.shift = shift;
+        this.size = size;
+        this.tail = tail;
+    }
+
+    /** Helper methods */
+
+    @SuppressWarnings("unchecked")
+    private static <E> ImmutableVector<E> empty() {
+        return (ImmutableVector<E>) EMPTY;
+    }
+
+    /**
+     * Returns an editable version of this vector. Only the tail is copied, so
+     * this takes O(1).
+     *
+     * @return Transient vector
+     */
+    public Transient<E> toTransient() {
+        return new Transient<E>(new Appender<E>(this));
+    }
+
+    private int tailOffset() {
+        return size - tail.length;
+    }
+
+    private void checkIndex(final int index, final int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    /**
+     * Creates a vector from a tree by moving the last leaf into the tail. The
+     * tail of a non empty vector is never empty.
+     */
+    private static <E> ImmutableVector<E> fromTree(final Node root, final int shift, final int size) {
+        if (root == null) {
+            return empty();
+        }
+
+        Node leaf = lastLeaf(root, shift);
+        Node rest = popLeaf(root, shift);
+        int restShift = shift;
+        while (rest != null && restShift > 0 && rest.array.length == 1) {
+            rest = (Node) rest.array[0];
+            restShift -= BITS;
+        }
+
+        return new ImmutableVector<E>(rest, rest == null ? 0 : restShift, size, leaf.array);
+    }
+
+    private static int treeSize(final Node node, final int shift) {
+        if (shift == 0) {
+            return node.array.length;
+        } else if (node.sizes != null) {
+            return node.sizes[node.sizes.length - 1];
+        }
+
+        int last = node.array.length - 1;
+        return (last << shift) + treeSize((Node) node.array[last], shift - BITS);
+    }
+
+    /**
+     * Returns the index of the child holding the element at index.
+     */
+    private static int childIndex(final Node node, final int shift, final int index) {
+        int idx = index >>> shift;
+        if (node.sizes != null) {
+            while (node.sizes[idx] <= index) {
+                idx++;
+            }
+        }
+
+        return idx;
+    }
+
+    /**
+     * Returns the number of elements in the children before child idx.
+     */
+    private static int childStart(final Node node, final int shift, final int idx) {
+        if (idx == 0) {
+            return 0;
+        }
+
+        return node.sizes != null ? node.sizes[idx - 1] : idx << shift;
+    }
+
+    /**
+     * Returns the number of elements in the children up to child idx.
+     */
+    private static int childEnd(final Node node, final int shift, final int idx) {
+        if (node.sizes != null) {
+            return node.sizes[idx];
+        }
+
+        return idx == node.array.length - 1 ? treeSize(node, shift) : (idx + 1) << shift;
+    }
+
+    /**
+     * Creates an inner node. A size table is only created if one of the
+     * children except the last one is not full.
+     */
+    private static Node inner(final Object[] children, final int shift) {
+        int full = 1 << shift;
+        int[] sizes = new int[children.length];
+        boolean balanced = true;
+        int sum = 0;
+
+        for (int i = 0; i < children.length; i++) {
+            int childSize = treeSize((Node) children[i], shift - BITS);
+            if (childSize != full && i < children.length - 1) {
+                balanced = false;
+            }
+            sum += childSize;
+            sizes[i] = sum;
+        }
+
+        return new Node(children, balanced ? null : sizes);
+    }
+
+    private static Node newPath(final int shift, final Node leaf) {
+        Node node = leaf;
+        for (int s = 0; s < shift; s += BITS) {
+            node = new Node(new Object[] { node }, null);
+        }
+
+        return node;
+    }
+
+    /**
+     * Appends a leaf to the rightmost path of the tree. Returns null if the
+     * tree has no room left.
+     */
+    private static Node pushLeaf(final Node node, final int shift, final Node leaf) {
+        if (shift == 0) {
+            return null;
+        }
+
+        Object[] children = node.array;
+        int last = children.length - 1;
+        if (shift > BITS) {
+            Node child = pushLeaf((Node) children[last], shift - BITS, leaf);
+            if (child != null) {
+                Object[] array = children.clone();
+                array[last] = child;
+                int[] sizes = null;
+                if (node.sizes != null) {
+                    sizes = node.sizes.clone();
+                    sizes[last] += leaf.array.length;
+                }
+                return new Node(array, sizes);
+            }
+        }
+
+        if (children.length == WIDTH) {
+            return null;
+        }
+
+        Object[] array = Arrays.copyOf(children, children.length + 1);
+        array[children.length] = newPath(shift - BITS, leaf);
+        int[] sizes = node.sizes;
+        if (sizes == null && treeSize((Node) children[last], shift - BITS) != 1 << shift) {
+            sizes = new int[children.length];
+            for (int i = 0; i < children.length; i++) {
+                sizes[i] = childEnd(node, shift, i);
+            }
+        }
+        if (sizes != null) {
+            sizes = Arrays.copyOf(sizes, children.length + 1);
+            sizes[children.length] = sizes[last] + leaf.array.length;
+        }
+
+        return new Node(array, sizes);
+    }
+
+    private static Node lastLeaf(final Node root, final int shift) {
+        Node node = root;
+        for (int s = shift; s > 0; s -= BITS) {
+            node = (Node) node.array[node.array.length - 1];
+        }
+
+        return node;
+    }
+
+    /**
+     * Removes the last leaf of the tree. Returns null if the tree gets empty.
+     */
+    private static Node popLeaf(final Node node, final int shift) {
+        if (shift == 0) {
+            return null;
+        }
+
+        int last = node.array.length - 1;
+        Node child = popLeaf((Node) node.array[last], shift - BITS);
+        if (child == null) {
+            if (last == 0) {
+                return null;
+            }
+            return new Node(Arrays.copyOf(node.array, last), node.sizes == null ? null : Arrays.copyOf(node.sizes, last));
+        }
+
+        Object[] array = node.array.clone();
+        array[last] = child;
+        int[] sizes = null;
+        if (node.sizes != null) {
+            sizes = node.sizes.clone();
+            sizes[last] = childStart(node, shift, last) + treeSize(child, shift - BITS);
+        }
+
+        return new Node(array, sizes);
+    }
+
+    private static Object getIn(final Node root, final int shift, final int index) {
+        Node node = root;
+        int i = index;
+        for (int s = shift; s > 0; s -= BITS) {
+            int idx = childIndex(node, s, i);
+            i -= childStart(node, s, idx);
+            node = (Node) node.array[idx];
+        }
+
+        return node.array[i];
+    }
+
+    /**
+     * Replaces the element at index. Nodes of the given owner are changed in
+     * place, all others are copied.
+     */
+    private static Node setIn(final Node node, final int shift, final int index, final Object elem,
+            final Object owner) {
+        boolean editable = owner != null && node.owner == owner;
+        Object[] array = editable ? node.array : node.array.clone();
+        if (shift == 0) {
+            array[index] = elem;
+        } else {
+            int idx = childIndex(node, shift, index);
+            array[idx] = setIn((Node) array[idx], shift - BITS, index - childStart(node, shift, idx), elem, owner);
+        }
+
+        return editable ? node : new Node(owner, array, node.sizes);
+    }
+
+    /**
+     * Keeps the first n elements of the tree, 0 &lt; n &lt;= size of node.
+     */
+    private static Node sliceRight(final Node node, final int shift, final int n) {
+        if (shift == 0) {
+            return n == node.array.length ? node : new Node(Arrays.copyOf(node.array, n), null);
+        }
+
+        int idx = childIndex(node, shift, n - 1);
+        int start = childStart(node, shift, idx);
+        Node child = sliceRight((Node) node.array[idx], shift - BITS, n - start);
+        if (idx == node.array.length - 1 && child == node.array[idx]) {
+            return node;
+        }
+
+        Object[] array = Arrays.copyOf(node.array, idx + 1);
+        array[idx] = child;
+        int[] sizes = null;
+        if (node.sizes != null) {
+            sizes = Arrays.copyOf(node.sizes, idx + 1);
+            sizes[idx] = n;
+        }
+
+        return new Node(array, sizes);
+    }
+
+    /**
+     * Removes the first n elements of the tree, 0 &lt;= n &lt; size of node.
+     */
+    private static Node sliceLeft(final Node node, final int shift, final int n) {
+        if (n == 0) {
+            return node;
+        } else if (shift == 0) {
+            return new Node(Arrays.copyOfRange(node.array, n, node.array.length), null);
+        }
+
+        int idx = childIndex(node, shift, n);
+        Node child = sliceLeft((Node) node.array[idx], shift - BITS, n - childStart(node, shift, idx));
+        int count = node.array.length - idx;
+
+        Object[] array = new Object[count];
+        array[0] = child;
+        System.arraycopy(node.array, idx + 1, array, 1, count - 1);
+        int[] sizes = new int[count];
+        for (int i = 0; i < count; i++) {
+            sizes[i] = childEnd(node, shift, idx + i) - n;
+        }
+
+        return new Node(array, sizes);
+    }
+
+    private static Node collapse(final Node root, final int shift, final int[] newShift) {
+        Node node = root;
+        int s = shift;
+        while (s > 0 && node.array.length == 1) {
+            node = (Node) node.array[0];
+            s -= BITS;
+        }
+
+        newShift[0] = s;
+        return node;
+    }
+
+    /**
+     * Concatenates two trees. Returns a node one level above the higher tree
+     * holding one or two children.
+     */
+    private static Node concatTrees(final Node left, final int leftShift, final Node right, final int rightShift) {
+        if (leftShift > rightShift) {
+            Node mid = concatTrees((Node) left.array[left.array.length - 1], leftShift - BITS, right, rightShift);
+            return rebalance(left, mid, null, leftShift);
+        } else if (leftShift < rightShift) {
+            Node mid = concatTrees(left, leftShift, (Node) right.array[0], rightShift - BITS);
+            return rebalance(null, mid, right, rightShift);
+        } else if (leftShift == 0) {
+            if (left.array.length + right.array.length <= WIDTH) {
+                Object[] merged = Arrays.copyOf(left.array, left.array.length + right.array.length);
+                System.arraycopy(right.array, 0, merged, left.array.length, right.array.length);
+                return new Node(new Object[] { new Node(merged, null) }, null);
+            }
+            return inner(new Object[] { left, right }, BITS);
+        }
+
+        Node mid = concatTrees((Node) left.array[left.array.length - 1], leftShift - BITS,
+                (Node) right.array[0], rightShift - BITS);
+        return rebalance(left, mid, right, leftShift);
+    }
+
+    /**
+     * Merges the inner children of left and right with the children of mid
+     * and redistributes their slots, so that a lookup needs at most a few
+     * extra steps per level.
+     */
+    private static Node rebalance(final Node left, final Node mid, final Node right, final int shift) {
+        int leftCount = left == null ? 0 : left.array.length - 1;
+        int rightCount = right == null ? 0 : right.array.length - 1;
+        Object[] all = new Object[leftCount + mid.array.length + rightCount];
+        if (left != null) {
+            System.arraycopy(left.array, 0, all, 0, leftCount);
+        }
+        System.arraycopy(mid.array, 0, all, leftCount, mid.array.length);
+        if (right != null) {
+            System.arraycopy(right.array, 1, all, leftCount + mid.array.length, rightCount);
+        }
+
+        int[] plan = concatPlan(all);
+        Object[] children = executePlan(all, plan, shift - BITS);
+        if (children.length <= WIDTH) {
+            return new Node(new Object[] { inner(children, shift) }, null);
+        }
+
+        Node newLeft = inner(Arrays.copyOf(children, WIDTH), shift);
+        Node newRight = inner(Arrays.copyOfRange(children, WIDTH, children.length), shift);
+        return inner(new Object[] { newLeft, newRight }, shift + BITS);
+    }
+
+    /**
+     * Computes the number of slots of each node after redistribution. Nodes
+     * are merged into their successors until there are at most EXTRAS more
+     * nodes than needed for the total number of slots.
+     */
+    private static int[] concatPlan(final Object[] all) {
+        int[] counts = new int[all.length];
+        int total = 0;
+        for (int i = 0; i < all.length; i++) {
+            counts[i] = ((Node) all[i]).array.length;
+            total += counts[i];
+        }
+
+        int optimal = (total + WIDTH - 1) / WIDTH;
+        int n = all.length;
+        int i = 0;
+        while (optimal + EXTRAS < n) {
+            while (counts[i] > WIDTH - EXTRAS / 2) {
+                i++;
+            }
+
+            int remaining = counts[i];
+            while (remaining > 0) {
+                int filled = Math.min(remaining + counts[i + 1], WIDTH);
+                remaining = remaining + counts[i + 1] - filled;
+                counts[i] = filled;
+                i++;
+            }
+
+            System.arraycopy(counts, i + 1, counts, i, n - i - 1);
+            n--;
+            i--;
+        }
+
+        return Arrays.copyOf(counts, n);
+    }
+
+    private static Object[] executePlan(final Object[] all, final int[] plan, final int shift) {
+        Object[] result = new Object[plan.length];
+        int src = 0;
+        int offset = 0;
+
+        for (int k = 0; k < plan.length; k++) {
+            Node node = (Node) all[src];
+            if (offset == 0 && node.array.length == plan[k]) {
+                result[k] = node;
+                src++;
+                continue;
+            }
+
+            Object[] slots = new Object[plan[k]];
+            int filled = 0;
+            while (filled < slots.length) {
+                node = (Node) all[src];
+                int chunk = Math.min(slots.length - filled, node.array.length - offset);
+                System.arraycopy(node.array, offset, slots, filled, chunk);
+                filled += chunk;
+                offset += chunk;
+                if (offset == node.array.length) {
+                    src++;
+                    offset = 0;
+                }
+            }
+            result[k] = shift == 0 ? new Node(slots, null) : inner(slots, shift);
+        }
+
+        return result;
+    }
+
+    /**
+     * Appends the elements of the collection in the given order.
+     */
+    private ImmutableVector<E> appendAll(final Iterable<?> elems) {
+        Appender<E> appender = new Appender<E>(this);
+        appender.addAll(elems);
+        return appender.result();
+    }
+
+    /**
+     * Iterates the leaves of the tree. Each leaf is looked up once, so a full
+     * iteration takes O(n).
+     */
+    private final class VectorIterator implements ListIterator<E> {
+        private int index;
+        private Object[] leaf = EMPTY_ARRAY;
+        private int leafStart;
+        private int leafEnd;
+
+        VectorIterator(final int index) {
+            this.index = index;
+        }
+
+        private void seek(final int i) {
+            if (i >= tailOffset()) {
+                leaf = tail;
+                leafStart = tailOffset();
+            } else {
+                Node node = root;
+                int start = 0;
+                for (int s = shift; s > 0; s -= BITS) {
+                    int idx = childIndex(node, s, i - start);
+                    start += childStart(node, s, idx);
+                    node = (Node) node.array[idx];
+                }
+                leaf = node.array;
+                leafStart = start;
+            }
+            leafEnd = leafStart + leaf.length;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E next() {
+            if (index >= size) {
+                throw new NoSuchElementException();
+            } else if (index < leafStart || index >= leafEnd) {
+                seek(index);
+            }
+
+            return (E) leaf[index++ - leafStart];
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return index > 0;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E previous() {
+            if (index <= 0) {
+                throw new NoSuchElementException();
+            } else if (index - 1 < leafStart || index - 1 >= leafEnd) {
+                seek(index - 1);
+            }
+
+            return (E) leaf[--index - leafStart];
+        }
+
+        @Override
+        public int nextIndex() {
+            return index;
+        }
+
+        @Override
+        public int previousIndex() {
+            return index - 1;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Immutable list cannot be changed");
+        }
+
+        @Override
+        public void set(final E e) {
+            throw new UnsupportedOperationException("Immutable list cannot be changed");
+        }
+
+        @Override
+        public void add(final E e) {
+            throw new UnsupportedOperationException("Immutable list cannot be changed");
+        }
+    }
+
+    /** Vector methods */
+
+    /**
+     * Appends all elements of another vector. Both trees are merged along
+     * their adjacent edges, all other nodes are shared.
+     *
+     * @param anotherVector
+     *            Vector to append
+     * @return Concatenated vector
+     */
+    @SuppressWarnings("unchecked")
+    public ImmutableVector<E> concat(final ImmutableVector<? extends E> anotherVector) {
+        if (anotherVector.size == 0) {
+            return this;
+        } else if (size == 0) {
+            return (ImmutableVector<E>) anotherVector;
+        } else if (anotherVector.root == null && tail.length + anotherVector.tail.length <= WIDTH) {
+            Object[] newTail = Arrays.copyOf(tail, tail.length + anotherVector.tail.length);
+            System.arraycopy(anotherVector.tail, 0, newTail, tail.length, anotherVector.tail.length);
+            return new ImmutableVector<E>(root, shift, size + anotherVector.size, newTail);
+        }
+
+        Appender<E> appender = new Appender<E>(root, shift, tailOffset());
+        appender.pushLeaf(new Node(tail, null));
+        if (anotherVector.root == null) {
+            return new ImmutableVector<E>(appender.root, appender.shift, size + anotherVector.size,
+                    anotherVector.tail);
+        }
+
+        Node merged = concatTrees(appender.root, appender.shift, anotherVector.root, anotherVector.shift);
+        int[] newShift = new int[1];
+        Node newRoot = collapse(merged, Math.max(appender.shift, anotherVector.shift) + BITS, newShift);
+        return new ImmutableVector<E>(newRoot, newShift[0], size + anotherVector.size, anotherVector.tail);
+    }
+
+    /** ImmutableCollection methods */
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new VectorIterator(0);
+    }
+
+    @Override
+    public ImmutableVector<E> remove(final Object o) {
+        int index = indexOf(o);
+        return index < 0 ? this : remove(index);
+    }
+
+    @Override
+    public ImmutableVector<E> addAll(final Collection<? extends E> c) {
+        return c.isEmpty() ? this : appendAll(c);
+    }
+
+    @Override
+    public ImmutableVector<E> removeAll(final Collection<?> c) {
+        return removeMatching(c, true);
+    }
+
+    @Override
+    public ImmutableVector<E> retainAll(final Collection<?> c) {
+        return removeMatching(c, false);
+    }
+
+    private ImmutableVector<E> removeMatching(final Collection<?> c, final boolean expected) {
+        Appender<E> appender = new Appender<E>();
+        boolean changed = false;
+        for (E elem : this) {
+            if (c.contains(elem) == expected) {
+                changed = true;
+            } else {
+                appender.add(elem);
+            }
+        }
+
+        return changed ? appender.result() : this;
+    }
+
+    @Override
+    public ImmutableVector<E> clear() {
+        return empty();
+    }
+
+    @Override
+    public ImmutableVector<E> add(final E elem) {
+        if (tail.length < WIDTH) {
+            Object[] newTail = Arrays.copyOf(tail, tail.length + 1);
+            newTail[tail.length] = elem;
+            return new ImmutableVector<E>(root, shift, size + 1, newTail);
+        }
+
+        Appender<E> appender = new Appender<E>(root, shift, tailOffset());
+        appender.pushLeaf(new Node(tail, null));
+        return new ImmutableVector<E>(appender.root, appender.shift, size + 1, new Object[] { elem });
+    }
+
+    @Override
+    public ImmutableVector<E> filter(final Predicate<E> predicate) {
+        return filter(predicate, true);
+    }
+
+    @Override
+    public ImmutableVector<E> remove(final Predicate<E> predicate) {
+        return filter(predicate, false);
+    }
+
+    private ImmutableVector<E> filter(final Predicate<E> predicate, final boolean expected) {
+        Appender<E> appender = new Appender<E>();
+        boolean changed = false;
+        for (E elem : this) {
+            if (predicate.test(elem) == expected) {
+                appender.add(elem);
+            } else {
+                changed = true;
+            }
+        }
+
+        return changed ? appender.result() : this;
+    }
+
+    @Override
+    public ImmutableVector<E> replace(final E seek, final E replacement) {
+        return replace(new Predicate<E>() {
+            @Override
+            public boolean test(final E input) {
+                return seek == null ? input == null : seek.equals(input);
+            }
+        }, replacement);
+    }
+
+    @Override
+    public ImmutableVector<E> replace(final Predicate<E> predicate, final E replacement) {
+        Appender<E> appender = new Appender<E>();
+        boolean changed = false;
+        for (E elem : this) {
+            if (predicate.test(elem)) {
+                appender.add(replacement);
+                changed = true;
+            } else {
+                appender.add(elem);
+            }
+        }
+
+        return changed ? appender.result() : this;
+    }
+
+    @Override
+    public ImmutableVector<E> replace(final Map<E, E> replacements) {
+        Appender<E> appender = new Appender<E>();
+        boolean changed = false;
+        for (E elem : this) {
+            if (replacements.containsKey(elem)) {
+                appender.add(replacements.get(elem));
+                changed = true;
+            } else {
+                appender.add(elem);
+            }
+        }
+
+        return changed ? appender.result() : this;
+    }
+
+    @Override
+    public <R> ImmutableVector<R> map(final UnaryFunction<R, E> function) {
+        Appender<R> appender = new Appender<R>();
+        for (E elem : this) {
+            appender.add(function.apply(elem));
+        }
+
+        return appender.result();
+    }
+
+    @Override
+    public ImmutableVector<Object> flatten() {
+        Appender<Object> appender = new Appender<Object>();
+        flattenInto(this, appender);
+        return appender.result();
+    }
+
+    private static void flattenInto(final Iterable<?> elems, final Appender<Object> appender) {
+        for (Object elem : elems) {
+            if (elem instanceof Collection || elem instanceof ImmutableCollection) {
+                flattenInto((Iterable<?>) elem, appender);
+            } else {
+                appender.add(elem);
+            }
+        }
+    }
+
+    /**
+     * Checks that all elements are instances of clazz. As the vector cannot
+     * change, the same vector is returned.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> ImmutableVector<T> castAllElements(final Class<T> clazz) {
+        for (E elem : this) {
+            clazz.cast(elem);
+        }
+
+        return (ImmutableVector<T>) this;
+    }
+
+    /** ImmutableList methods */
+
+    @Override
+    public ImmutableVector<E> addAll(final int index, final Collection<? extends E> c) {
+        if (index == size) {
+            return addAll(c);
+        }
+
+        checkIndex(index, size);
+        return take(index).addAll(c).concat(drop(index));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(final int index) {
+        checkIndex(index, size);
+        int offset = tailOffset();
+        if (index >= offset) {
+            return (E) tail[index - offset];
+        }
+
+        return (E) getIn(root, shift, index);
+    }
+
+    @Override
+    public ImmutableVector<E> set(final int index, final E element) {
+        checkIndex(index, size);
+        int offset = tailOffset();
+        if (index >= offset) {
+            Object[] newTail = tail.clone();
+            newTail[index - offset] = element;
+            return new ImmutableVector<E>(root, shift, size, newTail);
+        }
+
+        return new ImmutableVector<E>(setIn(root, shift, index, element, null), shift, size, tail);
+    }
+
+    @Override
+    public ImmutableVector<E> add(final int index, final E element) {
+        if (index == size) {
+            return add(element);
+        }
+
+        checkIndex(index, size);
+        return take(index).add(element).concat(drop(index));
+    }
+
+    @Override
+    public ImmutableVector<E> remove(final int index) {
+        checkIndex(index, size);
+        return take(index).concat(drop(index + 1));
+    }
+
+    @Override
+    public int indexOf(final Object o) {
+        int index = 0;
+        for (E elem : this) {
+            if (o == null ? elem == null : o.equals(elem)) {
+                return index;
+            }
+            index++;
+        }
+
+        return -1;
+    }
+
+    @Override
+    public int lastIndexOf(final Object o) {
+        ListIterator<E> it = listIterator(size);
+        while (it.hasPrevious()) {
+            E elem = it.previous();
+            if (o == null ? elem == null : o.equals(elem)) {
+                return it.nextIndex();
+            }
+        }
+
+        return -1;
+    }
+
+    @Override
+    public ListIterator<E> listIterator() {
+        return new VectorIterator(0);
+    }
+
+    @Override
+    public ListIterator<E> listIterator(final int index) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+
+        return new VectorIterator(index);
+    }
+
+    @Override
+    public ImmutableVector<E> subList(final int fromIndex, final int toIndex) {
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("fromIndex: " + fromIndex + ", toIndex: " + toIndex + ", Size: "
+                    + size);
+        }
+
+        return take(toIndex).drop(fromIndex);
+    }
+
+    @Override
+    public E head() throws NoSuchElementException {
+        if (size == 0) {
+            throw new NoSuchElementException("List is empty, no head element available");
+        }
+
+        return get(0);
+    }
+
+    @Override
+    public ImmutableVector<E> tail() throws UnsupportedOperationException {
+        if (size == 0) {
+            throw new UnsupportedOperationException("List is empty, no tail list available");
+        }
+
+        return drop(1);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E last() throws NoSuchElementException {
+        if (size == 0) {
+            throw new NoSuchElementException("List is empty, no last element available");
+        }
+
+        return (E) tail[tail.length - 1];
+    }
+
+    @Override
+    public E get(final int index, final E defaultVal) {
+        return index >= 0 && index < size ? get(index) : defaultVal;
+    }
+
+    @Override
+    public ImmutableVector<E> take(final int n) {
+        if (n <= 0) {
+            return empty();
+        } else if (n >= size) {
+            return this;
+        }
+
+        int offset = tailOffset();
+        if (n > offset) {
+            return new ImmutableVector<E>(root, shift, n, Arrays.copyOf(tail, n - offset));
+        }
+
+        int[] newShift = new int[1];
+        Node newRoot = collapse(sliceRight(root, shift, n), shift, newShift);
+        return fromTree(newRoot, newShift[0], n);
+    }
+
+    @Override
+    public ImmutableVector<E> drop(final int n) {
+        if (n <= 0) {
+            return this;
+        } else if (n >= size) {
+            return empty();
+        }
+
+        int offset = tailOffset();
+        if (n >= offset) {
+            return new ImmutableVector<E>(null, 0, size - n, Arrays.copyOfRange(tail, n - offset, tail.length));
+        }
+
+        int[] newShift = new int[1];
+        Node newRoot = collapse(sliceLeft(root, shift, n), shift, newShift);
+        return new ImmutableVector<E>(newRoot, newShift[0], size - n, tail);
+    }
+
+    @Override
+    public ImmutableVector<E> takeWhile(final Predicate<E> pred) {
+        int n = 0;
+        for (E elem : this) {
+            if (!pred.test(elem)) {
+                break;
+            }
+            n++;
+        }
+
+        return take(n);
+    }
+
+    @Override
+    public ImmutableVector<E> dropWhile(final Predicate<E> pred) {
+        int n = 0;
+        for (E elem : this) {
+            if (!pred.test(elem)) {
+                break;
+            }
+            n++;
+        }
+
+        return drop(n);
+    }
+
+    @Override
+    public ImmutableVector<E> removeDuplicates() {
+        Set<E> seen = new HashSet<E>();
+        Appender<E> appender = new Appender<E>();
+        for (E elem : this) {
+            if (seen.add(elem)) {
+                appender.add(elem);
+            }
+        }
+
+        return seen.size() == size ? this : appender.result();
+    }
+
+    @Override
+    public ImmutableVector<E> intersperse(final E elem) {
+        Appender<E> appender = new Appender<E>();
+        Iterator<E> it = iterator();
+        while (it.hasNext()) {
+            appender.add(it.next());
+            if (it.hasNext()) {
+                appender.add(elem);
+            }
+        }
+
+        return appender.result();
+    }
+
+    @Override
+    public <T> ImmutableHashMap<E, T> zipWith(final List<T> anotherList) {
+        ImmutableHashMap.Transient<E, T> result = new ImmutableHashMap<E, T>().toTransient();
+        Iterator<E> keys = iterator();
+        Iterator<T> vals = anotherList.iterator();
+
+        while (keys.hasNext() && vals.hasNext()) {
+            result.put(keys.next(), vals.next());
+        }
+
+        return result.freeze();
+    }
+
+    @Override
+    public ImmutableVector<Integer> getIndicesList() {
+        Appender<Integer> appender = new Appender<Integer>();
+        for (int i = 0; i < size; i++) {
+            appender.add(i);
+        }
+
+        return appender.result();
+    }
+
+    @Override
+    public ImmutableHashMap<E, Integer> getOccurenceCountMap() {
+        SmartObjectIntMap<E> counts = new SmartObjectIntMap<E>();
+        for (E elem : this) {
+            counts.addTo(elem, 1);
+        }
+
+        ImmutableHashMap.Transient<E, Integer> result = new ImmutableHashMap<E, Integer>().toTransient();
+        for (E key : counts.keys()) {
+            result.put(key, counts.get(key));
+        }
+
+        return result.freeze();
+    }
+
+    @Override
+    public ImmutableVector<E> reverse() {
+        Appender<E> appender = new Appender<E>();
+        ListIterator<E> it = listIterator(size);
+        while (it.hasPrevious()) {
+            appender.add(it.previous());
+        }
+
+        return appender.result();
+    }
+
+    @Override
+    public int sizeWithoutNulls() {
+        int counter = 0;
+        for (E elem : this) {
+            if (elem != null) {
+                counter++;
+            }
+        }
+
+        return counter;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj == this) {
+            return true;
+        } else if (!(obj instanceof ImmutableList) || ((ImmutableList<?>) obj).size() != size) {
+            return false;
+        }
+
+        Iterator<?> other = ((ImmutableList<?>) obj).iterator();
+        for (E elem : this) {
+            Object otherElem = other.next();
+            if (elem == null ? otherElem != null : !elem.equals(otherElem)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 1;
+        for (E elem : this) {
+            result = 31 * result + (elem == null ? 0 : elem.hashCode());
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,195 @@
+/**
+ * Copyright (c) Stefan Muenchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections.immutable;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.stefanmuenchow.collections.function.BinaryFunction;
+import com.stefanmuenchow.collections.function.Predicate;
+
+/**
+ * Base class of the persistent collections. Unlike ImmutableAbstractCollection
+ * it does not wrap a mutable collection, the subclasses keep their own
+ * structures and share them between versions. All read only methods are
+ * implemented on top of the iterator.
+ *
+ * @author Stefan Muenchow
+ */
+public abstract class PersistentAbstractCollection<E> implements ImmutableCollection<E> {
+
+    /** ImmutableCollection methods */
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public boolean contains(final Object o) {
+        for (E elem : this) {
+            if (o == null ? elem == null : o.equals(elem)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public Object[] toArray() {
+        Object[] result = new Object[size()];
+        int i = 0;
+        for (E elem : this) {
+            result[i++] = elem;
+        }
+
+        return result;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T[] toArray(final T[] a) {
+        T[] result = a.length >= size() ? a : (T[]) Array.newInstance(a.getClass().getComponentType(), size());
+        int i = 0;
+        for (E elem : this) {
+            result[i++] = (T) elem;
+        }
+        if (result.length > i) {
+            result[i] = null;
+        }
+
+        return result;
+    }
+
+    @Override
+    public <T> T[] toArray(final Class<T> clazz) {
+        @SuppressWarnings("unchecked")
+        T[] result = (T[]) Array.newInstance(clazz, size());
+        int i = 0;
+        for (E elem : this) {
+            result[i++] = clazz.cast(elem);
+        }
+
+        return result;
+    }
+
+    @Override
+    public boolean containsAll(final Collection<?> c) {
+        for (Object elem : c) {
+            if (!contains(elem)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public E find(final Predicate<E> pred) throws NoSuchElementException {
+        for (E elem : this) {
+            if (pred.test(elem)) {
+                return elem;
+            }
+        }
+
+        throw new NoSuchElementException("No element matches the given predicate");
+    }
+
+    @Override
+    public <R> R reduce(final R initial, final BinaryFunction<R, E> funct) {
+        R result = initial;
+        for (E elem : this) {
+            result = funct.apply(result, elem);
+        }
+
+        return result;
+    }
+
+    @Override
+    public E reduce(final BinaryFunction<E, E> funct) {
+        Iterator<E> it = iterator();
+        if (!it.hasNext()) {
+            return null;
+        }
+
+        E result = it.next();
+        while (it.hasNext()) {
+            result = funct.apply(result, it.next());
+        }
+
+        return result;
+    }
+
+    @Override
+    public String join(final String delimiter) {
+        StringBuffer sb = new StringBuffer();
+        Iterator<E> it = iterator();
+        while (it.hasNext()) {
+            sb.append(it.next().toString());
+            if (it.hasNext()) {
+                sb.append(delimiter);
+            }
+        }
+
+        return sb.toString();
+    }
+
+    @Override
+    public int count(final Predicate<E> predicate) {
+        int counter = 0;
+        for (E elem : this) {
+            if (predicate.test(elem)) {
+                counter++;
+            }
+        }
+
+        return counter;
+    }
+
+    @Override
+    public boolean exists(final Predicate<E> pred) {
+        for (E elem : this) {
+            if (pred.test(elem)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public boolean forall(final Predicate<E> pred) {
+        for (E elem : this) {
+            if (!pred.test(elem)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        StringBuffer sb = new StringBuffer("[");
+        Iterator<E> it = iterator();
+        while (it.hasNext()) {
+            sb.append(it.next());
+            if (it.hasNext()) {
+                sb.append(", ");
+            }
+        }
+
+        return sb.append("]").toString();
+    }
+}
@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) Stefan Muenchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.stefanmuenchow.collections.function.BinaryFunction;
+import com.stefanmuenchow.collections.function.MapPredicate;
+import com.stefanmuenchow.collections.function.UnaryFunction;
+
+public class SmartConcurrentHashMapTest {
+    private SmartConcurrentHashMap<Integer, Integer> bigMap = null;
+
+    private final MapPredicate<Integer, Integer> isEven = new MapPredicate<Integer, Integer>() {
+        @Override
+        public boolean test(final Integer key, final Integer val) {
+            return val % 2 == 0;
+        }
+    };
+
+    private final UnaryFunction<Integer, Integer> increment = new UnaryFunction<Integer, Integer>() {
+        @Override
+        public Integer apply(final Integer input) {
+            return input + 1;
+        }
+    };
+
+    @Before
+    public void setUp() throws Exception {
+        bigMap = new SmartConcurrentHashMap<Integer, Integer>();
+        for (int i = 0; i < 10000; i++) {
+            bigMap.put(i, i * 3);
+        }
+    }
+
+    @Test
+    public void testBulkOperations() {
+        assertEquals(5000, bigMap.count(isEven));
+        assertTrue(bigMap.exists(isEven));
+        assertFalse(bigMap.forall(isEven));
+        assertEquals(0, bigMap.find(isEven).intValue() % 2);
+
+        bigMap.filter(isEven);
+        assertEquals(5000, bigMap.size());
+        assertTrue(bigMap.forall(isEven));
+
+        bigMap.remove(isEven);
+        assertTrue(bigMap.isEmpty());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testFindFail() {
+        bigMap.find(new MapPredicate<Integer, Integer>() {
+            @Override
+            public boolean test(final Integer key, final Integer val) {
+                return val < 0;
+            }
+        });
+    }
+
+    @Test
+    public void testParallelReduce() {
+        BinaryFunction<Long, Map.Entry<Integer, Integer>> sumValues = new BinaryFunction<Long, Map.Entry<Integer, Integer>>() {
+            @Override
+            public Long apply(final Long input1, final Map.Entry<Integer, Integer> input2) {
+                return input1 + input2.getValue();
+            }
+        };
+        BinaryFunction<Long, Long> sum = new BinaryFunction<Long, Long>() {
+            @Override
+            public Long apply(final Long input1, final Long input2) {
+                return input1 + input2;
+            }
+        };
+
+        assertEquals(Long.valueOf(3L * 9999 * 10000 / 2), bigMap.parallelReduce(0L, sumValues, sum));
+        assertEquals(Long.valueOf(0), new SmartConcurrentHashMap<Integer, Integer>().parallelReduce(0L, sumValues, sum));
+    }
+
+    @Test
+    public void testConcurrentUpserts() throws InterruptedException {
+        final SmartConcurrentHashMap<String, Integer> counters = new SmartConcurrentHashMap<String, Integer>();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < 8; t++) {
+            threads.add(new Thread() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 10000; i++) {
+                        counters.upsert("key" + i % 10, 1, increment);
+                        counters.merge("total", 1, new BinaryFunction<Integer, Integer>() {
+                            @Override
+                            public Integer apply(final Integer input1, final Integer input2) {
+                                return input1 + input2;
+                            }
+                        });
+                    }
+                }
+            });
+        }
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(80000, counters.get("total").intValue());
+        assertEquals(8000, counters.get("key3").intValue());
+        assertEquals(11, counters.size());
+    }
+
+    @Test
+    public void testMergeWith() {
+        SmartConcurrentHashMap<Integer, Integer> map = new SmartConcurrentHashMap<Integer, Integer>();
+        map.put(1, 10);
+        map.put(2, 20);
+        SmartMap<Integer, Integer> another = new SmartHashMap<Integer, Integer>();
+        another.put(2, 5);
+        another.put(3, 7);
+
+        map.mergeWith(another, new BinaryFunction<Integer, Integer>() {
+            @Override
+            public Integer apply(final Integer input1, final Integer input2) {
+                return input1 + input2;
+            }
+        });
+
+        SmartMap<Integer, Integer> expected = new SmartHashMap<Integer, Integer>();
+        expected.put(2, 25);
+        expected.put(3, 7);
+        assertEquals(expected, map);
+    }
+
+    @Test
+    public void testHeadTailAndSwap() {
+        Map.Entry<Integer, Integer> head = bigMap.head();
+        SmartMap<Integer, Integer> tail = bigMap.tail();
+        assertEquals(9999, tail.size());
+        assertFalse(tail.containsKey(head.getKey()));
+
+        bigMap.put(head.getKey(), -1);
+        assertEquals(head.getValue().intValue(), head.getKey() * 3);
+
+        SmartMap<Integer, Integer> swapped = tail.swap();
+        assertEquals(9999, swapped.size());
+        assertEquals(Integer.valueOf(5), swapped.get(15));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSwapFail() {
+        bigMap.put(-1, 0);
+        bigMap.swap();
+    }
+
+    @Test
+    public void testReplace() {
+        bigMap.replace(1, 3, -1, -3);
+        bigMap.replace(2, 0, -2, 0);
+        assertFalse(bigMap.containsKey(1));
+        assertEquals(Integer.valueOf(-3), bigMap.get(-1));
+        assertTrue(bigMap.containsKey(2));
+        assertFalse(bigMap.containsKey(-2));
+    }
+}
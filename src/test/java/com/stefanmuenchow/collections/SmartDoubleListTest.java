@@ -0,0 +1,191 @@
+/**
+ * Copyright (c) Stefan Muenchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.NoSuchElementException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.stefanmuenchow.collections.function.DoubleBinaryFunction;
+import com.stefanmuenchow.collections.function.DoublePredicate;
+import com.stefanmuenchow.collections.function.DoubleUnaryFunction;
+
+public class SmartDoubleListTest {
+    private SmartDoubleList doubleList1 = null;
+    private SmartDoubleList doubleList2 = null;
+
+    private final DoublePredicate isNegative = new DoublePredicate() {
+        @Override
+        public boolean test(final double input) {
+            return input < 0;
+        }
+    };
+
+    @Before
+    public void setUp() throws Exception {
+        doubleList1 = new SmartDoubleList(0.5, 56, -0.0, 11, 0.0, 12, 0.5, Double.NaN);
+        doubleList2 = new SmartDoubleList(-8.5, -1.25, -11, 56, 8.5, -19);
+    }
+
+    @Test
+    public void testOperations() {
+        SmartDoubleList list = new SmartDoubleList(1.5, Double.NaN, 2.5, 1.5, Double.NaN);
+
+        assertTrue(list.contains(Double.NaN));
+        assertEquals(3, list.lastIndexOf(1.5));
+
+        list.removeDuplicates();
+        assertEquals(new SmartDoubleList(1.5, Double.NaN, 2.5), list);
+
+        list.remove(new DoublePredicate() {
+            @Override
+            public boolean test(final double input) {
+                return Double.isNaN(input);
+            }
+        });
+        assertEquals(4.0, list.sum(), 0.0);
+        assertEquals(new SmartDoubleList(3.0, 5.0), list.map(new DoubleUnaryFunction() {
+            @Override
+            public double apply(final double input) {
+                return input * 2;
+            }
+        }));
+    }
+
+    @Test
+    public void testReduce() {
+        DoubleBinaryFunction max = new DoubleBinaryFunction() {
+            @Override
+            public double apply(final double input1, final double input2) {
+                return Math.max(input1, input2);
+            }
+        };
+        SmartDoubleList list = new SmartDoubleList(0.5, -2.25, 4.0);
+
+        assertEquals(4.0, list.reduce(max), 0.0);
+        assertEquals(10.0, list.reduce(10.0, max), 0.0);
+        assertEquals(-1.0, new SmartDoubleList().reduce(-1.0, max), 0.0);
+        assertEquals(2.25, list.sum(), 0.0);
+        assertEquals(4.0, list.stream().reduce(Double.NEGATIVE_INFINITY, max), 0.0);
+    }
+
+    @Test(expected=NoSuchElementException.class)
+    public void testReduceEmpty() {
+        new SmartDoubleList().reduce(new DoubleBinaryFunction() {
+            @Override
+            public double apply(final double input1, final double input2) {
+                return input1 + input2;
+            }
+        });
+    }
+
+    @Test
+    public void testBoxing() {
+        SmartDoubleList list = new SmartDoubleList(0.5, Double.NaN, -0.0);
+        assertEquals(new SmartArrayList<Double>(0.5, Double.NaN, -0.0), list.toSmartList());
+        assertEquals(list.toSmartList().hashCode(), list.hashCode());
+        assertArrayEquals(new double[] {0.5, Double.NaN, -0.0}, list.toArray(), 0.0);
+    }
+
+    @Test
+    public void testAddAndGet() {
+        SmartDoubleList list = new SmartDoubleList();
+        for (int i = 0; i < 100; i++) {
+            list.add(i / 4.0);
+        }
+        list.add(0, -1.0);
+
+        assertEquals(101, list.size());
+        assertEquals(-1.0, list.head(), 0.0);
+        assertEquals(24.75, list.last(), 0.0);
+        assertEquals(10.5, list.get(43), 0.0);
+        assertEquals(-5.0, list.get(200, -5.0), 0.0);
+        assertEquals(-1.0, list.removeAt(0), 0.0);
+        assertEquals(0.25, list.get(1), 0.0);
+    }
+
+    @Test(expected=IndexOutOfBoundsException.class)
+    public void testGetFail() {
+        doubleList1.get(8);
+    }
+
+    @Test(expected=NoSuchElementException.class)
+    public void testHeadFail() {
+        new SmartDoubleList().head();
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testTailFail() {
+        new SmartDoubleList().tail();
+    }
+
+    @Test
+    public void testTakeDrop() {
+        assertEquals(new SmartDoubleList(-8.5, -1.25, -11), doubleList2.take(3));
+        assertEquals(new SmartDoubleList(0.0, 12, 0.5, Double.NaN), doubleList1.drop(4));
+        assertEquals(new SmartDoubleList(), doubleList1.drop(50));
+        assertEquals(new SmartDoubleList(56, -0.0, 11, 0.0, 12, 0.5, Double.NaN), doubleList1.tail());
+        assertEquals(new SmartDoubleList(-8.5, -1.25, -11), doubleList2.takeWhile(isNegative));
+        assertEquals(new SmartDoubleList(56, 8.5, -19), doubleList2.dropWhile(isNegative));
+    }
+
+    @Test
+    public void testQueries() {
+        assertEquals(4, doubleList2.count(isNegative));
+        assertTrue(doubleList2.exists(isNegative));
+        assertFalse(doubleList2.forall(isNegative));
+        assertEquals(-8.5, doubleList2.find(isNegative), 0.0);
+        assertTrue(doubleList1.contains(11));
+        assertFalse(doubleList1.contains(1));
+        assertEquals(0, doubleList1.indexOf(0.5));
+        assertEquals(6, doubleList1.lastIndexOf(0.5));
+        assertEquals(2, doubleList1.indexOf(-0.0));
+        assertEquals(4, doubleList1.indexOf(0.0));
+        assertEquals(7, doubleList1.indexOf(Double.NaN));
+        assertEquals("-8.5|-1.25|-11.0|56.0|8.5|-19.0", doubleList2.join("|"));
+    }
+
+    @Test
+    public void testFilterAndMap() {
+        doubleList2.filter(isNegative);
+        assertEquals(new SmartDoubleList(-8.5, -1.25, -11, -19), doubleList2);
+
+        doubleList2.remove(new DoublePredicate() {
+            @Override
+            public boolean test(final double input) {
+                return input < -10;
+            }
+        });
+        assertEquals(new SmartDoubleList(-8.5, -1.25), doubleList2);
+
+        assertEquals(new SmartDoubleList(-17, -2.5), doubleList2.map(new DoubleUnaryFunction() {
+            @Override
+            public double apply(final double input) {
+                return input * 2;
+            }
+        }));
+    }
+
+    @Test
+    public void testReverseAndRemoveDuplicates() {
+        doubleList1.reverse();
+        assertEquals(new SmartDoubleList(Double.NaN, 0.5, 12, 0.0, 11, -0.0, 56, 0.5), doubleList1);
+
+        doubleList1.removeDuplicates();
+        assertEquals(new SmartDoubleList(Double.NaN, 0.5, 12, 0.0, 11, -0.0, 56), doubleList1);
+    }
+}
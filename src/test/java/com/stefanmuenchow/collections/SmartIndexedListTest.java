@@ -0,0 +1,384 @@
+/**
+ * Copyright (c) Stefan Muenchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.stefanmuenchow.collections.function.Predicate;
+import com.stefanmuenchow.collections.function.UnaryFunction;
+
+public class SmartIndexedListTest {
+    private SmartIndexedList<Integer> indexedList = null;
+
+    private final UnaryFunction<Integer, String> length = new UnaryFunction<Integer, String>() {
+        @Override
+        public Integer apply(final String input) {
+            return input.length();
+        }
+    };
+
+    private final UnaryFunction<Character, String> initial = new UnaryFunction<Character, String>() {
+        @Override
+        public Character apply(final String input) {
+            return input.charAt(0);
+        }
+    };
+
+    @Before
+    public void setUp() throws Exception {
+        indexedList = new SmartIndexedList<Integer>(9, 56, 23, 11, 67, 12, 9, 10);
+    }
+
+    /**
+     * Checks all lookups against a linear scan of the elements.
+     */
+    private static void assertIndexed(final SmartIndexedList<Integer> list) {
+        List<Integer> copy = new ArrayList<Integer>(list);
+        for (int value = -1; value < 100; value++) {
+            assertEquals(copy.contains(value), list.contains(value));
+            assertEquals(copy.indexOf(value), list.indexOf(value));
+            assertEquals(copy.lastIndexOf(value), list.lastIndexOf(value));
+            assertEquals(Collections.frequency(copy, value), list.frequency(value));
+        }
+    }
+
+    @Test
+    public void testLookups() {
+        assertTrue(indexedList.contains(67));
+        assertFalse(indexedList.contains(68));
+        assertEquals(0, indexedList.indexOf(9));
+        assertEquals(6, indexedList.lastIndexOf(9));
+        assertEquals(2, indexedList.frequency(9));
+        assertEquals(-1, indexedList.indexOf(68));
+        assertIndexed(indexedList);
+    }
+
+    @Test
+    public void testChanges() {
+        indexedList.add(9);
+        assertEquals(8, indexedList.lastIndexOf(9));
+
+        indexedList.add(1, 67);
+        assertEquals(1, indexedList.indexOf(67));
+        assertEquals(9, indexedList.lastIndexOf(9));
+
+        indexedList.set(0, 11);
+        assertEquals(0, indexedList.indexOf(11));
+        assertEquals(7, indexedList.indexOf(9));
+
+        indexedList.remove(Integer.valueOf(11));
+        assertEquals(3, indexedList.indexOf(11));
+        assertIndexed(indexedList);
+
+        indexedList.add(null);
+        assertTrue(indexedList.contains(null));
+        assertEquals(indexedList.size() - 1, indexedList.indexOf(null));
+    }
+
+    @Test
+    public void testIteratorsAndSubLists() {
+        ListIterator<Integer> it = indexedList.listIterator();
+        while (it.hasNext()) {
+            int value = it.next();
+            if (value == 23) {
+                it.remove();
+            } else if (value == 11) {
+                it.add(9);
+            } else if (value == 12) {
+                it.set(13);
+            }
+        }
+        assertEquals(Arrays.asList(9, 56, 11, 9, 67, 13, 9, 10), new ArrayList<Integer>(indexedList));
+        assertIndexed(indexedList);
+
+        indexedList.subList(1, 3).clear();
+        assertEquals(Arrays.asList(9, 9, 67, 13, 9, 10), new ArrayList<Integer>(indexedList));
+        assertIndexed(indexedList);
+    }
+
+    @Test
+    public void testRandomChanges() {
+        Random random = new Random(42);
+        SmartIndexedList<Integer> list = new SmartIndexedList<Integer>();
+        for (int i = 0; i < 2000; i++) {
+            int value = random.nextInt(50);
+            switch (random.nextInt(5)) {
+            case 0:
+                list.add(random.nextInt(list.size() + 1), value);
+                break;
+            case 1:
+                if (!list.isEmpty()) {
+                    list.remove(random.nextInt(list.size()));
+                }
+                break;
+            case 2:
+                if (!list.isEmpty()) {
+                    list.set(random.nextInt(list.size()), value);
+                }
+                break;
+            default:
+                list.add(value);
+            }
+
+            if (i % 100 == 0) {
+                assertIndexed(list);
+            }
+        }
+        assertIndexed(list);
+    }
+
+    @Test
+    public void testBulkOperations() {
+        indexedList.filter(new Predicate<Integer>() {
+            @Override
+            public boolean test(final Integer input) {
+                return input > 10;
+            }
+        });
+        assertEquals(new SmartIndexedList<Integer>(56, 23, 11, 67, 12), indexedList);
+        assertIndexed(indexedList);
+
+        indexedList.addAll(Arrays.asList(1, 2, 56));
+        indexedList.removeAll(Arrays.asList(23, 2));
+        assertEquals(new SmartIndexedList<Integer>(56, 11, 67, 12, 1, 56), indexedList);
+        assertIndexed(indexedList);
+
+        indexedList.reverse();
+        assertEquals(new SmartIndexedList<Integer>(56, 1, 12, 67, 11, 56), indexedList);
+        assertIndexed(indexedList);
+
+        indexedList.intersperse(0);
+        assertEquals(11, indexedList.size());
+        assertEquals(5, indexedList.frequency(0));
+        assertIndexed(indexedList);
+
+        Collections.sort(indexedList);
+        assertEquals(0, indexedList.head().intValue());
+        assertIndexed(indexedList);
+    }
+
+    @Test
+    public void testRemoveDuplicates() {
+        indexedList.add(56);
+        indexedList.removeDuplicates();
+        assertEquals(new SmartIndexedList<Integer>(9, 56, 23, 11, 67, 12, 10), indexedList);
+        assertIndexed(indexedList);
+
+        assertEquals(1, indexedList.getOccurenceCounts().get(56));
+        assertEquals(7, indexedList.getOccurenceCounts().size());
+    }
+
+    @Test
+    public void testSlices() {
+        SmartList<Integer> tail = indexedList.drop(2);
+        tail.add(0, 9);
+        assertEquals(0, tail.indexOf(9));
+        assertEquals(0, indexedList.indexOf(9));
+        assertEquals(8, indexedList.size());
+
+        Iterator<Integer> it = tail.iterator();
+        assertEquals(9, it.next().intValue());
+        assertTrue(tail instanceof SmartIndexedList);
+    }
+
+    @Test
+    public void testLookup() {
+        SmartIndexedList<String> words = new SmartIndexedList<String>("apple", "pear", "plum", "fig", "peach");
+        words.addIndex("initial", initial);
+
+        SmartView<String> view = words.lookup("initial", 'p');
+        assertEquals(new SmartArrayList<String>("pear", "plum", "peach"), view.toSmartList());
+        assertEquals("pear", words.find("initial", 'p'));
+
+        words.add(0, "papaya");
+        words.set(3, "kiwi");
+        words.remove("pear");
+        assertEquals(new SmartArrayList<String>("papaya", "peach"), view.toSmartList());
+        assertEquals(0, words.lookup("initial", 'x').count());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRemoveIndex() {
+        SmartIndexedList<String> words = new SmartIndexedList<String>("apple", "pear");
+        words.addIndex("initial", initial);
+        words.removeIndex("initial");
+        words.lookup("initial", 'p');
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testFindByKeyFail() {
+        SmartIndexedList<String> words = new SmartIndexedList<String>("apple", "pear");
+        words.addIndex("initial", initial);
+        words.find("initial", 'x');
+    }
+
+    @Test
+    public void testRange() {
+        SmartIndexedList<String> words = new SmartIndexedList<String>("apple", "pear", "plum", "fig", "peach");
+        words.addSortedIndex("length", length);
+
+        SmartView<String> view = words.range("length", 4, 6);
+        assertEquals(new SmartArrayList<String>("pear", "plum", "apple", "peach"), view.toSmartList());
+
+        words.add("banana");
+        words.add("kiwi");
+        words.remove(0);
+        assertEquals(new SmartArrayList<String>("pear", "plum", "kiwi", "peach"), view.toSmartList());
+        assertEquals("fig", words.find("length", 3));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testRangeOnHashIndex() {
+        SmartIndexedList<String> words = new SmartIndexedList<String>("apple", "pear");
+        words.addIndex("length", length);
+        words.range("length", 1, 5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicateIndexName() {
+        SmartIndexedList<String> words = new SmartIndexedList<String>("apple", "pear");
+        words.addIndex("length", length);
+        words.addSortedIndex("length", length);
+    }
+
+    @Test
+    public void testIndexesAfterRandomChanges() {
+        Random random = new Random(7);
+        SmartIndexedList<String> words = new SmartIndexedList<String>();
+        words.addIndex("initial", initial);
+        words.addSortedIndex("length", length);
+        for (int i = 0; i < 1000; i++) {
+            String word = Integer.toString(random.nextInt(100000), 36);
+            switch (random.nextInt(4)) {
+            case 0:
+                words.add(random.nextInt(words.size() + 1), word);
+                break;
+            case 1:
+                if (!words.isEmpty()) {
+                    words.remove(random.nextInt(words.size()));
+                }
+                break;
+            case 2:
+                if (!words.isEmpty()) {
+                    words.set(random.nextInt(words.size()), word);
+                }
+                break;
+            default:
+                words.add(word);
+            }
+        }
+
+        for (final char c : "0123456789abcdefghijklmnopqrstuvwxyz".toCharArray()) {
+            SmartList<String> expected = new SmartArrayList<String>(words);
+            expected.filter(new Predicate<String>() {
+                @Override
+                public boolean test(final String input) {
+                    return input.charAt(0) == c;
+                }
+            });
+            assertEquals(expected, words.lookup("initial", c).toSmartList());
+        }
+        assertEquals(words.size(), words.range("length", 0, 10).count());
+    }
+
+    @Test
+    public void testWorkListHeadRemoval() {
+        final int[] calls = new int[1];
+        SmartIndexedList<Integer> list = new SmartIndexedList<Integer>();
+        list.addIndex("tens", new UnaryFunction<Integer, Integer>() {
+            @Override
+            public Integer apply(final Integer input) {
+                calls[0]++;
+                return input / 10;
+            }
+        });
+        for (int i = 0; i < 10000; i++) {
+            list.add(i % 100);
+        }
+        assertTrue(list.contains(99));
+        assertEquals(10000, calls[0]);
+
+        for (int i = 0; i < 2000; i++) {
+            int head = list.remove(0);
+            assertEquals(i % 100, head);
+            assertTrue(list.contains(head));
+            list.add(head);
+        }
+
+        // One deletion and one addition per step instead of indexing the list again
+        assertTrue(list.contains(0));
+        assertEquals(10000 + 2 * 2000, calls[0]);
+        assertIndexed(list);
+        assertEquals(1000, list.lookup("tens", 3).count());
+        assertEquals(Integer.valueOf(30), list.find("tens", 3));
+    }
+
+    @Test
+    public void testChangesNearHead() {
+        Random random = new Random(11);
+        SmartIndexedList<Integer> list = new SmartIndexedList<Integer>();
+        list.addIndex("tens", new UnaryFunction<Integer, Integer>() {
+            @Override
+            public Integer apply(final Integer input) {
+                return input / 10;
+            }
+        });
+        for (int i = 0; i < 200; i++) {
+            list.add(random.nextInt(100));
+        }
+
+        for (int i = 0; i < 500; i++) {
+            int pos = random.nextInt(Math.min(10, list.size()));
+            switch (random.nextInt(4)) {
+            case 0:
+                list.add(pos, random.nextInt(100));
+                break;
+            case 1:
+                list.addAll(pos, Arrays.asList(random.nextInt(100), random.nextInt(100)));
+                break;
+            case 2:
+                list.subList(pos, pos + 2).clear();
+                break;
+            default:
+                list.remove(pos);
+            }
+
+            int value = random.nextInt(100);
+            assertEquals(new ArrayList<Integer>(list).indexOf(value), list.indexOf(value));
+            assertEquals(new ArrayList<Integer>(list).lastIndexOf(value), list.lastIndexOf(value));
+        }
+
+        assertIndexed(list);
+        for (int tens = 0; tens < 10; tens++) {
+            int expected = 0;
+            for (Integer elem : list) {
+                if (elem / 10 == tens) {
+                    expected++;
+                }
+            }
+            assertEquals(expected, list.lookup("tens", tens).count());
+        }
+    }
+}
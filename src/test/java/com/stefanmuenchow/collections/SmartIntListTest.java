@@ -0,0 +1,161 @@
+/**
+ * Copyright (c) Stefan Muenchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.NoSuchElementException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.stefanmuenchow.collections.function.IntBinaryFunction;
+import com.stefanmuenchow.collections.function.IntPredicate;
+import com.stefanmuenchow.collections.function.IntUnaryFunction;
+
+public class SmartIntListTest {
+    private SmartIntList intList1 = null;
+    private SmartIntList intList2 = null;
+
+    private final IntPredicate isOdd = new IntPredicate() {
+        @Override
+        public boolean test(final int input) {
+            return input % 2 == 1;
+        }
+    };
+
+    @Before
+    public void setUp() throws Exception {
+        intList1 = new SmartIntList(9, 56, 23, 11, 67, 12, 9, 10);
+        intList2 = new SmartIntList(87, 13, 11, 56, 85, 19);
+    }
+
+    @Test
+    public void testAddAndGet() {
+        SmartIntList list = new SmartIntList();
+        for (int i = 0; i < 100; i++) {
+            list.add(i);
+        }
+        list.add(0, -1);
+
+        assertEquals(101, list.size());
+        assertEquals(-1, list.head());
+        assertEquals(99, list.last());
+        assertEquals(42, list.get(43));
+        assertEquals(-5, list.get(200, -5));
+        assertEquals(-1, list.removeAt(0));
+        assertEquals(SmartIntList.range(0, 100), list);
+    }
+
+    @Test
+    public void testRange() {
+        assertArrayEquals(new int[] {-2, -1, 0}, SmartIntList.range(-2, 1).toArray());
+        assertEquals(new SmartIntList(), SmartIntList.range(5, 1));
+        assertEquals(2, SmartIntList.range(Integer.MAX_VALUE - 2, Integer.MAX_VALUE).size());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testRangeTooLarge() {
+        SmartIntList.range(Integer.MIN_VALUE, 1);
+    }
+
+    @Test(expected=IndexOutOfBoundsException.class)
+    public void testGetFail() {
+        intList1.get(8);
+    }
+
+    @Test(expected=NoSuchElementException.class)
+    public void testHeadFail() {
+        new SmartIntList().head();
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testTailFail() {
+        new SmartIntList().tail();
+    }
+
+    @Test
+    public void testTakeDrop() {
+        assertEquals(new SmartIntList(87, 13, 11), intList2.take(3));
+        assertEquals(new SmartIntList(67, 12, 9, 10), intList1.drop(4));
+        assertEquals(new SmartIntList(), intList1.drop(50));
+        assertEquals(new SmartIntList(56, 23, 11, 67, 12, 9, 10), intList1.tail());
+        assertEquals(new SmartIntList(87, 13, 11), intList2.takeWhile(isOdd));
+        assertEquals(new SmartIntList(56, 85, 19), intList2.dropWhile(isOdd));
+    }
+
+    @Test
+    public void testReduce() {
+        IntBinaryFunction sum = new IntBinaryFunction() {
+            @Override
+            public int apply(final int input1, final int input2) {
+                return input1 + input2;
+            }
+        };
+
+        assertEquals(197, intList1.reduce(sum));
+        assertEquals(1197, intList1.reduce(1000, sum));
+        assertEquals(197, intList1.sum());
+        assertEquals(197, intList1.stream().reduce(0, sum));
+    }
+
+    @Test
+    public void testQueries() {
+        assertEquals(5, intList2.count(isOdd));
+        assertTrue(intList2.exists(isOdd));
+        assertFalse(intList2.forall(isOdd));
+        assertEquals(87, intList2.find(isOdd));
+        assertTrue(intList1.contains(67));
+        assertEquals(0, intList1.indexOf(9));
+        assertEquals(6, intList1.lastIndexOf(9));
+        assertEquals("87|13|11|56|85|19", intList2.join("|"));
+    }
+
+    @Test
+    public void testFilterAndMap() {
+        intList2.filter(isOdd);
+        assertEquals(new SmartIntList(87, 13, 11, 85, 19), intList2);
+
+        intList2.remove(new IntPredicate() {
+            @Override
+            public boolean test(final int input) {
+                return input > 50;
+            }
+        });
+        assertEquals(new SmartIntList(13, 11, 19), intList2);
+
+        assertEquals(new SmartIntList(26, 22, 38), intList2.map(new IntUnaryFunction() {
+            @Override
+            public int apply(final int input) {
+                return input * 2;
+            }
+        }));
+    }
+
+    @Test
+    public void testReverseAndRemoveDuplicates() {
+        intList1.reverse();
+        assertEquals(new SmartIntList(10, 9, 12, 67, 11, 23, 56, 9), intList1);
+
+        intList1.removeDuplicates();
+        assertEquals(new SmartIntList(10, 9, 12, 67, 11, 23, 56), intList1);
+    }
+
+    @Test
+    public void testBoxing() {
+        assertEquals(new SmartArrayList<Integer>(87, 13, 11, 56, 85, 19), intList2.toSmartList());
+        assertEquals(intList2.toSmartList().hashCode(), intList2.hashCode());
+        assertArrayEquals(new int[] {87, 13, 11, 56, 85, 19}, intList2.toArray());
+    }
+}
@@ -0,0 +1,241 @@
+/**
+ * Copyright (c) Stefan Muenchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.stefanmuenchow.collections.function.Predicate;
+
+public class SmartIntSetTest {
+    private SmartIntSet intSet1 = null;
+    private SmartIntSet intSet2 = null;
+
+    @Before
+    public void setUp() throws Exception {
+        intSet1 = new SmartIntSet(1, 2, 3, 70000, -5);
+        intSet2 = new SmartIntSet(3, 4, 70000, 70001);
+    }
+
+    @Test
+    public void testAddAndContains() {
+        SmartIntSet set = new SmartIntSet();
+        for (int i = 0; i < 10000; i += 2) {
+            assertTrue(set.add(i));
+        }
+
+        assertFalse(set.add(42));
+        assertEquals(5000, set.size());
+        assertTrue(set.contains(9998));
+        assertFalse(set.contains(9999));
+        assertTrue(set.contains((Object) 42));
+        assertFalse(set.contains("42"));
+        assertTrue(set.remove(42));
+        assertFalse(set.remove(42));
+        assertEquals(4999, set.cardinality());
+    }
+
+    @Test
+    public void testSignedOrdering() {
+        SmartIntSet set = new SmartIntSet(5, Integer.MIN_VALUE, -1, Integer.MAX_VALUE, 0, -70000);
+        assertArrayEquals(new int[] {Integer.MIN_VALUE, -70000, -1, 0, 5, Integer.MAX_VALUE}, set.toIntArray());
+        assertEquals(Integer.valueOf(Integer.MIN_VALUE), set.iterator().next());
+        assertEquals(6, set.intStream().count());
+    }
+
+    @Test
+    public void testSetAlgebra() {
+        SmartIntSet union = new SmartIntSet(intSet1);
+        union.union(intSet2);
+        assertArrayEquals(new int[] {-5, 1, 2, 3, 4, 70000, 70001}, union.toIntArray());
+
+        SmartIntSet intersection = new SmartIntSet(intSet1);
+        intersection.intersection(intSet2);
+        assertArrayEquals(new int[] {3, 70000}, intersection.toIntArray());
+
+        SmartIntSet difference = new SmartIntSet(intSet1);
+        difference.difference(intSet2);
+        assertArrayEquals(new int[] {-5, 1, 2}, difference.toIntArray());
+
+        SmartIntSet symmetricDifference = new SmartIntSet(intSet1);
+        symmetricDifference.symmetricDifference(intSet2);
+        assertArrayEquals(new int[] {-5, 1, 2, 4, 70001}, symmetricDifference.toIntArray());
+
+        assertTrue(intersection.isSubsetOf(intSet1));
+        assertTrue(intSet2.isSupersetOf(intersection));
+        assertFalse(intSet1.isSubsetOf(intSet2));
+        assertTrue(intSet1.isSupersetOf(new SmartHashSet<Integer>(1, 70000)));
+    }
+
+    @Test
+    public void testSetAlgebraWithBitmaps() {
+        Random random = new Random(42);
+        SmartIntSet set1 = new SmartIntSet();
+        SmartIntSet set2 = new SmartIntSet();
+        TreeSet<Integer> expected1 = new TreeSet<Integer>();
+        TreeSet<Integer> expected2 = new TreeSet<Integer>();
+        for (int i = 0; i < 20000; i++) {
+            int value1 = random.nextInt(100000);
+            int value2 = random.nextInt(30000);
+            set1.add(value1);
+            expected1.add(value1);
+            set2.add(value2);
+            expected2.add(value2);
+        }
+        set2.addRange(50000, 60000);
+        for (int i = 50000; i < 60000; i++) {
+            expected2.add(i);
+        }
+
+        SmartIntSet result = new SmartIntSet(set1);
+        result.symmetricDifference(set2);
+        TreeSet<Integer> expected = new TreeSet<Integer>(expected1);
+        expected.addAll(expected2);
+        TreeSet<Integer> common = new TreeSet<Integer>(expected1);
+        common.retainAll(expected2);
+        expected.removeAll(common);
+        assertEquals(expected, result);
+
+        result = new SmartIntSet(set1);
+        result.intersection(set2);
+        assertEquals(common, result);
+        assertTrue(result.isSubsetOf(set2));
+    }
+
+    @Test
+    public void testRankAndSelect() {
+        SmartIntSet set = SmartIntSet.range(-100, 100000);
+        set.remove(0);
+
+        assertEquals(0, set.rank(-101));
+        assertEquals(1, set.rank(-100));
+        assertEquals(100, set.rank(0));
+        assertEquals(100, set.rank(-1));
+        assertEquals(set.size(), set.rank(Integer.MAX_VALUE));
+        assertEquals(-100, set.select(0));
+        assertEquals(1, set.select(100));
+        assertEquals(99999, set.select(set.size() - 1));
+        for (int i = 0; i < set.size(); i += 997) {
+            assertEquals(i + 1, set.rank(set.select(i)));
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testSelectOutOfBounds() {
+        intSet1.select(5);
+    }
+
+    @Test
+    public void testRangeAndOptimize() {
+        SmartIntSet set = new SmartIntSet();
+        for (int i = 0; i < 200000; i++) {
+            set.add(i);
+        }
+        int before = set.serializedSize();
+        set.optimize();
+
+        assertEquals(200000, set.size());
+        assertEquals(SmartIntSet.range(0, 200000), set);
+        assertTrue(set.serializedSize() <= before);
+        assertTrue(set.serializedSize() < 100);
+
+        assertTrue(set.add(-1));
+        assertTrue(set.remove(100));
+        assertFalse(set.contains(100));
+        assertEquals(200000, set.size());
+    }
+
+    @Test
+    public void testFullRangeCardinality() {
+        SmartIntSet set = SmartIntSet.range(Integer.MIN_VALUE, Integer.MAX_VALUE);
+
+        assertEquals(Integer.MAX_VALUE, set.size());
+        assertEquals(Integer.MAX_VALUE, set.cardinality());
+        assertEquals(4294967295L, set.getLongCardinality());
+        assertEquals(2147483648L, set.rankLong(-1));
+        assertEquals(4294967295L, set.rankLong(Integer.MAX_VALUE));
+        assertEquals(Integer.MAX_VALUE, set.rank(Integer.MAX_VALUE));
+        assertEquals(Integer.MAX_VALUE - 1, set.select(Integer.MAX_VALUE - 1) - Integer.MIN_VALUE);
+
+        assertTrue(set.add(Integer.MAX_VALUE));
+        assertEquals(4294967296L, set.getLongCardinality());
+        assertTrue(SmartIntSet.range(Integer.MIN_VALUE, Integer.MAX_VALUE).isProperSubsetOf(set));
+        assertTrue(set.isProperSupersetOf(SmartIntSet.range(Integer.MIN_VALUE, Integer.MAX_VALUE)));
+        assertTrue(set.remove(0));
+        assertEquals(4294967295L, set.getLongCardinality());
+        assertFalse(set.contains(0));
+    }
+
+    @Test
+    public void testSerialize() throws IOException {
+        SmartIntSet set = new SmartIntSet(intSet1);
+        for (int i = 100000; i < 110000; i += 3) {
+            set.add(i);
+        }
+        set.addRange(-300000, -200000);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        set.serialize(new DataOutputStream(bytes));
+        assertEquals(set.serializedSize(), bytes.size());
+
+        SmartIntSet copy = SmartIntSet.deserialize(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(set, copy);
+        assertArrayEquals(set.toIntArray(), copy.toIntArray());
+    }
+
+    @Test(expected = IOException.class)
+    public void testDeserializeInvalid() throws IOException {
+        byte[] bytes = {0, 0, 0, 1, 0, 0, 7};
+        SmartIntSet.deserialize(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        SmartIntSet set = SmartIntSet.range(0, 10000);
+        Iterator<Integer> it = set.iterator();
+        while (it.hasNext()) {
+            if (it.next() % 3 != 0) {
+                it.remove();
+            }
+        }
+
+        assertEquals(3334, set.size());
+        assertEquals(9999, set.select(set.size() - 1));
+        assertTrue(set.contains(3));
+        assertFalse(set.contains(4));
+    }
+
+    @Test
+    public void testFilter() {
+        intSet1.filter(new Predicate<Integer>() {
+            @Override
+            public boolean test(final Integer input) {
+                return input > 1;
+            }
+        });
+
+        assertEquals(new SmartIntSet(2, 3, 70000), intSet1);
+    }
+}
@@ -15,12 +15,18 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
 
 import org.junit.Before;
 import org.junit.Test;
 
 import com.stefanmuenchow.collections.function.BinaryFunction;
+import com.stefanmuenchow.collections.function.Functions;
 import com.stefanmuenchow.collections.function.Predicate;
 import com.stefanmuenchow.collections.function.UnaryFunction;
 
@@ -82,6 +88,47 @@ public class SmartListTest {
         assertEquals(new SmartArrayList<Integer>(56), smartList2);
     }
 
+    @Test
+    public void testFilterKeepsOrder() {
+        smartList1.filter(new Predicate<Integer>() {
+            @Override
+            public boolean test(final Integer input) {
+                return input > 10;
+            }
+        });
+
+        assertEquals(new SmartArrayList<Integer>(56, 23, 11, 67, 12), smartList1);
+
+        SmartList<Integer> linkedList = new SmartLinkedList<Integer>(9, 56, 23, 11, 67, 12, 9, 10);
+        linkedList.remove(new Predicate<Integer>() {
+            @Override
+            public boolean test(final Integer input) {
+                return input > 10;
+            }
+        });
+
+        assertEquals(new SmartLinkedList<Integer>(9, 9, 10), linkedList);
+    }
+
+    @Test
+    public void testRemoveWithFailingPredicate() {
+        try {
+            smartList1.remove(new Predicate<Integer>() {
+                @Override
+                public boolean test(final Integer input) {
+                    if (input == 67) {
+                        throw new IllegalStateException();
+                    }
+                    return input > 20;
+                }
+            });
+        } catch (IllegalStateException e) {
+            // Elements tested before the failure are removed, the rest is kept
+        }
+
+        assertEquals(new SmartArrayList<Integer>(9, 11, 67, 12, 9, 10), smartList1);
+    }
+
     @Test
     public void testReplace() {
         // Replace specific value
@@ -102,6 +149,20 @@ public class SmartListTest {
         assertEquals(new SmartArrayList<Integer>(10, 13, 11, 56, 10, 19), smartList2);
     }
 
+    @Test
+    public void testReplaceMap() {
+        Map<Integer, Integer> replacements = new HashMap<Integer, Integer>();
+        replacements.put(9, 90);
+        replacements.put(90, 900);
+
+        smartList1.replace(replacements);
+        assertEquals(new SmartArrayList<Integer>(90, 56, 23, 11, 67, 12, 90, 10), smartList1);
+
+        SmartList<Integer> linkedList = new SmartLinkedList<Integer>(9, 56, 9);
+        linkedList.replace(replacements);
+        assertEquals(new SmartLinkedList<Integer>(90, 56, 90), linkedList);
+    }
+
     @Test
     public void testReduce() {
         // Without initial value
@@ -246,6 +307,103 @@ public class SmartListTest {
         assertArrayEquals(new Integer[] { 87, 13, 11, 56, 85, 19 }, anArray);
     }
 
+    @Test
+    public void testParallelOperations() {
+        SmartArrayList<Integer> bigList = new SmartArrayList<Integer>();
+        for (int i = 0; i < 100000; i++) {
+            bigList.add(i);
+        }
+
+        Predicate<Integer> isEven = new Predicate<Integer>() {
+            @Override
+            public boolean test(final Integer input) {
+                return input % 2 == 0;
+            }
+        };
+        UnaryFunction<String, Integer> toString = new UnaryFunction<String, Integer>() {
+            @Override
+            public String apply(final Integer input) {
+                return String.valueOf(input);
+            }
+        };
+        BinaryFunction<Long, Integer> sum = new BinaryFunction<Long, Integer>() {
+            @Override
+            public Long apply(final Long input1, final Integer input2) {
+                return input1 + input2;
+            }
+        };
+        BinaryFunction<Long, Long> add = new BinaryFunction<Long, Long>() {
+            @Override
+            public Long apply(final Long input1, final Long input2) {
+                return input1 + input2;
+            }
+        };
+
+        assertEquals(bigList.map(toString), bigList.parallelMap(toString));
+        assertEquals(Long.valueOf(4999950000L), bigList.parallelReduce(0L, sum, add));
+        assertEquals(bigList.count(isEven), bigList.parallelCount(isEven));
+        assertTrue(bigList.parallelExists(new Predicate<Integer>() {
+            @Override
+            public boolean test(final Integer input) {
+                return input == 99999;
+            }
+        }));
+        assertFalse(bigList.parallelForall(isEven));
+        assertTrue(new SmartArrayList<Integer>(2, 4, 6).parallelForall(isEven));
+    }
+
+    @Test
+    public void testParallelReduceKeepsOrder() {
+        SmartArrayList<String> bigList = new SmartArrayList<String>();
+        StringBuffer expected = new StringBuffer();
+        for (int i = 0; i < 5000; i++) {
+            bigList.add(String.valueOf(i % 10));
+            expected.append(i % 10);
+        }
+
+        String result = bigList.parallelReduce(new BinaryFunction<String, String>() {
+            @Override
+            public String apply(final String input1, final String input2) {
+                return input1 + input2;
+            }
+        });
+
+        assertEquals(expected.toString(), result);
+        assertEquals(null, new SmartArrayList<String>().parallelReduce(new BinaryFunction<String, String>() {
+            @Override
+            public String apply(final String input1, final String input2) {
+                return input1 + input2;
+            }
+        }));
+    }
+
+    @Test
+    public void testSpliterator() {
+        int expected = Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+        Spliterator<Integer> spliterator = smartList1.spliterator();
+
+        assertEquals(expected, spliterator.characteristics() & expected);
+        assertEquals(8, spliterator.estimateSize());
+        assertEquals(4, spliterator.trySplit().estimateSize());
+        assertTrue(new SmartLinkedList<Integer>(1, 2).spliterator().hasCharacteristics(Spliterator.ORDERED));
+    }
+
+    @Test
+    public void testStream() {
+        Predicate<Integer> isOdd = new Predicate<Integer>() {
+            @Override
+            public boolean test(final Integer input) {
+                return input % 2 == 1;
+            }
+        };
+
+        assertEquals(Arrays.asList(87, 13, 11, 85, 19),
+                smartList2.parallelStream().filter(isOdd).collect(Collectors.toList()));
+        assertEquals(Arrays.asList(87, 13, 11, 85, 19),
+                new SmartLinkedList<Integer>(smartList2).stream().filter(isOdd).collect(Collectors.toList()));
+        assertEquals(2, smartList2.count(Functions.predicate((Integer i) -> i > 80)));
+    }
+
     /** Test SmartList methods */
 
     @Test
@@ -284,6 +442,13 @@ public class SmartListTest {
         assertEquals(Integer.valueOf(-100), smartList1.get(20, -100));
     }
 
+    @Test
+    public void testIndexOf() {
+        assertEquals(0, smartList1.indexOf(9));
+        assertEquals(6, smartList1.lastIndexOf(9));
+        assertEquals(-1, smartList1.lastIndexOf(99));
+    }
+
     @Test
     public void testTake() {
         assertEquals(new SmartArrayList<Integer>(87, 13, 11), smartList2.take(3));
@@ -297,6 +462,69 @@ public class SmartListTest {
         assertEquals(new SmartArrayList<Integer>(), smartList1.drop(50));
     }
 
+    @Test
+    public void testSlice() {
+        SmartList<Integer> slice = smartList1.slice(2, 5);
+        assertEquals(new SmartArrayList<Integer>(23, 11, 67), slice);
+        assertEquals(new SmartArrayList<Integer>(11), slice.slice(1, 2));
+        assertEquals(new SmartLinkedList<Integer>(23, 11), new SmartLinkedList<Integer>(smartList1).slice(2, 4));
+
+        slice.set(0, 1);
+        slice.add(2);
+        smartList1.remove(0);
+        assertEquals(new SmartArrayList<Integer>(1, 11, 67, 2), slice);
+        assertEquals(new SmartArrayList<Integer>(56, 23, 11, 67, 12, 9, 10), smartList1);
+        assertEquals(new SmartArrayList<Integer>(23, 11), smartList1.slice(1, 3));
+    }
+
+    @Test
+    public void testReceiverAfterSlice() {
+        SmartArrayList<Integer> bigList = new SmartArrayList<Integer>();
+        for (int i = 0; i < 1000; i++) {
+            bigList.add(i);
+        }
+
+        SmartList<Integer> small = bigList.slice(10, 12);
+        assertEquals(new SmartArrayList<Integer>(10, 11), small);
+        assertFalse(bigList.internalColl instanceof SmartListView);
+
+        SmartList<Integer> tail = bigList.tail();
+        assertTrue(bigList.internalColl instanceof SmartListView);
+        bigList.add(1000);
+        bigList.set(0, -1);
+        bigList.remove(1);
+
+        assertEquals(1000, bigList.size());
+        assertEquals(Integer.valueOf(-1), bigList.head());
+        assertEquals(Integer.valueOf(2), bigList.get(1));
+        assertEquals(Integer.valueOf(1000), bigList.last());
+        assertEquals(999, tail.size());
+        assertEquals(Integer.valueOf(1), tail.head());
+        assertEquals(Integer.valueOf(999), tail.last());
+        assertEquals(new SmartArrayList<Integer>(10, 11), small);
+    }
+
+    @Test(expected=IndexOutOfBoundsException.class)
+    public void testSliceFail() {
+        smartList1.slice(5, 9);
+    }
+
+    @Test
+    public void testTailRecursion() {
+        SmartList<Integer> bigList = new SmartArrayList<Integer>();
+        for (int i = 0; i < 100000; i++) {
+            bigList.add(i);
+        }
+
+        long sum = 0;
+        for (SmartList<Integer> rest = bigList; !rest.isEmpty(); rest = rest.tail()) {
+            sum += rest.head();
+        }
+
+        assertEquals(4999950000L, sum);
+        assertEquals(100000, bigList.size());
+    }
+
     @Test
     public void testTakeWhile() {
         assertEquals(new SmartArrayList<Integer>(87, 13, 11), smartList2.takeWhile(new Predicate<Integer>() {
@@ -317,6 +545,61 @@ public class SmartListTest {
         }));
     }
 
+    @Test
+    public void testTakeWhileInPlace() {
+        smartList2.takeWhileInPlace(new Predicate<Integer>() {
+            @Override
+            public boolean test(final Integer input) {
+                return input % 2 == 1;
+            }
+        });
+
+        assertEquals(new SmartArrayList<Integer>(87, 13, 11), smartList2);
+    }
+
+    @Test
+    public void testDropWhileInPlace() {
+        SmartList<Integer> slice = smartList2.drop(1);
+        Predicate<Integer> isOdd = new Predicate<Integer>() {
+            @Override
+            public boolean test(final Integer input) {
+                return input % 2 == 1;
+            }
+        };
+
+        smartList2.dropWhileInPlace(isOdd);
+        slice.dropWhileInPlace(isOdd);
+        assertEquals(new SmartArrayList<Integer>(56, 85, 19), smartList2);
+        assertEquals(new SmartArrayList<Integer>(56, 85, 19), slice);
+
+        SmartList<Integer> linkedList = new SmartLinkedList<Integer>(smartList1);
+        linkedList.dropWhileInPlace(isOdd);
+        assertEquals(new SmartLinkedList<Integer>(56, 23, 11, 67, 12, 9, 10), linkedList);
+
+        // Large enough for a shared slice, so the prefix is removed by narrowing the view
+        SmartArrayList<Integer> bigList = new SmartArrayList<Integer>();
+        for (int i = 0; i < 200; i++) {
+            bigList.add(i < 100 ? 2 * i + 1 : i);
+        }
+        SmartAbstractList<Integer> bigSlice = (SmartAbstractList<Integer>) bigList.drop(1);
+        assertTrue(bigSlice.internalColl instanceof SmartListView);
+
+        bigSlice.dropWhileInPlace(isOdd);
+        assertTrue(bigSlice.internalColl instanceof SmartListView);
+        assertEquals(100, bigSlice.size());
+        assertEquals(Integer.valueOf(100), bigSlice.head());
+        assertEquals(200, bigList.size());
+        assertEquals(Integer.valueOf(1), bigList.head());
+
+        bigSlice.set(0, -1);
+        bigList.set(100, -2);
+        bigList.set(101, -3);
+        assertEquals(Integer.valueOf(-1), bigSlice.head());
+        assertEquals(Integer.valueOf(101), bigSlice.get(1));
+        assertEquals(Integer.valueOf(-2), bigList.get(100));
+        assertEquals(Integer.valueOf(-3), bigList.get(101));
+    }
+
     @Test
     public void testRemoveDuplicates() {
         SmartList<Integer> testList = new SmartArrayList<Integer>(1,1,1,2,3,3,3,4,5);
@@ -325,6 +608,30 @@ public class SmartListTest {
         assertEquals(new SmartArrayList<Integer>(1,2,3,4,5), testList);
     }
 
+    @Test
+    public void testRemoveDuplicatesOrdering() {
+        SmartList<Integer> expected = new SmartArrayList<Integer>(9, 56, 23, 11, 67, 12, 10);
+
+        smartList1.removeDuplicates();
+        assertEquals(expected, smartList1);
+
+        SmartList<String> strings = new SmartLinkedList<String>("b", null, "a", "b", null, "Aa", "BB", "a", "BB");
+        strings.removeDuplicates(SmartList.DuplicateStrategy.SORT);
+        assertEquals(new SmartLinkedList<String>("b", null, "a", "Aa", "BB"), strings);
+    }
+
+    @Test
+    public void testRemoveDuplicatesBounded() {
+        SmartList<Integer> testList = new SmartArrayList<Integer>();
+        for (int i = 0; i < 1000; i++) {
+            testList.add(i % 300);
+        }
+
+        SmartList<Integer> expected = testList.take(300);
+        testList.removeDuplicates(100);
+        assertEquals(expected, testList);
+    }
+
     @Test
     public void testIntersperse() {
         SmartList<Integer> testList = new SmartArrayList<Integer>(1,2,3);
@@ -334,6 +641,9 @@ public class SmartListTest {
         testList = new SmartArrayList<Integer>();
         testList.intersperse(0);
         assertEquals(new SmartArrayList<Integer>(), testList);
+        testList = new SmartLinkedList<Integer>(1, 2, 3);
+        testList.intersperse(0);
+        assertEquals(new SmartLinkedList<Integer>(1, 0, 2, 0, 3), testList);
     }
 
     @Test
@@ -349,6 +659,18 @@ public class SmartListTest {
         assertEquals(expectedMap, resultMap);
     }
 
+    @Test
+    public void testGetOccurenceCounts() {
+        SmartObjectIntMap<Character> counts =
+            new SmartArrayList<Character>('a', 'a', 'c', 'a', 'c', 'x', null).getOccurenceCounts();
+
+        assertEquals(4, counts.size());
+        assertEquals(3, counts.get('a'));
+        assertEquals(2, counts.get('c'));
+        assertEquals(1, counts.get(null));
+        assertEquals(0, counts.get('b'));
+    }
+
     @Test
     public void testGetIndicesList() {
         assertEquals(new SmartArrayList<Integer>(0,1,2,3,4),
@@ -0,0 +1,207 @@
+/**
+ * Copyright (c) Stefan Muenchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.NoSuchElementException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.stefanmuenchow.collections.function.LongBinaryFunction;
+import com.stefanmuenchow.collections.function.LongPredicate;
+import com.stefanmuenchow.collections.function.LongUnaryFunction;
+
+public class SmartLongListTest {
+    private static final long BIG = 1L << 40;
+
+    private SmartLongList longList1 = null;
+    private SmartLongList longList2 = null;
+
+    private final LongPredicate isOdd = new LongPredicate() {
+        @Override
+        public boolean test(final long input) {
+            return input % 2 == 1;
+        }
+    };
+
+    @Before
+    public void setUp() throws Exception {
+        longList1 = new SmartLongList(BIG + 9, 56, 23, 11, 67, 12, BIG + 9, 10);
+        longList2 = new SmartLongList(BIG + 87, 13, 11, 56, 85, 19);
+    }
+
+    @Test
+    public void testOperations() {
+        SmartLongList list = SmartLongList.range(3000000000L, 3000000010L);
+        list.add(3000000000L);
+
+        assertEquals(11, list.size());
+        assertEquals(33000000045L, list.sum());
+        assertEquals(3000000009L, list.reduce(new LongBinaryFunction() {
+            @Override
+            public long apply(final long input1, final long input2) {
+                return Math.max(input1, input2);
+            }
+        }));
+
+        list.removeDuplicates();
+        list.filter(new LongPredicate() {
+            @Override
+            public boolean test(final long input) {
+                return input % 3 == 0;
+            }
+        });
+        list.reverse();
+
+        assertEquals(new SmartLongList(3000000009L, 3000000006L, 3000000003L, 3000000000L), list);
+    }
+
+    @Test
+    public void testRange() {
+        assertArrayEquals(new long[] {-1L, 0L, 1L}, SmartLongList.range(-1L, 2L).toArray());
+        assertEquals(new SmartLongList(), SmartLongList.range(5L, 1L));
+        assertEquals(3, SmartLongList.range(Long.MAX_VALUE - 3, Long.MAX_VALUE).size());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testRangeTooLarge() {
+        SmartLongList.range(0L, 1L << 32);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testRangeOverflow() {
+        SmartLongList.range(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    @Test
+    public void testReduce() {
+        LongBinaryFunction sum = new LongBinaryFunction() {
+            @Override
+            public long apply(final long input1, final long input2) {
+                return input1 + input2;
+            }
+        };
+        SmartLongList list = new SmartLongList(1L << 40, 5L, -3L);
+
+        assertEquals((1L << 40) + 2, list.reduce(sum));
+        assertEquals((1L << 40) + 12, list.reduce(10L, sum));
+        assertEquals(10L, new SmartLongList().reduce(10L, sum));
+        assertEquals(list.sum(), list.stream().reduce(0L, sum));
+    }
+
+    @Test(expected=NoSuchElementException.class)
+    public void testReduceEmpty() {
+        new SmartLongList().reduce(new LongBinaryFunction() {
+            @Override
+            public long apply(final long input1, final long input2) {
+                return input1 + input2;
+            }
+        });
+    }
+
+    @Test
+    public void testBoxing() {
+        SmartLongList list = new SmartLongList(1L << 40, 5L, -3L);
+        assertEquals(new SmartArrayList<Long>(1L << 40, 5L, -3L), list.toSmartList());
+        assertEquals(list.toSmartList().hashCode(), list.hashCode());
+        assertArrayEquals(new long[] {1L << 40, 5L, -3L}, list.toArray());
+    }
+
+    @Test
+    public void testAddAndGet() {
+        SmartLongList list = new SmartLongList();
+        for (long i = 0; i < 100; i++) {
+            list.add(BIG + i);
+        }
+        list.add(0, -1L);
+
+        assertEquals(101, list.size());
+        assertEquals(-1L, list.head());
+        assertEquals(BIG + 99, list.last());
+        assertEquals(BIG + 42, list.get(43));
+        assertEquals(-5L, list.get(200, -5L));
+        assertEquals(-1L, list.removeAt(0));
+        assertEquals(SmartLongList.range(BIG, BIG + 100), list);
+    }
+
+    @Test(expected=IndexOutOfBoundsException.class)
+    public void testGetFail() {
+        longList1.get(8);
+    }
+
+    @Test(expected=NoSuchElementException.class)
+    public void testHeadFail() {
+        new SmartLongList().head();
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testTailFail() {
+        new SmartLongList().tail();
+    }
+
+    @Test
+    public void testTakeDrop() {
+        assertEquals(new SmartLongList(BIG + 87, 13, 11), longList2.take(3));
+        assertEquals(new SmartLongList(67, 12, BIG + 9, 10), longList1.drop(4));
+        assertEquals(new SmartLongList(), longList1.drop(50));
+        assertEquals(new SmartLongList(56, 23, 11, 67, 12, BIG + 9, 10), longList1.tail());
+        assertEquals(new SmartLongList(BIG + 87, 13, 11), longList2.takeWhile(isOdd));
+        assertEquals(new SmartLongList(56, 85, 19), longList2.dropWhile(isOdd));
+    }
+
+    @Test
+    public void testQueries() {
+        assertEquals(5, longList2.count(isOdd));
+        assertTrue(longList2.exists(isOdd));
+        assertFalse(longList2.forall(isOdd));
+        assertEquals(BIG + 87, longList2.find(isOdd));
+        assertTrue(longList1.contains(67));
+        assertFalse(longList1.contains(9));
+        assertEquals(0, longList1.indexOf(BIG + 9));
+        assertEquals(6, longList1.lastIndexOf(BIG + 9));
+        assertEquals("1099511627863|13|11|56|85|19", longList2.join("|"));
+    }
+
+    @Test
+    public void testFilterAndMap() {
+        longList2.filter(isOdd);
+        assertEquals(new SmartLongList(BIG + 87, 13, 11, 85, 19), longList2);
+
+        longList2.remove(new LongPredicate() {
+            @Override
+            public boolean test(final long input) {
+                return input > 50;
+            }
+        });
+        assertEquals(new SmartLongList(13, 11, 19), longList2);
+
+        assertEquals(new SmartLongList(13 * BIG, 11 * BIG, 19 * BIG), longList2.map(new LongUnaryFunction() {
+            @Override
+            public long apply(final long input) {
+                return input * BIG;
+            }
+        }));
+    }
+
+    @Test
+    public void testReverseAndRemoveDuplicates() {
+        longList1.reverse();
+        assertEquals(new SmartLongList(10, BIG + 9, 12, 67, 11, 23, 56, BIG + 9), longList1);
+
+        longList1.removeDuplicates();
+        assertEquals(new SmartLongList(10, BIG + 9, 12, 67, 11, 23, 56), longList1);
+    }
+}
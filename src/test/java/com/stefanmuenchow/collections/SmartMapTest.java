@@ -17,6 +17,8 @@ import static org.junit.Assert.assertTrue;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -66,6 +68,53 @@ public class SmartMapTest {
         assertEquals(someMap, anotherMap);
     }
 
+    @Test
+    public void testTailRecursion() {
+        SmartMap<Integer, Integer> bigMap = new SmartHashMap<Integer, Integer>();
+        for (int i = 0; i < 100000; i++) {
+            bigMap.put(i, i);
+        }
+
+        long sum = 0;
+        int count = 0;
+        for (SmartMap<Integer, Integer> rest = bigMap; !rest.isEmpty(); rest = rest.tail()) {
+            sum += rest.head().getValue();
+            count++;
+        }
+
+        assertEquals(100000, count);
+        assertEquals(4999950000L, sum);
+        assertEquals(100000, bigMap.size());
+    }
+
+    @Test
+    public void testTailCopyOnWrite() {
+        SmartMap<Integer, String> tailMap = smartMap1.tail().tail();
+        assertEquals(2, tailMap.size());
+
+        tailMap.put(5, "Bilbo");
+        tailMap.remove(tailMap.head().getKey());
+
+        assertEquals(2, tailMap.size());
+        assertEquals("Bilbo", tailMap.get(5));
+        assertEquals(4, smartMap1.size());
+        assertFalse(smartMap1.containsKey(5));
+    }
+
+    @Test
+    public void testTailSorted() {
+        SmartSortedMap<Integer, String> sortedMap = new SmartTreeMap<Integer, String>(smartMap1);
+        SmartSortedMap<Integer, String> tailMap = (SmartSortedMap<Integer, String>) sortedMap.tail().tail();
+
+        assertEquals(Integer.valueOf(3), tailMap.firstKey());
+        assertEquals("Merry", tailMap.head().getValue());
+        assertEquals(2, tailMap.size());
+
+        tailMap.put(0, "Bilbo");
+        assertEquals(Integer.valueOf(0), tailMap.firstKey());
+        assertFalse(sortedMap.containsKey(0));
+    }
+
     @Test(expected=UnsupportedOperationException.class)
     public void testTailFail() {
         new SmartHashMap<Integer, String>().tail();
@@ -84,6 +133,44 @@ public class SmartMapTest {
         assertEquals("Frodo and Aragorn", smartMap1.get(1));
     }
 
+    @Test
+    public void testMergeWithSorted() {
+        SmartSortedMap<Integer, String> sortedMap1 = new SmartTreeMap<Integer, String>(smartMap1);
+        SmartSortedMap<Integer, String> sortedMap2 = new SmartTreeMap<Integer, String>(smartMap2);
+        sortedMap1.remove(2);
+        sortedMap2.remove(3);
+        sortedMap2.put(5, "Gandalf");
+
+        sortedMap1.mergeWith(sortedMap2, new BinaryFunction<String, String>() {
+            @Override
+            public String apply(final String input1, final String input2) {
+                return input1 + " and " + input2;
+            }
+        });
+
+        SmartMap<Integer, String> expectedMap = new SmartHashMap<Integer, String>();
+        expectedMap.put(1, "Frodo and Aragorn");
+        expectedMap.put(2, "Boromir");
+        expectedMap.put(4, "Pippin and Gimli");
+        expectedMap.put(5, "Gandalf");
+        assertEquals(expectedMap, sortedMap1);
+        assertEquals(Integer.valueOf(5), sortedMap1.lastKey());
+    }
+
+    @Test
+    public void testSortedKeyAlgebra() {
+        SmartTreeMap<Integer, String> sortedMap = new SmartTreeMap<Integer, String>(smartMap1);
+        sortedMap.retainKeys(new SmartTreeSet<Integer>(0, 2, 3, 4, 7));
+        assertEquals(new SmartTreeSet<Integer>(2, 3, 4), new SmartTreeSet<Integer>(sortedMap.keySet()));
+
+        sortedMap.removeKeys(new SmartTreeSet<Integer>(3, 5));
+        assertEquals(new SmartTreeSet<Integer>(2, 4), new SmartTreeSet<Integer>(sortedMap.keySet()));
+
+        sortedMap.removeKeys(new SmartHashSet<Integer>(4));
+        assertEquals("Sam", sortedMap.head().getValue());
+        assertEquals(1, sortedMap.size());
+    }
+
     @Test
     public void testGet() {
         assertEquals("Gimli", smartMap2.get(4, "Gandalf"));
@@ -148,6 +235,52 @@ public class SmartMapTest {
         assertEquals(expectedMap, smartMap1);
     }
 
+    @Test
+    public void testPrune() {
+        SmartTreeMap<Integer, Integer> sortedMap = new SmartTreeMap<Integer, Integer>();
+        for (int i = 0; i < 1000; i++) {
+            sortedMap.put(i, i * i);
+        }
+
+        sortedMap.prune(new MapPredicate<Integer, Integer>() {
+            @Override
+            public boolean test(final Integer key, final Integer val) {
+                return key % 10 != 0;
+            }
+        });
+
+        assertEquals(100, sortedMap.size());
+        assertEquals(Integer.valueOf(0), sortedMap.firstKey());
+        assertEquals(Integer.valueOf(990), sortedMap.lastKey());
+        assertEquals(Integer.valueOf(8100), sortedMap.get(90));
+        assertFalse(sortedMap.containsKey(91));
+
+        SmartMap<Integer, Integer> tailMap = sortedMap.tail();
+        ((SmartTreeMap<Integer, Integer>) tailMap).prune(new MapPredicate<Integer, Integer>() {
+            @Override
+            public boolean test(final Integer key, final Integer val) {
+                return key > 500;
+            }
+        });
+
+        assertEquals(50, tailMap.size());
+        assertEquals(100, sortedMap.size());
+    }
+
+    @Test
+    public void testRemoveFromTail() {
+        SmartMap<Integer, String> tailMap = smartMap1.tail();
+        tailMap.remove(new MapPredicate<Integer, String>() {
+            @Override
+            public boolean test(final Integer key, final String val) {
+                return true;
+            }
+        });
+
+        assertTrue(tailMap.isEmpty());
+        assertEquals(4, smartMap1.size());
+    }
+
     @Test
     public void testReplace() {
         SmartMap<Integer, String> expectedMap = new SmartHashMap<Integer, String>();
@@ -235,6 +368,14 @@ public class SmartMapTest {
         }));
     }
 
+    @Test
+    public void testStream() {
+        assertEquals(4, smartMap1.spliterator().estimateSize());
+        assertTrue(new SmartTreeMap<Integer, String>(smartMap1).spliterator().hasCharacteristics(Spliterator.SORTED));
+        assertEquals("Merry|Pippin", smartMap1.parallelStream().filter(e -> e.getKey() > 2)
+                .map(Map.Entry::getValue).collect(Collectors.joining("|")));
+    }
+
     @Test
     public void testIsBijective() {
         assertTrue(smartMap1.isBijective());
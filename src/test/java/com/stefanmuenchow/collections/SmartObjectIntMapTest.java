@@ -0,0 +1,169 @@
+/**
+ * Copyright (c) Stefan Muenchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.stefanmuenchow.collections.function.IntBinaryFunction;
+import com.stefanmuenchow.collections.function.ObjectIntPredicate;
+
+public class SmartObjectIntMapTest {
+    private SmartObjectIntMap<String> smartMap = null;
+
+    private final ObjectIntPredicate<String> isEven = new ObjectIntPredicate<String>() {
+        @Override
+        public boolean test(final String key, final int val) {
+            return val % 2 == 0;
+        }
+    };
+
+    @Before
+    public void setUp() throws Exception {
+        smartMap = new SmartObjectIntMap<String>();
+        smartMap.put("Frodo", 1);
+        smartMap.put("Sam", 2);
+        smartMap.put("Merry", 3);
+        smartMap.put("Pippin", 4);
+    }
+
+    @Test
+    public void testGetPut() {
+        assertEquals(4, smartMap.size());
+        assertEquals(3, smartMap.get("Merry"));
+        assertEquals(0, smartMap.get("Gandalf"));
+        assertEquals(-1, smartMap.get("Gandalf", -1));
+        assertEquals(3, smartMap.put("Merry", 7));
+        assertEquals(7, smartMap.get("Merry"));
+        assertEquals(0, smartMap.put(null, 5));
+        assertEquals(5, smartMap.get(null));
+        assertTrue(smartMap.containsKey(null));
+        assertEquals(5, smartMap.size());
+    }
+
+    @Test
+    public void testAddTo() {
+        assertEquals(3, smartMap.addTo("Sam", 1));
+        assertEquals(2, smartMap.addTo("Gandalf", 2));
+        assertEquals(3, smartMap.get("Sam"));
+        assertEquals(2, smartMap.get("Gandalf"));
+        assertEquals(5, smartMap.size());
+    }
+
+    @Test
+    public void testRemove() {
+        assertEquals(2, smartMap.remove("Sam"));
+        assertEquals(0, smartMap.remove("Sam"));
+        assertFalse(smartMap.containsKey("Sam"));
+        assertEquals(3, smartMap.size());
+    }
+
+    @Test
+    public void testManyKeys() {
+        Map<Integer, Integer> expected = new HashMap<Integer, Integer>();
+        SmartObjectIntMap<Integer> counts = new SmartObjectIntMap<Integer>();
+        for (int i = 0; i < 20000; i++) {
+            int key = (i * 7919) % 3001;
+            counts.addTo(key, 1);
+            expected.put(key, expected.containsKey(key) ? expected.get(key) + 1 : 1);
+            if (i % 3 == 0) {
+                counts.remove(key / 2);
+                expected.remove(key / 2);
+            }
+        }
+
+        assertEquals(new SmartHashMap<Integer, Integer>(expected), counts.toSmartMap());
+    }
+
+    @Test
+    public void testFilter() {
+        smartMap.filter(isEven);
+        assertEquals(2, smartMap.size());
+        assertEquals(2, smartMap.get("Sam"));
+        assertEquals(4, smartMap.get("Pippin"));
+
+        SmartObjectIntMap<Integer> numbers = new SmartObjectIntMap<Integer>();
+        for (int i = 0; i < 1000; i++) {
+            numbers.put(i, i);
+        }
+        numbers.remove(new ObjectIntPredicate<Integer>() {
+            @Override
+            public boolean test(final Integer key, final int val) {
+                return val % 3 != 0;
+            }
+        });
+
+        assertEquals(334, numbers.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i % 3 == 0, numbers.containsKey(i));
+        }
+    }
+
+    @Test
+    public void testQueries() {
+        assertEquals(2, smartMap.count(isEven));
+        assertTrue(smartMap.exists(isEven));
+        assertFalse(smartMap.forall(isEven));
+        assertEquals(10, smartMap.reduce(0, new IntBinaryFunction() {
+            @Override
+            public int apply(final int input1, final int input2) {
+                return input1 + input2;
+            }
+        }));
+        assertEquals(3, smartMap.find(new ObjectIntPredicate<String>() {
+            @Override
+            public boolean test(final String key, final int val) {
+                return key.startsWith("M");
+            }
+        }));
+    }
+
+    @Test(expected=NoSuchElementException.class)
+    public void testFindFail() {
+        smartMap.find(new ObjectIntPredicate<String>() {
+            @Override
+            public boolean test(final String key, final int val) {
+                return val > 10;
+            }
+        });
+    }
+
+    @Test
+    public void testJoin() {
+        SmartObjectIntMap<String> single = new SmartObjectIntMap<String>();
+        single.put("Sam", 2);
+        single.put("Frodo", 1);
+        String joined = single.join(", ", ":");
+        assertTrue(joined.equals("Sam:2, Frodo:1") || joined.equals("Frodo:1, Sam:2"));
+        assertEquals("", new SmartObjectIntMap<String>().join(", ", ":"));
+    }
+
+    @Test
+    public void testEquals() {
+        SmartObjectIntMap<String> other = new SmartObjectIntMap<String>(100);
+        other.put("Pippin", 4);
+        other.put("Merry", 3);
+        other.put("Sam", 2);
+        other.put("Frodo", 1);
+
+        assertEquals(smartMap, other);
+        assertEquals(smartMap.hashCode(), other.hashCode());
+        assertEquals(smartMap.toSmartMap().hashCode(), smartMap.hashCode());
+    }
+}
@@ -0,0 +1,288 @@
+/**
+ * Copyright (c) Stefan Muenchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.stefanmuenchow.collections.function.LongBinaryFunction;
+import com.stefanmuenchow.collections.function.ObjectLongPredicate;
+
+public class SmartObjectLongMapTest {
+    private static final long BIG = 3000000000L;
+
+    private SmartObjectLongMap<String> smartMap = null;
+
+    private final ObjectLongPredicate<String> isEven = new ObjectLongPredicate<String>() {
+        @Override
+        public boolean test(final String key, final long val) {
+            return val % 2 == 0;
+        }
+    };
+
+    private final LongBinaryFunction sum = new LongBinaryFunction() {
+        @Override
+        public long apply(final long input1, final long input2) {
+            return input1 + input2;
+        }
+    };
+
+    @Before
+    public void setUp() throws Exception {
+        smartMap = new SmartObjectLongMap<String>();
+        smartMap.put("Frodo", 1L);
+        smartMap.put("Sam", 2L);
+        smartMap.put("Merry", BIG + 3);
+        smartMap.put("Pippin", BIG + 4);
+    }
+
+    /**
+     * Keys whose hash codes are all equal, e.g. "AaAa", "AaBB", "BBAa", ...
+     */
+    private static String[] collidingKeys(final int parts) {
+        String[] result = { "" };
+        for (int i = 0; i < parts; i++) {
+            String[] next = new String[result.length * 2];
+            for (int j = 0; j < result.length; j++) {
+                next[2 * j] = result[j] + "Aa";
+                next[2 * j + 1] = result[j] + "BB";
+            }
+            result = next;
+        }
+
+        return result;
+    }
+
+    @Test
+    public void testOperations() {
+        SmartObjectLongMap<String> map = new SmartObjectLongMap<String>();
+        map.addTo("bytes", 3000000000L);
+        map.addTo("bytes", 3000000000L);
+        map.addTo("files", 2L);
+        map.put(null, 1L);
+
+        assertEquals(6000000000L, map.get("bytes"));
+        assertEquals(3, map.size());
+
+        map.remove(new ObjectLongPredicate<String>() {
+            @Override
+            public boolean test(final String key, final long val) {
+                return val < 10;
+            }
+        });
+
+        assertEquals(1, map.size());
+        assertEquals("{bytes=6000000000}", map.toString());
+    }
+
+    @Test
+    public void testGetPut() {
+        assertEquals(4, smartMap.size());
+        assertEquals(BIG + 3, smartMap.get("Merry"));
+        assertEquals(0L, smartMap.get("Gandalf"));
+        assertEquals(-1L, smartMap.get("Gandalf", -1L));
+        assertEquals(BIG + 3, smartMap.put("Merry", 7L));
+        assertEquals(7L, smartMap.get("Merry"));
+        assertEquals(0L, smartMap.put(null, 5L));
+        assertEquals(5L, smartMap.get(null));
+        assertTrue(smartMap.containsKey(null));
+        assertEquals(5, smartMap.size());
+    }
+
+    @Test
+    public void testAddTo() {
+        assertEquals(BIG + 2, smartMap.addTo("Sam", BIG));
+        assertEquals(2L, smartMap.addTo("Gandalf", 2L));
+        assertEquals(BIG + 2, smartMap.get("Sam"));
+        assertEquals(2L, smartMap.get("Gandalf"));
+        assertEquals(5, smartMap.size());
+    }
+
+    @Test
+    public void testRemove() {
+        assertEquals(2L, smartMap.remove("Sam"));
+        assertEquals(0L, smartMap.remove("Sam"));
+        assertFalse(smartMap.containsKey("Sam"));
+        assertEquals(3, smartMap.size());
+    }
+
+    @Test
+    public void testManyKeys() {
+        Map<Integer, Long> expected = new HashMap<Integer, Long>();
+        SmartObjectLongMap<Integer> counts = new SmartObjectLongMap<Integer>();
+        for (int i = 0; i < 20000; i++) {
+            int key = (i * 7919) % 3001;
+            counts.addTo(key, BIG);
+            expected.put(key, expected.containsKey(key) ? expected.get(key) + BIG : BIG);
+            if (i % 3 == 0) {
+                counts.remove(key / 2);
+                expected.remove(key / 2);
+            }
+        }
+
+        assertEquals(new SmartHashMap<Integer, Long>(expected), counts.toSmartMap());
+    }
+
+    @Test
+    public void testGrowth() {
+        SmartObjectLongMap<Integer> map = new SmartObjectLongMap<Integer>(1);
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(0L, map.put(i, i * BIG));
+            assertEquals(i + 1, map.size());
+        }
+
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(i * BIG, map.get(i));
+        }
+        assertFalse(map.containsKey(10000));
+    }
+
+    @Test
+    public void testRemoveInCollisionCluster() {
+        String[] keys = collidingKeys(4);
+        SmartObjectLongMap<String> map = new SmartObjectLongMap<String>();
+        for (int i = 0; i < keys.length; i++) {
+            map.put(keys[i], BIG + i);
+        }
+
+        // Removing from the middle of the cluster shifts the later keys back
+        for (int i = 1; i < keys.length; i += 3) {
+            assertEquals(BIG + i, map.remove(keys[i]));
+        }
+
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(i % 3 != 1, map.containsKey(keys[i]));
+            assertEquals(i % 3 == 1 ? 0L : BIG + i, map.get(keys[i]));
+        }
+
+        for (int i = 1; i < keys.length; i += 3) {
+            map.put(keys[i], i);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(i % 3 == 1 ? i : BIG + i, map.get(keys[i]));
+        }
+        assertEquals(keys.length, map.size());
+    }
+
+    @Test
+    public void testIterationAfterRemovals() {
+        String[] keys = collidingKeys(5);
+        SmartObjectLongMap<String> map = new SmartObjectLongMap<String>();
+        Map<String, Long> expected = new HashMap<String, Long>();
+        for (int i = 0; i < keys.length; i++) {
+            map.put(keys[i], BIG * i);
+            expected.put(keys[i], BIG * i);
+        }
+        for (int i = 0; i < keys.length; i += 2) {
+            map.remove(keys[i]);
+            expected.remove(keys[i]);
+        }
+
+        SmartList<String> remaining = map.keys();
+        assertEquals(expected.size(), remaining.size());
+        assertTrue(remaining.containsAll(expected.keySet()));
+
+        long total = 0;
+        for (long value : expected.values()) {
+            total += value;
+        }
+        assertEquals(total, map.reduce(0L, sum));
+        assertEquals(expected.size(), map.count(new ObjectLongPredicate<String>() {
+            @Override
+            public boolean test(final String key, final long val) {
+                return true;
+            }
+        }));
+        assertEquals(new SmartHashMap<String, Long>(expected), map.toSmartMap());
+    }
+
+    @Test
+    public void testFilter() {
+        smartMap.filter(isEven);
+        assertEquals(2, smartMap.size());
+        assertEquals(2L, smartMap.get("Sam"));
+        assertEquals(BIG + 4, smartMap.get("Pippin"));
+
+        SmartObjectLongMap<Integer> numbers = new SmartObjectLongMap<Integer>();
+        for (int i = 0; i < 1000; i++) {
+            numbers.put(i, i);
+        }
+        numbers.remove(new ObjectLongPredicate<Integer>() {
+            @Override
+            public boolean test(final Integer key, final long val) {
+                return val % 3 != 0;
+            }
+        });
+
+        assertEquals(334, numbers.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i % 3 == 0, numbers.containsKey(i));
+        }
+    }
+
+    @Test
+    public void testQueries() {
+        assertEquals(2, smartMap.count(isEven));
+        assertTrue(smartMap.exists(isEven));
+        assertFalse(smartMap.forall(isEven));
+        assertEquals(2 * BIG + 10, smartMap.reduce(0L, sum));
+        assertEquals(BIG + 3, smartMap.find(new ObjectLongPredicate<String>() {
+            @Override
+            public boolean test(final String key, final long val) {
+                return key.startsWith("M");
+            }
+        }));
+    }
+
+    @Test(expected=NoSuchElementException.class)
+    public void testFindFail() {
+        smartMap.find(new ObjectLongPredicate<String>() {
+            @Override
+            public boolean test(final String key, final long val) {
+                return val > 10 * BIG;
+            }
+        });
+    }
+
+    @Test
+    public void testJoin() {
+        SmartObjectLongMap<String> single = new SmartObjectLongMap<String>();
+        single.put("Sam", BIG);
+        single.put("Frodo", 1L);
+        String joined = single.join(", ", ":");
+        assertTrue(joined.equals("Sam:3000000000, Frodo:1") || joined.equals("Frodo:1, Sam:3000000000"));
+        assertEquals("", new SmartObjectLongMap<String>().join(", ", ":"));
+    }
+
+    @Test
+    public void testEquals() {
+        SmartObjectLongMap<String> other = new SmartObjectLongMap<String>(100);
+        other.put("Pippin", BIG + 4);
+        other.put("Merry", BIG + 3);
+        other.put("Sam", 2L);
+        other.put("Frodo", 1L);
+
+        assertEquals(smartMap, other);
+        assertEquals(smartMap.hashCode(), other.hashCode());
+        assertEquals(smartMap.toSmartMap().hashCode(), smartMap.hashCode());
+
+        other.put("Frodo", 1L + (1L << 32));
+        assertFalse(smartMap.equals(other));
+    }
+}
@@ -16,6 +16,7 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -36,6 +37,12 @@ public class SmartQueueTest {
 
     /** Test SmartCollection methods */
 
+    @Test
+    public void testStream() {
+        assertTrue(smartQueue1.spliterator().hasCharacteristics(Spliterator.ORDERED | Spliterator.SIZED));
+        assertEquals(197, smartQueue1.parallelStream().mapToInt(Integer::intValue).sum());
+    }
+
     @Test
     public void testFind() {
         int value1 = smartQueue1.find(new Predicate<Integer>() {
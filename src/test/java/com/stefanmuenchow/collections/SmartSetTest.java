@@ -15,7 +15,15 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.SortedSet;
+import java.util.Spliterator;
+import java.util.TreeSet;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -90,6 +98,19 @@ public class SmartSetTest {
         assertEquals(new SmartHashSet<Integer>(56), smartSet2);
     }
 
+    @Test
+    public void testFilterTreeSet() {
+        SmartSet<Integer> treeSet = new SmartTreeSet<Integer>(87, 13, 11, 56, 85, 19);
+        treeSet.filter(new Predicate<Integer>() {
+            @Override
+            public boolean test(final Integer input) {
+                return input > 50;
+            }
+        });
+
+        assertEquals(new SmartTreeSet<Integer>(56, 85, 87), treeSet);
+    }
+
     @Test
     public void testReplace() {
         // Replace specific value
@@ -107,6 +128,19 @@ public class SmartSetTest {
         assertEquals(new SmartHashSet<Integer>(10, 13, 11, 56, 19), smartSet2);
     }
 
+    @Test
+    public void testReplaceMap() {
+        Map<Integer, Integer> replacements = new HashMap<Integer, Integer>();
+        replacements.put(87, 13);
+        replacements.put(13, 14);
+        replacements.put(11, 11);
+
+        SmartSet<Integer> treeSet = new SmartTreeSet<Integer>(87, 13, 11, 56);
+        treeSet.replace(replacements);
+
+        assertEquals(new SmartTreeSet<Integer>(11, 13, 14, 56), treeSet);
+    }
+
     @Test
     public void testReduce() {
         // Without initial value
@@ -260,6 +294,13 @@ public class SmartSetTest {
         assertArrayEquals(firstArray, secondArray);
     }
 
+    @Test
+    public void testSpliterator() {
+        assertTrue(smartSet1.spliterator().hasCharacteristics(Spliterator.DISTINCT | Spliterator.SIZED));
+        assertTrue(new SmartTreeSet<Integer>(3, 1, 2).spliterator().hasCharacteristics(Spliterator.SORTED));
+        assertEquals(188, smartSet1.parallelStream().mapToInt(Integer::intValue).sum());
+    }
+
     /** Test SmartSet methods */
 
     @Test
@@ -306,6 +347,23 @@ public class SmartSetTest {
         assertTrue(thirdSet.isProperSupersetOf(secondSet));
     }
 
+    @Test
+    public void testSortedSubsetChecks() {
+        SmartSortedSet<Integer> firstSet = new SmartTreeSet<Integer>(2,4,6);
+        SmartSortedSet<Integer> secondSet = new SmartTreeSet<Integer>(1,2,3,4,5,6);
+        SmartSortedSet<Integer> thirdSet = new SmartTreeSet<Integer>(2,4,7);
+
+        assertTrue(firstSet.isSubsetOf(secondSet));
+        assertTrue(firstSet.isProperSubsetOf(secondSet));
+        assertFalse(firstSet.isProperSubsetOf(new SmartTreeSet<Integer>(firstSet)));
+        assertFalse(thirdSet.isSubsetOf(secondSet));
+        assertTrue(secondSet.isSupersetOf(firstSet));
+        assertFalse(secondSet.isSupersetOf(thirdSet));
+        assertFalse(firstSet.isSupersetOf(secondSet));
+        assertTrue(secondSet.isSupersetOf(new SmartHashSet<Integer>(5,1)));
+        assertTrue(new SmartTreeSet<Integer>().isSubsetOf(firstSet));
+    }
+
     @Test
     public void testUnion() {
         SmartSet<Integer> firstSet = new SmartHashSet<Integer>(1,2,3);
@@ -332,4 +390,48 @@ public class SmartSetTest {
 
         assertEquals(new SmartHashSet<Integer>(1,2,3), firstSet);
     }
+
+    @Test
+    public void testSymmetricDifference() {
+        SmartSet<Integer> firstSet = new SmartHashSet<Integer>(1,2,3,4);
+        firstSet.symmetricDifference(new SmartHashSet<Integer>(3,4,5));
+
+        assertEquals(new SmartHashSet<Integer>(1,2,5), firstSet);
+    }
+
+    @Test
+    public void testSortedSetAlgebra() {
+        SmartSortedSet<Integer> firstSet = new SmartTreeSet<Integer>(1,3,5,7,9,11);
+        SmartSortedSet<Integer> secondSet = new SmartTreeSet<Integer>(0,3,4,9,12);
+
+        SmartSortedSet<Integer> testSet = new SmartTreeSet<Integer>(firstSet);
+        testSet.union(secondSet);
+        assertEquals(new SmartTreeSet<Integer>(0,1,3,4,5,7,9,11,12), testSet);
+
+        testSet = new SmartTreeSet<Integer>(firstSet);
+        testSet.intersection(secondSet);
+        assertEquals(new SmartTreeSet<Integer>(3,9), testSet);
+
+        testSet = new SmartTreeSet<Integer>(firstSet);
+        testSet.difference(secondSet);
+        assertEquals(new SmartTreeSet<Integer>(1,5,7,11), testSet);
+
+        testSet = new SmartTreeSet<Integer>(firstSet);
+        testSet.symmetricDifference(secondSet);
+        assertEquals(new SmartTreeSet<Integer>(0,1,4,5,7,11,12), testSet);
+        assertEquals(Integer.valueOf(12), testSet.last());
+
+        testSet.intersection(new SmartHashSet<Integer>(4,5,6));
+        assertEquals(new SmartTreeSet<Integer>(4,5), testSet);
+    }
+
+    @Test
+    public void testSortedSetAlgebraComparator() {
+        SmartTreeSet<String> firstSet = new SmartTreeSet<String>("a", "c", "e");
+        SortedSet<String> secondSet = new TreeSet<String>(Collections.reverseOrder());
+        secondSet.addAll(Arrays.asList("b", "c", "d"));
+
+        firstSet.union(secondSet);
+        assertEquals(Arrays.asList("a", "b", "c", "d", "e"), new ArrayList<String>(firstSet));
+    }
 }
@@ -0,0 +1,222 @@
+/**
+ * Copyright (c) Stefan Muenchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.NoSuchElementException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.stefanmuenchow.collections.function.BinaryFunction;
+import com.stefanmuenchow.collections.function.Predicate;
+import com.stefanmuenchow.collections.function.UnaryFunction;
+
+public class SmartViewTest {
+    private SmartList<Integer> smartList = null;
+    private int calls = 0;
+
+    private final Predicate<Integer> isOdd = new Predicate<Integer>() {
+        @Override
+        public boolean test(final Integer input) {
+            return input % 2 == 1;
+        }
+    };
+
+    private final UnaryFunction<Integer, Integer> countingDouble = new UnaryFunction<Integer, Integer>() {
+        @Override
+        public Integer apply(final Integer input) {
+            calls++;
+            return input * 2;
+        }
+    };
+
+    @Before
+    public void setUp() throws Exception {
+        smartList = new SmartArrayList<Integer>(87, 13, 11, 56, 85, 19);
+        calls = 0;
+    }
+
+    @Test
+    public void testFilterMap() {
+        SmartView<Integer> view = smartList.view().filter(isOdd).map(countingDouble);
+        assertEquals(0, calls);
+
+        assertEquals(new SmartArrayList<Integer>(174, 26, 22, 170, 38), view.toSmartList());
+        assertEquals(5, calls);
+        assertEquals(new SmartArrayList<Integer>(87, 13, 11, 56, 85, 19), smartList);
+    }
+
+    @Test
+    public void testTake() {
+        assertEquals(new SmartArrayList<Integer>(174, 26),
+                smartList.view().map(countingDouble).take(2).toSmartList());
+        assertEquals(2, calls);
+        assertEquals(0, smartList.view().take(0).count());
+        assertEquals(6, smartList.view().take(10).count());
+    }
+
+    @Test
+    public void testTakeWhile() {
+        assertEquals(new SmartArrayList<Integer>(87, 13, 11),
+                smartList.view().takeWhile(isOdd).toSmartList());
+    }
+
+    @Test
+    public void testIntersperse() {
+        assertEquals("87|0|13|0|11", smartList.view().intersperse(0).take(5).join("|"));
+        assertEquals(11, smartList.view().intersperse(0).count());
+        assertEquals(0, new SmartArrayList<Integer>().view().intersperse(0).count());
+        assertEquals(new SmartArrayList<Integer>(87, 13, 11, 56, 85, 19), smartList);
+    }
+
+    @Test
+    public void testFlatten() {
+        @SuppressWarnings("unchecked")
+        SmartList<SmartList<Integer>> deepList = new SmartArrayList<SmartList<Integer>>(
+                new SmartArrayList<Integer>(5, 3),
+                new SmartArrayList<Integer>(),
+                new SmartArrayList<Integer>(1, 2, 3));
+
+        assertEquals(new SmartArrayList<Object>(5, 3, 1, 2, 3), deepList.view().flatten().toSmartList());
+        assertEquals(new SmartArrayList<Object>(5, 3, 1), deepList.view().flatten().take(3).toSmartList());
+    }
+
+    @Test
+    public void testReduce() {
+        BinaryFunction<Integer, Integer> sum = new BinaryFunction<Integer, Integer>() {
+            @Override
+            public Integer apply(final Integer input1, final Integer input2) {
+                return input1 + input2;
+            }
+        };
+
+        assertEquals(Integer.valueOf(215), smartList.view().filter(isOdd).reduce(sum));
+        assertEquals(Integer.valueOf(1215), smartList.view().filter(isOdd).reduce(1000, sum));
+        assertEquals(null, new SmartArrayList<Integer>().view().reduce(sum));
+    }
+
+    @Test
+    public void testCount() {
+        assertEquals(6, smartList.view().count());
+        assertEquals(5, smartList.view().count(isOdd));
+    }
+
+    @Test
+    public void testExists() {
+        assertTrue(smartList.view().map(countingDouble).exists(new Predicate<Integer>() {
+            @Override
+            public boolean test(final Integer input) {
+                return input == 26;
+            }
+        }));
+        assertEquals(2, calls);
+
+        assertFalse(smartList.view().filter(isOdd).exists(new Predicate<Integer>() {
+            @Override
+            public boolean test(final Integer input) {
+                return input == 56;
+            }
+        }));
+    }
+
+    @Test
+    public void testForall() {
+        assertTrue(smartList.view().filter(isOdd).forall(isOdd));
+        assertFalse(smartList.view().map(countingDouble).forall(isOdd));
+        assertEquals(1, calls);
+    }
+
+    @Test
+    public void testExistsAndForallAfterShortCircuit() {
+        SmartList<Integer> list = new SmartArrayList<Integer>(1, 2, 7);
+        Predicate<Integer> never = new Predicate<Integer>() {
+            @Override
+            public boolean test(final Integer input) {
+                return false;
+            }
+        };
+        Predicate<Integer> lessThanFive = new Predicate<Integer>() {
+            @Override
+            public boolean test(final Integer input) {
+                return input < 5;
+            }
+        };
+        Predicate<Integer> lessThanTen = new Predicate<Integer>() {
+            @Override
+            public boolean test(final Integer input) {
+                return input < 10;
+            }
+        };
+        Predicate<Integer> greaterThanHundred = new Predicate<Integer>() {
+            @Override
+            public boolean test(final Integer input) {
+                return input > 100;
+            }
+        };
+
+        assertFalse(list.view().take(2).exists(never));
+        assertTrue(list.view().take(2).forall(lessThanFive));
+        assertTrue(list.view().take(2).exists(isOdd));
+        assertFalse(list.view().takeWhile(lessThanFive).exists(greaterThanHundred));
+        assertTrue(list.view().takeWhile(lessThanFive).forall(lessThanTen));
+        assertFalse(list.view().takeWhile(lessThanFive).forall(isOdd));
+    }
+
+    @Test
+    public void testExistsAndForallOnIndexLookup() {
+        SmartIndexedList<Integer> list = new SmartIndexedList<Integer>(1, 2, 7, 9);
+        list.addSortedIndex("value", new UnaryFunction<Integer, Integer>() {
+            @Override
+            public Integer apply(final Integer input) {
+                return input;
+            }
+        });
+
+        assertTrue(list.range("value", 0, 8).take(1).forall(isOdd));
+        assertFalse(list.range("value", 0, 8).take(1).exists(new Predicate<Integer>() {
+            @Override
+            public boolean test(final Integer input) {
+                return input == 9;
+            }
+        }));
+    }
+
+    @Test
+    public void testFind() {
+        assertEquals(Integer.valueOf(112), smartList.view().map(countingDouble).find(new Predicate<Integer>() {
+            @Override
+            public boolean test(final Integer input) {
+                return input > 100 && input < 150;
+            }
+        }));
+        assertEquals(4, calls);
+    }
+
+    @Test(expected=NoSuchElementException.class)
+    public void testFindFail() {
+        smartList.view().find(new Predicate<Integer>() {
+            @Override
+            public boolean test(final Integer input) {
+                return input == 66;
+            }
+        });
+    }
+
+    @Test
+    public void testJoin() {
+        assertEquals("87|13|11", smartList.view().take(3).join("|"));
+        assertEquals("", smartList.view().take(0).join("|"));
+    }
+}
@@ -0,0 +1,284 @@
+/**
+ * Copyright (c) Stefan Muenchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections.immutable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.stefanmuenchow.collections.KeyValuePair;
+import com.stefanmuenchow.collections.SmartHashMap;
+import com.stefanmuenchow.collections.SmartMap;
+import com.stefanmuenchow.collections.function.BinaryFunction;
+import com.stefanmuenchow.collections.function.MapPredicate;
+import com.stefanmuenchow.collections.function.UnaryFunction;
+
+public class ImmutableHashMapTest {
+    private ImmutableHashMap<String, Integer> map = null;
+
+    private final MapPredicate<Integer, Integer> isEvenKey = new MapPredicate<Integer, Integer>() {
+        @Override
+        public boolean test(final Integer key, final Integer val) {
+            return key % 2 == 0;
+        }
+    };
+
+    private final BinaryFunction<Integer, Integer> sum = new BinaryFunction<Integer, Integer>() {
+        @Override
+        public Integer apply(final Integer input1, final Integer input2) {
+            return input1 + input2;
+        }
+    };
+
+    /**
+     * Key with a hash code shared by all keys of the same group.
+     */
+    private static final class CollidingKey {
+        private final int group;
+        private final int id;
+
+        CollidingKey(final int group, final int id) {
+            this.group = group;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            return obj instanceof CollidingKey && ((CollidingKey) obj).group == group
+                    && ((CollidingKey) obj).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return group;
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        map = new ImmutableHashMap<String, Integer>().put("a", 1).put("b", 2).put("c", 3);
+    }
+
+    private static ImmutableHashMap<Integer, Integer> range(final int from, final int to) {
+        Map<Integer, Integer> entries = new HashMap<Integer, Integer>();
+        for (int i = from; i < to; i++) {
+            entries.put(i, i * 10);
+        }
+
+        return new ImmutableHashMap<Integer, Integer>(entries);
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        ImmutableHashMap<String, Integer> changed = map.put("d", 4).remove("a");
+        assertEquals(3, map.size());
+        assertEquals(Integer.valueOf(1), map.get("a"));
+        assertEquals(3, changed.size());
+        assertFalse(changed.containsKey("a"));
+        assertEquals(Integer.valueOf(4), changed.get("d"));
+        assertSame(map, map.put("a", map.get("a")));
+        assertSame(map, map.remove("z"));
+        assertTrue(map.remove("a").remove("b").remove("c").isEmpty());
+        assertEquals(Integer.valueOf(7), map.put(null, 7).get(null));
+        assertEquals(Integer.valueOf(9), map.get("z", 9));
+    }
+
+    @Test
+    public void testRandomOperations() {
+        Random random = new Random(42);
+        Map<Integer, Integer> expected = new HashMap<Integer, Integer>();
+        ImmutableHashMap<Integer, Integer> actual = new ImmutableHashMap<Integer, Integer>();
+
+        for (int i = 0; i < 20000; i++) {
+            Integer key = random.nextInt(2000) * (random.nextBoolean() ? 1 : -65536);
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                actual = actual.remove(key);
+            } else {
+                expected.put(key, i);
+                actual = actual.put(key, i);
+            }
+        }
+
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected.entrySet(), actual.entrySet());
+        assertEquals(new ImmutableHashMap<Integer, Integer>(expected), actual);
+        assertEquals(expected.hashCode(), actual.hashCode());
+    }
+
+    @Test
+    public void testCollisions() {
+        ImmutableHashMap<CollidingKey, Integer> collisions = new ImmutableHashMap<CollidingKey, Integer>();
+        for (int i = 0; i < 10; i++) {
+            collisions = collisions.put(new CollidingKey(i % 2, i), i);
+        }
+
+        assertEquals(10, collisions.size());
+        assertEquals(Integer.valueOf(7), collisions.get(new CollidingKey(1, 7)));
+        assertNull(collisions.get(new CollidingKey(0, 7)));
+
+        ImmutableHashMap<CollidingKey, Integer> removed = collisions;
+        for (int i = 0; i < 9; i++) {
+            removed = removed.remove(new CollidingKey(i % 2, i));
+        }
+        assertEquals(1, removed.size());
+        assertEquals(Integer.valueOf(9), removed.get(new CollidingKey(1, 9)));
+        assertEquals(Integer.valueOf(9), removed.head().getValue());
+
+        assertEquals(5, collisions.filter(new MapPredicate<CollidingKey, Integer>() {
+            @Override
+            public boolean test(final CollidingKey key, final Integer val) {
+                return key.group == 0;
+            }
+        }).size());
+    }
+
+    @Test
+    public void testFilter() {
+        ImmutableHashMap<Integer, Integer> numbers = range(0, 1000);
+        ImmutableHashMap<Integer, Integer> even = numbers.filter(isEvenKey);
+        ImmutableHashMap<Integer, Integer> odd = numbers.remove(isEvenKey);
+
+        assertEquals(500, even.size());
+        assertEquals(500, odd.size());
+        assertTrue(even.forall(isEvenKey));
+        assertFalse(odd.exists(isEvenKey));
+        assertEquals(numbers, even.mergeWith(odd, sum));
+        assertSame(even, even.filter(isEvenKey));
+        assertEquals(range(0, 1), range(0, 1000).filter(new MapPredicate<Integer, Integer>() {
+            @Override
+            public boolean test(final Integer key, final Integer val) {
+                return key == 0;
+            }
+        }));
+    }
+
+    @Test
+    public void testMergeWith() {
+        ImmutableHashMap<Integer, Integer> left = range(0, 600);
+        ImmutableHashMap<Integer, Integer> right = range(400, 1000);
+        ImmutableHashMap<Integer, Integer> merged = left.mergeWith(right, sum);
+
+        assertEquals(1000, merged.size());
+        assertEquals(Integer.valueOf(10), merged.get(1));
+        assertEquals(Integer.valueOf(9000), merged.get(450));
+        assertEquals(Integer.valueOf(9990), merged.get(999));
+
+        SmartMap<Integer, Integer> smartRight = new SmartHashMap<Integer, Integer>();
+        for (Map.Entry<Integer, Integer> entry : right.entrySet()) {
+            smartRight.put(entry.getKey(), entry.getValue());
+        }
+        assertEquals(merged, left.mergeWith(smartRight, sum));
+        assertSame(left, left.mergeWith(new ImmutableHashMap<Integer, Integer>(), sum));
+    }
+
+    @Test
+    public void testMap() {
+        ImmutableHashMap<Integer, Integer> numbers = range(0, 100);
+        ImmutableHashMap<Integer, Integer> mapped = numbers.map(
+                new UnaryFunction<KeyValuePair<Integer, Integer>, Map.Entry<Integer, Integer>>() {
+                    @Override
+                    public KeyValuePair<Integer, Integer> apply(final Map.Entry<Integer, Integer> input) {
+                        int key = input.getKey() < 50 ? input.getKey() : input.getKey() + 1000;
+                        return new KeyValuePair<Integer, Integer>(key, input.getValue() + 1);
+                    }
+                });
+
+        assertEquals(100, mapped.size());
+        assertEquals(Integer.valueOf(1), mapped.get(0));
+        assertEquals(Integer.valueOf(991), mapped.get(1099));
+        assertFalse(mapped.containsKey(99));
+    }
+
+    @Test
+    public void testHeadTail() {
+        Map.Entry<String, Integer> head = map.head();
+        ImmutableHashMap<String, Integer> tail = map.tail();
+        assertEquals(2, tail.size());
+        assertFalse(tail.containsKey(head.getKey()));
+        assertEquals(map, tail.put(head.getKey(), head.getValue()));
+    }
+
+    @Test(expected=NoSuchElementException.class)
+    public void testHeadFail() {
+        new ImmutableHashMap<String, Integer>().head();
+    }
+
+    @Test
+    public void testReplaceSwap() {
+        assertEquals(Integer.valueOf(5), map.replace("a", 1, "e", 5).get("e"));
+        assertSame(map, map.replace("a", 2, "e", 5));
+        assertTrue(map.isBijective());
+        assertEquals("b", map.swap().get(2));
+        assertFalse(map.put("d", 1).isBijective());
+    }
+
+    @Test
+    public void testReduceJoin() {
+        assertEquals(Integer.valueOf(6), map.reduce(0, new BinaryFunction<Integer, Map.Entry<String, Integer>>() {
+            @Override
+            public Integer apply(final Integer input1, final Map.Entry<String, Integer> input2) {
+                return input1 + input2.getValue();
+            }
+        }));
+        assertEquals("b:2", map.filter(new MapPredicate<String, Integer>() {
+            @Override
+            public boolean test(final String key, final Integer val) {
+                return val == 2;
+            }
+        }).join(",", ":"));
+        assertEquals("{}", new ImmutableHashMap<String, Integer>().toString());
+    }
+
+    @Test
+    public void testTransient() {
+        ImmutableHashMap<Integer, Integer> numbers = range(0, 1000);
+        ImmutableHashMap.Transient<Integer, Integer> builder = numbers.toTransient();
+        Map<Integer, Integer> expected = new HashMap<Integer, Integer>();
+        for (Map.Entry<Integer, Integer> entry : numbers.entrySet()) {
+            expected.put(entry.getKey(), entry.getValue());
+        }
+
+        Random random = new Random(3);
+        for (int i = 0; i < 20000; i++) {
+            Integer key = random.nextInt(3000) * (random.nextBoolean() ? 1 : -65536);
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                builder.remove(key);
+            } else {
+                expected.put(key, i);
+                builder.put(key, i);
+            }
+        }
+
+        ImmutableHashMap<Integer, Integer> frozen = builder.freeze();
+        assertEquals(expected.size(), frozen.size());
+        assertEquals(expected.entrySet(), frozen.entrySet());
+        assertEquals(range(0, 1000), numbers);
+    }
+
+    @Test(expected=IllegalStateException.class)
+    public void testTransientAfterFreeze() {
+        ImmutableHashMap.Transient<String, Integer> builder = map.toTransient();
+        builder.freeze();
+        builder.put("d", 4);
+    }
+}
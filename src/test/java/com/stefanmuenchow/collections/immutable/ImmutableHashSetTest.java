@@ -0,0 +1,169 @@
+/**
+ * Copyright (c) Stefan Muenchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections.immutable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.stefanmuenchow.collections.function.Predicate;
+import com.stefanmuenchow.collections.function.UnaryFunction;
+
+public class ImmutableHashSetTest {
+    private ImmutableHashSet<Integer> set = null;
+
+    private final Predicate<Integer> isEven = new Predicate<Integer>() {
+        @Override
+        public boolean test(final Integer input) {
+            return input % 2 == 0;
+        }
+    };
+
+    @Before
+    public void setUp() throws Exception {
+        set = new ImmutableHashSet<Integer>(87, 13, 11, 56, 85, 19);
+    }
+
+    private static ImmutableHashSet<Integer> range(final int from, final int to) {
+        Set<Integer> elems = new HashSet<Integer>();
+        for (int i = from; i < to; i++) {
+            elems.add(i);
+        }
+
+        return new ImmutableHashSet<Integer>(elems);
+    }
+
+    private static Set<Integer> toSet(final ImmutableHashSet<Integer> set) {
+        Set<Integer> result = new HashSet<Integer>();
+        for (Integer elem : set) {
+            result.add(elem);
+        }
+
+        return result;
+    }
+
+    @Test
+    public void testAddRemove() {
+        assertEquals(6, set.size());
+        assertTrue(set.contains(56));
+        assertSame(set, set.add(56));
+        assertSame(set, set.remove(99));
+        assertEquals(7, set.add(99).size());
+        assertFalse(set.remove(13).contains(13));
+        assertEquals(6, set.size());
+        assertTrue(set.add(null).contains(null));
+    }
+
+    @Test
+    public void testSetAlgebra() {
+        Random random = new Random(7);
+        for (int round = 0; round < 50; round++) {
+            Set<Integer> left = new HashSet<Integer>();
+            Set<Integer> right = new HashSet<Integer>();
+            for (int i = 0; i < 300; i++) {
+                left.add(random.nextInt(500) * (random.nextBoolean() ? 1 : 1 << 20));
+                right.add(random.nextInt(500) * (random.nextBoolean() ? 1 : 1 << 20));
+            }
+
+            ImmutableHashSet<Integer> a = new ImmutableHashSet<Integer>(left);
+            ImmutableHashSet<Integer> b = new ImmutableHashSet<Integer>(right);
+
+            Set<Integer> union = new HashSet<Integer>(left);
+            union.addAll(right);
+            Set<Integer> intersection = new HashSet<Integer>(left);
+            intersection.retainAll(right);
+            Set<Integer> difference = new HashSet<Integer>(left);
+            difference.removeAll(right);
+
+            assertEquals(union, toSet(a.union(b)));
+            assertEquals(union.size(), a.union(b).size());
+            assertEquals(intersection, toSet(a.intersection(b)));
+            assertEquals(intersection.size(), a.intersection(b).size());
+            assertEquals(difference, toSet(a.difference(b)));
+            assertEquals(difference.size(), a.difference(b).size());
+            assertEquals(a.union(b), a.union(right));
+            assertEquals(a.intersection(b), a.intersection(right));
+            assertEquals(a.difference(b), a.difference(right));
+            assertTrue(a.intersection(b).isSubsetOf(b));
+            assertTrue(a.union(b).isSupersetOf(a));
+            assertEquals(left.containsAll(right), a.isSupersetOf(b));
+        }
+    }
+
+    @Test
+    public void testSharedSubtrees() {
+        ImmutableHashSet<Integer> numbers = range(0, 10000);
+        ImmutableHashSet<Integer> changed = numbers.add(-1);
+
+        assertSame(numbers, numbers.union(numbers));
+        assertSame(numbers, numbers.intersection(numbers));
+        assertTrue(numbers.difference(numbers).isEmpty());
+        assertSame(numbers, numbers.union(new ImmutableHashSet<Integer>()));
+        assertTrue(numbers.isProperSubsetOf(changed));
+        assertFalse(changed.isSubsetOf(numbers));
+        assertEquals(numbers, changed.intersection(numbers));
+        assertEquals(new ImmutableHashSet<Integer>(-1), changed.difference(numbers));
+    }
+
+    @Test
+    public void testFilter() {
+        ImmutableHashSet<Integer> numbers = range(0, 1000);
+        assertEquals(500, numbers.filter(isEven).size());
+        assertEquals(500, numbers.remove(isEven).size());
+        assertEquals(numbers, numbers.filter(isEven).union(numbers.remove(isEven)));
+        assertEquals(new ImmutableHashSet<Integer>(56), set.filter(isEven));
+        assertEquals(new ImmutableHashSet<Integer>(87, 13, 11, 0, 85, 19), set.replace(isEven, 0));
+    }
+
+    @Test
+    public void testMap() {
+        assertEquals(new ImmutableHashSet<Integer>(1, 0), set.map(new UnaryFunction<Integer, Integer>() {
+            @Override
+            public Integer apply(final Integer input) {
+                return input % 2;
+            }
+        }));
+    }
+
+    @Test
+    public void testEquals() {
+        assertEquals(set, new ImmutableHashSet<Integer>(19, 85, 56, 11, 13, 87));
+        assertEquals(set.hashCode(), new ImmutableHashSet<Integer>(19, 85, 56, 11, 13, 87).hashCode());
+        assertFalse(set.equals(set.add(1)));
+    }
+
+    @Test
+    public void testTransient() {
+        ImmutableHashSet.Transient<Integer> builder = set.toTransient();
+        for (int i = 0; i < 10000; i++) {
+            builder.add(i);
+        }
+        for (int i = 0; i < 10000; i += 2) {
+            builder.remove(i);
+        }
+
+        ImmutableHashSet<Integer> frozen = builder.freeze();
+        assertEquals(5000, frozen.size());
+        assertTrue(frozen.contains(87));
+        assertFalse(frozen.contains(56));
+        assertEquals(6, set.size());
+        assertTrue(set.contains(56));
+        assertEquals(range(0, 10000).remove(isEven).union(set).remove(56), frozen);
+    }
+}
@@ -0,0 +1,166 @@
+/**
+ * Copyright (c) Stefan Muenchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections.immutable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.stefanmuenchow.collections.function.Predicate;
+
+public class ImmutableLinkedQueueTest {
+    private ImmutableLinkedQueue<Integer> queue = null;
+
+    @Before
+    public void setUp() throws Exception {
+        queue = new ImmutableLinkedQueue<Integer>(87, 13, 11, 56, 85, 19);
+    }
+
+    private static List<Integer> toList(final ImmutableQueue<Integer> queue) {
+        List<Integer> result = new ArrayList<Integer>();
+        for (Integer elem : queue) {
+            result.add(elem);
+        }
+
+        return result;
+    }
+
+    @Test
+    public void testOfferRemove() {
+        ImmutableLinkedQueue<Integer> changed = queue.offer(1).remove();
+        assertEquals(Integer.valueOf(87), queue.peek());
+        assertEquals(Integer.valueOf(13), changed.element());
+        assertEquals(6, changed.size());
+        assertEquals(new ImmutableLinkedQueue<Integer>(13, 11, 56, 85, 19, 1), changed);
+        assertEquals(new ImmutableLinkedQueue<Integer>(87, 13, 11, 56, 85, 19), queue);
+        assertNull(new ImmutableLinkedQueue<Integer>().peek());
+    }
+
+    @Test(expected=NoSuchElementException.class)
+    public void testRemoveFail() {
+        new ImmutableLinkedQueue<Integer>().offer(1).remove().remove();
+    }
+
+    @Test
+    public void testRandomOperations() {
+        Random random = new Random(5);
+        Deque<Integer> expected = new ArrayDeque<Integer>();
+        ImmutableLinkedQueue<Integer> actual = new ImmutableLinkedQueue<Integer>();
+
+        for (int i = 0; i < 10000; i++) {
+            if (random.nextInt(5) < 2 && !expected.isEmpty()) {
+                assertEquals(expected.poll(), actual.element());
+                actual = actual.remove();
+            } else {
+                expected.offer(i);
+                actual = actual.offer(i);
+            }
+            assertEquals(expected.size(), actual.size());
+        }
+
+        assertEquals(new ArrayList<Integer>(expected), toList(actual));
+    }
+
+    @Test
+    public void testPersistence() {
+        List<ImmutableLinkedQueue<Integer>> versions = new ArrayList<ImmutableLinkedQueue<Integer>>();
+        ImmutableLinkedQueue<Integer> current = new ImmutableLinkedQueue<Integer>();
+        for (int i = 0; i < 200; i++) {
+            versions.add(current);
+            current = i % 3 == 2 ? current.remove() : current.offer(i);
+        }
+
+        for (ImmutableLinkedQueue<Integer> version : versions) {
+            List<Integer> elems = toList(version);
+            ImmutableLinkedQueue<Integer> branch = version.offer(-1);
+            elems.add(-1);
+            for (Integer elem : elems) {
+                assertEquals(elem, branch.element());
+                branch = branch.remove();
+            }
+            assertEquals(0, branch.size());
+        }
+    }
+
+    @Test
+    public void testLargeQueue() {
+        ImmutableLinkedQueue<Integer> large = new ImmutableLinkedQueue<Integer>();
+        for (int i = 0; i < 1000000; i++) {
+            large = large.offer(i);
+        }
+
+        int expected = 0;
+        for (Integer elem : large) {
+            assertEquals(expected++, elem.intValue());
+        }
+        assertEquals(1000000, expected);
+    }
+
+    @Test
+    public void testFilter() {
+        Predicate<Integer> isOdd = new Predicate<Integer>() {
+            @Override
+            public boolean test(final Integer input) {
+                return input % 2 == 1;
+            }
+        };
+
+        assertEquals(new ImmutableLinkedQueue<Integer>(87, 13, 11, 85, 19), queue.filter(isOdd));
+        assertEquals(new ImmutableLinkedQueue<Integer>(56), queue.remove(isOdd));
+        assertSame(queue, queue.remove(Integer.valueOf(99)));
+        assertEquals(new ImmutableLinkedQueue<Integer>(87, 13, 56, 85, 19), queue.remove(Integer.valueOf(11)));
+    }
+
+    @Test
+    public void testIteratorOverRear() {
+        ImmutableLinkedQueue<Integer> current = new ImmutableLinkedQueue<Integer>();
+        for (int i = 0; i < 100; i++) {
+            current = current.offer(i);
+
+            Iterator<Integer> first = current.iterator();
+            Iterator<Integer> second = current.iterator();
+            for (int j = 0; j <= i; j++) {
+                assertEquals(j, first.next().intValue());
+            }
+            assertFalse(first.hasNext());
+            assertEquals(0, second.next().intValue());
+            assertEquals(toList(current), toList(current));
+        }
+    }
+
+    @Test(expected=NoSuchElementException.class)
+    public void testIteratorFail() {
+        Iterator<Integer> it = queue.iterator();
+        for (int i = 0; i <= queue.size(); i++) {
+            it.next();
+        }
+    }
+
+    @Test
+    public void testFlatten() {
+        ImmutableLinkedQueue<Object> nested = new ImmutableLinkedQueue<Object>(1,
+                Arrays.asList(2, Arrays.asList(3, 4)), new ImmutableLinkedQueue<Integer>(87, 13), 5);
+        assertEquals(new ImmutableLinkedQueue<Object>(1, 2, 3, 4, 87, 13, 5), nested.flatten());
+    }
+}
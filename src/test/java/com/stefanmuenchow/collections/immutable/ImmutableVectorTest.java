@@ -0,0 +1,270 @@
+/**
+ * Copyright (c) Stefan Muenchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections.immutable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.stefanmuenchow.collections.SmartArrayList;
+import com.stefanmuenchow.collections.function.Predicate;
+import com.stefanmuenchow.collections.function.UnaryFunction;
+
+public class ImmutableVectorTest {
+    private ImmutableVector<Integer> vector = null;
+
+    @Before
+    public void setUp() throws Exception {
+        vector = new ImmutableVector<Integer>(87, 13, 11, 56, 85, 19);
+    }
+
+    private static ImmutableVector<Integer> range(final int from, final int to) {
+        List<Integer> elems = new ArrayList<Integer>();
+        for (int i = from; i < to; i++) {
+            elems.add(i);
+        }
+
+        return new ImmutableVector<Integer>(elems);
+    }
+
+    private static void assertContent(final List<Integer> expected, final ImmutableVector<Integer> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), actual.get(i));
+        }
+
+        int i = 0;
+        for (Integer elem : actual) {
+            assertEquals(expected.get(i++), elem);
+        }
+    }
+
+    @Test
+    public void testAddKeepsVersions() {
+        ImmutableVector<Integer> empty = new ImmutableVector<Integer>();
+        ImmutableVector<Integer> current = empty;
+        List<ImmutableVector<Integer>> versions = new ArrayList<ImmutableVector<Integer>>();
+        for (int i = 0; i < 5000; i++) {
+            versions.add(current);
+            current = current.add(i);
+        }
+
+        assertEquals(5000, current.size());
+        for (int i = 0; i < 5000; i += 97) {
+            assertEquals(i, versions.get(i).size());
+            assertEquals(Integer.valueOf(i), current.get(i));
+        }
+        assertEquals(0, empty.size());
+    }
+
+    @Test
+    public void testSet() {
+        ImmutableVector<Integer> big = range(0, 3000);
+        ImmutableVector<Integer> changed = big.set(1234, -1).set(2999, -2);
+
+        assertEquals(Integer.valueOf(1234), big.get(1234));
+        assertEquals(Integer.valueOf(-1), changed.get(1234));
+        assertEquals(Integer.valueOf(-2), changed.last());
+        assertEquals(Integer.valueOf(1235), changed.get(1235));
+    }
+
+    @Test(expected=IndexOutOfBoundsException.class)
+    public void testGetOutOfBounds() {
+        vector.get(6);
+    }
+
+    @Test
+    public void testSlices() {
+        ImmutableVector<Integer> big = range(0, 100000);
+
+        assertEquals(range(0, 40000), big.take(40000));
+        assertEquals(range(40000, 100000), big.drop(40000));
+        assertEquals(range(33, 70001), big.subList(33, 70001));
+        assertEquals(range(99990, 100000), big.drop(99990));
+        assertEquals(0, big.take(0).size());
+        assertSame(big, big.drop(0));
+        assertEquals(range(41000, 41010), big.drop(40000).take(2000).drop(1000).take(10));
+    }
+
+    @Test
+    public void testConcat() {
+        ImmutableVector<Integer> left = range(0, 70000).drop(5);
+        ImmutableVector<Integer> right = range(70000, 71234);
+
+        assertEquals(range(5, 71234), left.concat(right));
+        assertEquals(range(5, 71234), left.take(1000).concat(left.drop(1000)).concat(right));
+        assertEquals(range(0, 20), range(0, 10).concat(range(10, 20)));
+    }
+
+    @Test
+    public void testConcatManySmallVectors() {
+        ImmutableVector<Integer> result = new ImmutableVector<Integer>();
+        Random random = new Random(7);
+        int next = 0;
+        while (next < 50000) {
+            int n = random.nextInt(40);
+            result = result.concat(range(next, next + n));
+            next += n;
+        }
+
+        assertEquals(range(0, next), result);
+        assertEquals(range(0, next).add(-1), result.add(-1));
+    }
+
+    @Test
+    public void testRandomOperations() {
+        Random random = new Random(42);
+        List<Integer> expected = new ArrayList<Integer>();
+        ImmutableVector<Integer> actual = new ImmutableVector<Integer>();
+
+        for (int step = 0; step < 400; step++) {
+            int op = random.nextInt(7);
+            int size = expected.size();
+            if (op == 0 || size == 0) {
+                int n = random.nextInt(2000);
+                for (int i = 0; i < n; i++) {
+                    expected.add(step * 10000 + i);
+                }
+                actual = actual.concat(range(step * 10000, step * 10000 + n));
+            } else if (op == 1) {
+                int index = random.nextInt(size);
+                expected.set(index, -step);
+                actual = actual.set(index, -step);
+            } else if (op == 2) {
+                int n = random.nextInt(size + 1);
+                expected = new ArrayList<Integer>(expected.subList(0, n));
+                actual = actual.take(n);
+            } else if (op == 3) {
+                int n = random.nextInt(size + 1) / 4;
+                expected = new ArrayList<Integer>(expected.subList(n, size));
+                actual = actual.drop(n);
+            } else if (op == 4) {
+                int index = random.nextInt(size + 1);
+                expected.add(index, step);
+                actual = actual.add(index, step);
+            } else if (op == 5) {
+                int index = random.nextInt(size);
+                expected.remove(index);
+                actual = actual.remove(index);
+            } else {
+                for (int i = 0; i < 100; i++) {
+                    expected.add(i);
+                    actual = actual.add(i);
+                }
+            }
+
+            assertContent(expected, actual);
+        }
+    }
+
+    @Test
+    public void testListIterator() {
+        ImmutableVector<Integer> big = range(0, 1000);
+        ListIterator<Integer> it = big.listIterator(1000);
+        int expected = 999;
+        while (it.hasPrevious()) {
+            assertEquals(Integer.valueOf(expected--), it.previous());
+        }
+
+        assertEquals(-1, expected);
+        assertEquals(999, big.lastIndexOf(999));
+        assertEquals(500, big.indexOf(500));
+        assertEquals(-1, big.indexOf(1000));
+    }
+
+    @Test
+    public void testHeadTailLast() {
+        assertEquals(Integer.valueOf(87), vector.head());
+        assertEquals(new ImmutableVector<Integer>(13, 11, 56, 85, 19), vector.tail());
+        assertEquals(Integer.valueOf(19), vector.last());
+    }
+
+    @Test(expected=NoSuchElementException.class)
+    public void testHeadFail() {
+        new ImmutableVector<Integer>().head();
+    }
+
+    @Test
+    public void testFilterMap() {
+        Predicate<Integer> isOdd = new Predicate<Integer>() {
+            @Override
+            public boolean test(final Integer input) {
+                return input % 2 == 1;
+            }
+        };
+
+        assertEquals(new ImmutableVector<Integer>(87, 13, 11, 85, 19), vector.filter(isOdd));
+        assertEquals(new ImmutableVector<Integer>(56), vector.remove(isOdd));
+        assertEquals(new ImmutableVector<Integer>(87, 13, 11), vector.takeWhile(isOdd));
+        assertEquals(new ImmutableVector<Integer>(56, 85, 19), vector.dropWhile(isOdd));
+        assertEquals(new ImmutableVector<Integer>(174, 26, 22, 112, 170, 38),
+                vector.map(new UnaryFunction<Integer, Integer>() {
+                    @Override
+                    public Integer apply(final Integer input) {
+                        return input * 2;
+                    }
+                }));
+        assertEquals(new ImmutableVector<Integer>(87, 13, 11, 56, 85, 19), vector);
+    }
+
+    @Test
+    public void testListOperations() {
+        assertEquals(new ImmutableVector<Integer>(19, 85, 56, 11, 13, 87), vector.reverse());
+        assertEquals(new ImmutableVector<Integer>(1, 0, 2, 0, 3), new ImmutableVector<Integer>(1, 2, 3).intersperse(0));
+        assertEquals(new ImmutableVector<Integer>(1, 2, 3),
+                new ImmutableVector<Integer>(1, 2, 1, 3, 2).removeDuplicates());
+        assertEquals(new ImmutableVector<Integer>(0, 1, 2, 3, 4, 5), vector.getIndicesList());
+        assertEquals(new ImmutableVector<Integer>(87, 11, 56, 85, 19), vector.remove(Integer.valueOf(13)));
+        assertEquals(new ImmutableVector<Integer>(87, 1, 2, 13, 11, 56, 85, 19),
+                vector.addAll(1, new SmartArrayList<Integer>(1, 2)));
+        assertEquals(new ImmutableVector<Object>(1, 2, 3, 4),
+                new ImmutableVector<Object>(1, new SmartArrayList<Integer>(2, 3), new ImmutableVector<Integer>(4))
+                        .flatten());
+        assertEquals(2, new ImmutableVector<Integer>(1, null, 2).sizeWithoutNulls());
+        assertEquals("87|13|11|56|85|19", vector.join("|"));
+        assertEquals("[87, 13, 11, 56, 85, 19]", vector.toString());
+    }
+
+    @Test
+    public void testTransient() {
+        ImmutableVector<Integer> numbers = range(0, 5000);
+        ImmutableVector.Transient<Integer> builder = numbers.toTransient();
+        for (int i = 5000; i < 10000; i++) {
+            builder.add(i);
+        }
+        for (int i = 0; i < 10000; i += 3) {
+            builder.set(i, -i);
+        }
+        assertEquals(Integer.valueOf(-3), builder.get(3));
+
+        ImmutableVector<Integer> frozen = builder.freeze();
+        assertEquals(10000, frozen.size());
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(i % 3 == 0 ? -i : i, frozen.get(i).intValue());
+        }
+        assertEquals(range(0, 5000), numbers);
+    }
+
+    @Test(expected=IllegalStateException.class)
+    public void testTransientAfterFreeze() {
+        ImmutableVector.Transient<Integer> builder = vector.toTransient();
+        builder.freeze();
+        builder.add(1);
+    }
+}